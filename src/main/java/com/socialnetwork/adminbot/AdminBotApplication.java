@@ -2,8 +2,10 @@ package com.socialnetwork.adminbot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 //@EnableDiscoveryClient
 public class AdminBotApplication {
 
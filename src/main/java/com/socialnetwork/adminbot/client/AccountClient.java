@@ -1,12 +1,15 @@
 package com.socialnetwork.adminbot.client;
 
+import com.socialnetwork.adminbot.config.AccountClientConfig;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.dto.PageAccountDto;
 import com.socialnetwork.adminbot.exception.ServiceException;
 import com.socialnetwork.adminbot.exception.UserNotFoundException;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
@@ -15,25 +18,257 @@ import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * HTTP клиент для взаимодействия с mc-account через internal API
+ * <p>
+ * Каждый вызов есть в двух вариантах. {@code *Async} выполняет запрос на отдельном
+ * ограниченном пуле и возвращает {@link CompletableFuture} со сроком ответа: обработчик
+ * может запустить несколько запросов сразу и не держать свой поток. Синхронные методы -
+ * обёртки над асинхронными, ошибки пробрасываются как раньше
+ * ({@link UserNotFoundException}, {@link ServiceException}).
+ * <p>
+ * Одинаковые одновременные запросы аккаунта по ID и поиска по email (single-flight)
+ * объединяются: пока запрос выполняется, остальные вызовы с тем же ключом получают его
+ * результат или исключение, а в mc-account уходит один запрос. Срок ответа у каждого
+ * вызова свой. Объединённые вызовы считает {@code account.client.coalesced{operation}}.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AccountClient {
 
     private final RestTemplate restTemplate;
+    private final String accountServiceUrl;
+    private final Duration defaultDeadline;
+    private final Executor executor;
+    private final ConcurrentMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedLookups;
+    private final Counter coalescedSearches;
+
+    @Autowired
+    public AccountClient(RestTemplate restTemplate, AccountClientConfig config, MeterRegistry meterRegistry) {
+        this(restTemplate, config, meterRegistry, newExecutor(config));
+    }
+
+    AccountClient(RestTemplate restTemplate, AccountClientConfig config, MeterRegistry meterRegistry,
+                  Executor executor) {
+        this.restTemplate = restTemplate;
+        this.accountServiceUrl = config.getUrl();
+        this.defaultDeadline = config.getDeadline();
+        this.executor = executor;
+        this.coalescedLookups = coalescedCounter(meterRegistry, "get_account");
+        this.coalescedSearches = coalescedCounter(meterRegistry, "search_by_email");
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("account.client.coalesced")
+                .description("Вызовы, обслуженные уже выполняющимся запросом к mc-account")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService newExecutor(AccountClientConfig config) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(config.getAsyncThreads(), config.getAsyncThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(config.getAsyncQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "account-client-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
-    @Value("${services.account.url}")
-    private String accountServiceUrl;
+    @PreDestroy
+    void stop() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
 
     /**
      * Получить аккаунт по ID
      */
     public AccountDto getAccountById(UUID userId) {
+        return await(getAccountByIdAsync(userId));
+    }
+
+    public CompletableFuture<AccountDto> getAccountByIdAsync(UUID userId) {
+        return getAccountByIdAsync(userId, defaultDeadline);
+    }
+
+    public CompletableFuture<AccountDto> getAccountByIdAsync(UUID userId, Duration deadline) {
+        return coalesce(new AccountKey(userId), () -> fetchAccountById(userId), coalescedLookups, deadline);
+    }
+
+    /**
+     * Заблокировать аккаунт
+     */
+    public void blockAccount(UUID userId) {
+        await(blockAccountAsync(userId));
+    }
+
+    public CompletableFuture<Void> blockAccountAsync(UUID userId) {
+        return blockAccountAsync(userId, defaultDeadline);
+    }
+
+    public CompletableFuture<Void> blockAccountAsync(UUID userId, Duration deadline) {
+        return call(() -> {
+            putBlock(userId);
+            return null;
+        }, deadline);
+    }
+
+    /**
+     * Разблокировать аккаунт
+     */
+    public void unblockAccount(UUID userId) {
+        await(unblockAccountAsync(userId));
+    }
+
+    public CompletableFuture<Void> unblockAccountAsync(UUID userId) {
+        return unblockAccountAsync(userId, defaultDeadline);
+    }
+
+    public CompletableFuture<Void> unblockAccountAsync(UUID userId, Duration deadline) {
+        return call(() -> {
+            deleteBlock(userId);
+            return null;
+        }, deadline);
+    }
+
+    /**
+     * Получить страницу аккаунтов с пагинацией
+     */
+    public PageAccountDto getAccountsPage(int page, int size, String sort) {
+        return await(getAccountsPageAsync(page, size, sort));
+    }
+
+    public CompletableFuture<PageAccountDto> getAccountsPageAsync(int page, int size, String sort) {
+        return getAccountsPageAsync(page, size, sort, defaultDeadline);
+    }
+
+    public CompletableFuture<PageAccountDto> getAccountsPageAsync(int page, int size, String sort, Duration deadline) {
+        return call(() -> fetchAccountsPage(page, size, sort), deadline);
+    }
+
+    /**
+     * Поиск аккаунтов по email с пагинацией
+     *
+     * @param email поисковый запрос (email или часть email)
+     * @param page номер страницы (начиная с 0)
+     * @param size размер страницы
+     * @return PageAccountDto с результатами поиска
+     */
+    public PageAccountDto searchAccountsByEmail(String email, int page, int size) {
+        return await(searchAccountsByEmailAsync(email, page, size));
+    }
+
+    public CompletableFuture<PageAccountDto> searchAccountsByEmailAsync(String email, int page, int size) {
+        return searchAccountsByEmailAsync(email, page, size, defaultDeadline);
+    }
+
+    public CompletableFuture<PageAccountDto> searchAccountsByEmailAsync(String email, int page, int size,
+                                                                        Duration deadline) {
+        return coalesce(new SearchKey(email, page, size), () -> fetchAccountsByEmail(email, page, size),
+                coalescedSearches, deadline);
+    }
+
+    /**
+     * Запустить вызов на пуле клиента. По истечении срока future завершается
+     * {@link ServiceException}; сам HTTP запрос ограничен таймаутом ответа RestTemplate.
+     */
+    private <T> CompletableFuture<T> call(Supplier<T> request, Duration deadline) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(request, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Account client queue is full, rejecting call");
+            return CompletableFuture.failedFuture(new ServiceException("Account service overloaded"));
+        }
+        return withDeadline(future, deadline);
+    }
+
+    /**
+     * Как {@link #call}, но одновременные вызовы с равным ключом разделяют один запрос.
+     * Запрос снимается с учёта до завершения, поэтому вызов после ответа идёт в mc-account заново.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(Object key, Supplier<T> request, Counter coalesced, Duration deadline) {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            log.debug("Joining in-flight account service call: {}", key);
+            // copy() - чтобы срок ответа одного вызова не завершал общий запрос
+            return withDeadline(existing.copy(), deadline);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    T result = request.get();
+                    inFlight.remove(key, flight);
+                    flight.complete(result);
+                } catch (Throwable e) {
+                    inFlight.remove(key, flight);
+                    flight.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Account client queue is full, rejecting call");
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(new ServiceException("Account service overloaded"));
+        }
+        return withDeadline(flight.copy(), deadline);
+    }
+
+    private static <T> CompletableFuture<T> withDeadline(CompletableFuture<T> future, Duration deadline) {
+        return future
+                .orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(translate(e, deadline)));
+    }
+
+    private static Throwable translate(Throwable error, Duration deadline) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (cause instanceof TimeoutException) {
+            log.error("Account service did not answer within {}", deadline);
+            return new ServiceException("Account service timeout");
+        }
+        return cause;
+    }
+
+    /**
+     * Дождаться результата и пробросить исключение вызова без обёртки CompletionException
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ServiceException("Account service call failed: " + e.getCause());
+        }
+    }
+
+    private AccountDto fetchAccountById(UUID userId) {
         try {
             String url = accountServiceUrl + "/" + userId;
             log.debug("Fetching account: GET {}", url);
@@ -64,10 +299,7 @@ public class AccountClient {
         }
     }
 
-    /**
-     * Заблокировать аккаунт
-     */
-    public void blockAccount(UUID userId) {
+    private void putBlock(UUID userId) {
         try {
             String url = accountServiceUrl + "/block/" + userId;
             log.info("Blocking account: PUT {}", url);
@@ -90,10 +322,7 @@ public class AccountClient {
         }
     }
 
-    /**
-     * Разблокировать аккаунт
-     */
-    public void unblockAccount(UUID userId) {
+    private void deleteBlock(UUID userId) {
         try {
             String url = accountServiceUrl + "/block/" + userId;
             log.info("Unblocking account: DELETE {}", url);
@@ -116,10 +345,7 @@ public class AccountClient {
         }
     }
 
-    /**
-     * Получить страницу аккаунтов с пагинацией
-     */
-    public PageAccountDto getAccountsPage(int page, int size, String sort) {
+    private PageAccountDto fetchAccountsPage(int page, int size, String sort) {
         try {
             UriComponentsBuilder builder = UriComponentsBuilder
                     .fromUriString(accountServiceUrl)
@@ -154,15 +380,7 @@ public class AccountClient {
         }
     }
 
-    /**
-     * Поиск аккаунтов по email с пагинацией
-     *
-     * @param email поисковый запрос (email или часть email)
-     * @param page номер страницы (начиная с 0)
-     * @param size размер страницы
-     * @return PageAccountDto с результатами поиска
-     */
-    public PageAccountDto searchAccountsByEmail(String email, int page, int size) {
+    private PageAccountDto fetchAccountsByEmail(String email, int page, int size) {
         try {
             UriComponentsBuilder builder = UriComponentsBuilder
                     .fromUriString(accountServiceUrl + "/search")
@@ -198,4 +416,9 @@ public class AccountClient {
         }
     }
 
+    private record AccountKey(UUID userId) {
+    }
+
+    private record SearchKey(String email, int page, int size) {
+    }
 }
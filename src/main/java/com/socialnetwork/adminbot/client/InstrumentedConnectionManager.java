@@ -0,0 +1,110 @@
+package com.socialnetwork.adminbot.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Менеджер соединений HttpClient с метриками пула.
+ * <p>
+ * Делегирует пулу и измеряет то, чего нет в гауджах пула: время ожидания соединения
+ * ({@code http.client.pool.lease}, с исходом {@code acquired} / {@code timeout}) и долю
+ * повторно используемых соединений - сколько выданных соединений пришлось открывать
+ * заново ({@code http.client.pool.leases} против {@code http.client.pool.connects}).
+ */
+public class InstrumentedConnectionManager implements HttpClientConnectionManager {
+
+    private final HttpClientConnectionManager delegate;
+    private final Timer acquiredTimer;
+    private final Timer timeoutTimer;
+    private final Counter leases;
+    private final Counter connects;
+
+    public InstrumentedConnectionManager(HttpClientConnectionManager delegate, MeterRegistry meterRegistry,
+                                         String client) {
+        this.delegate = delegate;
+        this.acquiredTimer = leaseTimer(meterRegistry, client, "acquired");
+        this.timeoutTimer = leaseTimer(meterRegistry, client, "timeout");
+        this.leases = Counter.builder("http.client.pool.leases")
+                .description("Соединения, выданные из пула")
+                .tag("client", client)
+                .register(meterRegistry);
+        this.connects = Counter.builder("http.client.pool.connects")
+                .description("Выданные соединения, которые пришлось открывать заново")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    private static Timer leaseTimer(MeterRegistry meterRegistry, String client, String outcome) {
+        return Timer.builder("http.client.pool.lease")
+                .description("Ожидание соединения из пула")
+                .tag("client", client)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    ConnectionEndpoint endpoint = request.get(timeout);
+                    acquiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    leases.increment();
+                    return endpoint;
+                } catch (TimeoutException e) {
+                    timeoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    throw e;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue timeout, HttpContext context) throws IOException {
+        connects.increment();
+        delegate.connect(endpoint, timeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
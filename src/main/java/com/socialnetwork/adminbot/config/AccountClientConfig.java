@@ -0,0 +1,110 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки клиента mc-account.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "services.account")
+@Data
+public class AccountClientConfig {
+
+    /**
+     * Базовый URL internal API аккаунтов
+     */
+    private String url;
+
+    /**
+     * Срок ответа на вызов по умолчанию; по истечении future завершается с ServiceException
+     */
+    private Duration deadline = Duration.ofSeconds(10);
+
+    /**
+     * Потоки для асинхронных вызовов: не больше стольких запросов к mc-account одновременно
+     */
+    private int asyncThreads = 16;
+
+    /**
+     * Очередь асинхронных вызовов; при переполнении вызов сразу завершается ошибкой
+     */
+    private int asyncQueueCapacity = 500;
+
+    /**
+     * Пул HTTP-соединений к mc-account
+     */
+    private Http http = new Http();
+
+    /**
+     * Кэш аккаунтов по ID
+     */
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Http {
+
+        /**
+         * Максимум соединений в пуле
+         */
+        private int maxTotal = 100;
+
+        /**
+         * Максимум соединений на один адрес (mc-account - один маршрут)
+         */
+        private int maxPerRoute = 50;
+
+        /**
+         * Сколько ждать свободного соединения из пула
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration responseTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Соединение, простоявшее дольше, проверяется перед повторным использованием
+         */
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+        /**
+         * Соединения без запросов дольше этого закрываются фоновой очисткой
+         */
+        private Duration idleEviction = Duration.ofSeconds(30);
+
+        /**
+         * Максимальный срок жизни соединения; просроченные закрываются фоновой очисткой
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        /**
+         * Keep-alive, если сервер не прислал заголовок Keep-Alive или прислал больший
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        /**
+         * Сколько аккаунтов хранится; при переполнении вытесняются редко читаемые
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * Срок жизни записи: изменения, сделанные не через бота, видны не позже
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * Сколько помнить, что аккаунта нет (UserNotFoundException)
+         */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,38 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки справочника администраторов в памяти и его синхронизации
+ * между экземплярами сервиса через Redis pub/sub.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "admin.directory")
+@Data
+public class AdminDirectoryConfig {
+
+    /**
+     * Период полной перезагрузки справочника из БД (страховка от потерянных событий)
+     */
+    private Duration resyncInterval = Duration.ofMinutes(5);
+
+    private Sync sync = new Sync();
+
+    @Data
+    public static class Sync {
+
+        /**
+         * Рассылать и принимать изменения администраторов через Redis
+         */
+        private boolean enabled = true;
+
+        /**
+         * Канал Redis pub/sub для событий изменения администраторов
+         */
+        private String channel = "admin-bot:admin-changes";
+    }
+}
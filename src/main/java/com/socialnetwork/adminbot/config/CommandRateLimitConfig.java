@@ -0,0 +1,57 @@
+package com.socialnetwork.adminbot.config;
+
+import com.socialnetwork.adminbot.entity.AdminRole;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Лимиты команд и callback'ов Telegram на одного администратора.
+ * <p>
+ * Ключ правила - имя команды без слеша ({@code search}), {@code cb:} и префикс callback data
+ * без ':' ({@code cb:search_page}) или {@code search_query} для поисковых запросов, введённых текстом.
+ * Действия без правила не ограничиваются.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit.commands")
+@Data
+public class CommandRateLimitConfig {
+
+    /**
+     * Включить лимиты команд
+     */
+    private boolean enabled = true;
+
+    /**
+     * Правила по действиям
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * Сколько действий доступно администратору за {@link #period}
+         */
+        private long capacity = 30;
+
+        /**
+         * Период пополнения лимита
+         */
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * Ёмкость для отдельных ролей вместо {@link #capacity}
+         */
+        private Map<AdminRole, Long> roles = new EnumMap<>(AdminRole.class);
+
+        public long capacityFor(AdminRole role) {
+            return roles.getOrDefault(role, capacity);
+        }
+    }
+}
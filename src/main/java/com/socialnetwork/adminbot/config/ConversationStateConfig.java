@@ -0,0 +1,135 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки хранения состояний диалогов.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "telegram.state")
+@Data
+public class ConversationStateConfig {
+
+    /**
+     * Хранилище состояний. MEMORY подходит только для одного экземпляра бота
+     * (и тестов): состояния не переживают перезапуск.
+     */
+    private Store store = Store.REDIS;
+
+    /**
+     * Формат записи состояния. Чтение всегда понимает оба формата,
+     * поэтому JSON нужен только пока в кластере есть экземпляры старой версии.
+     */
+    private Codec codec = Codec.BINARY;
+
+    /**
+     * Раскладка состояния в Redis. HASH позволяет менять отдельные поля данных
+     * (HSET/HINCRBY + PEXPIRE одним pipeline) без перезаписи всего состояния.
+     * Ключи раскладок не пересекаются: при переключении незавершённые диалоги сбрасываются.
+     */
+    private Layout layout = Layout.VALUE;
+
+    /**
+     * Не хранить пустое состояние IDLE: сброс диалога удаляет ключ вместо записи
+     * IDLE с TTL. Отсутствующий ключ и так читается как IDLE, поэтому режим
+     * совместим с экземплярами, которые IDLE ещё записывают.
+     */
+    private boolean idleAsAbsent = true;
+
+    /**
+     * Локальный near-cache состояний перед Redis
+     */
+    private NearCache nearCache = new NearCache();
+
+    private Memory memory = new Memory();
+
+    private Postgres postgres = new Postgres();
+
+    public enum Store {
+        REDIS,
+        MEMORY,
+        POSTGRES
+    }
+
+    public enum Codec {
+        JSON,
+        BINARY
+    }
+
+    public enum Layout {
+        /**
+         * Одно строковое значение в формате {@link #codec}
+         */
+        VALUE,
+        /**
+         * Redis hash: служебные поля и по полю на каждую запись данных
+         */
+        HASH
+    }
+
+    /**
+     * Near-cache: копии состояний в памяти процесса, которые Redis инвалидирует сам
+     * (client-side caching, CLIENT TRACKING BCAST по префиксу ключей через RESP3).
+     * Если Redis не поддерживает tracking, кэш не используется и чтения идут в Redis.
+     * Действует только для хранилища {@link Store#REDIS}.
+     */
+    @Data
+    public static class NearCache {
+
+        private boolean enabled = false;
+
+        /**
+         * Максимальное количество состояний в кэше
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * Страховочный срок жизни записи на случай потерянной инвалидации
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Хранилище в памяти процесса
+     */
+    @Data
+    public static class Memory {
+
+        /**
+         * Количество сегментов с отдельными блокировками (степень двойки)
+         */
+        private int stripes = 64;
+
+        /**
+         * Шаг колеса таймеров, удаляющего записи с истёкшим TTL
+         */
+        private Duration tick = Duration.ofSeconds(1);
+
+        /**
+         * Количество ячеек колеса таймеров (степень двойки)
+         */
+        private int wheelSize = 512;
+
+        /**
+         * Максимальное количество состояний (0 - без ограничения). При переполнении
+         * сегмента вытесняется запись с ближайшим истечением TTL.
+         */
+        private int maxEntries = 0;
+    }
+
+    /**
+     * Хранилище в UNLOGGED-таблице Postgres
+     */
+    @Data
+    public static class Postgres {
+
+        /**
+         * Период удаления строк с истёкшим TTL
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(1);
+    }
+}
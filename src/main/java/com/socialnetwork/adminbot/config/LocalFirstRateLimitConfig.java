@@ -0,0 +1,65 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки гибридного лимитера: токены выдаются из локально зарезервированной
+ * части (slice) bucket'а в Redis, резервирование и возврат - пачками.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit.local-first")
+@Data
+public class LocalFirstRateLimitConfig {
+
+    /**
+     * Выдавать токены из локальных slice'ов. Если выключено, каждый запрос - обращение к Redis.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Доля ёмкости bucket'а, резервируемая одним обращением к Redis
+     */
+    private double sliceFraction = 0.1;
+
+    /**
+     * Максимальный размер slice'а в токенах
+     */
+    private long maxSliceTokens = 100;
+
+    /**
+     * Сколько токенов на ключ экземпляр может выдать сверх зарезервированных,
+     * пока идёт асинхронное резервирование. Это граница превышения общего лимита
+     * одним экземпляром; лимиты, у которых slice - один токен, не превышаются никогда.
+     */
+    private long maxOvershoot = 2;
+
+    /**
+     * Через сколько без запросов неиспользованные токены slice'а возвращаются в Redis
+     */
+    private Duration idleTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Период проверки простаивающих slice'ов
+     */
+    private Duration returnInterval = Duration.ofSeconds(1);
+
+    /**
+     * Максимальное количество slice'ов в памяти. При превышении давно не использованные
+     * slice'ы закрываются и их токены возвращаются в Redis.
+     */
+    private long maxSlices = 10_000;
+
+    /**
+     * Потоки асинхронного резервирования
+     */
+    private int syncThreads = 2;
+
+    /**
+     * Максимальное количество ожидающих асинхронных резервирований
+     */
+    private int syncQueueCapacity = 1000;
+}
@@ -3,15 +3,19 @@ package com.socialnetwork.adminbot.config;
 
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulConnection;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
 import io.lettuce.core.codec.StringCodec;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
 
 import java.time.Duration;
@@ -19,32 +23,47 @@ import java.time.Duration;
 /**
  * Конфигурация Rate Limiting с использованием Bucket4j и Redis.
  * ProxyManager управляет распределёнными bucket'ами в Redis.
+ * <p>
+ * Отдельное подключение открывается клиентом общей {@link LettuceConnectionFactory}:
+ * адрес, топология, пароль, таймауты и {@code ClientResources} (потоки и метрики команд)
+ * у лимитов те же, что у состояний диалогов и приглашений.
  */
 @Configuration
-@RequiredArgsConstructor
 public class RateLimitConfig {
 
-    @Value("${spring.data.redis.host}")
-    private String redisHost;
+    private static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
 
-    @Value("${spring.data.redis.port}")
-    private int redisPort;
+    /**
+     * Подключение Bucket4j: standalone/Sentinel - {@link StatefulRedisConnection},
+     * Cluster - {@link StatefulRedisClusterConnection}
+     */
+    @Bean(destroyMethod = "close")
+    public StatefulConnection<String, byte[]> rateLimitRedisConnection(RedisConnectionFactory connectionFactory) {
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuce)) {
+            throw new IllegalStateException("Rate limiting requires a Lettuce connection factory, got "
+                    + connectionFactory.getClass().getName());
+        }
+        AbstractRedisClient client = lettuce.getNativeClient();
+        if (client instanceof RedisClusterClient clusterClient) {
+            return clusterClient.connect(CODEC);
+        }
+        return ((RedisClient) client).connect(CODEC);
+    }
 
     @Bean
-    public LettuceBasedProxyManager<String> lettuceBasedProxyManager() {
-        RedisClient redisClient = RedisClient.create(
-                String.format("redis://%s:%d", redisHost, redisPort)
+    public LettuceBasedProxyManager<String> lettuceBasedProxyManager(
+            StatefulConnection<String, byte[]> rateLimitRedisConnection) {
+        ExpirationAfterWriteStrategy expiration = ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
+                Duration.ofHours(1)
         );
 
-        RedisCodec<String, byte[]> codec = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
-        StatefulRedisConnection<String, byte[]> connection = redisClient.connect(codec);
-
-        return LettuceBasedProxyManager.builderFor(connection)
-                .withExpirationStrategy(
-                        ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(
-                                Duration.ofHours(1)
-                        )
-                )
+        if (rateLimitRedisConnection instanceof StatefulRedisClusterConnection<String, byte[]> clusterConnection) {
+            return LettuceBasedProxyManager.builderFor(clusterConnection)
+                    .withExpirationStrategy(expiration)
+                    .build();
+        }
+        return LettuceBasedProxyManager.builderFor((StatefulRedisConnection<String, byte[]>) rateLimitRedisConnection)
+                .withExpirationStrategy(expiration)
                 .build();
     }
 
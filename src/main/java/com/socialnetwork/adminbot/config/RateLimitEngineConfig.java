@@ -0,0 +1,35 @@
+package com.socialnetwork.adminbot.config;
+
+import com.socialnetwork.adminbot.domain.RateLimitEngine;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Выбор реализации лимита запросов для каждого лимита.
+ * <p>
+ * Ключ - имя лимита, с которым вызывается {@code RateLimitService.consume}:
+ * {@code register}, {@code validate}, {@code command}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit.engine")
+@Data
+public class RateLimitEngineConfig {
+
+    /**
+     * Реализация для лимитов без отдельной настройки
+     */
+    private RateLimitEngine defaultEngine = RateLimitEngine.BUCKET4J;
+
+    /**
+     * Реализации по именам лимитов
+     */
+    private Map<String, RateLimitEngine> limits = new LinkedHashMap<>();
+
+    public RateLimitEngine engineFor(String limitName) {
+        return limits.getOrDefault(limitName, defaultEngine);
+    }
+}
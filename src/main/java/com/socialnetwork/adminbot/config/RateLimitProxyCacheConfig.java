@@ -0,0 +1,26 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша прокси bucket'ов Bucket4j по ключам лимитов.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit.proxy-cache")
+@Data
+public class RateLimitProxyCacheConfig {
+
+    /**
+     * Максимальное количество прокси в кэше
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Срок жизни прокси, к которому не обращались
+     */
+    private Duration expireAfterAccess = Duration.ofHours(1);
+}
@@ -0,0 +1,43 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки общих ресурсов клиента Lettuce (потоки и метрики команд).
+ * Адрес, топология (standalone/Sentinel/Cluster), пароль, таймауты и пул
+ * подключений задаются стандартными свойствами {@code spring.data.redis.*}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "redis.client")
+@Data
+public class RedisClientConfig {
+
+    /**
+     * Потоки ввода-вывода Netty (0 - по количеству процессоров)
+     */
+    private int ioThreads = 0;
+
+    /**
+     * Потоки обработки результатов команд (0 - по количеству процессоров)
+     */
+    private int computationThreads = 0;
+
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * Публиковать задержки команд Redis ({@code lettuce.command.completion},
+         * {@code lettuce.command.firstresponse}) с тегом команды
+         */
+        private boolean enabled = true;
+
+        /**
+         * Публиковать гистограмму задержек (для перцентилей на стороне мониторинга)
+         */
+        private boolean histogram = false;
+    }
+}
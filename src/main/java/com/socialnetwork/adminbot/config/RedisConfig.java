@@ -4,46 +4,61 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
 import com.socialnetwork.adminbot.dto.PendingInvitation;
-import org.springframework.beans.factory.annotation.Value;
+import com.socialnetwork.adminbot.service.AdminDirectorySyncService;
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
-import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
- * Конфигурация Redis для хранения состояний диалогов
+ * Конфигурация Redis для хранения состояний диалогов.
+ * Подключение ({@code LettuceConnectionFactory}) создаёт Spring Boot из {@code spring.data.redis.*}.
  */
 @Configuration
 public class RedisConfig {
 
-    @Value("${spring.data.redis.host:localhost}")
-    private String redisHost;
-
-    @Value("${spring.data.redis.port:6379}")
-    private int redisPort;
-
-    @Value("${spring.data.redis.password:}")
-    private String redisPassword;
-
     /**
-     * Фабрика подключений к Redis
+     * Общие ресурсы Lettuce (event loop, таймеры, метрики команд). Их использует
+     * автоконфигурируемая {@code LettuceConnectionFactory} из {@code spring.data.redis.*},
+     * а через её клиент - near-cache состояний и Bucket4j ({@link RateLimitConfig}),
+     * поэтому все обращения к Redis идут через одни потоки и попадают в одни метрики.
      */
-    @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
-        config.setHostName(redisHost);
-        config.setPort(redisPort);
-
-        if (redisPassword != null && !redisPassword.isEmpty()) {
-            config.setPassword(redisPassword);
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(RedisClientConfig redisClientConfig, MeterRegistry meterRegistry) {
+        DefaultClientResources.Builder builder = DefaultClientResources.builder();
+        if (redisClientConfig.getIoThreads() > 0) {
+            builder.ioThreadPoolSize(redisClientConfig.getIoThreads());
+        }
+        if (redisClientConfig.getComputationThreads() > 0) {
+            builder.computationThreadPoolSize(redisClientConfig.getComputationThreads());
         }
 
-        return new LettuceConnectionFactory(config);
+        RedisClientConfig.Metrics metrics = redisClientConfig.getMetrics();
+        if (metrics.isEnabled()) {
+            MicrometerOptions options = MicrometerOptions.builder()
+                    .histogram(metrics.isHistogram())
+                    // Локальный адрес меняется с каждым подключением пула и раздувает число серий
+                    .localDistinction(false)
+                    .build();
+            builder.commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry, options));
+        } else {
+            builder.commandLatencyRecorder(CommandLatencyRecorder.disabled());
+        }
+        return builder.build();
     }
 
     /**
@@ -60,12 +75,13 @@ public class RedisConfig {
     /**
      * RedisTemplate для работы с состояниями диалогов
      * Ключ: String (telegram:state:{userId})
-     * Значение: ConversationState (JSON)
+     * Значение: ConversationState (бинарный формат или JSON)
      */
     @Bean
     public RedisTemplate<String, ConversationState> conversationStateRedisTemplate(
             RedisConnectionFactory connectionFactory,
-            ObjectMapper redisObjectMapper) {
+            ObjectMapper redisObjectMapper,
+            ConversationStateConfig conversationStateConfig) {
 
         RedisTemplate<String, ConversationState> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
@@ -74,17 +90,25 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
-        // Сериализация значений как JSON с явным типом
-        Jackson2JsonRedisSerializer<ConversationState> jsonSerializer =
-                new Jackson2JsonRedisSerializer<>(redisObjectMapper, ConversationState.class);
+        // Бинарный формат; старые JSON-значения читаются тем же сериализатором
+        ConversationStateCodec codec = new ConversationStateCodec(redisObjectMapper,
+                conversationStateConfig.getCodec() == ConversationStateConfig.Codec.BINARY);
 
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        template.setValueSerializer(codec);
+        template.setHashValueSerializer(codec);
 
         template.afterPropertiesSet();
         return template;
     }
 
+    /**
+     * Представление состояния диалога в виде Redis hash (раскладка telegram.state.layout=hash)
+     */
+    @Bean
+    public ConversationStateHashLayout conversationStateHashLayout(ObjectMapper redisObjectMapper) {
+        return new ConversationStateHashLayout(redisObjectMapper);
+    }
+
     /**
      * RedisTemplate для работы со строковыми значениями
      * Общий шаблон для строковых ключей и значений
@@ -131,4 +155,20 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Подписка на канал изменений администраторов через то же подключение Lettuce
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "admin.directory.sync", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer adminDirectoryListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            AdminDirectorySyncService adminDirectorySyncService) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(adminDirectorySyncService,
+                new ChannelTopic(adminDirectorySyncService.getChannel()));
+        return container;
+    }
 }
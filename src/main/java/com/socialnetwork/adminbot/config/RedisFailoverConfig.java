@@ -0,0 +1,48 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки работы при недоступности Redis (деградированный режим):
+ * состояния диалогов и лимиты запросов временно живут в памяти процесса.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "redis.failover")
+@Data
+public class RedisFailoverConfig {
+
+    /**
+     * Переключаться на локальные хранилища при недоступности Redis.
+     * Если выключено, ошибки Redis доходят до вызывающего кода.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Период проверки Redis командой PING
+     */
+    private Duration probeInterval = Duration.ofSeconds(1);
+
+    /**
+     * Сколько успешных проверок подряд нужно для возврата в обычный режим
+     */
+    private int recoveryProbes = 3;
+
+    /**
+     * Максимальное количество состояний диалогов в памяти в деградированном режиме
+     */
+    private int maxLocalStates = 10_000;
+
+    /**
+     * Максимальное количество локальных bucket'ов лимитов запросов
+     */
+    private long maxLocalBuckets = 10_000;
+
+    /**
+     * Срок жизни неиспользуемого локального bucket'а
+     */
+    private Duration localBucketTtl = Duration.ofHours(1);
+}
@@ -1,37 +1,118 @@
 package com.socialnetwork.adminbot.config;
 
+import com.socialnetwork.adminbot.client.InstrumentedConnectionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.IdleConnectionEvictor;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+/**
+ * HTTP транспорт для internal API mc-account.
+ * <p>
+ * Пул соединений HttpClient 5 с настраиваемыми лимитами ({@link AccountClientConfig.Http}):
+ * соединения переиспользуются по LIFO, простаивающие проверяются перед выдачей, а
+ * простаивающие и просроченные закрываются фоновой очисткой. Гауджи пула
+ * ({@code httpcomponents.httpclient.pool.*}: занятые, свободные, ожидающие соединения)
+ * и метрики {@link InstrumentedConnectionManager} (время ожидания и переиспользование
+ * соединений) публикуются с тегом {@code mc-account}.
+ */
 @Slf4j
 @Configuration
 public class RestTemplateConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        // Configure Apache HttpClient 5 with timeouts
+    private static final String CLIENT_NAME = "mc-account";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager accountConnectionPool(AccountClientConfig accountClientConfig,
+                                                                    MeterRegistry meterRegistry) {
+        AccountClientConfig.Http http = accountClientConfig.getHttp();
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxTotal())
+                .setMaxConnPerRoute(http.getMaxPerRoute())
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(http.getConnectTimeout()))
+                        .setSocketTimeout(timeout(http.getResponseTimeout()))
+                        .setValidateAfterInactivity(timeValue(http.getValidateAfterInactivity()))
+                        .setTimeToLive(timeValue(http.getTimeToLive()))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, CLIENT_NAME).bindTo(meterRegistry);
+        return pool;
+    }
+
+    /**
+     * Фоновая очистка пула: HttpClientBuilder запускает её только для самого пула,
+     * а клиенту передаётся обёртка с метриками
+     */
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public IdleConnectionEvictor accountConnectionEvictor(PoolingHttpClientConnectionManager accountConnectionPool,
+                                                          AccountClientConfig accountClientConfig) {
+        TimeValue idle = timeValue(accountClientConfig.getHttp().getIdleEviction());
+        return new IdleConnectionEvictor(accountConnectionPool, idle, idle);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient accountHttpClient(PoolingHttpClientConnectionManager accountConnectionPool,
+                                                 AccountClientConfig accountClientConfig,
+                                                 MeterRegistry meterRegistry) {
+        AccountClientConfig.Http http = accountClientConfig.getHttp();
         RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(Timeout.ofSeconds(5))
-                .setResponseTimeout(Timeout.ofSeconds(10))
+                .setConnectionRequestTimeout(timeout(http.getConnectionRequestTimeout()))
+                .setResponseTimeout(timeout(http.getResponseTimeout()))
                 .build();
 
-        CloseableHttpClient httpClient = HttpClients.custom()
+        return HttpClients.custom()
+                .setConnectionManager(new InstrumentedConnectionManager(accountConnectionPool, meterRegistry,
+                        CLIENT_NAME))
+                // Пул закрывается своим бином
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(keepAliveStrategy(timeValue(http.getKeepAlive())))
                 .setDefaultRequestConfig(requestConfig)
                 .build();
+    }
 
-        HttpComponentsClientHttpRequestFactory factory =
-                new HttpComponentsClientHttpRequestFactory(httpClient);
-
-        RestTemplate restTemplate = new RestTemplate(factory);
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient accountHttpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(accountHttpClient));
 
         log.info("RestTemplate configured for internal service communication");
         return restTemplate;
     }
+
+    /**
+     * Keep-alive из заголовка ответа, но не дольше {@code max}
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(TimeValue max) {
+        return (response, context) -> {
+            TimeValue fromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(fromServer) && fromServer.compareTo(max) < 0 ? fromServer : max;
+        };
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
 }
@@ -14,5 +14,46 @@ public class TelegramBotConfig {
     private String token;
     private String username;
 
+    /**
+     * Способ получения обновлений: polling (getUpdates) или webhook
+     */
+    private Mode mode = Mode.POLLING;
 
+    /**
+     * Базовый URL Bot API. Переопределяется для нагрузочных тестов
+     * с локальным фейковым сервером Telegram.
+     */
+    private String apiUrl = "https://api.telegram.org/bot";
+
+    private Webhook webhook = new Webhook();
+
+    public enum Mode {
+        POLLING,
+        WEBHOOK
+    }
+
+    @Data
+    public static class Webhook {
+
+        /**
+         * Публичный URL, на который Telegram будет отправлять обновления
+         * (должен указывать на TelegramWebhookController)
+         */
+        private String url;
+
+        /**
+         * Секрет, передаваемый Telegram в заголовке X-Telegram-Bot-Api-Secret-Token
+         */
+        private String secretToken;
+
+        /**
+         * Максимальное количество параллельных HTTPS-соединений от Telegram
+         */
+        private int maxConnections = 40;
+
+        /**
+         * Отбросить обновления, накопившиеся до регистрации webhook
+         */
+        private boolean dropPendingUpdates = false;
+    }
 }
@@ -3,9 +3,11 @@ package com.socialnetwork.adminbot.config;
 import com.socialnetwork.adminbot.telegram.TelegramBot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
@@ -20,6 +22,7 @@ public class TelegramBotRegistration {
      * Регистрирует бота в Telegram API и запускает Polling
      */
     @Bean
+    @ConditionalOnProperty(prefix = "telegram.bot", name = "mode", havingValue = "polling", matchIfMissing = true)
     public TelegramBotsApi telegramBotsApi(TelegramBot telegramBot) throws TelegramApiException {
         log.info("Registering Telegram bot: {}", botConfig.getUsername());
         TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
@@ -27,4 +30,31 @@ public class TelegramBotRegistration {
         log.info("✅Telegram bot {} registered successfully and started polling", botConfig.getUsername());
         return botsApi;
     }
+
+    /**
+     * Регистрирует webhook в Telegram API. Обновления принимает TelegramWebhookController,
+     * long polling в этом режиме не запускается.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "telegram.bot", name = "mode", havingValue = "webhook")
+    public SetWebhook telegramWebhook(TelegramBot telegramBot) throws TelegramApiException {
+        TelegramBotConfig.Webhook webhook = botConfig.getWebhook();
+        if (webhook.getUrl() == null || webhook.getUrl().isBlank()) {
+            throw new IllegalStateException("telegram.bot.webhook.url must be set in webhook mode");
+        }
+
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(webhook.getUrl())
+                .secretToken(webhook.getSecretToken() == null || webhook.getSecretToken().isBlank()
+                        ? null
+                        : webhook.getSecretToken())
+                .maxConnections(webhook.getMaxConnections())
+                .dropPendingUpdates(webhook.isDropPendingUpdates())
+                .build();
+
+        log.info("Registering Telegram webhook for bot {}: {}", botConfig.getUsername(), webhook.getUrl());
+        telegramBot.execute(setWebhook);
+        log.info("✅Telegram bot {} registered successfully in webhook mode", botConfig.getUsername());
+        return setWebhook;
+    }
 }
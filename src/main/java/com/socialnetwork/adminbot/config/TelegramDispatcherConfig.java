@@ -0,0 +1,39 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Настройки диспетчера входящих обновлений Telegram.
+ * <p>
+ * Каждый чат получает собственную очередь (lane): обновления одного чата
+ * обрабатываются строго последовательно, разные чаты — параллельно.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "telegram.dispatcher")
+@Data
+public class TelegramDispatcherConfig {
+
+    /**
+     * Количество рабочих потоков, обслуживающих очереди чатов
+     */
+    private int workerThreads = 8;
+
+    /**
+     * Максимальное количество чатов с необработанными обновлениями.
+     * Обновления новых чатов сверх лимита отбрасываются.
+     */
+    private int maxActiveLanes = 1000;
+
+    /**
+     * Максимальная длина очереди одного чата
+     */
+    private int maxLaneQueueDepth = 50;
+
+    /**
+     * Сколько обновлений чата поток обрабатывает подряд, прежде чем уступить
+     * очередь другим чатам
+     */
+    private int maxTasksPerTurn = 8;
+}
@@ -0,0 +1,55 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки очереди исходящих вызовов Telegram Bot API.
+ * <p>
+ * Значения по умолчанию соответствуют лимитам Telegram:
+ * ~30 сообщений в секунду на бота и ~1 сообщение в секунду в один чат.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "telegram.outbound")
+@Data
+public class TelegramOutboundConfig {
+
+    /**
+     * Количество потоков, отправляющих вызовы в Telegram
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Максимальное количество вызовов, ожидающих отправки
+     */
+    private int capacity = 1000;
+
+    /**
+     * Глобальный лимит сообщений в секунду для бота
+     */
+    private int globalMessagesPerSecond = 30;
+
+    /**
+     * Минимальный интервал между сообщениями в один чат
+     */
+    private Duration perChatInterval = Duration.ofSeconds(1);
+
+    /**
+     * Сколько раз повторять вызов после ответа 429 Too Many Requests
+     */
+    private int maxRetries = 3;
+
+    /**
+     * Сколько разных чатов должны получить 429 за {@link #globalPauseWindow},
+     * чтобы retry_after применился ко всей очереди, а не только к своему чату
+     */
+    private int globalPauseChats = 3;
+
+    /**
+     * Окно, в котором считаются чаты с ответом 429
+     */
+    private Duration globalPauseWindow = Duration.ofSeconds(10);
+}
@@ -0,0 +1,36 @@
+package com.socialnetwork.adminbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Настройки защиты от потока сообщений неавторизованных пользователей.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "telegram.unauthorized")
+@Data
+public class TelegramUnauthorizedConfig {
+
+    /**
+     * Сколько ответов "нет доступа" получает отправитель за {@link #replyInterval}
+     */
+    private int repliesPerInterval = 1;
+
+    /**
+     * Интервал пополнения ответов для одного отправителя
+     */
+    private Duration replyInterval = Duration.ofMinutes(10);
+
+    /**
+     * Сколько отправителей хранится в памяти; при переполнении вытесняются редкие
+     */
+    private long maxTrackedSenders = 10_000;
+
+    /**
+     * Через сколько после последнего сообщения отправитель забывается
+     */
+    private Duration senderTtl = Duration.ofMinutes(30);
+}
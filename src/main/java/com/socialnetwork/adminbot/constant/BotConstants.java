@@ -86,6 +86,7 @@ public final class BotConstants {
 
     /**
      * Префиксы для callback data в Telegram.
+     * Значение, оканчивающееся на ':', — префикс, остальные сравниваются целиком.
      */
     public static final class CallbackPrefix {
         public static final String BLOCK = "block:";
@@ -99,9 +100,13 @@ public final class BotConstants {
         public static final String SEARCH_UNBAN = "search_unban:";
         public static final String SEARCH_NEW = "search_new";
         public static final String SEARCH_CANCEL = "search_cancel";
+        public static final String ADD_ADMIN = "add_admin:";
         public static final String ADD_ADMIN_ROLE = "add_admin:role:";
         public static final String ADD_ADMIN_CONFIRM = "add_admin:confirm";
         public static final String ADD_ADMIN_CANCEL = "add_admin:cancel";
+        public static final String SHOW_STATS = "show_stats";
+        public static final String MAIN_MENU = "main_menu";
+        public static final String USER_STATS = "stats:";
         public static final String NOOP = "noop";
 
         private CallbackPrefix() {
@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.controller;
 
+import com.socialnetwork.adminbot.domain.RateLimitResult;
 import com.socialnetwork.adminbot.entity.Admin;
 import com.socialnetwork.adminbot.entity.AdminInvitation;
 import com.socialnetwork.adminbot.exception.RateLimitExceededException;
@@ -61,8 +62,10 @@ public class AdminRegistrationController {
         String clientIp = HttpRequestUtils.getClientIpAddress(httpRequest);
         String rateLimitKey = "rate_limit:register:" + clientIp;
 
-        if (!rateLimitService.tryConsume(rateLimitKey, RateLimitService::registrationLimitConfig)) {
-            throw new RateLimitExceededException(3600); // retry after 1 hour
+        RateLimitResult rateLimit = rateLimitService.consume("register", rateLimitKey,
+                RateLimitService::registrationLimitConfig);
+        if (!rateLimit.consumed()) {
+            throw new RateLimitExceededException(rateLimit.retryAfterSeconds());
         }
         log.info("Registration attempt: token={}, telegramId={}",
                 request.getToken(), request.getTelegramId());
@@ -138,8 +141,10 @@ public class AdminRegistrationController {
         String clientIp = HttpRequestUtils.getClientIpAddress(httpRequest);
         String rateLimitKey = "rate_limit:validate:" + clientIp;
 
-        if (!rateLimitService.tryConsume(rateLimitKey, RateLimitService::validationLimitConfig)) {
-            throw new RateLimitExceededException(60); // retry after 1 minute
+        RateLimitResult rateLimit = rateLimitService.consume("validate", rateLimitKey,
+                RateLimitService::validationLimitConfig);
+        if (!rateLimit.consumed()) {
+            throw new RateLimitExceededException(rateLimit.retryAfterSeconds());
         }
         log.debug("Validating invite token: {}", token);
 
@@ -0,0 +1,101 @@
+package com.socialnetwork.adminbot.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.TelegramBotConfig;
+import com.socialnetwork.adminbot.telegram.TelegramBot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Приём обновлений Telegram в режиме webhook (telegram.bot.mode=webhook).
+ * <p>
+ * Endpoints:
+ * - POST /api/v1/admin-bot/telegram/webhook - обновление от Telegram Bot API
+ * <p>
+ * Обновление только ставится в очередь чата, ответ Telegram отправляется сразу.
+ * Маршрутизация сообщений и callback-ов та же, что и в режиме long polling.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin-bot")
+@ConditionalOnProperty(prefix = "telegram.bot", name = "mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    /**
+     * Модели TelegramBots аннотированы Jackson 2, поэтому тело разбирается
+     * отдельным маппером, а не конвертером Spring MVC.
+     */
+    private static final ObjectMapper UPDATE_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final TelegramBot telegramBot;
+    private final byte[] expectedSecretToken;
+
+    public TelegramWebhookController(TelegramBot telegramBot, TelegramBotConfig botConfig) {
+        this.telegramBot = telegramBot;
+        String secretToken = botConfig.getWebhook().getSecretToken();
+        this.expectedSecretToken = secretToken != null && !secretToken.isEmpty()
+                ? secretToken.getBytes(StandardCharsets.UTF_8)
+                : null;
+
+        if (expectedSecretToken == null) {
+            log.warn("Telegram webhook secret token is not configured, requests are not authenticated");
+        }
+    }
+
+    /**
+     * Приём обновления от Telegram
+     * <p>
+     * 200 - обновление принято (или пропущено как некорректное, чтобы Telegram не повторял его);
+     * 401 - неверный секрет;
+     * 503 - очереди диспетчера переполнены, Telegram повторит доставку позже.
+     */
+    @PostMapping("/telegram/webhook")
+    public ResponseEntity<Void> receiveUpdate(
+            @RequestBody String body,
+            @RequestHeader(value = SECRET_TOKEN_HEADER, required = false) String secretToken) {
+
+        if (!isSecretTokenValid(secretToken)) {
+            log.warn("Rejected webhook request with invalid secret token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Update update;
+        try {
+            update = UPDATE_MAPPER.readValue(body, Update.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed webhook payload skipped: {}", e.getOriginalMessage());
+            return ResponseEntity.ok().build();
+        }
+
+        if (!telegramBot.submitUpdate(update)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private boolean isSecretTokenValid(String secretToken) {
+        if (expectedSecretToken == null) {
+            return true;
+        }
+        if (secretToken == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expectedSecretToken, secretToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,15 @@
+package com.socialnetwork.adminbot.domain;
+
+import com.socialnetwork.adminbot.entity.AdminRole;
+
+/**
+ * Событие изменения администратора (создание, активация приглашения).
+ * Публикуется внутри транзакции записи, применяется к
+ * {@code AdminDirectoryService} после её коммита.
+ *
+ * @param telegramUserId Telegram ID администратора
+ * @param role           текущая роль
+ * @param active         активен ли администратор
+ */
+public record AdminChangedEvent(long telegramUserId, AdminRole role, boolean active) {
+}
@@ -2,6 +2,9 @@ package com.socialnetwork.adminbot.domain;
 
 /**
  * Перечисление возможных состояний диалога с ботом
+ * <p>
+ * Ordinal хранится в бинарном формате состояния ({@link ConversationStateCodec}):
+ * новые состояния добавлять только в конец, существующие не переставлять.
  */
 public enum BotState {
 
@@ -0,0 +1,255 @@
+package com.socialnetwork.adminbot.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Компактный бинарный формат {@link ConversationState} для Redis.
+ * <p>
+ * Заголовок фиксированной длины ({@value #HEADER_SIZE} байт), его читает и переписывает
+ * скрипт перехода состояний {@code scripts/state-transition.lua}:
+ * <pre>
+ * 0      magic 0xC5
+ * 1      версия формата
+ * 2      ordinal {@link BotState} (0xFF - null)
+ * 3..10  version (int64)
+ * 11..18 createdAt, epoch millis UTC (Long.MIN_VALUE - null)
+ * 19..26 updatedAt, epoch millis UTC
+ * 27..   данные: uint16 количество записей, затем записи
+ * </pre>
+ * Запись данных: номер слота ключа {@link StateDataKey} (0 - ключ записан строкой),
+ * тег типа и значение. Типы значений сохраняются, поэтому Integer читается как Integer.
+ * <p>
+ * Значения без бинарного представления и режим JSON записываются прежним JSON.
+ * Чтение понимает оба формата: всё, что не начинается с magic-байта, читается как JSON.
+ */
+public final class ConversationStateCodec implements RedisSerializer<ConversationState> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 27;
+
+    private static final int NULL_STATE = 0xFF;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_DOUBLE = 5;
+
+    /**
+     * Слоты известных ключей: номер слота = индекс + 1.
+     * Порядок менять нельзя, новые ключи добавлять только в конец.
+     */
+    @SuppressWarnings("deprecation")
+    private static final String[] SLOT_KEYS = {
+            StateDataKey.SEARCH_QUERY,
+            StateDataKey.SEARCH_CURRENT_PAGE,
+            StateDataKey.SEARCH_TOTAL_PAGES,
+            StateDataKey.SEARCH_TOTAL_RESULTS,
+            StateDataKey.INVITE_TARGET_USERNAME,
+            StateDataKey.INVITE_ADMIN_ROLE,
+            StateDataKey.INVITE_TOKEN,
+            StateDataKey.ADMIN_TELEGRAM_ID,
+            StateDataKey.ADMIN_USERNAME,
+            StateDataKey.ADMIN_FIRST_NAME,
+            StateDataKey.ADMIN_ROLE,
+            StateDataKey.BAN_TARGET_USER_ID,
+            StateDataKey.BAN_TARGET_USERNAME,
+            StateDataKey.BAN_TARGET_EMAIL,
+            StateDataKey.BAN_REASON,
+            StateDataKey.BAN_IS_TEMPORARY,
+            StateDataKey.BAN_DURATION_DAYS
+    };
+
+    private static final Map<String, Integer> SLOT_BY_KEY = new HashMap<>();
+
+    static {
+        for (int i = 0; i < SLOT_KEYS.length; i++) {
+            SLOT_BY_KEY.put(SLOT_KEYS[i], i + 1);
+        }
+    }
+
+    private static final BotState[] STATES = BotState.values();
+
+    private final Jackson2JsonRedisSerializer<ConversationState> jsonSerializer;
+    private final boolean writeBinary;
+
+    /**
+     * @param objectMapper ObjectMapper для чтения и записи JSON
+     * @param writeBinary  записывать бинарный формат; false - прежний JSON (на время миграции)
+     */
+    public ConversationStateCodec(ObjectMapper objectMapper, boolean writeBinary) {
+        this.jsonSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, ConversationState.class);
+        this.writeBinary = writeBinary;
+    }
+
+    public boolean isWriteBinary() {
+        return writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(ConversationState state) throws SerializationException {
+        if (state == null) {
+            return new byte[0];
+        }
+        if (!writeBinary || !isBinaryCompatible(state.getData())) {
+            return jsonSerializer.serialize(state);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(state.getState() != null ? state.getState().ordinal() : NULL_STATE);
+            out.writeLong(state.getVersion() != null ? state.getVersion() : 0L);
+            out.writeLong(toMillis(state.getCreatedAt()));
+            out.writeLong(toMillis(state.getUpdatedAt()));
+            writeData(out, state.getData());
+        } catch (IOException e) {
+            throw new SerializationException("Could not write conversation state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public ConversationState deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return jsonSerializer.deserialize(bytes);
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.readByte();
+            byte formatVersion = in.readByte();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new SerializationException("Unsupported conversation state format: " + formatVersion);
+            }
+            int ordinal = in.readUnsignedByte();
+            if (ordinal != NULL_STATE && ordinal >= STATES.length) {
+                throw new SerializationException("Unknown conversation state ordinal: " + ordinal);
+            }
+            return ConversationState.builder()
+                    .state(ordinal == NULL_STATE ? null : STATES[ordinal])
+                    .version(in.readLong())
+                    .createdAt(fromMillis(in.readLong()))
+                    .updatedAt(fromMillis(in.readLong()))
+                    .data(readData(in))
+                    .build();
+        } catch (IOException e) {
+            throw new SerializationException("Could not read conversation state", e);
+        }
+    }
+
+    private static boolean isBinaryCompatible(Map<String, Object> data) {
+        if (data == null) {
+            return true;
+        }
+        if (data.size() > 0xFFFF) {
+            return false;
+        }
+        for (Object value : data.values()) {
+            if (!(value instanceof String || value instanceof Integer || value instanceof Long
+                    || value instanceof Boolean || value instanceof Double)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeData(DataOutputStream out, Map<String, Object> data) throws IOException {
+        if (data == null) {
+            out.writeShort(0);
+            return;
+        }
+        out.writeShort(data.size());
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            Integer slot = SLOT_BY_KEY.get(entry.getKey());
+            if (slot != null) {
+                out.writeByte(slot);
+            } else {
+                out.writeByte(0);
+                out.writeUTF(entry.getKey());
+            }
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String s) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF(s);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(l);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(b);
+        } else {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        }
+    }
+
+    private static Map<String, Object> readData(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        Map<String, Object> data = new HashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            int slot = in.readUnsignedByte();
+            String key;
+            if (slot == 0) {
+                key = in.readUTF();
+            } else if (slot <= SLOT_KEYS.length) {
+                key = SLOT_KEYS[slot - 1];
+            } else {
+                throw new SerializationException("Unknown state data slot: " + slot);
+            }
+            data.put(key, readValue(in));
+        }
+        return data;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case TYPE_STRING -> in.readUTF();
+            case TYPE_INT -> in.readInt();
+            case TYPE_LONG -> in.readLong();
+            case TYPE_BOOLEAN -> in.readBoolean();
+            case TYPE_DOUBLE -> in.readDouble();
+            default -> throw new SerializationException("Unknown state data type: " + type);
+        };
+    }
+
+    /**
+     * LocalDateTime в epoch millis без учёта часового пояса (как и в JSON, где пояс не хранится)
+     */
+    static long toMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIMESTAMP;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis != NO_TIMESTAMP
+                ? LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC)
+                : null;
+    }
+}
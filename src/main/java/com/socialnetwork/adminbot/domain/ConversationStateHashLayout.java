@@ -0,0 +1,159 @@
+package com.socialnetwork.adminbot.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Представление {@link ConversationState} в виде Redis hash.
+ * <p>
+ * Служебные поля: {@code state} (имя {@link BotState}), {@code version},
+ * {@code createdAt}, {@code updatedAt} (epoch millis UTC). Каждая запись данных -
+ * отдельное поле {@code d:<ключ>}, поэтому её можно изменить одним HSET,
+ * не перечитывая и не переписывая состояние целиком. Значение данных начинается
+ * с символа типа: {@code s} строка, {@code i} Integer, {@code l} Long, {@code b} Boolean,
+ * {@code f} Double, {@code j} JSON для остальных типов.
+ */
+public final class ConversationStateHashLayout {
+
+    public static final String FIELD_STATE = "state";
+    public static final String FIELD_VERSION = "version";
+    public static final String FIELD_CREATED_AT = "createdAt";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+    public static final String DATA_FIELD_PREFIX = "d:";
+
+    private final ObjectMapper objectMapper;
+
+    public ConversationStateHashLayout(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Все поля hash для полной записи состояния
+     */
+    public Map<byte[], byte[]> toHash(ConversationState state) {
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        if (state.getState() != null) {
+            hash.put(bytes(FIELD_STATE), bytes(state.getState().name()));
+        }
+        hash.put(bytes(FIELD_VERSION), bytes(String.valueOf(state.getVersion() != null ? state.getVersion() : 0L)));
+        if (state.getCreatedAt() != null) {
+            hash.put(bytes(FIELD_CREATED_AT), timestamp(state.getCreatedAt()));
+        }
+        if (state.getUpdatedAt() != null) {
+            hash.put(bytes(FIELD_UPDATED_AT), timestamp(state.getUpdatedAt()));
+        }
+        if (state.getData() != null) {
+            state.getData().forEach((key, value) -> {
+                if (value != null) {
+                    hash.put(dataField(key), dataValue(value));
+                }
+            });
+        }
+        return hash;
+    }
+
+    /**
+     * Собрать состояние из полей hash
+     *
+     * @return null если hash пуст (ключа нет)
+     */
+    public ConversationState fromHash(Map<byte[], byte[]> hash) {
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+
+        ConversationState state = ConversationState.builder()
+                .state(BotState.IDLE)
+                .data(new HashMap<>())
+                .build();
+        hash.forEach((rawField, rawValue) -> {
+            String field = string(rawField);
+            String value = string(rawValue);
+            switch (field) {
+                case FIELD_STATE -> state.setState(BotState.valueOf(value));
+                case FIELD_VERSION -> state.setVersion(Long.parseLong(value));
+                case FIELD_CREATED_AT -> state.setCreatedAt(fromMillis(Long.parseLong(value)));
+                case FIELD_UPDATED_AT -> state.setUpdatedAt(fromMillis(Long.parseLong(value)));
+                default -> {
+                    if (field.startsWith(DATA_FIELD_PREFIX)) {
+                        state.getData().put(field.substring(DATA_FIELD_PREFIX.length()), parseValue(value));
+                    }
+                }
+            }
+        });
+        return state;
+    }
+
+    public byte[] dataField(String key) {
+        return bytes(DATA_FIELD_PREFIX + key);
+    }
+
+    public byte[] dataValue(Object value) {
+        String encoded;
+        if (value instanceof String s) {
+            encoded = "s" + s;
+        } else if (value instanceof Integer i) {
+            encoded = "i" + i;
+        } else if (value instanceof Long l) {
+            encoded = "l" + l;
+        } else if (value instanceof Boolean b) {
+            encoded = "b" + b;
+        } else if (value instanceof Double d) {
+            encoded = "f" + d;
+        } else {
+            try {
+                encoded = "j" + objectMapper.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new SerializationException("Could not write state data value", e);
+            }
+        }
+        return bytes(encoded);
+    }
+
+    public byte[] timestamp(LocalDateTime time) {
+        return bytes(String.valueOf(time.toInstant(ZoneOffset.UTC).toEpochMilli()));
+    }
+
+    private Object parseValue(String encoded) {
+        if (encoded.isEmpty()) {
+            return null;
+        }
+        String value = encoded.substring(1);
+        return switch (encoded.charAt(0)) {
+            case 's' -> value;
+            case 'i' -> Integer.parseInt(value);
+            case 'l' -> Long.parseLong(value);
+            case 'b' -> Boolean.parseBoolean(value);
+            case 'f' -> Double.parseDouble(value);
+            case 'j' -> {
+                try {
+                    yield objectMapper.readValue(value, Object.class);
+                } catch (JsonProcessingException e) {
+                    throw new SerializationException("Could not read state data value", e);
+                }
+            }
+            default -> throw new SerializationException("Unknown state data type: " + encoded.charAt(0));
+        };
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,17 @@
+package com.socialnetwork.adminbot.domain;
+
+/**
+ * Реализация распределённого лимита запросов
+ */
+public enum RateLimitEngine {
+
+    /**
+     * Token bucket Bucket4j: compare-and-swap состояния bucket'а, при конкуренции за ключ - повторы
+     */
+    BUCKET4J,
+
+    /**
+     * Скользящее окно: один Lua-скрипт на запрос, без повторов, O(1) памяти на ключ
+     */
+    SLIDING_WINDOW
+}
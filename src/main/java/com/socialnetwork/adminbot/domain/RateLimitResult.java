@@ -0,0 +1,38 @@
+package com.socialnetwork.adminbot.domain;
+
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Результат проверки лимита запросов за одно обращение к bucket'у.
+ *
+ * @param consumed         разрешён ли запрос
+ * @param remainingTokens  сколько запросов ещё доступно
+ * @param retryAfterNanos  через сколько появится следующий токен (0, если запрос разрешён)
+ */
+public record RateLimitResult(boolean consumed, long remainingTokens, long retryAfterNanos) {
+
+    public static RateLimitResult from(ConsumptionProbe probe) {
+        return new RateLimitResult(probe.isConsumed(), probe.getRemainingTokens(),
+                probe.isConsumed() ? 0 : probe.getNanosToWaitForRefill());
+    }
+
+    public static RateLimitResult allowed(long remainingTokens) {
+        return new RateLimitResult(true, remainingTokens, 0);
+    }
+
+    public static RateLimitResult rejected(long retryAfterNanos) {
+        return new RateLimitResult(false, 0, retryAfterNanos);
+    }
+
+    /**
+     * Время до повтора в секундах для заголовка Retry-After (не меньше 1 при отказе)
+     */
+    public long retryAfterSeconds() {
+        if (consumed) {
+            return 0;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
@@ -0,0 +1,10 @@
+package com.socialnetwork.adminbot.domain;
+
+/**
+ * Событие смены доступности Redis. Публикуется синхронно в потоке,
+ * который обнаружил сбой или восстановление.
+ *
+ * @param available доступен ли Redis
+ */
+public record RedisAvailabilityChangedEvent(boolean available) {
+}
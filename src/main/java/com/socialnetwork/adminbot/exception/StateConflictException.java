@@ -0,0 +1,11 @@
+package com.socialnetwork.adminbot.exception;
+
+/**
+ * Состояние диалога изменилось параллельно с текущей операцией
+ * (например, повторное нажатие кнопки подтверждения)
+ */
+public class StateConflictException extends IllegalStateException {
+    public StateConflictException(String message) {
+        super(message);
+    }
+}
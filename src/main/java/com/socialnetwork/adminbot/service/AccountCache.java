@@ -0,0 +1,89 @@
+package com.socialnetwork.adminbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.socialnetwork.adminbot.client.AccountClient;
+import com.socialnetwork.adminbot.config.AccountClientConfig;
+import com.socialnetwork.adminbot.dto.AccountDto;
+import com.socialnetwork.adminbot.exception.UserNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Кэш аккаунтов mc-account по ID перед {@link AccountClient#getAccountById}.
+ * <p>
+ * Карточка пользователя, бан и поиск читают одни и те же аккаунты несколько раз за
+ * диалог; кэш ограничен по размеру и по сроку с момента загрузки. Отсутствующий
+ * аккаунт запоминается на короткий срок, чтобы повторные запросы с тем же ID не
+ * доходили до mc-account. Одновременные промахи по одному ID загружают аккаунт один раз.
+ * <p>
+ * После блокировки и разблокировки через бота запись обновляется
+ * ({@link #updateBlocked}); при ошибке - удаляется ({@link #invalidate}).
+ * Метрики: {@code cache.*} с именами {@code account.cache} и {@code account.cache.missing}.
+ */
+@Slf4j
+@Component
+public class AccountCache {
+
+    private final AccountClient accountClient;
+    private final boolean enabled;
+    private final Cache<UUID, AccountDto> accounts;
+    private final Cache<UUID, Boolean> missing;
+
+    public AccountCache(AccountClient accountClient, AccountClientConfig config, MeterRegistry meterRegistry) {
+        AccountClientConfig.Cache settings = config.getCache();
+        this.accountClient = accountClient;
+        this.enabled = settings.isEnabled();
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getNegativeTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, accounts, "account.cache");
+        CaffeineCacheMetrics.monitor(meterRegistry, missing, "account.cache.missing");
+    }
+
+    /**
+     * Аккаунт из кэша или из mc-account
+     *
+     * @throws UserNotFoundException если аккаунта нет (в том числе по записи negative cache)
+     */
+    public AccountDto get(UUID userId) {
+        if (!enabled) {
+            return accountClient.getAccountById(userId);
+        }
+        if (missing.getIfPresent(userId) != null) {
+            log.debug("Account {} is cached as missing", userId);
+            throw new UserNotFoundException("User not found: " + userId);
+        }
+        try {
+            return accounts.get(userId, accountClient::getAccountById);
+        } catch (UserNotFoundException e) {
+            missing.put(userId, Boolean.TRUE);
+            throw e;
+        }
+    }
+
+    /**
+     * Отразить в кэше успешную блокировку или разблокировку
+     */
+    public void updateBlocked(UUID userId, boolean blocked) {
+        missing.invalidate(userId);
+        accounts.asMap().computeIfPresent(userId, (id, account) -> account.toBuilder().isBlocked(blocked).build());
+    }
+
+    public void invalidate(UUID userId) {
+        missing.invalidate(userId);
+        accounts.invalidate(userId);
+    }
+}
@@ -0,0 +1,218 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import com.socialnetwork.adminbot.entity.Admin;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.repository.AdminRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Справочник администраторов в памяти для проверки авторизации на каждом update.
+ * <p>
+ * Хранит неизменяемый снимок: отсортированный {@code long[]} Telegram ID активных
+ * администраторов и параллельный массив ролей. Поиск — бинарный, без обращения
+ * к БД, упаковки {@code Long} и аллокаций. Изменения применяются copy-on-write:
+ * собирается новый снимок и публикуется через volatile-ссылку.
+ * <p>
+ * Снимок загружается при старте, обновляется по {@link AdminChangedEvent}
+ * после коммита транзакции (локально и от других экземпляров через
+ * {@link AdminDirectorySyncService}) и периодически перечитывается целиком.
+ */
+@Slf4j
+@Service
+public class AdminDirectoryService {
+
+    private final AdminRepository adminRepository;
+    private final long[] whitelist;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public AdminDirectoryService(AdminRepository adminRepository,
+                                 @Value("${admin.whitelist}") String adminWhitelistStr) {
+        this.adminRepository = adminRepository;
+        this.whitelist = parseWhitelist(adminWhitelistStr);
+        log.info("AdminDirectoryService initialized with {} whitelisted admins", whitelist.length);
+    }
+
+    /**
+     * Перечитать всех активных администраторов из БД
+     */
+    @PostConstruct
+    public void refresh() {
+        reload();
+        log.info("Admin directory loaded: {} active admin(s)", size());
+    }
+
+    /**
+     * Периодическая полная синхронизация на случай потерянных событий
+     * или изменений администраторов в обход сервиса
+     */
+    @Scheduled(
+            initialDelayString = "#{@adminDirectoryConfig.resyncInterval.toMillis()}",
+            fixedDelayString = "#{@adminDirectoryConfig.resyncInterval.toMillis()}"
+    )
+    public void resync() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Admin directory resync failed, keeping previous snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void reload() {
+        List<Admin> admins = adminRepository.findByIsActiveTrue();
+        long[] ids = new long[admins.size()];
+        AdminRole[] roles = new AdminRole[admins.size()];
+
+        Admin[] sorted = admins.toArray(new Admin[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.getTelegramUserId(), b.getTelegramUserId()));
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getTelegramUserId();
+            roles[i] = sorted[i].getRole();
+        }
+
+        snapshot = new Snapshot(ids, roles);
+        log.debug("Admin directory loaded: {} active admin(s)", ids.length);
+    }
+
+    /**
+     * Применить изменение администратора после коммита транзакции.
+     * Без активной транзакции событие применяется сразу.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAdminChanged(AdminChangedEvent event) {
+        apply(event);
+    }
+
+    /**
+     * Применить изменение администратора к снимку
+     */
+    public void apply(AdminChangedEvent event) {
+        if (event.active()) {
+            put(event.telegramUserId(), event.role());
+        } else {
+            remove(event.telegramUserId());
+        }
+    }
+
+    /**
+     * Пользователь из whitelist или активный администратор
+     */
+    public boolean isAuthorized(long telegramUserId) {
+        return isWhitelisted(telegramUserId) || isAdmin(telegramUserId);
+    }
+
+    public boolean isWhitelisted(long telegramUserId) {
+        return Arrays.binarySearch(whitelist, telegramUserId) >= 0;
+    }
+
+    public boolean isAdmin(long telegramUserId) {
+        return snapshot.indexOf(telegramUserId) >= 0;
+    }
+
+    /**
+     * @return роль активного администратора или null, если он не найден
+     */
+    public AdminRole getRole(long telegramUserId) {
+        Snapshot current = snapshot;
+        int index = current.indexOf(telegramUserId);
+        return index >= 0 ? current.roles[index] : null;
+    }
+
+    public boolean hasRole(long telegramUserId, AdminRole role) {
+        return getRole(telegramUserId) == role;
+    }
+
+    public boolean hasPermission(long telegramUserId, AdminRole requiredRole) {
+        AdminRole role = getRole(telegramUserId);
+        return role != null && role.hasPermission(requiredRole);
+    }
+
+    /**
+     * Количество активных администраторов в справочнике
+     */
+    public int size() {
+        return snapshot.ids.length;
+    }
+
+    private synchronized void put(long telegramUserId, AdminRole role) {
+        Snapshot current = snapshot;
+        int index = current.indexOf(telegramUserId);
+        if (index >= 0) {
+            AdminRole[] roles = current.roles.clone();
+            roles[index] = role;
+            snapshot = new Snapshot(current.ids, roles);
+            return;
+        }
+
+        int insertAt = -index - 1;
+        int size = current.ids.length;
+        long[] ids = new long[size + 1];
+        AdminRole[] roles = new AdminRole[size + 1];
+        System.arraycopy(current.ids, 0, ids, 0, insertAt);
+        System.arraycopy(current.roles, 0, roles, 0, insertAt);
+        ids[insertAt] = telegramUserId;
+        roles[insertAt] = role;
+        System.arraycopy(current.ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(current.roles, insertAt, roles, insertAt + 1, size - insertAt);
+        snapshot = new Snapshot(ids, roles);
+        log.debug("Admin directory: added telegramUserId={}, role={}", telegramUserId, role);
+    }
+
+    private synchronized void remove(long telegramUserId) {
+        Snapshot current = snapshot;
+        int index = current.indexOf(telegramUserId);
+        if (index < 0) {
+            return;
+        }
+
+        int size = current.ids.length;
+        long[] ids = new long[size - 1];
+        AdminRole[] roles = new AdminRole[size - 1];
+        System.arraycopy(current.ids, 0, ids, 0, index);
+        System.arraycopy(current.roles, 0, roles, 0, index);
+        System.arraycopy(current.ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(current.roles, index + 1, roles, index, size - index - 1);
+        snapshot = new Snapshot(ids, roles);
+        log.debug("Admin directory: removed telegramUserId={}", telegramUserId);
+    }
+
+    private static long[] parseWhitelist(String adminWhitelistStr) {
+        return Arrays.stream(adminWhitelistStr.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .flatMapToLong(value -> {
+                    try {
+                        return LongStream.of(Long.parseLong(value));
+                    } catch (NumberFormatException e) {
+                        log.warn("Invalid admin ID in whitelist, skipping: '{}'", value);
+                        return LongStream.empty();
+                    }
+                })
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Неизменяемый снимок: {@code ids} отсортирован, {@code roles[i]} — роль {@code ids[i]}
+     */
+    private record Snapshot(long[] ids, AdminRole[] roles) {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[0], new AdminRole[0]);
+
+        int indexOf(long telegramUserId) {
+            return Arrays.binarySearch(ids, telegramUserId);
+        }
+    }
+}
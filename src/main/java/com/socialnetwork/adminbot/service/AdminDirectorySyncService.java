@@ -0,0 +1,96 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.AdminDirectoryConfig;
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Синхронизация справочника администраторов между экземплярами сервиса.
+ * <p>
+ * После коммита изменения администратора событие публикуется в канал Redis
+ * pub/sub; каждый экземпляр применяет чужие события к своему
+ * {@link AdminDirectoryService}. Собственные события отбрасываются по идентификатору
+ * узла — локально они уже применены. Потерянные сообщения покрывает
+ * периодическая полная синхронизация справочника.
+ * <p>
+ * Формат сообщения: {@code nodeId|telegramUserId|ROLE|active}
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "admin.directory.sync", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdminDirectorySyncService implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final AdminDirectoryService adminDirectoryService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public AdminDirectorySyncService(AdminDirectoryService adminDirectoryService,
+                                     RedisTemplate<String, String> redisTemplate,
+                                     AdminDirectoryConfig config) {
+        this.adminDirectoryService = adminDirectoryService;
+        this.redisTemplate = redisTemplate;
+        this.channel = config.getSync().getChannel();
+        log.info("AdminDirectorySyncService initialized: channel={}, nodeId={}", channel, nodeId);
+    }
+
+    /**
+     * Разослать изменение другим экземплярам после коммита транзакции
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publish(AdminChangedEvent event) {
+        try {
+            redisTemplate.convertAndSend(channel, encode(nodeId, event));
+        } catch (Exception e) {
+            // Другие экземпляры получат изменение при следующей полной синхронизации
+            log.warn("Failed to publish admin change for telegramUserId={}: {}",
+                    event.telegramUserId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = payload.split("\\" + SEPARATOR);
+        if (parts.length != 4) {
+            log.warn("Ignoring malformed admin change message: {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+
+        try {
+            AdminChangedEvent event = new AdminChangedEvent(
+                    Long.parseLong(parts[1]),
+                    AdminRole.valueOf(parts[2]),
+                    Boolean.parseBoolean(parts[3]));
+            adminDirectoryService.apply(event);
+            log.debug("Applied remote admin change from node {}: {}", parts[0], event);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed admin change message: {}", payload);
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    static String encode(String nodeId, AdminChangedEvent event) {
+        return nodeId + SEPARATOR + event.telegramUserId() + SEPARATOR
+                + event.role().name() + SEPARATOR + event.active();
+    }
+}
@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.service;
 
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
 import com.socialnetwork.adminbot.dto.AdminDto;
 import com.socialnetwork.adminbot.entity.Admin;
 import com.socialnetwork.adminbot.entity.AdminRole;
@@ -8,6 +9,7 @@ import com.socialnetwork.adminbot.exception.UnauthorizedException;
 import com.socialnetwork.adminbot.repository.AdminRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import java.util.List;
 /**
  * Сервис для управления администраторами бота.
  * Предоставляет методы для поиска, создания и проверки прав администраторов.
+ * Проверки прав выполняются по {@link AdminDirectoryService} без обращения к БД.
  *
  * @since 1.0
  */
@@ -24,6 +27,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminService {
     private final AdminRepository adminRepository;
+    private final AdminDirectoryService adminDirectoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Найти администратора по Telegram ID.
@@ -41,13 +46,13 @@ public class AdminService {
     }
 
     /**
-     * Проверить, является ли пользователь администратором.
+     * Проверить, является ли пользователь активным администратором.
      *
      * @param telegramUserId Telegram ID пользователя
      * @return true если пользователь является администратором
      */
     public boolean isAdmin(Long telegramUserId) {
-        return adminRepository.existsByTelegramUserId(telegramUserId);
+        return adminDirectoryService.isAdmin(telegramUserId);
     }
 
     /**
@@ -58,9 +63,7 @@ public class AdminService {
      * @return true если администратор имеет указанную роль
      */
     public boolean hasRole(Long telegramUserId, AdminRole role) {
-        return adminRepository.findByTelegramUserId(telegramUserId)
-                .map(admin -> admin.getRole() == role)
-                .orElse(false);
+        return adminDirectoryService.hasRole(telegramUserId, role);
     }
 
     /**
@@ -72,9 +75,7 @@ public class AdminService {
      * @return true если права достаточны
      */
     public boolean hasPermission(Long telegramUserId, AdminRole requiredRole) {
-        return adminRepository.findByTelegramUserId(telegramUserId)
-                .map(admin -> admin.getRole().hasPermission(requiredRole))
-                .orElse(false);
+        return adminDirectoryService.hasPermission(telegramUserId, requiredRole);
     }
 
     /**
@@ -85,7 +86,12 @@ public class AdminService {
      * @throws UnauthorizedException если администратор не найден
      */
     public AdminRole getRole(Long telegramUserId) {
-        return findByTelegramId(telegramUserId).getRole();
+        AdminRole role = adminDirectoryService.getRole(telegramUserId);
+        if (role == null) {
+            log.warn("Admin not found: telegramUserId={}", telegramUserId);
+            throw new UnauthorizedException("Admin not found");
+        }
+        return role;
     }
 
     /**
@@ -110,6 +116,7 @@ public class AdminService {
                 .build();
 
         Admin saved = adminRepository.save(admin);
+        publishChanged(saved);
         log.info("action=create_admin, telegramUserId={}, role={}, status=success",
                 saved.getTelegramUserId(), saved.getRole());
         return saved;
@@ -142,6 +149,7 @@ public class AdminService {
                 .build();
 
         Admin saved = adminRepository.save(admin);
+        publishChanged(saved);
         log.info("action=create_admin_from_invite, telegramUserId={}, role={}, invitedBy={}, status=success",
                 saved.getTelegramUserId(), saved.getRole(), invitedBy);
         return saved;
@@ -155,4 +163,9 @@ public class AdminService {
     public List<Admin> getAllActiveAdmins() {
         return adminRepository.findByIsActiveTrue();
     }
+
+    private void publishChanged(Admin admin) {
+        eventPublisher.publishEvent(new AdminChangedEvent(
+                admin.getTelegramUserId(), admin.getRole(), Boolean.TRUE.equals(admin.getIsActive())));
+    }
 }
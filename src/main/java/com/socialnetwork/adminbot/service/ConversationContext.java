@@ -0,0 +1,63 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.ConversationState;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Состояние диалога одного пользователя в рамках обработки одного update.
+ * <p>
+ * Открывается через {@link ConversationStateService#openContext(Long)} в потоке,
+ * обрабатывающем update. Пока контекст открыт, {@link ConversationStateService}
+ * читает состояние из хранилища не более одного раза, изменения держит в памяти
+ * и записывает их одной операцией при {@link #close()}.
+ */
+public final class ConversationContext implements AutoCloseable {
+
+    private final ConversationStateService owner;
+    private final Long telegramUserId;
+    private final boolean root;
+
+    boolean loaded;
+    boolean exists;
+    boolean dirty;
+    boolean deleted;
+    ConversationState state;
+    Duration ttl;
+    Map<String, Object> pendingFields;
+    int pendingVersionIncrements;
+    int redisRoundTrips;
+
+    ConversationContext(ConversationStateService owner, Long telegramUserId, boolean root) {
+        this.owner = owner;
+        this.telegramUserId = telegramUserId;
+        this.root = root;
+    }
+
+    public Long getTelegramUserId() {
+        return telegramUserId;
+    }
+
+    /**
+     * Количество обращений к хранилищу за время жизни контекста
+     */
+    public int getRedisRoundTrips() {
+        return redisRoundTrips;
+    }
+
+    boolean isRoot() {
+        return root;
+    }
+
+    /**
+     * Записать накопленные изменения в хранилище и закрыть контекст.
+     * Вложенный контекст (открытый при уже активном) ничего не делает.
+     */
+    @Override
+    public void close() {
+        if (root) {
+            owner.closeContext(this);
+        }
+    }
+}
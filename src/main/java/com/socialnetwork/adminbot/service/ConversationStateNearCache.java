@@ -0,0 +1,289 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Near-cache состояний диалогов в памяти процесса.
+ * <p>
+ * Копии хранятся в бинарном формате {@link ConversationStateCodec}, поэтому каждый
+ * {@link #get} возвращает новый объект и изменения вызывающего кода не попадают в кэш.
+ * Отсутствие ключа (IDLE) тоже кэшируется.
+ * <p>
+ * Актуальность обеспечивает Redis: отдельное RESP3-подключение включает
+ * {@code CLIENT TRACKING ON BCAST PREFIX telegram:state:}, и запись ключа любым
+ * экземпляром присылает push-сообщение {@code invalidate}. Чтение, во время которого
+ * пришла хотя бы одна инвалидация, в кэш не кладётся - иначе оно могло бы вернуть
+ * значение, уже перезаписанное другим экземпляром. При разрыве подключения кэш
+ * очищается и не используется, пока tracking не включён заново.
+ * <p>
+ * Если Redis не поддерживает RESP3/tracking, кэш выключается и все чтения идут в Redis.
+ */
+@Slf4j
+@Component
+public class ConversationStateNearCache {
+
+    /**
+     * Общий префикс ключей обеих раскладок состояния
+     */
+    static final String KEY_PREFIX = "telegram:state:";
+
+    private static final byte[] ABSENT = new byte[0];
+
+    private final Cache<String, byte[]> cache;
+    private final ConversationStateCodec codec;
+    private final RedisConnectionFactory connectionFactory;
+    private final Counter invalidationCounter;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    private volatile boolean tracking;
+    private StatefulRedisConnection<String, String> trackingConnection;
+    private ExecutorService trackingExecutor;
+
+    @Autowired
+    public ConversationStateNearCache(ConversationStateConfig config,
+                                      RedisConnectionFactory connectionFactory,
+                                      ObjectMapper redisObjectMapper,
+                                      MeterRegistry meterRegistry) {
+        ConversationStateConfig.NearCache settings = config.getNearCache();
+        this.connectionFactory = connectionFactory;
+        this.codec = new ConversationStateCodec(redisObjectMapper, true);
+        if (!settings.isEnabled() || config.getStore() != ConversationStateConfig.Store.REDIS) {
+            this.cache = null;
+            this.invalidationCounter = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "telegram.conversation.nearcache");
+        this.invalidationCounter = Counter.builder("telegram.conversation.nearcache.invalidations")
+                .description("Инвалидации near-cache, присланные Redis")
+                .register(meterRegistry);
+    }
+
+    private ConversationStateNearCache() {
+        this.cache = null;
+        this.codec = null;
+        this.connectionFactory = null;
+        this.invalidationCounter = null;
+    }
+
+    /**
+     * Выключенный кэш: все чтения идут в Redis
+     */
+    public static ConversationStateNearCache disabled() {
+        return new ConversationStateNearCache();
+    }
+
+    @PostConstruct
+    void start() {
+        if (cache == null) {
+            return;
+        }
+        AbstractRedisClient nativeClient = connectionFactory instanceof LettuceConnectionFactory lettuce
+                ? lettuce.getNativeClient()
+                : null;
+        if (!(nativeClient instanceof RedisClient client)) {
+            log.warn("Conversation state near-cache needs a standalone Lettuce client, reading state from Redis");
+            return;
+        }
+
+        try {
+            trackingConnection = client.connect(StringCodec.UTF8);
+            String clientInfo = trackingConnection.sync().clientInfo();
+            if (clientInfo == null || !clientInfo.contains("resp=3")) {
+                log.warn("Redis did not negotiate RESP3, near-cache disabled, reading state from Redis");
+                trackingConnection.close();
+                trackingConnection = null;
+                return;
+            }
+            trackingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "state-near-cache-tracking");
+                thread.setDaemon(true);
+                return thread;
+            });
+            trackingConnection.addListener(this::onPushMessage);
+            client.addListener(new TrackingConnectionListener());
+            enableTracking();
+            log.info("Conversation state near-cache enabled with Redis client tracking");
+        } catch (Exception e) {
+            log.warn("Redis client tracking is not available, near-cache disabled: {}", e.getMessage());
+            stop();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        trackingStopped();
+        if (trackingExecutor != null) {
+            trackingExecutor.shutdownNow();
+        }
+        if (trackingConnection != null) {
+            trackingConnection.close();
+            trackingConnection = null;
+        }
+    }
+
+    /**
+     * Номер последней инвалидации. Берётся до чтения из Redis и передаётся в {@link #put}.
+     */
+    public long beginRead() {
+        return invalidationSequence.get();
+    }
+
+    /**
+     * Состояние из кэша
+     *
+     * @return null если ключа нет в кэше; {@link Cached} с null-состоянием если ключа нет в Redis
+     */
+    public Cached get(String key) {
+        if (!tracking) {
+            return null;
+        }
+        byte[] bytes = cache.getIfPresent(key);
+        if (bytes == null) {
+            return null;
+        }
+        return new Cached(bytes.length == 0 ? null : codec.deserialize(bytes));
+    }
+
+    /**
+     * Положить прочитанное из Redis состояние, если с начала чтения не было инвалидаций
+     *
+     * @param state       прочитанное состояние, null если ключа нет
+     * @param readStarted результат {@link #beginRead()} перед чтением
+     */
+    public void put(String key, ConversationState state, long readStarted) {
+        if (!tracking || invalidationSequence.get() != readStarted) {
+            return;
+        }
+        cache.put(key, state != null ? codec.serialize(state) : ABSENT);
+    }
+
+    /**
+     * Забыть ключ после собственной записи, не дожидаясь push-сообщения от Redis
+     */
+    public void invalidate(String key) {
+        if (cache == null) {
+            return;
+        }
+        invalidationSequence.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List<?> list) {
+            onInvalidate(list);
+        } else {
+            // FLUSHALL/FLUSHDB присылают инвалидацию без ключей
+            invalidateAll();
+        }
+    }
+
+    void onInvalidate(List<?> keys) {
+        invalidationSequence.incrementAndGet();
+        for (Object key : keys) {
+            cache.invalidate(String.valueOf(key));
+        }
+        invalidationCounter.increment(keys.size());
+    }
+
+    /**
+     * Tracking включён: с этого момента Redis присылает инвалидации
+     */
+    void trackingStarted() {
+        tracking = true;
+    }
+
+    /**
+     * Инвалидации могли потеряться: кэш очищается и не используется
+     */
+    void trackingStopped() {
+        tracking = false;
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        if (cache != null) {
+            invalidationSequence.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    private void enableTracking() {
+        trackingConnection.sync().clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(KEY_PREFIX));
+        trackingStarted();
+    }
+
+    /**
+     * Состояние из кэша; {@code state == null} - ключа в Redis нет
+     */
+    public record Cached(ConversationState state) {
+    }
+
+    /**
+     * Следит за tracking-подключением: после переподключения Redis не помнит
+     * CLIENT TRACKING, его нужно включить заново (не в потоке event loop)
+     */
+    private class TrackingConnectionListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+            if (connection != trackingConnection) {
+                return;
+            }
+            trackingExecutor.execute(() -> {
+                try {
+                    enableTracking();
+                    log.info("Redis client tracking restored after reconnect");
+                } catch (Exception e) {
+                    log.warn("Failed to restore Redis client tracking: {}", e.getMessage());
+                }
+            });
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+            if (connection == trackingConnection) {
+                trackingStopped();
+                log.warn("Redis client tracking connection lost, near-cache suspended");
+            }
+        }
+    }
+}
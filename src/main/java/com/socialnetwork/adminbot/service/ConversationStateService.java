@@ -1,43 +1,78 @@
 package com.socialnetwork.adminbot.service;
 
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
 import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
-import lombok.RequiredArgsConstructor;
+import com.socialnetwork.adminbot.exception.StateConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
- * Сервис для управления состояниями диалогов в Redis
+ * Сервис для управления состояниями диалогов
+ * <p>
+ * Состояния хранятся в {@link ConversationStateStore} (по умолчанию Redis).
+ * Если для пользователя открыт {@link ConversationContext} (на время обработки update),
+ * состояние читается из хранилища один раз, изменения копятся в памяти и записываются
+ * одной операцией при закрытии контекста. Без контекста каждый вызов идёт в хранилище.
+ * <p>
+ * Если хранилище умеет менять отдельные поля ({@link ConversationStateStore#supportsFieldUpdates()},
+ * например Redis в раскладке {@link ConversationStateConfig.Layout#HASH}), {@link #updateStateData}
+ * меняет только одно поле без чтения и перезаписи всего состояния.
+ * <p>
+ * Пустое состояние IDLE не хранится ({@link ConversationStateConfig#isIdleAsAbsent()}):
+ * отсутствие записи и есть IDLE, поэтому сброс диалога - одно удаление.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ConversationStateService {
 
-    private final RedisTemplate<String, ConversationState> conversationStateRedisTemplate;
+    private final ConversationStateStore store;
+    private final ThreadLocal<ConversationContext> currentContext = new ThreadLocal<>();
+    private final DistributionSummary roundTripsPerUpdate;
+    private final Counter uncontextualRoundTrips;
+    private final boolean idleAsAbsent;
 
-    /**
-     * Префикс для ключей состояний в Redis
-     */
-    private static final String STATE_KEY_PREFIX = "telegram:state:";
+    public ConversationStateService(ConversationStateStore store,
+                                    ConversationStateConfig config,
+                                    MeterRegistry meterRegistry) {
+        this.store = store;
+        this.idleAsAbsent = config.isIdleAsAbsent();
+        this.roundTripsPerUpdate = DistributionSummary.builder("telegram.conversation.redis.roundtrips")
+                .description("Обращения к хранилищу состояний диалога на один update")
+                .register(meterRegistry);
+        this.uncontextualRoundTrips = Counter.builder("telegram.conversation.redis.roundtrips.uncontextual")
+                .description("Обращения к хранилищу состояний диалога вне контекста update")
+                .register(meterRegistry);
+    }
 
     /**
      * TTL для состояний по умолчанию (30 минут)
      */
     private static final Duration DEFAULT_STATE_TTL = Duration.ofMinutes(30);
 
+    private static final long NO_VERSION_CHECK = -1L;
+
     /**
      * Получить текущее состояние пользователя
      * Если состояние не найдено, возвращает IDLE
      */
     public ConversationState getState(Long telegramUserId) {
-        String key = buildKey(telegramUserId);
-        ConversationState state = conversationStateRedisTemplate.opsForValue().get(key);
+        ConversationContext context = contextFor(telegramUserId);
+        if (context != null) {
+            return load(context).state;
+        }
+
+        ConversationState state = read(telegramUserId, null);
 
         if (state == null) {
             log.debug("No state found for user {}. Returning IDLE", telegramUserId);
@@ -52,8 +87,12 @@ public class ConversationStateService {
      * Получить текущее состояние как Optional
      */
     public Optional<ConversationState> getStateOptional(Long telegramUserId) {
-        String key = buildKey(telegramUserId);
-        return Optional.ofNullable(conversationStateRedisTemplate.opsForValue().get(key));
+        ConversationContext context = contextFor(telegramUserId);
+        if (context != null) {
+            load(context);
+            return context.exists ? Optional.of(context.state) : Optional.empty();
+        }
+        return Optional.ofNullable(read(telegramUserId, null));
     }
 
     /**
@@ -68,7 +107,10 @@ public class ConversationStateService {
      * Установить новое состояние с кастомным TTL
      */
     public void setState(Long telegramUserId, ConversationState state, Duration ttl) {
-        String key = buildKey(telegramUserId);
+        if (isStoredAsAbsent(state)) {
+            clearState(telegramUserId);
+            return;
+        }
 
         // Обновляем timestamp
         state.setUpdatedAt(LocalDateTime.now());
@@ -76,7 +118,19 @@ public class ConversationStateService {
             state.setCreatedAt(LocalDateTime.now());
         }
 
-        conversationStateRedisTemplate.opsForValue().set(key, state, ttl);
+        ConversationContext context = contextFor(telegramUserId);
+        if (context != null) {
+            // Запись откладывается до закрытия контекста
+            context.loaded = true;
+            context.exists = true;
+            context.dirty = true;
+            context.deleted = false;
+            context.state = state;
+            context.ttl = ttl;
+        } else {
+            uncontextualRoundTrips.increment();
+            store.save(telegramUserId, state, ttl);
+        }
 
         log.debug("Set state for user {}: {} (TTL: {})",
                 telegramUserId, state.getState(), ttl);
@@ -111,20 +165,125 @@ public class ConversationStateService {
         log.info("User {} transitioned to state: {} (data cleared)", telegramUserId, newState);
     }
 
+    /**
+     * Атомарно перевести пользователя в новое состояние (в Redis - одним скриптом).
+     * <p>
+     * Хранилище проверяет, что текущее состояние входит в {@code allowedFrom}, и, если
+     * состояние уже прочитано в открытом контексте, что его версия не изменилась.
+     * Отложенные изменения контекста предварительно записываются в хранилище.
+     *
+     * @param allowedFrom состояния, из которых разрешён переход
+     * @param clearData   очистить данные диалога
+     * @return состояние, из которого выполнен переход
+     * @throws IllegalStateException  если переход из текущего состояния не разрешён
+     * @throws StateConflictException если состояние изменено параллельно
+     */
+    public BotState compareAndTransition(Long telegramUserId, BotState newState,
+                                         Set<BotState> allowedFrom, boolean clearData) {
+        ConversationContext context = contextFor(telegramUserId);
+        long expectedVersion = NO_VERSION_CHECK;
+        if (context != null) {
+            flushPending(context);
+            if (context.loaded) {
+                expectedVersion = context.exists && context.state.getVersion() != null
+                        ? context.state.getVersion()
+                        : 0L;
+            }
+            context.redisRoundTrips++;
+        } else {
+            uncontextualRoundTrips.increment();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean deleteOnIdle = idleAsAbsent && clearData && newState == BotState.IDLE;
+        ConversationStateStore.TransitionResult result = store.compareAndTransition(telegramUserId, newState,
+                allowedFrom, expectedVersion, clearData, deleteOnIdle, now, DEFAULT_STATE_TTL);
+        BotState fromState = result.fromState();
+        long version = result.version();
+
+        switch (result.status()) {
+            case OK -> {
+                if (context != null && deleteOnIdle) {
+                    context.loaded = true;
+                    context.exists = false;
+                    context.state = ConversationState.idle();
+                } else if (context != null && context.loaded) {
+                    if (!context.exists) {
+                        context.state = ConversationState.idle();
+                        context.exists = true;
+                    }
+                    context.state.setState(newState);
+                    context.state.setVersion(version);
+                    context.state.setUpdatedAt(now);
+                    if (clearData) {
+                        context.state.getData().clear();
+                    }
+                }
+                log.info("User {} transitioned to state: {} (version {})", telegramUserId, newState, version);
+                return fromState;
+            }
+            case CONFLICT -> {
+                invalidate(context);
+                throw new StateConflictException(String.format(
+                        "State of user %d changed concurrently: expected version %d, actual %d",
+                        telegramUserId, expectedVersion, version));
+            }
+            default -> {
+                invalidate(context);
+                throw new IllegalStateException(String.format(
+                        "Transition not allowed: %s -> %s for user %d",
+                        fromState, newState, telegramUserId));
+            }
+        }
+    }
+
     /**
      * Обновить данные в текущем состоянии
      */
     public void updateStateData(Long telegramUserId, String key, Object value) {
-        ConversationState state = getState(telegramUserId);
-        state.addData(key, value);
-        state.incrementVersion();
-        setState(telegramUserId, state);
+        ConversationContext context = contextFor(telegramUserId);
+        if (store.supportsFieldUpdates() && (context == null || !(context.dirty || context.deleted))) {
+            updateField(telegramUserId, context, key, value);
+        } else {
+            ConversationState state = getState(telegramUserId);
+            state.addData(key, value);
+            state.incrementVersion();
+            setState(telegramUserId, state);
+        }
 
         log.debug("Updated state data for user {}: {}={}", telegramUserId, key, value);
     }
 
     /**
-     * Сбросить состояние пользователя в IDLE
+     * Изменить одно поле данных, не перечитывая состояние.
+     * В контексте изменение применяется к прочитанному состоянию и копится до закрытия.
+     */
+    private void updateField(Long telegramUserId, ConversationContext context, String key, Object value) {
+        if (context == null) {
+            uncontextualRoundTrips.increment();
+            store.updateFields(telegramUserId, Map.of(key, value), 1, LocalDateTime.now(), DEFAULT_STATE_TTL);
+            return;
+        }
+
+        if (context.pendingFields == null) {
+            context.pendingFields = new LinkedHashMap<>();
+        }
+        context.pendingFields.put(key, value);
+        context.pendingVersionIncrements++;
+        if (context.loaded) {
+            applyField(context, key, value);
+        }
+    }
+
+    private static void applyField(ConversationContext context, String key, Object value) {
+        context.exists = true;
+        context.state.addData(key, value);
+        context.state.incrementVersion();
+    }
+
+    /**
+     * Сбросить состояние пользователя в IDLE.
+     * Если IDLE не хранится, это один DEL (в контексте - при его закрытии).
      */
     public void resetToIdle(Long telegramUserId) {
         transitionToWithClear(telegramUserId, BotState.IDLE);
@@ -132,11 +291,20 @@ public class ConversationStateService {
     }
 
     /**
-     * Удалить состояние пользователя из Redis
+     * Удалить состояние пользователя из хранилища
      */
     public void clearState(Long telegramUserId) {
-        String key = buildKey(telegramUserId);
-        conversationStateRedisTemplate.delete(key);
+        ConversationContext context = contextFor(telegramUserId);
+        if (context != null) {
+            context.loaded = true;
+            context.exists = false;
+            context.dirty = false;
+            context.deleted = true;
+            context.state = ConversationState.idle();
+        } else {
+            uncontextualRoundTrips.increment();
+            store.delete(telegramUserId);
+        }
         log.debug("Cleared state for user {}", telegramUserId);
     }
 
@@ -163,9 +331,103 @@ public class ConversationStateService {
     }
 
     /**
-     * Построить ключ для Redis
+     * Открыть контекст состояния пользователя на время обработки update.
+     * Использовать в try-with-resources: изменения записываются в хранилище при закрытии.
+     * Если контекст уже открыт в этом потоке, возвращается вложенный,
+     * закрытие которого ничего не делает.
+     */
+    public ConversationContext openContext(Long telegramUserId) {
+        if (currentContext.get() != null) {
+            return new ConversationContext(this, telegramUserId, false);
+        }
+        ConversationContext context = new ConversationContext(this, telegramUserId, true);
+        currentContext.set(context);
+        return context;
+    }
+
+    /**
+     * Записать изменения контекста (не более одной операции хранилища) и отвязать его от потока
+     */
+    void closeContext(ConversationContext context) {
+        try {
+            flushPending(context);
+        } catch (Exception e) {
+            log.error("Failed to flush conversation state for user {}: {}",
+                    context.getTelegramUserId(), e.getMessage(), e);
+        } finally {
+            currentContext.remove();
+            roundTripsPerUpdate.record(context.redisRoundTrips);
+        }
+    }
+
+    private void flushPending(ConversationContext context) {
+        try {
+            if (context.deleted) {
+                context.redisRoundTrips++;
+                store.delete(context.getTelegramUserId());
+            } else if (context.dirty) {
+                context.redisRoundTrips++;
+                store.save(context.getTelegramUserId(), context.state, context.ttl);
+            } else if (context.pendingFields != null && !context.pendingFields.isEmpty()) {
+                context.redisRoundTrips++;
+                store.updateFields(context.getTelegramUserId(), context.pendingFields,
+                        context.pendingVersionIncrements, LocalDateTime.now(), DEFAULT_STATE_TTL);
+            }
+        } finally {
+            context.deleted = false;
+            context.dirty = false;
+            context.pendingFields = null;
+            context.pendingVersionIncrements = 0;
+        }
+    }
+
+    /**
+     * Забыть прочитанное в контексте состояние: оно устарело, следующее чтение пойдёт в хранилище
      */
-    private String buildKey(Long telegramUserId) {
-        return STATE_KEY_PREFIX + telegramUserId;
+    private void invalidate(ConversationContext context) {
+        if (context != null) {
+            context.loaded = false;
+            context.exists = false;
+            context.state = null;
+        }
+    }
+
+    /**
+     * IDLE без данных не записывается: отсутствие ключа читается как IDLE
+     */
+    private boolean isStoredAsAbsent(ConversationState state) {
+        return idleAsAbsent
+                && state.getState() == BotState.IDLE
+                && (state.getData() == null || state.getData().isEmpty());
+    }
+
+    private ConversationContext contextFor(Long telegramUserId) {
+        ConversationContext context = currentContext.get();
+        return context != null && telegramUserId != null && telegramUserId.equals(context.getTelegramUserId())
+                ? context
+                : null;
+    }
+
+    private ConversationContext load(ConversationContext context) {
+        if (!context.loaded) {
+            ConversationState state = read(context.getTelegramUserId(), context);
+            context.loaded = true;
+            context.exists = state != null;
+            context.state = state != null ? state : ConversationState.idle();
+            if (context.pendingFields != null) {
+                // Поля, изменённые до первого чтения, ещё не записаны в хранилище
+                context.pendingFields.forEach((key, value) -> applyField(context, key, value));
+            }
+        }
+        return context;
+    }
+
+    private ConversationState read(Long telegramUserId, ConversationContext context) {
+        if (context != null) {
+            context.redisRoundTrips++;
+        } else {
+            uncontextualRoundTrips.increment();
+        }
+        return store.load(telegramUserId);
     }
 }
@@ -0,0 +1,79 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Хранилище состояний диалогов, на которое опирается {@link ConversationStateService}.
+ * <p>
+ * Реализация выбирается настройкой {@code telegram.state.store}: Redis (по умолчанию),
+ * память процесса (один экземпляр, тесты) или UNLOGGED-таблица Postgres.
+ * Все реализации обязаны вести себя одинаково (см. общий контрактный тест):
+ * <ul>
+ *     <li>состояние с истёкшим TTL не читается;</li>
+ *     <li>{@link #load} возвращает копию: изменения объекта не попадают в хранилище до {@link #save};</li>
+ *     <li>{@link #compareAndTransition} атомарен относительно других операций с тем же пользователем.</li>
+ * </ul>
+ */
+public interface ConversationStateStore {
+
+    /**
+     * Прочитать состояние
+     *
+     * @return null если состояния нет или его TTL истёк
+     */
+    ConversationState load(Long telegramUserId);
+
+    /**
+     * Полностью заменить состояние
+     */
+    void save(Long telegramUserId, ConversationState state, Duration ttl);
+
+    void delete(Long telegramUserId);
+
+    /**
+     * Может ли хранилище изменить отдельные поля данных дешевле, чем чтение и полная запись.
+     * Если нет, {@link ConversationStateService} пишет состояние целиком.
+     */
+    boolean supportsFieldUpdates();
+
+    /**
+     * Записать поля данных, увеличить версию на {@code versionIncrements} и продлить TTL.
+     * Отсутствующее состояние создаётся как IDLE с этими полями.
+     */
+    void updateFields(Long telegramUserId, Map<String, Object> fields, int versionIncrements,
+                      LocalDateTime updatedAt, Duration ttl);
+
+    /**
+     * Атомарно перевести пользователя в новое состояние.
+     * Отсутствующее состояние считается IDLE с версией 0.
+     *
+     * @param allowedFrom     состояния, из которых разрешён переход
+     * @param expectedVersion ожидаемая версия, -1 - без проверки
+     * @param clearData       очистить данные диалога
+     * @param deleteOnIdle    удалить состояние вместо записи (переход в пустой IDLE)
+     */
+    TransitionResult compareAndTransition(Long telegramUserId, BotState newState, Set<BotState> allowedFrom,
+                                          long expectedVersion, boolean clearData, boolean deleteOnIdle,
+                                          LocalDateTime now, Duration ttl);
+
+    /**
+     * Результат перехода
+     *
+     * @param fromState состояние до перехода (текущее, если переход не выполнен)
+     * @param version   версия после перехода (текущая, если переход не выполнен; 0 если состояние удалено)
+     */
+    record TransitionResult(Status status, BotState fromState, long version) {
+
+        public enum Status {
+            OK,
+            REJECTED,
+            CONFLICT
+        }
+    }
+}
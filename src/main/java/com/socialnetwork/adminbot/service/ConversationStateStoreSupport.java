@@ -0,0 +1,80 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.service.ConversationStateStore.TransitionResult;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Правила изменения состояния для хранилищ, которые выполняют их на стороне приложения
+ * под своей блокировкой. Повторяют Lua-скрипты Redis-хранилища.
+ */
+final class ConversationStateStoreSupport {
+
+    private ConversationStateStoreSupport() {
+    }
+
+    /**
+     * Вычислить переход для текущего сохранённого состояния
+     *
+     * @param current сохранённое состояние, null если его нет
+     */
+    static Transition transition(ConversationState current, BotState newState, Set<BotState> allowedFrom,
+                                 long expectedVersion, boolean clearData, boolean deleteOnIdle, LocalDateTime now) {
+        BotState fromState = current != null && current.getState() != null ? current.getState() : BotState.IDLE;
+        long version = current != null && current.getVersion() != null ? current.getVersion() : 0L;
+
+        if (!allowedFrom.contains(fromState)) {
+            return new Transition(new TransitionResult(TransitionResult.Status.REJECTED, fromState, version), null);
+        }
+        if (expectedVersion >= 0 && expectedVersion != version) {
+            return new Transition(new TransitionResult(TransitionResult.Status.CONFLICT, fromState, version), null);
+        }
+        if (deleteOnIdle) {
+            return new Transition(new TransitionResult(TransitionResult.Status.OK, fromState, 0L), null);
+        }
+
+        ConversationState next = current != null ? current : ConversationState.builder().createdAt(now).build();
+        next.setState(newState);
+        next.setVersion(version + 1);
+        next.setUpdatedAt(now);
+        if (next.getCreatedAt() == null) {
+            next.setCreatedAt(now);
+        }
+        if (clearData || next.getData() == null) {
+            next.setData(new HashMap<>());
+        }
+        return new Transition(new TransitionResult(TransitionResult.Status.OK, fromState, version + 1), next);
+    }
+
+    /**
+     * Применить изменение полей данных; отсутствующее состояние создаётся как IDLE
+     */
+    static ConversationState withFields(ConversationState current, Map<String, Object> fields,
+                                        int versionIncrements, LocalDateTime updatedAt) {
+        ConversationState state = current != null
+                ? current
+                : ConversationState.builder().state(BotState.IDLE).createdAt(updatedAt).build();
+        if (state.getData() == null) {
+            state.setData(new HashMap<>());
+        }
+        state.getData().putAll(fields);
+        state.setVersion((state.getVersion() != null ? state.getVersion() : 0L) + versionIncrements);
+        state.setUpdatedAt(updatedAt);
+        return state;
+    }
+
+    /**
+     * @param state состояние для записи; null если запись нужно удалить (при OK) или не менять
+     */
+    record Transition(TransitionResult result, ConversationState state) {
+
+        boolean deletes() {
+            return result.status() == TransitionResult.Status.OK && state == null;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.config.RedisFailoverConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Хранилище состояний в Redis с переключением в память процесса при недоступности Redis.
+ * <p>
+ * В обычном режиме все операции идут в {@link RedisConversationStateStore}. Первая ошибка
+ * соединения или таймаут переводит хранилище в деградированный режим (через
+ * {@link RedisAvailabilityMonitor}), и операция, а за ней и все следующие, выполняется
+ * в ограниченном по размеру {@link InMemoryConversationStateStore}. Диалоги, начатые
+ * до сбоя, при этом начинаются заново: их состояния остались в Redis.
+ * <p>
+ * После восстановления Redis локальные состояния пользователей, изменённых во время сбоя,
+ * переносятся в Redis с оставшимся TTL (сброшенные диалоги удаляются) - локальная копия
+ * новее той, что осталась в Redis до сбоя. Основная часть переносится параллельно с работой
+ * обработчиков, последние изменения - под блокировкой записи, после чего хранилище
+ * возвращается к Redis и локальные копии удаляются. Если перенос не удался,
+ * хранилище остаётся в деградированном режиме до следующего восстановления.
+ */
+@Slf4j
+@Component
+@Primary
+@ConditionalOnBooleanProperty(prefix = "redis.failover", name = "enabled", matchIfMissing = true)
+@ConditionalOnProperty(prefix = "telegram.state", name = "store", havingValue = "redis", matchIfMissing = true)
+public class FailoverConversationStateStore implements ConversationStateStore {
+
+    private final RedisConversationStateStore redisStore;
+    private final InMemoryConversationStateStore localStore;
+    private final RedisAvailabilityMonitor redisAvailability;
+
+    /**
+     * Операции держат блокировку чтения, завершение переноса - блокировку записи,
+     * чтобы ни одно локальное изменение не потерялось при возврате к Redis
+     */
+    private final ReadWriteLock modeLock = new ReentrantReadWriteLock();
+    private final Set<Long> changedLocally = ConcurrentHashMap.newKeySet();
+    private volatile boolean degraded;
+
+    @Autowired
+    public FailoverConversationStateStore(RedisConversationStateStore redisStore,
+                                          ConversationStateConfig stateConfig,
+                                          RedisFailoverConfig failoverConfig,
+                                          ObjectMapper redisObjectMapper,
+                                          RedisAvailabilityMonitor redisAvailability) {
+        this(redisStore,
+                new InMemoryConversationStateStore(localSettings(stateConfig.getMemory(), failoverConfig),
+                        redisObjectMapper, Clock.systemUTC()),
+                redisAvailability);
+    }
+
+    FailoverConversationStateStore(RedisConversationStateStore redisStore,
+                                   InMemoryConversationStateStore localStore,
+                                   RedisAvailabilityMonitor redisAvailability) {
+        this.redisStore = redisStore;
+        this.localStore = localStore;
+        this.redisAvailability = redisAvailability;
+        this.degraded = !redisAvailability.isAvailable();
+    }
+
+    private static ConversationStateConfig.Memory localSettings(ConversationStateConfig.Memory memory,
+                                                                RedisFailoverConfig failoverConfig) {
+        ConversationStateConfig.Memory settings = new ConversationStateConfig.Memory();
+        settings.setStripes(memory.getStripes());
+        settings.setTick(memory.getTick());
+        settings.setWheelSize(memory.getWheelSize());
+        settings.setMaxEntries(failoverConfig.getMaxLocalStates());
+        return settings;
+    }
+
+    @PostConstruct
+    void start() {
+        localStore.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        localStore.stop();
+    }
+
+    @Override
+    public ConversationState load(Long telegramUserId) {
+        return execute(telegramUserId, false, store -> store.load(telegramUserId));
+    }
+
+    @Override
+    public void save(Long telegramUserId, ConversationState state, Duration ttl) {
+        execute(telegramUserId, true, store -> {
+            store.save(telegramUserId, state, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Long telegramUserId) {
+        execute(telegramUserId, true, store -> {
+            store.delete(telegramUserId);
+            return null;
+        });
+    }
+
+    /**
+     * Определяется раскладкой Redis: локальное хранилище поддерживает оба варианта
+     */
+    @Override
+    public boolean supportsFieldUpdates() {
+        return redisStore.supportsFieldUpdates();
+    }
+
+    @Override
+    public void updateFields(Long telegramUserId, Map<String, Object> fields, int versionIncrements,
+                             LocalDateTime updatedAt, Duration ttl) {
+        execute(telegramUserId, true, store -> {
+            store.updateFields(telegramUserId, fields, versionIncrements, updatedAt, ttl);
+            return null;
+        });
+    }
+
+    @Override
+    public TransitionResult compareAndTransition(Long telegramUserId, BotState newState, Set<BotState> allowedFrom,
+                                                 long expectedVersion, boolean clearData, boolean deleteOnIdle,
+                                                 LocalDateTime now, Duration ttl) {
+        return execute(telegramUserId, true, store -> store.compareAndTransition(
+                telegramUserId, newState, allowedFrom, expectedVersion, clearData, deleteOnIdle, now, ttl));
+    }
+
+    /**
+     * Работает ли хранилище сейчас без Redis
+     */
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Количество состояний в памяти процесса
+     */
+    public int localSize() {
+        return localStore.size();
+    }
+
+    @EventListener
+    public void onRedisAvailabilityChanged(RedisAvailabilityChangedEvent event) {
+        if (!event.available()) {
+            degraded = true;
+        } else if (degraded) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Перенести изменённые во время сбоя состояния в Redis и вернуться к нему
+     */
+    void reconcile() {
+        int moved;
+        try {
+            moved = flushChanged();
+            modeLock.writeLock().lock();
+            try {
+                moved += flushChanged();
+                degraded = false;
+                localStore.clear();
+            } finally {
+                modeLock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to move local conversation states back to Redis, staying in degraded mode: {}",
+                    e.getMessage());
+            redisAvailability.markDown("State reconciliation failed: " + e.getMessage());
+            return;
+        }
+        log.info("Moved {} conversation state(s) back to Redis, leaving degraded mode", moved);
+    }
+
+    private <T> T execute(Long telegramUserId, boolean writes, Function<ConversationStateStore, T> operation) {
+        modeLock.readLock().lock();
+        try {
+            if (!degraded) {
+                try {
+                    return operation.apply(redisStore);
+                } catch (RuntimeException e) {
+                    if (!redisAvailability.reportFailure(e)) {
+                        throw e;
+                    }
+                    degraded = true;
+                    log.debug("Redis failed for user {}, falling back to local state store", telegramUserId);
+                }
+            }
+            if (writes) {
+                changedLocally.add(telegramUserId);
+            }
+            return operation.apply(localStore);
+        } finally {
+            modeLock.readLock().unlock();
+        }
+    }
+
+    private int flushChanged() {
+        int moved = 0;
+        Iterator<Long> iterator = changedLocally.iterator();
+        while (iterator.hasNext()) {
+            Long telegramUserId = iterator.next();
+            iterator.remove();
+            try {
+                flush(telegramUserId);
+            } catch (RuntimeException e) {
+                changedLocally.add(telegramUserId);
+                throw e;
+            }
+            moved++;
+        }
+        return moved;
+    }
+
+    private void flush(Long telegramUserId) {
+        ConversationState state = localStore.load(telegramUserId);
+        Duration ttl = localStore.remainingTtl(telegramUserId);
+        if (state == null || ttl == null || ttl.isZero() || ttl.isNegative()) {
+            redisStore.delete(telegramUserId);
+        } else {
+            redisStore.save(telegramUserId, state, ttl);
+        }
+    }
+}
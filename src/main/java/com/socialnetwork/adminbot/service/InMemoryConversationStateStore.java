@@ -0,0 +1,300 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Состояния диалогов в памяти процесса.
+ * <p>
+ * Пользователи распределены по сегментам ({@code stripes}), у каждого своя блокировка,
+ * поэтому операции разных пользователей почти не конкурируют, а переход состояния
+ * атомарен под блокировкой сегмента. Состояния хранятся в бинарном формате
+ * {@link ConversationStateCodec}: {@link #load} каждый раз возвращает новый объект.
+ * <p>
+ * Записи с истёкшим TTL не читаются сразу, а память освобождает колесо таймеров:
+ * при записи пользователь попадает в ячейку тика, на котором истекает TTL, и раз в тик
+ * просматривается только ячейка прошедшего тика, а не все записи. Записи с TTL длиннее
+ * оборота колеса остаются в ячейке до нужного оборота.
+ * <p>
+ * При заданном {@link ConversationStateConfig.Memory#getMaxEntries()} размер ограничен:
+ * новый пользователь в заполненном сегменте вытесняет запись с ближайшим истечением TTL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "telegram.state", name = "store", havingValue = "memory")
+public class InMemoryConversationStateStore implements ConversationStateStore {
+
+    private final Stripe[] stripes;
+    private final List<Set<Long>> wheel;
+    private final long tickMillis;
+    private final int maxEntriesPerStripe;
+    private final ConversationStateCodec codec;
+    private final Clock clock;
+    private long lastSweptTick;
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public InMemoryConversationStateStore(ConversationStateConfig config, ObjectMapper redisObjectMapper) {
+        this(config.getMemory(), redisObjectMapper, Clock.systemUTC());
+    }
+
+    InMemoryConversationStateStore(ConversationStateConfig.Memory settings, ObjectMapper objectMapper, Clock clock) {
+        if (Integer.bitCount(settings.getStripes()) != 1 || Integer.bitCount(settings.getWheelSize()) != 1) {
+            throw new IllegalArgumentException("Stripes and wheel size must be powers of two");
+        }
+        this.stripes = new Stripe[settings.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.wheel = new ArrayList<>(settings.getWheelSize());
+        for (int i = 0; i < settings.getWheelSize(); i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.tickMillis = settings.getTick().toMillis();
+        this.maxEntriesPerStripe = settings.getMaxEntries() > 0
+                ? Math.max(1, settings.getMaxEntries() / stripes.length)
+                : Integer.MAX_VALUE;
+        this.codec = new ConversationStateCodec(objectMapper, true);
+        this.clock = clock;
+        this.lastSweptTick = clock.millis() / tickMillis - 1;
+    }
+
+    @PostConstruct
+    void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-store-timer-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::sweepSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("In-memory conversation state store started: {} stripes, {} wheel slots x {} ms",
+                stripes.length, wheel.size(), tickMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public ConversationState load(Long telegramUserId) {
+        Stripe stripe = stripeFor(telegramUserId);
+        byte[] payload;
+        synchronized (stripe) {
+            Entry entry = liveEntry(stripe, telegramUserId);
+            if (entry == null) {
+                return null;
+            }
+            payload = entry.payload();
+        }
+        return codec.deserialize(payload);
+    }
+
+    @Override
+    public void save(Long telegramUserId, ConversationState state, Duration ttl) {
+        byte[] payload = codec.serialize(state);
+        Stripe stripe = stripeFor(telegramUserId);
+        synchronized (stripe) {
+            put(stripe, telegramUserId, payload, ttl);
+        }
+    }
+
+    @Override
+    public void delete(Long telegramUserId) {
+        Stripe stripe = stripeFor(telegramUserId);
+        synchronized (stripe) {
+            stripe.entries.remove(telegramUserId);
+        }
+    }
+
+    @Override
+    public boolean supportsFieldUpdates() {
+        return true;
+    }
+
+    @Override
+    public void updateFields(Long telegramUserId, Map<String, Object> fields, int versionIncrements,
+                             LocalDateTime updatedAt, Duration ttl) {
+        Stripe stripe = stripeFor(telegramUserId);
+        synchronized (stripe) {
+            ConversationState state = ConversationStateStoreSupport.withFields(
+                    decode(liveEntry(stripe, telegramUserId)), fields, versionIncrements, updatedAt);
+            put(stripe, telegramUserId, codec.serialize(state), ttl);
+        }
+    }
+
+    @Override
+    public TransitionResult compareAndTransition(Long telegramUserId, BotState newState, Set<BotState> allowedFrom,
+                                                 long expectedVersion, boolean clearData, boolean deleteOnIdle,
+                                                 LocalDateTime now, Duration ttl) {
+        Stripe stripe = stripeFor(telegramUserId);
+        synchronized (stripe) {
+            ConversationStateStoreSupport.Transition transition = ConversationStateStoreSupport.transition(
+                    decode(liveEntry(stripe, telegramUserId)), newState, allowedFrom,
+                    expectedVersion, clearData, deleteOnIdle, now);
+            if (transition.deletes()) {
+                stripe.entries.remove(telegramUserId);
+            } else if (transition.state() != null) {
+                put(stripe, telegramUserId, codec.serialize(transition.state()), ttl);
+            }
+            return transition.result();
+        }
+    }
+
+    /**
+     * Количество записей, включая ещё не удалённые записи с истёкшим TTL
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Оставшийся TTL состояния или null, если состояния нет
+     */
+    Duration remainingTtl(Long telegramUserId) {
+        Stripe stripe = stripeFor(telegramUserId);
+        synchronized (stripe) {
+            Entry entry = liveEntry(stripe, telegramUserId);
+            return entry != null ? Duration.ofMillis(entry.expiresAt() - clock.millis()) : null;
+        }
+    }
+
+    /**
+     * Удалить все состояния
+     */
+    void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+        wheel.forEach(Set::clear);
+    }
+
+    /**
+     * Удалить записи, TTL которых истёк на полностью прошедших тиках
+     */
+    void sweepExpired() {
+        long now = clock.millis();
+        long currentTick = now / tickMillis;
+        long fromTick = Math.max(lastSweptTick + 1, currentTick - wheel.size());
+        for (long tick = fromTick; tick < currentTick; tick++) {
+            sweepSlot(slotOf(tick), now);
+        }
+        lastSweptTick = Math.max(lastSweptTick, currentTick - 1);
+    }
+
+    private void sweepSafely() {
+        try {
+            sweepExpired();
+        } catch (Exception e) {
+            log.error("Conversation state expiry sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sweepSlot(int slot, long now) {
+        Set<Long> userIds = wheel.get(slot);
+        Iterator<Long> iterator = userIds.iterator();
+        while (iterator.hasNext()) {
+            Long userId = iterator.next();
+            Stripe stripe = stripeFor(userId);
+            synchronized (stripe) {
+                Entry entry = stripe.entries.get(userId);
+                if (entry != null && entry.expiresAt() <= now) {
+                    stripe.entries.remove(userId);
+                    iterator.remove();
+                } else if (entry == null || slotOf(entry.expiresAt() / tickMillis) != slot) {
+                    // Запись удалена или перезаписана с другим TTL и уже стоит в другой ячейке
+                    iterator.remove();
+                }
+                // Иначе TTL истекает на одном из следующих оборотов колеса
+            }
+        }
+    }
+
+    private void put(Stripe stripe, Long telegramUserId, byte[] payload, Duration ttl) {
+        long expiresAt = clock.millis() + ttl.toMillis();
+        if (stripe.entries.size() >= maxEntriesPerStripe && !stripe.entries.containsKey(telegramUserId)) {
+            evictEarliestExpiring(stripe);
+        }
+        stripe.entries.put(telegramUserId, new Entry(payload, expiresAt));
+        wheel.get(slotOf(expiresAt / tickMillis)).add(telegramUserId);
+    }
+
+    private static void evictEarliestExpiring(Stripe stripe) {
+        Long victim = null;
+        long earliest = Long.MAX_VALUE;
+        for (Map.Entry<Long, Entry> candidate : stripe.entries.entrySet()) {
+            if (candidate.getValue().expiresAt() < earliest) {
+                earliest = candidate.getValue().expiresAt();
+                victim = candidate.getKey();
+            }
+        }
+        if (victim != null) {
+            // Ячейка колеса очистится при очередном проходе: записи уже нет
+            stripe.entries.remove(victim);
+        }
+    }
+
+    private Entry liveEntry(Stripe stripe, Long telegramUserId) {
+        Entry entry = stripe.entries.get(telegramUserId);
+        if (entry != null && entry.expiresAt() <= clock.millis()) {
+            stripe.entries.remove(telegramUserId);
+            return null;
+        }
+        return entry;
+    }
+
+    private ConversationState decode(Entry entry) {
+        return entry != null ? codec.deserialize(entry.payload()) : null;
+    }
+
+    private int slotOf(long tick) {
+        return (int) (tick & (wheel.size() - 1));
+    }
+
+    private Stripe stripeFor(Long telegramUserId) {
+        long id = telegramUserId;
+        int hash = (int) (id ^ (id >>> 32));
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private record Entry(byte[] payload, long expiresAt) {
+    }
+
+    private static final class Stripe {
+        private final Map<Long, Entry> entries = new HashMap<>();
+    }
+}
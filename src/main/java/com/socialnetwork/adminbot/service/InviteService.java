@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.service;
 
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
 import com.socialnetwork.adminbot.entity.Admin;
 import com.socialnetwork.adminbot.entity.AdminInvitation;
 import com.socialnetwork.adminbot.entity.AdminRole;
@@ -9,6 +10,7 @@ import com.socialnetwork.adminbot.repository.AdminInvitationRepository;
 import com.socialnetwork.adminbot.repository.AdminRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +30,7 @@ public class InviteService {
     private final AdminInvitationRepository invitationRepository;
     private final AdminRepository adminRepository;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int INVITE_TOKEN_LENGTH = 32; // Длина токена в байтах (64 символа Base64)
     private static final int INVITE_EXPIRY_HOURS = 24; // Срок действия приглашения
@@ -141,6 +144,8 @@ public class InviteService {
                 .build();
 
         Admin savedAdmin = adminRepository.save(newAdmin);
+        eventPublisher.publishEvent(new AdminChangedEvent(
+                savedAdmin.getTelegramUserId(), savedAdmin.getRole(), true));
 
         // Помечаем приглашение как использованное
         invitation.markAsUsed(telegramUserId);
@@ -0,0 +1,425 @@
+package com.socialnetwork.adminbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.socialnetwork.adminbot.config.LocalFirstRateLimitConfig;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Гибридный лимитер: токены выдаются из локального slice'а - части bucket'а в Redis,
+ * заранее списанной одним обращением ({@code tryConsumeAsMuchAsPossible}).
+ * <p>
+ * Пока в slice'е есть токены, запрос обслуживается без Redis. Когда их остаётся половина,
+ * следующий slice резервируется асинхронно; пока резервирование идёт, экземпляр может выдать
+ * не больше {@link LocalFirstRateLimitConfig#getMaxOvershoot()} токенов в долг - долг списывается
+ * из Redis вместе со следующим резервированием, поэтому общий лимит превышается не больше чем
+ * на этот долг с каждого экземпляра. В долг выдаётся только если последнее резервирование
+ * получило slice целиком (bucket не пуст) и slice больше одного токена.
+ * <p>
+ * Неиспользованные токены slice'а, к которому не обращались {@code idleTimeout}, возвращаются
+ * в Redis ({@code addTokens}) - иначе они были бы недоступны другим экземплярам. Возврат
+ * не превышает ёмкость bucket'а. Число slice'ов ограничено {@code maxSlices}: вытесненный slice
+ * закрывается так же, как простаивающий.
+ * <p>
+ * Время до повтора при отказе берётся из Redis: slice из одного токена резервируется через
+ * {@code tryConsumeAndReturnRemaining}, и отказ приходит с тем же ответом; для больших slice'ов
+ * после пустого резервирования запрашивается {@code estimateAbilityToConsume}. До этого момента
+ * следующие запросы по ключу отклоняются локально, без обращения к Redis.
+ */
+@Slf4j
+@Component
+public class LocalFirstRateLimiter {
+
+    private final RateLimitBucketCache buckets;
+    private final LocalFirstRateLimitConfig config;
+    private final RedisAvailabilityMonitor redisAvailability;
+    private final Executor syncExecutor;
+    private final Clock clock;
+    private final Cache<String, Slice> slices;
+    private final Counter localGrants;
+    private final Counter overdraftGrants;
+    private final Counter syncReservations;
+    private final Counter asyncReservations;
+    private final Counter returns;
+    private final Counter estimates;
+
+    @Autowired
+    public LocalFirstRateLimiter(RateLimitBucketCache buckets,
+                                 LocalFirstRateLimitConfig config,
+                                 RedisAvailabilityMonitor redisAvailability,
+                                 MeterRegistry meterRegistry) {
+        this(buckets, config, redisAvailability, meterRegistry, newSyncExecutor(config), Clock.systemUTC());
+    }
+
+    LocalFirstRateLimiter(RateLimitBucketCache buckets,
+                          LocalFirstRateLimitConfig config,
+                          RedisAvailabilityMonitor redisAvailability,
+                          MeterRegistry meterRegistry,
+                          Executor syncExecutor,
+                          Clock clock) {
+        this.buckets = buckets;
+        this.config = config;
+        this.redisAvailability = redisAvailability;
+        this.syncExecutor = syncExecutor;
+        this.clock = clock;
+        this.slices = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSlices())
+                // Обслуживание кэша и уведомления о вытеснении - в вызывающем потоке,
+                // возврат токенов в Redis всё равно уходит в syncExecutor
+                .executor(Runnable::run)
+                .removalListener((String key, Slice slice, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && slice != null) {
+                        retireEvicted(slice);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, slices, "rate.limit.local.slices");
+        this.localGrants = grantCounter(meterRegistry, "local");
+        this.overdraftGrants = grantCounter(meterRegistry, "overdraft");
+        this.syncReservations = redisCallCounter(meterRegistry, "reserve_sync");
+        this.asyncReservations = redisCallCounter(meterRegistry, "reserve_async");
+        this.returns = redisCallCounter(meterRegistry, "return");
+        this.estimates = redisCallCounter(meterRegistry, "estimate");
+    }
+
+    private static Counter grantCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("rate.limit.local.grants")
+                .description("Токены, выданные без обращения к Redis")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private static Counter redisCallCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("rate.limit.redis.calls")
+                .description("Обращения гибридного лимитера к Redis")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static ExecutorService newSyncExecutor(LocalFirstRateLimitConfig config) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(config.getSyncThreads(), config.getSyncThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(config.getSyncQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rate-limit-sync-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Выдать токен по ключу. Ошибки Redis при синхронном резервировании пробрасываются.
+     */
+    public RateLimitResult tryConsume(String key, Supplier<BucketConfiguration> configSupplier) {
+        while (true) {
+            Slice slice = slices.asMap().computeIfAbsent(key, k -> newSlice(k, configSupplier));
+            synchronized (slice) {
+                if (slice.retired) {
+                    // Slice только что вернули в Redis - берём новый
+                    continue;
+                }
+                slice.lastUsed = clock.millis();
+                if (slice.tokens > 0) {
+                    slice.tokens--;
+                    if (slice.size > 1 && slice.tokens <= slice.size / 2) {
+                        refillAsync(slice);
+                    }
+                    localGrants.increment();
+                    return RateLimitResult.allowed(slice.tokens);
+                }
+                if (slice.size > 1 && slice.lastReservationFull && slice.owed < config.getMaxOvershoot()) {
+                    slice.owed++;
+                    refillAsync(slice);
+                    overdraftGrants.increment();
+                    return RateLimitResult.allowed(0);
+                }
+                if (slice.lastUsed < slice.rejectedUntil) {
+                    // Bucket в Redis пуст до известного момента - отказываем без обращения к Redis
+                    return RateLimitResult.rejected(
+                            TimeUnit.MILLISECONDS.toNanos(slice.rejectedUntil - slice.lastUsed));
+                }
+                if (slice.size == 1) {
+                    return consumeSingle(slice);
+                }
+                // Локальных токенов нет: резервируем синхронно, другие запросы по ключу ждут результата
+                long owed = slice.owed;
+                slice.owed = 0;
+                long reserved;
+                try {
+                    reserved = reserve(slice, owed);
+                } catch (RuntimeException e) {
+                    slice.owed += owed;
+                    throw e;
+                }
+                syncReservations.increment();
+                slice.apply(reserved);
+                if (slice.tokens == 0) {
+                    long nanosToWait = buckets.get(slice.key, slice.configuration)
+                            .estimateAbilityToConsume(1)
+                            .getNanosToWaitForRefill();
+                    estimates.increment();
+                    return reject(slice, nanosToWait);
+                }
+                slice.tokens--;
+                return RateLimitResult.allowed(slice.tokens);
+            }
+        }
+    }
+
+    /**
+     * Slice из одного токена: один вызов Redis и списывает токен, и возвращает время до повтора
+     * (вызывается под блокировкой slice'а)
+     */
+    private RateLimitResult consumeSingle(Slice slice) {
+        ConsumptionProbe probe = buckets.get(slice.key, slice.configuration).tryConsumeAndReturnRemaining(1);
+        syncReservations.increment();
+        if (!probe.isConsumed()) {
+            return reject(slice, probe.getNanosToWaitForRefill());
+        }
+        return RateLimitResult.from(probe);
+    }
+
+    private RateLimitResult reject(Slice slice, long nanosToWait) {
+        slice.rejectedUntil = slice.lastUsed + TimeUnit.NANOSECONDS.toMillis(nanosToWait);
+        return RateLimitResult.rejected(nanosToWait);
+    }
+
+    /**
+     * Токены, зарезервированные этим экземпляром по ключу
+     */
+    public long reservedTokens(String key) {
+        Slice slice = slices.getIfPresent(key);
+        if (slice == null) {
+            return 0;
+        }
+        synchronized (slice) {
+            return slice.tokens - slice.owed;
+        }
+    }
+
+    /**
+     * Закрыть простаивающие slice'ы и вернуть их неиспользованные токены в Redis.
+     * Пока Redis недоступен, slice'ы только удаляются - зарезервированные токены восстановятся сами.
+     */
+    @Scheduled(
+            initialDelayString = "#{@localFirstRateLimitConfig.returnInterval.toMillis()}",
+            fixedDelayString = "#{@localFirstRateLimitConfig.returnInterval.toMillis()}"
+    )
+    public void returnIdleSlices() {
+        if (slices.asMap().isEmpty()) {
+            return;
+        }
+        long idleBefore = clock.millis() - config.getIdleTimeout().toMillis();
+        for (Slice slice : slices.asMap().values()) {
+            long tokens;
+            long owed;
+            synchronized (slice) {
+                if (slice.lastUsed > idleBefore || slice.refilling || slice.retired) {
+                    continue;
+                }
+                slice.retired = true;
+                slices.asMap().remove(slice.key, slice);
+                tokens = slice.tokens;
+                owed = slice.owed;
+                slice.tokens = 0;
+                slice.owed = 0;
+            }
+            if (redisAvailability.isAvailable()) {
+                settle(slice, tokens, owed);
+            }
+        }
+    }
+
+    /**
+     * Закрыть slice, вытесненный из-за {@code maxSlices}, и вернуть его токены в Redis асинхронно
+     */
+    private void retireEvicted(Slice slice) {
+        long tokens;
+        long owed;
+        synchronized (slice) {
+            if (slice.retired) {
+                return;
+            }
+            slice.retired = true;
+            tokens = slice.tokens;
+            owed = slice.owed;
+            slice.tokens = 0;
+            slice.owed = 0;
+        }
+        if (!redisAvailability.isAvailable()) {
+            return;
+        }
+        try {
+            syncExecutor.execute(() -> settle(slice, tokens, owed));
+        } catch (RejectedExecutionException e) {
+            // Очередь заполнена: не вернувшиеся токены восстановятся пополнением bucket'а
+        }
+    }
+
+    @EventListener
+    public void onRedisAvailabilityChanged(RedisAvailabilityChangedEvent event) {
+        if (!event.available()) {
+            // Синхронизировать slice'ы не с чем; зарезервированные токены восстановятся в Redis сами
+            slices.invalidateAll();
+        }
+    }
+
+    private Slice newSlice(String key, Supplier<BucketConfiguration> configSupplier) {
+        long capacity = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : configSupplier.get().getBandwidths()) {
+            capacity = Math.min(capacity, bandwidth.getCapacity());
+        }
+        long size = (long) Math.ceil(capacity * config.getSliceFraction());
+        return new Slice(key, configSupplier, Math.max(1, Math.min(size, config.getMaxSliceTokens())));
+    }
+
+    /**
+     * Запустить резервирование следующего slice'а (вызывается под блокировкой slice'а)
+     */
+    private void refillAsync(Slice slice) {
+        if (slice.refilling) {
+            return;
+        }
+        slice.refilling = true;
+        try {
+            syncExecutor.execute(() -> refill(slice));
+        } catch (RejectedExecutionException e) {
+            // Очередь заполнена: зарезервируем синхронно, когда кончатся токены
+            slice.refilling = false;
+        }
+    }
+
+    private void refill(Slice slice) {
+        long owed;
+        synchronized (slice) {
+            owed = slice.owed;
+            slice.owed = 0;
+        }
+        long reserved;
+        try {
+            reserved = reserve(slice, owed);
+        } catch (RuntimeException e) {
+            synchronized (slice) {
+                slice.owed += owed;
+                slice.refilling = false;
+            }
+            if (!redisAvailability.reportFailure(e)) {
+                log.warn("Failed to reserve rate limit tokens for key {}: {}", slice.key, e.getMessage());
+            }
+            return;
+        }
+        asyncReservations.increment();
+
+        boolean retired;
+        synchronized (slice) {
+            slice.refilling = false;
+            retired = slice.retired;
+            if (!retired) {
+                slice.apply(reserved);
+            }
+        }
+        if (retired && reserved > 0) {
+            settle(slice, reserved, 0);
+        }
+    }
+
+    /**
+     * Списать долг, затем зарезервировать сколько получится, но не больше slice'а
+     */
+    private long reserve(Slice slice, long owed) {
+        Bucket bucket = buckets.get(slice.key, slice.configuration);
+        if (owed > 0) {
+            bucket.consumeIgnoringRateLimits(owed);
+        }
+        return bucket.tryConsumeAsMuchAsPossible(slice.size);
+    }
+
+    /**
+     * Вернуть неиспользованные токены или списать долг при закрытии slice'а
+     */
+    private void settle(Slice slice, long tokens, long owed) {
+        if (tokens == 0 && owed == 0) {
+            return;
+        }
+        try {
+            Bucket bucket = buckets.get(slice.key, slice.configuration);
+            if (tokens > 0) {
+                bucket.addTokens(tokens);
+            } else {
+                bucket.consumeIgnoringRateLimits(owed);
+            }
+            returns.increment();
+        } catch (RuntimeException e) {
+            // Не вернувшиеся токены восстановятся пополнением bucket'а
+            if (!redisAvailability.reportFailure(e)) {
+                log.warn("Failed to return rate limit tokens for key {}: {}", slice.key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Локально зарезервированная часть bucket'а. Поля меняются под блокировкой самого slice'а.
+     */
+    private static final class Slice {
+
+        private final String key;
+        private final Supplier<BucketConfiguration> configuration;
+        private final long size;
+        private long tokens;
+        private long owed;
+        private long lastUsed;
+        private long rejectedUntil;
+        private boolean lastReservationFull;
+        private boolean refilling;
+        private boolean retired;
+
+        private Slice(String key, Supplier<BucketConfiguration> configuration, long size) {
+            this.key = key;
+            this.configuration = configuration;
+            this.size = size;
+        }
+
+        private void apply(long reserved) {
+            tokens += reserved;
+            lastReservationFull = reserved == size;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Состояния диалогов в UNLOGGED-таблице Postgres {@code conversation_states}
+ * (changelog 005) - для развёртываний без Redis.
+ * <p>
+ * Состояние целиком хранится в колонке {@code payload} в формате {@link ConversationStateCodec};
+ * {@code state} и {@code version} дублируются для диагностики. Переход и изменение полей
+ * выполняются в транзакции под {@code pg_advisory_xact_lock(telegram_user_id)}, поэтому
+ * атомарны и для ещё не существующей строки. Строки с истёкшим TTL не читаются
+ * и периодически удаляются.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "telegram.state", name = "store", havingValue = "postgres")
+public class PostgresConversationStateStore implements ConversationStateStore {
+
+    private static final String SELECT_SQL =
+            "SELECT payload FROM conversation_states WHERE telegram_user_id = ? AND expires_at > ?";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO conversation_states (telegram_user_id, state, version, payload, expires_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (telegram_user_id) DO UPDATE SET
+                state = EXCLUDED.state,
+                version = EXCLUDED.version,
+                payload = EXCLUDED.payload,
+                expires_at = EXCLUDED.expires_at
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM conversation_states WHERE telegram_user_id = ?";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM conversation_states WHERE expires_at <= ?";
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(?)";
+
+    private static final ResultSetExtractor<byte[]> PAYLOAD = rs -> rs.next() ? rs.getBytes(1) : null;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationStateCodec codec;
+
+    @Autowired
+    public PostgresConversationStateStore(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          ObjectMapper redisObjectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.codec = new ConversationStateCodec(redisObjectMapper, true);
+    }
+
+    @Override
+    public ConversationState load(Long telegramUserId) {
+        byte[] payload = jdbcTemplate.query(SELECT_SQL, PAYLOAD, telegramUserId, LocalDateTime.now());
+        return payload != null ? codec.deserialize(payload) : null;
+    }
+
+    @Override
+    public void save(Long telegramUserId, ConversationState state, Duration ttl) {
+        upsert(telegramUserId, state, ttl);
+    }
+
+    @Override
+    public void delete(Long telegramUserId) {
+        jdbcTemplate.update(DELETE_SQL, telegramUserId);
+    }
+
+    /**
+     * Отдельные поля не хранятся: изменение поля - чтение и запись строки целиком
+     */
+    @Override
+    public boolean supportsFieldUpdates() {
+        return false;
+    }
+
+    @Override
+    public void updateFields(Long telegramUserId, Map<String, Object> fields, int versionIncrements,
+                             LocalDateTime updatedAt, Duration ttl) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ConversationState current = lockAndLoad(telegramUserId);
+            upsert(telegramUserId,
+                    ConversationStateStoreSupport.withFields(current, fields, versionIncrements, updatedAt), ttl);
+        });
+    }
+
+    @Override
+    public TransitionResult compareAndTransition(Long telegramUserId, BotState newState, Set<BotState> allowedFrom,
+                                                 long expectedVersion, boolean clearData, boolean deleteOnIdle,
+                                                 LocalDateTime now, Duration ttl) {
+        return transactionTemplate.execute(status -> {
+            ConversationStateStoreSupport.Transition transition = ConversationStateStoreSupport.transition(
+                    lockAndLoad(telegramUserId), newState, allowedFrom,
+                    expectedVersion, clearData, deleteOnIdle, now);
+            if (transition.deletes()) {
+                delete(telegramUserId);
+            } else if (transition.state() != null) {
+                upsert(telegramUserId, transition.state(), ttl);
+            }
+            return transition.result();
+        });
+    }
+
+    /**
+     * Удалить строки с истёкшим TTL
+     */
+    @Scheduled(
+            initialDelayString = "#{@conversationStateConfig.postgres.cleanupInterval.toMillis()}",
+            fixedDelayString = "#{@conversationStateConfig.postgres.cleanupInterval.toMillis()}"
+    )
+    public void deleteExpired() {
+        try {
+            int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, LocalDateTime.now());
+            log.debug("Deleted {} expired conversation state(s)", deleted);
+        } catch (Exception e) {
+            log.error("Failed to delete expired conversation states: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Заблокировать пользователя до конца транзакции и прочитать его состояние
+     */
+    private ConversationState lockAndLoad(Long telegramUserId) {
+        jdbcTemplate.queryForList(LOCK_SQL, telegramUserId);
+        return load(telegramUserId);
+    }
+
+    private void upsert(Long telegramUserId, ConversationState state, Duration ttl) {
+        BotState botState = state.getState() != null ? state.getState() : BotState.IDLE;
+        jdbcTemplate.update(UPSERT_SQL,
+                telegramUserId,
+                botState.name(),
+                state.getVersion() != null ? state.getVersion() : 0L,
+                codec.serialize(state),
+                LocalDateTime.now().plus(ttl));
+    }
+}
@@ -0,0 +1,46 @@
+package com.socialnetwork.adminbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.socialnetwork.adminbot.config.RateLimitProxyCacheConfig;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Прокси bucket'ов Bucket4j по ключам лимитов, созданные один раз.
+ * <p>
+ * Прокси не хранит состояние bucket'а (оно в Redis), поэтому его можно переиспользовать
+ * между запросами; кэш ограничен по размеру и сроку простоя. Конфигурация берётся
+ * из {@code configSupplier} только когда bucket'а ещё нет в Redis.
+ */
+@Component
+public class RateLimitBucketCache {
+
+    private final ProxyManager<String> proxyManager;
+    private final Cache<String, BucketProxy> proxies;
+
+    public RateLimitBucketCache(ProxyManager<String> proxyManager,
+                                RateLimitProxyCacheConfig config,
+                                MeterRegistry meterRegistry) {
+        this.proxyManager = proxyManager;
+        this.proxies = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterAccess(config.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, proxies, "rate.limit.proxies");
+    }
+
+    /**
+     * Прокси bucket'а в Redis по ключу
+     */
+    public BucketProxy get(String key, Supplier<BucketConfiguration> configSupplier) {
+        return proxies.get(key, k -> proxyManager.builder().build(k, configSupplier));
+    }
+}
@@ -1,26 +1,100 @@
 package com.socialnetwork.adminbot.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.socialnetwork.adminbot.config.RateLimitEngineConfig;
+import com.socialnetwork.adminbot.config.RedisFailoverConfig;
+import com.socialnetwork.adminbot.domain.RateLimitEngine;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
 import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketConfiguration;
-import io.github.bucket4j.Refill;
-import io.github.bucket4j.distributed.proxy.ProxyManager;
-import lombok.RequiredArgsConstructor;
+import io.github.bucket4j.local.LocalBucketBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
  * Сервис для управления Rate Limiting через Bucket4j.
  * Использует Token Bucket алгоритм с хранением в Redis.
+ * <p>
+ * Прокси bucket'ов кэшируются по ключу ({@link RateLimitBucketCache}), конфигурации лимитов
+ * создаются один раз.
+ * <p>
+ * Если включён {@link LocalFirstRateLimiter}, токены выдаются из локально зарезервированных
+ * частей bucket'ов, и Redis получает обращение раз в пачку запросов, а не на каждый.
+ * <p>
+ * Для отдельных лимитов вместо Bucket4j можно выбрать скользящее окно
+ * ({@link SlidingWindowRateLimiter}, {@link RateLimitEngineConfig}): одно атомарное обращение
+ * к Redis на запрос без повторов compare-and-swap при всплеске запросов к одному ключу.
+ * <p>
+ * Пока Redis недоступен ({@link RedisAvailabilityMonitor}), лимиты считаются локальными
+ * bucket'ами с той же конфигурацией - отдельно на каждом экземпляре, поэтому на время сбоя
+ * лимит фактически умножается на число экземпляров. После восстановления Redis
+ * локальные bucket'ы сбрасываются и снова действуют общие.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RateLimitService {
 
-    private final ProxyManager<String> proxyManager;
+    /**
+     * Лимит регистрации: 3 запроса в час
+     */
+    private static final BucketConfiguration REGISTRATION_LIMIT = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder()
+                    .capacity(3)  // максимум 3 запроса
+                    .refillGreedy(3, Duration.ofHours(1))  // восстанавливается 3 токена каждый час
+                    .build())
+            .build();
+
+    /**
+     * Лимит валидации токенов: 10 запросов в минуту
+     */
+    private static final BucketConfiguration VALIDATION_LIMIT = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder()
+                    .capacity(10)  // максимум 10 запросов
+                    .refillGreedy(10, Duration.ofMinutes(1))  // восстанавливается 10 токенов каждую минуту
+                    .build())
+            .build();
+
+    /**
+     * Строгий лимит: 5 запросов в 5 минут
+     */
+    private static final BucketConfiguration STRICT_LIMIT = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder()
+                    .capacity(5)
+                    .refillGreedy(5, Duration.ofMinutes(5))
+                    .build())
+            .build();
+
+    private final RateLimitBucketCache buckets;
+    private final LocalFirstRateLimiter localFirstRateLimiter;
+    private final SlidingWindowRateLimiter slidingWindowRateLimiter;
+    private final RateLimitEngineConfig engineConfig;
+    private final RedisAvailabilityMonitor redisAvailability;
+    private final Cache<String, Bucket> localBuckets;
+
+    public RateLimitService(RateLimitBucketCache buckets,
+                            LocalFirstRateLimiter localFirstRateLimiter,
+                            SlidingWindowRateLimiter slidingWindowRateLimiter,
+                            RateLimitEngineConfig engineConfig,
+                            RedisAvailabilityMonitor redisAvailability,
+                            RedisFailoverConfig failoverConfig) {
+        this.buckets = buckets;
+        this.localFirstRateLimiter = localFirstRateLimiter;
+        this.slidingWindowRateLimiter = slidingWindowRateLimiter;
+        this.engineConfig = engineConfig;
+        this.redisAvailability = redisAvailability;
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(failoverConfig.getMaxLocalBuckets())
+                .expireAfterAccess(failoverConfig.getLocalBucketTtl())
+                .build();
+    }
 
     /**
      * Проверяет, разрешён ли запрос для данного ключа (например, IP-адреса).
@@ -30,14 +104,47 @@ public class RateLimitService {
      * @return true если запрос разрешён, false если превышен лимит
      */
     public boolean tryConsume(String key, Supplier<BucketConfiguration> configSupplier) {
-        var bucket = proxyManager.builder().build(key, configSupplier);
-        boolean consumed = bucket.tryConsume(1);
+        return consume(key, configSupplier).consumed();
+    }
+
+    /**
+     * Проверяет лимит и за то же обращение возвращает остаток и время до повтора.
+     *
+     * @param key уникальный идентификатор (IP, user ID, etc.)
+     * @param configSupplier конфигурация bucket'а (лимиты)
+     * @return результат проверки; при отказе - время до появления следующего токена
+     */
+    public RateLimitResult consume(String key, Supplier<BucketConfiguration> configSupplier) {
+        return consume(key, configSupplier, engineConfig.getDefaultEngine());
+    }
+
+    /**
+     * Проверяет лимит реализацией, выбранной для лимита в {@link RateLimitEngineConfig}.
+     *
+     * @param limitName имя лимита (register, validate, command)
+     * @param key уникальный идентификатор (IP, user ID, etc.)
+     * @param configSupplier конфигурация bucket'а (лимиты)
+     * @return результат проверки; при отказе - время до появления следующего токена
+     */
+    public RateLimitResult consume(String limitName, String key, Supplier<BucketConfiguration> configSupplier) {
+        return consume(key, configSupplier, engineConfig.engineFor(limitName));
+    }
 
-        if (!consumed) {
-            log.warn("Rate limit exceeded for key: {}", key);
+    private RateLimitResult consume(String key, Supplier<BucketConfiguration> configSupplier, RateLimitEngine engine) {
+        RateLimitResult result = withRedis(key, configSupplier,
+                () -> switch (engine) {
+                    case SLIDING_WINDOW -> slidingWindowRateLimiter.tryConsume(key, configSupplier.get());
+                    case BUCKET4J -> localFirstRateLimiter.isEnabled()
+                            ? localFirstRateLimiter.tryConsume(key, configSupplier)
+                            : RateLimitResult.from(buckets.get(key, configSupplier).tryConsumeAndReturnRemaining(1));
+                },
+                bucket -> RateLimitResult.from(bucket.tryConsumeAndReturnRemaining(1)));
+
+        if (!result.consumed()) {
+            log.warn("Rate limit exceeded for key: {}, retry after {}s", key, result.retryAfterSeconds());
         }
 
-        return consumed;
+        return result;
     }
 
     /**
@@ -45,12 +152,7 @@ public class RateLimitService {
      * Лимит: 3 запроса в час.
      */
     public static BucketConfiguration registrationLimitConfig() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(3)  // максимум 3 запроса
-                        .refillGreedy(3, Duration.ofHours(1))  // восстанавливается 3 токена каждый час
-                        .build())
-                .build();
+        return REGISTRATION_LIMIT;
     }
 
     /**
@@ -58,12 +160,7 @@ public class RateLimitService {
      * Лимит: 10 запросов в минуту.
      */
     public static BucketConfiguration validationLimitConfig() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(10)  // максимум 10 запросов
-                        .refillGreedy(10, Duration.ofMinutes(1))  // восстанавливается 10 токенов каждую минуту
-                        .build())
-                .build();
+        return VALIDATION_LIMIT;
     }
 
     /**
@@ -71,12 +168,7 @@ public class RateLimitService {
      * Лимит: 5 запросов в 5 минут.
      */
     public static BucketConfiguration strictLimitConfig() {
-        return BucketConfiguration.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(5)
-                        .refillGreedy(5, Duration.ofMinutes(5))
-                        .build())
-                .build();
+        return STRICT_LIMIT;
     }
 
     /**
@@ -84,7 +176,42 @@ public class RateLimitService {
      * Полезно для информирования пользователя.
      */
     public long getAvailableTokens(String key, Supplier<BucketConfiguration> configSupplier) {
-        var bucket = proxyManager.builder().build(key, configSupplier);
-        return bucket.getAvailableTokens();
+        return withRedis(key, configSupplier,
+                () -> buckets.get(key, configSupplier).getAvailableTokens()
+                        + localFirstRateLimiter.reservedTokens(key),
+                Bucket::getAvailableTokens);
+    }
+
+    @EventListener
+    public void onRedisAvailabilityChanged(RedisAvailabilityChangedEvent event) {
+        if (event.available()) {
+            localBuckets.invalidateAll();
+        }
+    }
+
+    /**
+     * Выполнить обращение к Redis, а при его недоступности - операцию над локальным bucket'ом
+     */
+    private <T> T withRedis(String key, Supplier<BucketConfiguration> configSupplier,
+                            Supplier<T> redisCall, Function<Bucket, T> localOperation) {
+        if (redisAvailability.isAvailable()) {
+            try {
+                return redisCall.get();
+            } catch (RuntimeException e) {
+                if (!redisAvailability.reportFailure(e)) {
+                    throw e;
+                }
+                log.debug("Redis failed for rate limit key {}, using local bucket", key);
+            }
+        }
+        return localOperation.apply(localBuckets.get(key, ignored -> localBucket(configSupplier.get())));
+    }
+
+    private static Bucket localBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,207 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.RedisFailoverConfig;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Доступность Redis для состояний диалогов и лимитов запросов.
+ * <p>
+ * Сбой обнаруживается сразу по первой ошибке соединения или таймауту команды
+ * ({@link #reportFailure}) либо по неудачному PING периодической проверки - после этого
+ * вызывающий код перестаёт ждать Redis и работает с локальными хранилищами.
+ * Обратно в обычный режим переводит только проверка: {@link RedisFailoverConfig#getRecoveryProbes()}
+ * успешных PING подряд, чтобы короткие "мигания" не гоняли данные туда-обратно.
+ * О каждой смене режима публикуется {@link RedisAvailabilityChangedEvent}.
+ * <p>
+ * Ошибки, которые вернул сам Redis (например, ошибка скрипта), сбоем не считаются.
+ */
+@Slf4j
+@Component
+public class RedisAvailabilityMonitor {
+
+    /**
+     * Глубина просмотра цепочки причин исключения
+     */
+    private static final int MAX_CAUSE_DEPTH = 10;
+
+    public enum Mode {
+        /**
+         * Redis доступен, все данные в нём
+         */
+        NORMAL,
+        /**
+         * Redis недоступен, состояния и лимиты временно в памяти процесса
+         */
+        DEGRADED
+    }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RedisFailoverConfig config;
+    private final Counter outageCounter;
+    private final AtomicBoolean available = new AtomicBoolean(true);
+
+    private int successfulProbes;
+    private volatile Instant degradedSince;
+    private volatile String lastFailure;
+
+    public RedisAvailabilityMonitor(RedisConnectionFactory connectionFactory,
+                                    ApplicationEventPublisher eventPublisher,
+                                    RedisFailoverConfig config,
+                                    MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.eventPublisher = eventPublisher;
+        this.config = config;
+        this.outageCounter = Counter.builder("redis.failover.outages")
+                .description("Переключения в деградированный режим из-за недоступности Redis")
+                .register(meterRegistry);
+        Gauge.builder("redis.failover.degraded", available, flag -> flag.get() ? 0 : 1)
+                .description("1, если сервис работает без Redis")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Можно ли сейчас обращаться к Redis. При выключенном failover всегда true.
+     */
+    public boolean isAvailable() {
+        return !config.isEnabled() || available.get();
+    }
+
+    public Mode getMode() {
+        return isAvailable() ? Mode.NORMAL : Mode.DEGRADED;
+    }
+
+    /**
+     * Момент перехода в деградированный режим или null в обычном режиме
+     */
+    public Instant getDegradedSince() {
+        return isAvailable() ? null : degradedSince;
+    }
+
+    /**
+     * Описание последней ошибки Redis
+     */
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Сообщить об ошибке обращения к Redis.
+     *
+     * @return true, если ошибка означает недоступность Redis и вызывающий код
+     *         должен перейти на локальное хранилище; false - ошибку нужно пробросить
+     */
+    public boolean reportFailure(Throwable error) {
+        if (!config.isEnabled() || !isOutage(error)) {
+            return false;
+        }
+        markDown(describe(error));
+        return true;
+    }
+
+    /**
+     * Перейти в деградированный режим независимо от типа ошибки
+     * (например, если не удалось перенести локальные данные в Redis)
+     */
+    public void markDown(String reason) {
+        lastFailure = reason;
+        synchronized (this) {
+            successfulProbes = 0;
+        }
+        if (available.compareAndSet(true, false)) {
+            degradedSince = Instant.now();
+            outageCounter.increment();
+            log.warn("Redis is unavailable ({}), switching to degraded mode", reason);
+            eventPublisher.publishEvent(new RedisAvailabilityChangedEvent(false));
+        }
+    }
+
+    /**
+     * Проверить Redis командой PING: обнаруживает сбой без пользовательских запросов
+     * и возвращает обычный режим после восстановления
+     */
+    @Scheduled(
+            initialDelayString = "#{@redisFailoverConfig.probeInterval.toMillis()}",
+            fixedDelayString = "#{@redisFailoverConfig.probeInterval.toMillis()}"
+    )
+    public void probe() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        String failure = ping();
+        if (failure != null) {
+            markDown(failure);
+            return;
+        }
+        if (available.get()) {
+            return;
+        }
+
+        boolean recovered;
+        synchronized (this) {
+            recovered = ++successfulProbes >= config.getRecoveryProbes();
+            if (recovered) {
+                successfulProbes = 0;
+            }
+        }
+        if (recovered && available.compareAndSet(false, true)) {
+            log.info("Redis is reachable again after outage since {}, leaving degraded mode", degradedSince);
+            eventPublisher.publishEvent(new RedisAvailabilityChangedEvent(true));
+        }
+    }
+
+    /**
+     * Означает ли исключение недоступность Redis: ошибка соединения, таймаут команды
+     * или ошибка ввода-вывода где-либо в цепочке причин
+     */
+    public static boolean isOutage(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (current instanceof RedisCommandExecutionException) {
+                // Redis ответил ошибкой - он доступен
+                return false;
+            }
+            if (current instanceof DataAccessResourceFailureException
+                    || current instanceof QueryTimeoutException
+                    || current instanceof RedisException
+                    || current instanceof IOException) {
+                return true;
+            }
+            current = current.getCause() != current ? current.getCause() : null;
+        }
+        return false;
+    }
+
+    /**
+     * @return null, если Redis ответил, иначе описание ошибки
+     */
+    private String ping() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            String reply = connection.ping();
+            return "PONG".equalsIgnoreCase(reply) ? null : "Unexpected PING reply: " + reply;
+        } catch (Exception e) {
+            return describe(e);
+        }
+    }
+
+    private static String describe(Throwable error) {
+        return error.getClass().getSimpleName() + ": " + error.getMessage();
+    }
+}
@@ -0,0 +1,226 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Состояния диалогов в Redis.
+ * <p>
+ * В раскладке {@link ConversationStateConfig.Layout#VALUE} состояние - одно значение
+ * в формате {@link com.socialnetwork.adminbot.domain.ConversationStateCodec}, в раскладке
+ * {@link ConversationStateConfig.Layout#HASH} - Redis hash, где поля данных меняются
+ * по отдельности (HSET + HINCRBY версии + PEXPIRE одним pipeline).
+ * Переходы выполняются Lua-скриптом за одно обращение (EVALSHA).
+ * Чтения могут обслуживаться {@link ConversationStateNearCache}; собственные записи
+ * сразу вычёркивают ключ из него.
+ */
+@Component
+@ConditionalOnProperty(prefix = "telegram.state", name = "store", havingValue = "redis", matchIfMissing = true)
+public class RedisConversationStateStore implements ConversationStateStore {
+
+    /**
+     * Префикс для ключей состояний в Redis
+     */
+    private static final String STATE_KEY_PREFIX = "telegram:state:";
+
+    /**
+     * Префикс ключей в раскладке HASH (тип ключа отличается, поэтому ключи не пересекаются)
+     */
+    private static final String HASH_STATE_KEY_PREFIX = "telegram:state:h:";
+
+    /**
+     * Скрипт атомарного перехода: проверка, смена состояния и TTL за одно обращение (EVALSHA)
+     */
+    private static final RedisScript<String> TRANSITION_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/state-transition.lua"), String.class);
+
+    private static final RedisScript<String> HASH_TRANSITION_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/state-transition-hash.lua"), String.class);
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * Имена состояний в порядке ordinal: скрипт перехода читает бинарный формат по ordinal
+     */
+    private static final String STATE_NAMES = Arrays.stream(BotState.values())
+            .map(BotState::name)
+            .collect(Collectors.joining(","));
+
+    private final RedisTemplate<String, ConversationState> conversationStateRedisTemplate;
+    private final ConversationStateHashLayout hashLayout;
+    private final ConversationStateNearCache nearCache;
+    private final String newKeyFormat;
+    private final boolean useHashLayout;
+
+    public RedisConversationStateStore(RedisTemplate<String, ConversationState> conversationStateRedisTemplate,
+                                       ConversationStateHashLayout hashLayout,
+                                       ConversationStateNearCache nearCache,
+                                       ConversationStateConfig config) {
+        this.conversationStateRedisTemplate = conversationStateRedisTemplate;
+        this.hashLayout = hashLayout;
+        this.nearCache = nearCache;
+        this.newKeyFormat = config.getCodec() == ConversationStateConfig.Codec.BINARY ? "binary" : "json";
+        this.useHashLayout = config.getLayout() == ConversationStateConfig.Layout.HASH;
+    }
+
+    @Override
+    public ConversationState load(Long telegramUserId) {
+        String key = buildKey(telegramUserId);
+        ConversationStateNearCache.Cached cached = nearCache.get(key);
+        if (cached != null) {
+            return cached.state();
+        }
+
+        long readStarted = nearCache.beginRead();
+        ConversationState state;
+        if (!useHashLayout) {
+            state = conversationStateRedisTemplate.opsForValue().get(key);
+        } else {
+            byte[] rawKey = STRING_SERIALIZER.serialize(key);
+            Map<byte[], byte[]> hash = conversationStateRedisTemplate.execute(
+                    (RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(rawKey));
+            state = hashLayout.fromHash(hash);
+        }
+        nearCache.put(key, state, readStarted);
+        return state;
+    }
+
+    @Override
+    public void save(Long telegramUserId, ConversationState state, Duration ttl) {
+        nearCache.invalidate(buildKey(telegramUserId));
+        if (!useHashLayout) {
+            conversationStateRedisTemplate.opsForValue().set(buildKey(telegramUserId), state, ttl);
+            return;
+        }
+        byte[] key = rawKey(telegramUserId);
+        Map<byte[], byte[]> hash = hashLayout.toHash(state);
+        conversationStateRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // Полная перезапись: старые поля данных не должны пережить новое состояние
+            connection.multi();
+            connection.keyCommands().del(key);
+            connection.hashCommands().hMSet(key, hash);
+            connection.keyCommands().pExpire(key, ttl.toMillis());
+            connection.exec();
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Long telegramUserId) {
+        nearCache.invalidate(buildKey(telegramUserId));
+        conversationStateRedisTemplate.delete(buildKey(telegramUserId));
+    }
+
+    @Override
+    public boolean supportsFieldUpdates() {
+        return useHashLayout;
+    }
+
+    /**
+     * Записать отдельные поля данных, увеличить версию и продлить TTL одним pipeline.
+     * В раскладке VALUE состояние читается и записывается целиком.
+     */
+    @Override
+    public void updateFields(Long telegramUserId, Map<String, Object> fields, int versionIncrements,
+                             LocalDateTime updatedAt, Duration ttl) {
+        if (!useHashLayout) {
+            save(telegramUserId, ConversationStateStoreSupport.withFields(
+                    load(telegramUserId), fields, versionIncrements, updatedAt), ttl);
+            return;
+        }
+
+        nearCache.invalidate(buildKey(telegramUserId));
+        byte[] key = rawKey(telegramUserId);
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        fields.forEach((field, value) -> hash.put(hashLayout.dataField(field), hashLayout.dataValue(value)));
+        hash.put(ConversationStateHashLayout.bytes(ConversationStateHashLayout.FIELD_UPDATED_AT),
+                hashLayout.timestamp(updatedAt));
+        byte[] versionField = ConversationStateHashLayout.bytes(ConversationStateHashLayout.FIELD_VERSION);
+
+        conversationStateRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hMSet(key, hash);
+            connection.hashCommands().hIncrBy(key, versionField, versionIncrements);
+            connection.keyCommands().pExpire(key, ttl.toMillis());
+            return null;
+        });
+    }
+
+    @Override
+    public TransitionResult compareAndTransition(Long telegramUserId, BotState newState, Set<BotState> allowedFrom,
+                                                 long expectedVersion, boolean clearData, boolean deleteOnIdle,
+                                                 LocalDateTime now, Duration ttl) {
+        String allowed = allowedFrom.stream().map(BotState::name).collect(Collectors.joining(","));
+        String nowMillis = String.valueOf(now.toInstant(ZoneOffset.UTC).toEpochMilli());
+        nearCache.invalidate(buildKey(telegramUserId));
+        String result = useHashLayout
+                ? conversationStateRedisTemplate.execute(
+                        HASH_TRANSITION_SCRIPT,
+                        STRING_SERIALIZER,
+                        STRING_SERIALIZER,
+                        List.of(buildKey(telegramUserId)),
+                        newState.name(),
+                        allowed,
+                        String.valueOf(expectedVersion),
+                        clearData ? "1" : "0",
+                        nowMillis,
+                        String.valueOf(ttl.toMillis()),
+                        deleteOnIdle ? "1" : "0")
+                : conversationStateRedisTemplate.execute(
+                        TRANSITION_SCRIPT,
+                        STRING_SERIALIZER,
+                        STRING_SERIALIZER,
+                        List.of(buildKey(telegramUserId)),
+                        newState.name(),
+                        allowed,
+                        String.valueOf(expectedVersion),
+                        clearData ? "1" : "0",
+                        TIMESTAMP_FORMAT.format(now),
+                        String.valueOf(ttl.toMillis()),
+                        newKeyFormat,
+                        nowMillis,
+                        STATE_NAMES,
+                        deleteOnIdle ? "1" : "0");
+
+        String[] parts = result != null ? result.split("\\|") : new String[0];
+        if (parts.length != 3) {
+            throw new IllegalStateException("Unexpected state transition result: " + result);
+        }
+        return new TransitionResult(
+                TransitionResult.Status.valueOf(parts[0]),
+                BotState.valueOf(parts[1]),
+                Long.parseLong(parts[2]));
+    }
+
+    private byte[] rawKey(Long telegramUserId) {
+        return STRING_SERIALIZER.serialize(buildKey(telegramUserId));
+    }
+
+    /**
+     * Построить ключ для Redis
+     */
+    private String buildKey(Long telegramUserId) {
+        return (useHashLayout ? HASH_STATE_KEY_PREFIX : STATE_KEY_PREFIX) + telegramUserId;
+    }
+}
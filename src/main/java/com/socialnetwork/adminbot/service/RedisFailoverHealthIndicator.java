@@ -0,0 +1,37 @@
+package com.socialnetwork.adminbot.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Режим работы с Redis в actuator health ({@code redisFailover}).
+ * <p>
+ * В деградированном режиме сервис продолжает обрабатывать обновления, поэтому статус
+ * остаётся UP, а режим, время начала сбоя и последняя ошибка выводятся в деталях.
+ * Стандартный индикатор Redis выключен ({@code management.health.redis.enabled}),
+ * иначе недоступность Redis делала бы весь сервис DOWN.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisFailoverHealthIndicator implements HealthIndicator {
+
+    private final RedisAvailabilityMonitor redisAvailability;
+    private final ObjectProvider<FailoverConversationStateStore> failoverStateStore;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up()
+                .withDetail("mode", redisAvailability.getMode());
+        if (redisAvailability.getDegradedSince() != null) {
+            builder.withDetail("degradedSince", redisAvailability.getDegradedSince().toString());
+        }
+        if (redisAvailability.getLastFailure() != null) {
+            builder.withDetail("lastFailure", redisAvailability.getLastFailure());
+        }
+        failoverStateStore.ifAvailable(store -> builder.withDetail("localConversationStates", store.localSize()));
+        return builder.build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лимит запросов по скользящему окну в Redis (см. {@code scripts/sliding-window.lua}).
+ * <p>
+ * Проверка и учёт запроса - одна команда EVALSHA: в отличие от compare-and-swap Bucket4j,
+ * конкурирующие за один ключ запросы не повторяются, а выполняются скриптом по очереди.
+ * На ключ хранятся три числа на окно, независимо от лимита.
+ * <p>
+ * Окна строятся из {@link BucketConfiguration}: лимит - ёмкость bandwidth'а,
+ * окно - период его пополнения.
+ */
+@Component
+public class SlidingWindowRateLimiter {
+
+    private static final String KEY_PREFIX = "rate_limit:window:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SLIDING_WINDOW_SCRIPT = RedisScript.of(
+            new ClassPathResource("scripts/sliding-window.lua"), List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public SlidingWindowRateLimiter(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Засчитать запрос, если ни одно окно конфигурации не превышено
+     */
+    public RateLimitResult tryConsume(String key, BucketConfiguration configuration) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        Object[] args = new Object[bandwidths.length * 2];
+        for (int i = 0; i < bandwidths.length; i++) {
+            args[2 * i] = String.valueOf(TimeUnit.NANOSECONDS.toMillis(bandwidths[i].getRefillPeriodNanos()));
+            args[2 * i + 1] = String.valueOf(bandwidths[i].getCapacity());
+        }
+
+        List<?> result = redisTemplate.execute(SLIDING_WINDOW_SCRIPT, List.of(KEY_PREFIX + key), args);
+        if (result == null || result.size() != 3) {
+            throw new IllegalStateException("Unexpected sliding window result: " + result);
+        }
+
+        if (((Number) result.get(0)).longValue() == 1) {
+            return RateLimitResult.allowed(((Number) result.get(1)).longValue());
+        }
+        return RateLimitResult.rejected(TimeUnit.MILLISECONDS.toNanos(((Number) result.get(2)).longValue()));
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +29,12 @@ public class StateTransitionService {
      */
     private static final Map<BotState, Set<BotState>> ALLOWED_TRANSITIONS = createAllowedTransitions();
 
+    /**
+     * Обратная таблица: целевое состояние -> состояния, из которых в него можно перейти.
+     * Передаётся в скрипт перехода, чтобы проверка выполнялась на стороне Redis.
+     */
+    private static final Map<BotState, Set<BotState>> ALLOWED_SOURCES = invert(ALLOWED_TRANSITIONS);
+
     private static Map<BotState, Set<BotState>> createAllowedTransitions() {
         Map<BotState, Set<BotState>> transitions = new HashMap<>();
 
@@ -94,6 +101,14 @@ public class StateTransitionService {
         return Collections.unmodifiableMap(transitions);
     }
 
+    private static Map<BotState, Set<BotState>> invert(Map<BotState, Set<BotState>> transitions) {
+        Map<BotState, Set<BotState>> sources = new EnumMap<>(BotState.class);
+        transitions.forEach((from, targets) -> targets.forEach(to ->
+                sources.computeIfAbsent(to, key -> EnumSet.noneOf(BotState.class)).add(from)));
+        sources.replaceAll((to, from) -> Collections.unmodifiableSet(from));
+        return Collections.unmodifiableMap(sources);
+    }
+
     /**
      * Проверить, разрешён ли переход между состояниями
      */
@@ -109,44 +124,44 @@ public class StateTransitionService {
     }
 
     /**
-     * Выполнить переход с валидацией
+     * Состояния, из которых разрешён переход в заданное
+     */
+    public Set<BotState> getAllowedSources(BotState target) {
+        return ALLOWED_SOURCES.getOrDefault(target, Collections.emptySet());
+    }
+
+    /**
+     * Выполнить переход с валидацией.
+     * Проверка таблицы переходов, версии и запись нового состояния выполняются
+     * атомарно на стороне Redis.
      * @throws IllegalStateException если переход не разрешён
+     * @throws com.socialnetwork.adminbot.exception.StateConflictException если состояние изменено параллельно
      */
     public void transitionTo(Long telegramUserId, BotState newState) {
-        BotState currentState = conversationStateService.getCurrentState(telegramUserId);
-
-        if (!isTransitionAllowed(currentState, newState)) {
-            String error = String.format(
-                    "Transition not allowed: %s -> %s for user %d",
-                    currentState, newState, telegramUserId
-            );
-            log.error(error);
-            throw new IllegalStateException(error);
-        }
-
-        conversationStateService.transitionTo(telegramUserId, newState);
+        BotState previousState = transition(telegramUserId, newState, false);
         log.info("State transition: {} -> {} for user {}",
-                currentState, newState, telegramUserId);
+                previousState, newState, telegramUserId);
     }
 
     /**
      * Безопасный переход с очисткой данных
+     * @throws IllegalStateException если переход не разрешён
+     * @throws com.socialnetwork.adminbot.exception.StateConflictException если состояние изменено параллельно
      */
     public void transitionToWithClear(Long telegramUserId, BotState newState) {
-        BotState currentState = conversationStateService.getCurrentState(telegramUserId);
-
-        if (!isTransitionAllowed(currentState, newState)) {
-            String error = String.format(
-                    "Transition not allowed: %s -> %s for user %d",
-                    currentState, newState, telegramUserId
-            );
-            log.error(error);
-            throw new IllegalStateException(error);
-        }
-
-        conversationStateService.transitionToWithClear(telegramUserId, newState);
+        BotState previousState = transition(telegramUserId, newState, true);
         log.info("State transition with clear: {} -> {} for user {}",
-                currentState, newState, telegramUserId);
+                previousState, newState, telegramUserId);
+    }
+
+    private BotState transition(Long telegramUserId, BotState newState, boolean clearData) {
+        try {
+            return conversationStateService.compareAndTransition(
+                    telegramUserId, newState, getAllowedSources(newState), clearData);
+        } catch (IllegalStateException e) {
+            log.error(e.getMessage());
+            throw e;
+        }
     }
 
     /**
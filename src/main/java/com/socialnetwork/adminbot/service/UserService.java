@@ -24,9 +24,10 @@ public class UserService {
 
     private final AccountClient accountClient;
     private final AuditLogService auditLogService;
+    private final AccountCache accountCache;
 
     /**
-     * Получить пользователя по ID.
+     * Получить пользователя по ID (через {@link AccountCache}).
      *
      * @param userId UUID пользователя
      * @return AccountDto с информацией о пользователе
@@ -34,7 +35,7 @@ public class UserService {
     public AccountDto getUserById(UUID userId) {
         log.debug("action=get_user_by_id, userId={}", userId);
 
-        return accountClient.getAccountById(userId);
+        return accountCache.get(userId);
     }
 
     /**
@@ -49,7 +50,14 @@ public class UserService {
                 userId, adminTelegramId, reason);
 
         // Блокируем пользователя через AccountClient
-        accountClient.blockAccount(userId);
+        try {
+            accountClient.blockAccount(userId);
+        } catch (RuntimeException e) {
+            // Состояние аккаунта неизвестно - следующее чтение пойдёт в mc-account
+            accountCache.invalidate(userId);
+            throw e;
+        }
+        accountCache.updateBlocked(userId, true);
 
         // Логируем действие в audit log
         auditLogService.logAction(
@@ -74,7 +82,13 @@ public class UserService {
                 userId, adminTelegramId);
 
         // Разблокируем пользователя через AccountClient
-        accountClient.unblockAccount(userId);
+        try {
+            accountClient.unblockAccount(userId);
+        } catch (RuntimeException e) {
+            accountCache.invalidate(userId);
+            throw e;
+        }
+        accountCache.updateBlocked(userId, false);
 
         // Логируем действие в audit log (без причины)
         auditLogService.logAction(
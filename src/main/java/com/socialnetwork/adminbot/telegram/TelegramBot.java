@@ -3,14 +3,22 @@ package com.socialnetwork.adminbot.telegram;
 import com.socialnetwork.adminbot.config.TelegramBotConfig;
 import com.socialnetwork.adminbot.constant.BotConstants;
 import com.socialnetwork.adminbot.domain.BotState;
-import com.socialnetwork.adminbot.service.AdminService;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.service.AdminDirectoryService;
+import com.socialnetwork.adminbot.service.ConversationContext;
 import com.socialnetwork.adminbot.service.ConversationStateService;
+import com.socialnetwork.adminbot.telegram.dispatch.UpdateDispatcher;
+import com.socialnetwork.adminbot.telegram.guard.CommandRateLimiter;
+import com.socialnetwork.adminbot.telegram.guard.UnauthorizedSenderGuard;
 import com.socialnetwork.adminbot.telegram.handler.*;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
 import com.socialnetwork.adminbot.telegram.messages.TelegramMessageFactory;
+import com.socialnetwork.adminbot.telegram.outbound.OutboundMessageQueue;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
@@ -18,75 +26,64 @@ import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 
 @Slf4j
 @Component
 public class TelegramBot extends TelegramLongPollingBot {
     private final TelegramBotConfig botConfig;
-    private final AdminService adminService;
+    private final AdminDirectoryService adminDirectoryService;
     private final ConversationStateService conversationStateService;
     private final StartCommandHandler startCommandHandler;
-    private final UserCommandHandler userCommandHandler;
-    private final StatsCommandHandler statsCommandHandler;
-    private final BanCommandHandler banCommandHandler;
-    private final SearchCommandHandler searchCommandHandler;
-    private final AddAdminCommandHandler addAdminCommandHandler;
+    private final CommandRegistry commandRegistry;
     private final CallbackQueryHandler callbackQueryHandler;
     private final TextMessageHandler textMessageHandler;
-    private final List<Long> adminWhitelist;
+    private final UpdateDispatcher updateDispatcher;
+    private final OutboundMessageQueue outboundQueue;
+    private final UnauthorizedSenderGuard unauthorizedSenderGuard;
+    private final CommandRateLimiter commandRateLimiter;
 
     public TelegramBot(
             TelegramBotConfig botConfig,
-            AdminService adminService,
+            AdminDirectoryService adminDirectoryService,
             ConversationStateService conversationStateService,
             StartCommandHandler startCommandHandler,
-            UserCommandHandler userCommandHandler,
-            StatsCommandHandler statsCommandHandler,
-            BanCommandHandler banCommandHandler,
-            SearchCommandHandler searchCommandHandler,
-            AddAdminCommandHandler addAdminCommandHandler,
+            CommandRegistry commandRegistry,
             CallbackQueryHandler callbackQueryHandler,
             TextMessageHandler textMessageHandler,
-            @Value("${admin.whitelist}") String adminWhitelistStr
+            UpdateDispatcher updateDispatcher,
+            OutboundMessageQueue outboundQueue,
+            UnauthorizedSenderGuard unauthorizedSenderGuard,
+            CommandRateLimiter commandRateLimiter
     ) {
-        super(botConfig.getToken());
+        super(createBotOptions(botConfig), botConfig.getToken());
         this.botConfig = botConfig;
-        this.adminService = adminService;
+        this.adminDirectoryService = adminDirectoryService;
         this.conversationStateService = conversationStateService;
         this.startCommandHandler = startCommandHandler;
-        this.userCommandHandler = userCommandHandler;
-        this.statsCommandHandler = statsCommandHandler;
-        this.banCommandHandler = banCommandHandler;
-        this.searchCommandHandler = searchCommandHandler;
-        this.addAdminCommandHandler = addAdminCommandHandler;
+        this.commandRegistry = commandRegistry;
         this.callbackQueryHandler = callbackQueryHandler;
         this.textMessageHandler = textMessageHandler;
-
-        // Parse admin whitelist from configuration with validation
-        this.adminWhitelist = Arrays.stream(adminWhitelistStr.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .map(this::parseAdminId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        log.info("TelegramBot initialized with {} whitelisted admins", adminWhitelist.size());
+        this.updateDispatcher = updateDispatcher;
+        this.outboundQueue = outboundQueue;
+        this.unauthorizedSenderGuard = unauthorizedSenderGuard;
+        this.commandRateLimiter = commandRateLimiter;
     }
 
     /**
-     * Parse admin ID from string, returning null for invalid values
+     * Запуск отправки исходящих сообщений: отправителем очереди является сам бот
      */
-    private Long parseAdminId(String value) {
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            log.warn("Invalid admin ID in whitelist, skipping: '{}'", value);
-            return null;
-        }
+    @PostConstruct
+    void startOutboundQueue() {
+        outboundQueue.start(method -> execute(method));
+    }
+
+    private static DefaultBotOptions createBotOptions(TelegramBotConfig botConfig) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(botConfig.getApiUrl());
+        return options;
     }
 
     @Override
@@ -96,7 +93,71 @@ public class TelegramBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
-        try {
+        // В long polling offset уже подтверждён: отброшенное обновление Telegram не пришлёт повторно
+        if (!submitUpdate(update)) {
+            replyBusy(update);
+        }
+    }
+
+    /**
+     * Передаёт обновление в очередь его чата; сама обработка выполняется
+     * в потоке диспетчера, а не в потоке long polling или HTTP-запроса webhook.
+     *
+     * @return false если обновление отброшено из-за лимитов диспетчера
+     */
+    public boolean submitUpdate(Update update) {
+        Long chatId = resolveChatId(update);
+        if (chatId == null) {
+            log.debug("Skipping unsupported update: {}", update.getUpdateId());
+            return true;
+        }
+
+        if (!updateDispatcher.dispatch(chatId, () -> processUpdate(update))) {
+            log.warn("Update {} for chat {} dropped: dispatcher limits exceeded", update.getUpdateId(), chatId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Сообщить администратору, что обновление не принято и действие нужно повторить.
+     * Ответ уходит через очередь исходящих сообщений; посторонним отправителям не отвечаем.
+     */
+    private void replyBusy(Update update) {
+        Long chatId = resolveChatId(update);
+        Long userId = resolveUserId(update);
+        if (chatId == null || userId == null || !isAuthorized(userId)) {
+            return;
+        }
+        if (update.hasCallbackQuery()) {
+            outboundQueue.enqueue(chatId, callbackQueryHandler.createAnswer(
+                    update.getCallbackQuery().getId(), BotMessage.CALLBACK_BUSY.raw()));
+        } else {
+            outboundQueue.enqueue(chatId, TelegramMessageFactory.createHtmlMessage(chatId,
+                    BotMessage.ERROR_BUSY.raw()));
+        }
+    }
+
+    /**
+     * Определить чат, к которому относится обновление.
+     * Для обновлений, которые бот не обрабатывает, возвращает null.
+     */
+    private Long resolveChatId(Update update) {
+        if (update.hasMessage() && update.getMessage().hasText()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasCallbackQuery()) {
+            CallbackQuery callbackQuery = update.getCallbackQuery();
+            return callbackQuery.getMessage() != null
+                    ? callbackQuery.getMessage().getChatId()
+                    : callbackQuery.getFrom().getId();
+        }
+        return null;
+    }
+
+    private void processUpdate(Update update) {
+        // Состояние диалога читается из Redis один раз и записывается при закрытии контекста
+        try (ConversationContext ignored = conversationStateService.openContext(resolveUserId(update))) {
             if (update.hasMessage() && update.getMessage().hasText()) {
                 handleMessage(update.getMessage());
             } else if (update.hasCallbackQuery()) {
@@ -107,105 +168,91 @@ public class TelegramBot extends TelegramLongPollingBot {
         }
     }
 
+    private Long resolveUserId(Update update) {
+        if (update.hasMessage() && update.getMessage().getFrom() != null) {
+            return update.getMessage().getFrom().getId();
+        }
+        if (update.hasCallbackQuery()) {
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        return null;
+    }
+
     private void handleMessage(Message message) {
         Long userId = message.getFrom().getId();
+        Long chatId = message.getChatId();
         String text = message.getText();
 
         // ⭐ КРИТИЧНО: Проверяем deep link ПЕРЕД авторизацией
         if (text != null && text.startsWith("/start invite_")) {
             log.info("Deep link detected for user: {}, bypassing authorization check", userId);
-            try {
-                SendMessage response = startCommandHandler.handle(message);
-                execute(response);
-            } catch (TelegramApiException e) {
-                log.error("Error sending message: {}", e.getMessage(), e);
-            }
+            send(chatId, startCommandHandler.handle(message));
             return;
         }
 
         // Проверка авторизации для всех остальных команд
         if (!isAuthorized(userId)) {
-            sendUnauthorizedMessage(message.getChatId());
+            // Повторные сообщения от того же отправителя отбрасываются без ответа
+            if (unauthorizedSenderGuard.tryAcquireReply(userId)) {
+                sendUnauthorizedMessage(chatId);
+            }
             return;
         }
 
         log.info("Processing message: {} from user: {}", text, userId);
 
-        try {
-            SendMessage response;
+        SendMessage response;
 
-            // Проверяем, является ли сообщение командой
-            if (text.startsWith("/")) {
-                response = handleCommand(message, userId);
-            } else {
-                // Обрабатываем как текстовое сообщение (для stateful диалогов)
-                response = textMessageHandler.handle(message, userId);
-            }
+        // Проверяем, является ли сообщение командой
+        if (text.startsWith("/")) {
+            response = handleCommand(message, userId);
+        } else {
+            // Обрабатываем как текстовое сообщение (для stateful диалогов)
+            response = textMessageHandler.handle(message, userId);
+        }
 
-            // 🔍 КРИТИЧЕСКОЕ ЛОГИРОВАНИЕ ПЕРЕД execute()
-            if (response == null) {
-                log.error("❌ Response is NULL! Cannot send message.");
-                return;
-            }
+        if (response == null) {
+            log.error("❌ Response is NULL! Cannot send message.");
+            return;
+        }
 
-            log.info("📤 About to execute SendMessage:");
-            log.info("  ├─ ChatId: {}", response.getChatId());
-            log.info("  ├─ Text length: {} chars",
-                    response.getText() != null ? response.getText().length() : 0);
-            log.info("  ├─ Parse mode: {}", response.getParseMode());
-            log.info("  ├─ Has keyboard: {}", response.getReplyMarkup() != null);
-
-            // Проверка размера текста ПЕРЕД отправкой
-            if (response.getText() != null && response.getText().length() > BotConstants.TELEGRAM_MESSAGE_MAX_LENGTH) {
-                log.error("❌ TEXT TOO LONG: {} chars (limit: {})", response.getText().length(),
-                        BotConstants.TELEGRAM_MESSAGE_MAX_LENGTH);
-                log.error("❌ Telegram will REJECT this message!");
-
-                // Отправить fallback сообщение
-                SendMessage errorMsg = TelegramMessageFactory.createErrorMessage(message.getChatId(),
-                        "❌ Результаты слишком большие для отображения. Уточните поиск.");
-                execute(errorMsg);
-                return;
-            }
+        log.debug("📤 Queueing SendMessage: chatId={}, text length={}, parse mode={}, has keyboard={}",
+                response.getChatId(),
+                response.getText() != null ? response.getText().length() : 0,
+                response.getParseMode(),
+                response.getReplyMarkup() != null);
+
+        // Проверка размера текста ПЕРЕД отправкой
+        if (response.getText() != null && response.getText().length() > BotConstants.TELEGRAM_MESSAGE_MAX_LENGTH) {
+            log.error("❌ TEXT TOO LONG: {} chars (limit: {})", response.getText().length(),
+                    BotConstants.TELEGRAM_MESSAGE_MAX_LENGTH);
+            log.error("❌ Telegram will REJECT this message!");
+
+            // Отправить fallback сообщение
+            send(chatId, TelegramMessageFactory.createErrorMessage(chatId,
+                    "❌ Результаты слишком большие для отображения. Уточните поиск."));
+            return;
+        }
 
-            log.info("🚀 Executing Telegram API call...");
-            org.telegram.telegrambots.meta.api.objects.Message sentMessage = execute(response);
-            log.info("✅ Message sent successfully: messageId={}, chatId={}",
-                    sentMessage.getMessageId(),
-                    sentMessage.getChatId());
-
-        } catch (TelegramApiException e) {
-            // 🔍 ДЕТАЛЬНОЕ ЛОГИРОВАНИЕ ОШИБОК TELEGRAM API
-            log.error("❌ ========================================");
-            log.error("❌ TELEGRAM API EXCEPTION OCCURRED");
-            log.error("❌ ========================================");
-            log.error("  Exception type: {}", e.getClass().getSimpleName());
-            log.error("  Error message: {}", e.getMessage());
-
-            if (e instanceof org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException) {
-                org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException apiEx =
-                        (org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException) e;
-                log.error("  API Error Code: {}", apiEx.getErrorCode());
-                log.error("  API Response: {}", apiEx.getApiResponse());
-                log.error("  Parameters: {}", apiEx.getParameters());
-            }
+        send(chatId, response);
+    }
 
-            log.error("  Full stack trace:", e);
-            log.error("❌ ========================================");
-
-            // Попытка отправить уведомление пользователю об ошибке
-            try {
-                SendMessage errorNotification = TelegramMessageFactory.createErrorMessage(message.getChatId(),
-                        "❌ Ошибка при отправке сообщения.\n" +
-                                "Код ошибки: " + (e instanceof org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException
-                                ? ((org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException) e).getErrorCode()
-                                : "unknown") + "\n" +
-                                "Попробуйте снова или обратитесь к администратору.");
-                execute(errorNotification);
-            } catch (TelegramApiException fallbackError) {
-                log.error("Failed to send error notification to user", fallbackError);
-            }
-        }
+    /**
+     * Поставить ответ в очередь отправки. При окончательной ошибке Telegram API
+     * пользователю отправляется уведомление с кодом ошибки.
+     */
+    private void send(Long chatId, SendMessage response) {
+        outboundQueue.enqueue(chatId, response, error -> notifySendFailure(chatId, error));
+    }
+
+    private void notifySendFailure(Long chatId, TelegramApiException e) {
+        SendMessage errorNotification = TelegramMessageFactory.createErrorMessage(chatId,
+                "❌ Ошибка при отправке сообщения.\n" +
+                        "Код ошибки: " + (e instanceof TelegramApiRequestException apiEx
+                        ? apiEx.getErrorCode()
+                        : "unknown") + "\n" +
+                        "Попробуйте снова или обратитесь к администратору.");
+        outboundQueue.enqueue(chatId, errorNotification);
     }
 
     /**
@@ -213,14 +260,15 @@ public class TelegramBot extends TelegramLongPollingBot {
      */
     private SendMessage handleCommand(Message message, Long userId) {
         String text = message.getText();
+        String command = CommandRegistry.extractCommandToken(text);
 
         // Глобальные команды - сбрасывают состояние
-        if (text.startsWith("/start")) {
+        if ("start".equals(command)) {
             conversationStateService.resetToIdle(userId);
             return startCommandHandler.handle(message);
         }
 
-        if (text.startsWith("/cancel")) {
+        if ("cancel".equals(command)) {
             conversationStateService.resetToIdle(userId);
             return TelegramMessageFactory.createHtmlMessage(message.getChatId(),
                     "✅ Текущее действие отменено. Вы вернулись в главное меню.");
@@ -236,59 +284,83 @@ public class TelegramBot extends TelegramLongPollingBot {
         }
 
         // Роутинг команд (для IDLE состояния)
-        if (text.startsWith("/user")) {
-            return userCommandHandler.handle(message, userId);
-        } else if (text.startsWith("/stats")) {
-            return statsCommandHandler.handle(message, userId);
-        } else if (text.startsWith("/ban")) {
-            return banCommandHandler.handle(message, userId);
-        } else if (text.startsWith("/unban")) {
-            return banCommandHandler.handleUnban(message, userId);
-        } else if (text.startsWith("/search")) {
-            return searchCommandHandler.handle(message, userId);
-        } else if (text.startsWith("/addadmin")) {
-            return addAdminCommandHandler.handle(message, userId);
-        } else {
+        Optional<CommandRegistry.CommandEntry> entry = commandRegistry.resolve(text);
+        if (entry.isEmpty()) {
             return TelegramMessageFactory.createErrorMessage(message.getChatId(),
                     BotMessage.ERROR_UNKNOWN_COMMAND.raw());
         }
+
+        AdminRole requiredRole = entry.get().requiredRole();
+        if (!hasRequiredRole(userId, requiredRole)) {
+            log.warn("Admin {} lacks role {} for /{}", userId, requiredRole, entry.get().name());
+            return TelegramMessageFactory.createHtmlMessage(message.getChatId(),
+                    BotMessage.ERROR_INSUFFICIENT_PERMISSIONS.format(requiredRole.name()));
+        }
+
+        RateLimitResult rateLimit = commandRateLimiter.tryAcquire(entry.get().name(), userId);
+        if (!rateLimit.consumed()) {
+            return TelegramMessageFactory.createHtmlMessage(message.getChatId(),
+                    BotMessage.ERROR_RATE_LIMITED.format(rateLimit.retryAfterSeconds()));
+        }
+
+        return entry.get().handler().handle(message, userId);
+    }
+
+    /**
+     * Администраторы из whitelist имеют доступ ко всем командам,
+     * для MODERATOR достаточно уже пройденной авторизации
+     */
+    private boolean hasRequiredRole(Long userId, AdminRole requiredRole) {
+        if (requiredRole == AdminRole.MODERATOR || adminDirectoryService.isWhitelisted(userId)) {
+            return true;
+        }
+        return adminDirectoryService.hasPermission(userId, requiredRole);
     }
 
     private void handleCallbackQuery(CallbackQuery callbackQuery) {
         Long userId = callbackQuery.getFrom().getId();
+        Long chatId = callbackQuery.getMessage() != null ? callbackQuery.getMessage().getChatId() : userId;
 
         // Check if user is admin
         if (!isAuthorized(userId)) {
-            try {
-                execute(callbackQueryHandler.createAnswer(
-                        callbackQuery.getId(),
-                        BotMessage.CALLBACK_UNAUTHORIZED.raw()
-                ));
-            } catch (TelegramApiException e) {
-                log.error("Error sending callback answer: {}", e.getMessage(), e);
+            if (!unauthorizedSenderGuard.tryAcquireReply(userId)) {
+                return;
             }
+            outboundQueue.enqueue(chatId, callbackQueryHandler.createAnswer(
+                    callbackQuery.getId(),
+                    BotMessage.CALLBACK_UNAUTHORIZED.raw()
+            ));
+            return;
+        }
+
+        // При превышении лимита - только всплывающее уведомление, без редактирования сообщения
+        RateLimitResult rateLimit = commandRateLimiter.tryAcquire(
+                CommandRateLimiter.callbackAction(callbackQuery.getData()), userId);
+        if (!rateLimit.consumed()) {
+            outboundQueue.enqueue(chatId, callbackQueryHandler.createAnswer(callbackQuery.getId(),
+                    BotMessage.CALLBACK_RATE_LIMITED.format(rateLimit.retryAfterSeconds())));
+            return;
+        }
+
+        // Callback без data или без сообщения (игры, inline-режим) бот не обрабатывает - только отвечаем
+        if (callbackQuery.getData() == null || callbackQuery.getMessage() == null) {
+            outboundQueue.enqueue(chatId, callbackQueryHandler.createAnswer(callbackQuery.getId(),
+                    BotMessage.CALLBACK_ERROR.raw()));
             return;
         }
 
         log.info("Processing callback: {} from user: {}", callbackQuery.getData(), userId);
-        try {
-            EditMessageText response = callbackQueryHandler.handle(callbackQuery, userId);
-            execute(response);
-            execute(callbackQueryHandler.createAnswer(callbackQuery.getId(),
-                    BotMessage.CALLBACK_SUCCESS.raw()));
-        } catch (TelegramApiException e) {
-            log.error("Error handling callback query: {}", e.getMessage(), e);
+        EditMessageText response = callbackQueryHandler.handle(callbackQuery, userId);
+        if (response != null) {
+            outboundQueue.enqueue(chatId, response);
         }
+        outboundQueue.enqueue(chatId, callbackQueryHandler.createAnswer(callbackQuery.getId(),
+                BotMessage.CALLBACK_SUCCESS.raw()));
     }
 
     private boolean isAuthorized(Long userId) {
-        // Check whitelist first
-        if (adminWhitelist.contains(userId)) {
-            return true;
-        }
-
-        // Then check database
-        return adminService.isAdmin(userId);
+        // Whitelist и активные администраторы из справочника в памяти, без запроса к БД
+        return adminDirectoryService.isAuthorized(userId);
     }
 
     private void sendUnauthorizedMessage(Long chatId) {
@@ -296,10 +368,6 @@ public class TelegramBot extends TelegramLongPollingBot {
                 chatId.toString(),
                 BotMessage.ERROR_UNAUTHORIZED.raw()
         );
-        try {
-            execute(message);
-        } catch (TelegramApiException e) {
-            log.error("Error sending unauthorized message: {}", e.getMessage(), e);
-        }
+        outboundQueue.enqueue(chatId, message);
     }
 }
@@ -0,0 +1,276 @@
+package com.socialnetwork.adminbot.telegram.dispatch;
+
+import com.socialnetwork.adminbot.config.TelegramDispatcherConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Диспетчер входящих обновлений Telegram.
+ * <p>
+ * Для каждого чата заводится отдельная очередь (lane). Обновления одного чата
+ * выполняются строго в порядке поступления, обновления разных чатов — параллельно
+ * на общем пуле потоков. Медленный вызов mc-account или Redis в одном чате
+ * больше не задерживает остальных администраторов.
+ * <p>
+ * Очередь чата существует только пока в ней есть задачи: последний обработчик,
+ * обнаруживший пустую очередь, удаляет её из реестра. Все изменения очереди
+ * выполняются внутри {@link ConcurrentHashMap#compute}, поэтому добавление
+ * задачи и завершение обработчика не могут разойтись.
+ * <p>
+ * За один заход поток обрабатывает не больше {@code maxTasksPerTurn} обновлений чата,
+ * затем lane ставится в конец очереди пула: активный чат не занимает поток бесконечно.
+ */
+@Slf4j
+@Component
+public class UpdateDispatcher {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedUpdates = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+    private final int maxActiveLanes;
+    private final int maxLaneQueueDepth;
+    private final int maxTasksPerTurn;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedLanesCounter;
+    private final Counter rejectedQueueCounter;
+    private final Timer queueWaitTimer;
+
+    public UpdateDispatcher(TelegramDispatcherConfig config, MeterRegistry meterRegistry) {
+        this.maxActiveLanes = config.getMaxActiveLanes();
+        this.maxLaneQueueDepth = config.getMaxLaneQueueDepth();
+        this.maxTasksPerTurn = config.getMaxTasksPerTurn();
+        this.executor = new ThreadPoolExecutor(
+                config.getWorkerThreads(),
+                config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new DispatcherThreadFactory()
+        );
+
+        Gauge.builder("telegram.dispatcher.lanes.active", lanes, Map::size)
+                .description("Количество чатов с необработанными обновлениями")
+                .register(meterRegistry);
+        Gauge.builder("telegram.dispatcher.queue.depth", queuedUpdates, AtomicInteger::get)
+                .description("Суммарное количество обновлений, ожидающих обработки")
+                .register(meterRegistry);
+        Gauge.builder("telegram.dispatcher.lanes.waiting", executor, e -> e.getQueue().size())
+                .description("Количество чатов, ожидающих свободный рабочий поток")
+                .register(meterRegistry);
+
+        this.acceptedCounter = Counter.builder("telegram.dispatcher.updates")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.rejectedLanesCounter = Counter.builder("telegram.dispatcher.updates")
+                .tag("result", "rejected_lanes_limit")
+                .register(meterRegistry);
+        this.rejectedQueueCounter = Counter.builder("telegram.dispatcher.updates")
+                .tag("result", "rejected_queue_limit")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("telegram.dispatcher.queue.wait")
+                .description("Время ожидания обновления в очереди чата")
+                .register(meterRegistry);
+
+        log.info("UpdateDispatcher initialized: workers={}, maxActiveLanes={}, maxLaneQueueDepth={}",
+                config.getWorkerThreads(), maxActiveLanes, maxLaneQueueDepth);
+    }
+
+    /**
+     * Поставить обработку обновления в очередь чата.
+     *
+     * @param chatId ID чата, определяющий очередь
+     * @param task   обработка обновления
+     * @return true если задача принята, false если превышены лимиты
+     */
+    public boolean dispatch(long chatId, Runnable task) {
+        QueuedTask queued = new QueuedTask(task, System.nanoTime());
+        DispatchOutcome[] outcome = {DispatchOutcome.REJECTED_LANES_LIMIT};
+
+        Lane lane = lanes.compute(chatId, (id, current) -> {
+            if (current == null) {
+                if (lanes.size() >= maxActiveLanes) {
+                    return null;
+                }
+                current = new Lane(id);
+                outcome[0] = DispatchOutcome.STARTED;
+            } else if (current.tasks.size() >= maxLaneQueueDepth) {
+                outcome[0] = DispatchOutcome.REJECTED_QUEUE_LIMIT;
+                return current;
+            } else {
+                outcome[0] = DispatchOutcome.APPENDED;
+            }
+            current.tasks.addLast(queued);
+            return current;
+        });
+
+        switch (outcome[0]) {
+            case REJECTED_LANES_LIMIT -> {
+                rejectedLanesCounter.increment();
+                log.warn("Update for chat {} rejected: active lanes limit {} reached", chatId, maxActiveLanes);
+                return false;
+            }
+            case REJECTED_QUEUE_LIMIT -> {
+                rejectedQueueCounter.increment();
+                log.warn("Update for chat {} rejected: lane queue limit {} reached", chatId, maxLaneQueueDepth);
+                return false;
+            }
+            default -> {
+                // задача добавлена в очередь
+            }
+        }
+
+        queuedUpdates.incrementAndGet();
+        acceptedCounter.increment();
+
+        if (outcome[0] == DispatchOutcome.STARTED) {
+            try {
+                executor.execute(lane);
+            } catch (RejectedExecutionException e) {
+                // Пул остановлен — очередь чата больше никто не обработает
+                int dropped = lane.drain();
+                queuedUpdates.addAndGet(-dropped);
+                log.warn("Dispatcher is shut down, dropped {} update(s) for chat {}", dropped, chatId);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Количество чатов с необработанными обновлениями
+     */
+    public int getActiveLanes() {
+        return lanes.size();
+    }
+
+    /**
+     * Количество обновлений, ожидающих обработки во всех очередях
+     */
+    public int getQueuedUpdates() {
+        return queuedUpdates.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("UpdateDispatcher did not finish in {}s, {} update(s) abandoned",
+                        SHUTDOWN_TIMEOUT_SECONDS, queuedUpdates.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private enum DispatchOutcome {
+        STARTED,
+        APPENDED,
+        REJECTED_LANES_LIMIT,
+        REJECTED_QUEUE_LIMIT
+    }
+
+    private record QueuedTask(Runnable task, long enqueuedAtNanos) {
+    }
+
+    /**
+     * Очередь обновлений одного чата. Одновременно её обрабатывает не более одного потока.
+     */
+    private final class Lane implements Runnable {
+
+        private final long chatId;
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+
+        private Lane(long chatId) {
+            this.chatId = chatId;
+        }
+
+        @Override
+        public void run() {
+            int processed = 0;
+            QueuedTask next;
+            while ((next = poll()) != null) {
+                queueWaitTimer.record(System.nanoTime() - next.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+                try {
+                    next.task().run();
+                } catch (Exception e) {
+                    log.error("Error processing update for chat {}: {}", chatId, e.getMessage(), e);
+                }
+                if (++processed >= maxTasksPerTurn) {
+                    yieldTurn();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Поставить lane в конец очереди пула. Lane остаётся в реестре, поэтому новые
+         * обновления чата не запускают второй обработчик; пустую lane удалит следующий заход.
+         */
+        private void yieldTurn() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                int dropped = drain();
+                queuedUpdates.addAndGet(-dropped);
+                log.warn("Dispatcher is shut down, dropped {} update(s) for chat {}", dropped, chatId);
+            }
+        }
+
+        /**
+         * Забрать следующую задачу; при пустой очереди lane удаляется из реестра
+         */
+        private QueuedTask poll() {
+            QueuedTask[] head = new QueuedTask[1];
+            lanes.compute(chatId, (id, current) -> {
+                head[0] = tasks.pollFirst();
+                return head[0] != null ? current : null;
+            });
+            if (head[0] != null) {
+                queuedUpdates.decrementAndGet();
+            }
+            return head[0];
+        }
+
+        private int drain() {
+            int[] dropped = new int[1];
+            lanes.compute(chatId, (id, current) -> {
+                dropped[0] = tasks.size();
+                tasks.clear();
+                return null;
+            });
+            return dropped[0];
+        }
+    }
+
+    private static final class DispatcherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "tg-update-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
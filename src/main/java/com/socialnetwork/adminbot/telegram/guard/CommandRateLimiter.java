@@ -0,0 +1,115 @@
+package com.socialnetwork.adminbot.telegram.guard;
+
+import com.socialnetwork.adminbot.config.CommandRateLimitConfig;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.service.AdminDirectoryService;
+import com.socialnetwork.adminbot.service.RateLimitService;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Лимиты команд администраторов, вызывающих mc-account.
+ * <p>
+ * Для каждого действия из {@link CommandRateLimitConfig} и каждого администратора
+ * заводится bucket в {@link RateLimitService} с ключом по Telegram ID. Ёмкость зависит
+ * от роли администратора; администраторы из whitelist получают лимиты SUPER_ADMIN.
+ * Конфигурации bucket'ов строятся один раз при старте.
+ */
+@Slf4j
+@Component
+public class CommandRateLimiter {
+
+    private static final String KEY_PREFIX = "command:";
+    private static final String LIMIT_NAME = "command";
+    private static final String CALLBACK_ACTION_PREFIX = "cb:";
+
+    private final RateLimitService rateLimitService;
+    private final AdminDirectoryService adminDirectoryService;
+    private final boolean enabled;
+    private final Map<String, Map<AdminRole, BucketConfiguration>> limits = new HashMap<>();
+    private final Map<String, Counter> rejectedCounters = new HashMap<>();
+
+    public CommandRateLimiter(RateLimitService rateLimitService,
+                              AdminDirectoryService adminDirectoryService,
+                              CommandRateLimitConfig config,
+                              MeterRegistry meterRegistry) {
+        this.rateLimitService = rateLimitService;
+        this.adminDirectoryService = adminDirectoryService;
+        this.enabled = config.isEnabled();
+
+        config.getRules().forEach((action, rule) -> {
+            Map<AdminRole, BucketConfiguration> byRole = new EnumMap<>(AdminRole.class);
+            for (AdminRole role : AdminRole.values()) {
+                long capacity = rule.capacityFor(role);
+                byRole.put(role, BucketConfiguration.builder()
+                        .addLimit(Bandwidth.builder()
+                                .capacity(capacity)
+                                .refillGreedy(capacity, rule.getPeriod())
+                                .build())
+                        .build());
+            }
+            limits.put(action, byRole);
+            rejectedCounters.put(action, Counter.builder("telegram.command.rate.limited")
+                    .tag("action", action)
+                    .register(meterRegistry));
+        });
+    }
+
+    /**
+     * Проверить лимит действия для администратора.
+     *
+     * @param action         имя команды, действие callback'а ({@link #callbackAction}) или {@code search_query}
+     * @param telegramUserId Telegram ID администратора
+     * @return результат проверки; для действий без правила - всегда разрешено
+     */
+    public RateLimitResult tryAcquire(String action, long telegramUserId) {
+        Map<AdminRole, BucketConfiguration> byRole = enabled ? limits.get(action) : null;
+        if (byRole == null) {
+            return RateLimitResult.allowed(Long.MAX_VALUE);
+        }
+
+        AdminRole role = resolveRole(telegramUserId);
+        BucketConfiguration configuration = byRole.get(role);
+        // Роль входит в ключ: после смены роли действует bucket с её ёмкостью
+        String key = KEY_PREFIX + action + ":" + role.name() + ":" + telegramUserId;
+        RateLimitResult result = rateLimitService.consume(LIMIT_NAME, key, () -> configuration);
+
+        if (!result.consumed()) {
+            rejectedCounters.get(action).increment();
+            log.warn("Admin {} exceeded {} limit, retry after {}s", telegramUserId, action,
+                    result.retryAfterSeconds());
+        }
+        return result;
+    }
+
+    /**
+     * Действие callback'а: {@code cb:} и callback data до первого ':'
+     * ({@code search_page:2} - {@code cb:search_page}). Префикс не даёт callback'у
+     * попасть под лимит одноимённой команды ({@code stats:<uuid>} и {@code /stats}).
+     * Callback без data (игры, inline-режим) - действие {@code cb:}.
+     */
+    public static String callbackAction(String callbackData) {
+        if (callbackData == null) {
+            return CALLBACK_ACTION_PREFIX;
+        }
+        int separator = callbackData.indexOf(':');
+        return CALLBACK_ACTION_PREFIX + (separator < 0 ? callbackData : callbackData.substring(0, separator));
+    }
+
+    private AdminRole resolveRole(long telegramUserId) {
+        AdminRole role = adminDirectoryService.getRole(telegramUserId);
+        if (role != null) {
+            return role;
+        }
+        return adminDirectoryService.isWhitelisted(telegramUserId) ? AdminRole.SUPER_ADMIN : AdminRole.MODERATOR;
+    }
+}
@@ -0,0 +1,84 @@
+package com.socialnetwork.adminbot.telegram.guard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.socialnetwork.adminbot.config.TelegramUnauthorizedConfig;
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Защита от потока сообщений неавторизованных пользователей.
+ * <p>
+ * Для каждого неавторизованного отправителя хранится token bucket: первое сообщение
+ * получает ответ "нет доступа", повторные в пределах интервала отбрасываются молча
+ * и не расходуют лимиты Telegram. Кэш отправителей ограничен по размеру и по TTL
+ * с момента последнего сообщения, поэтому поток с множества ID не раздувает память.
+ * <p>
+ * Запись сбрасывается при изменении администратора (активация приглашения и т.п.).
+ */
+@Slf4j
+@Component
+public class UnauthorizedSenderGuard {
+
+    private final Cache<Long, Bucket> senders;
+    private final Bandwidth replyLimit;
+    private final Counter repliedCounter;
+    private final Counter droppedCounter;
+
+    public UnauthorizedSenderGuard(TelegramUnauthorizedConfig config, MeterRegistry meterRegistry) {
+        this.replyLimit = Bandwidth.builder()
+                .capacity(config.getRepliesPerInterval())
+                .refillIntervally(config.getRepliesPerInterval(), config.getReplyInterval())
+                .build();
+        this.senders = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedSenders())
+                .expireAfterAccess(config.getSenderTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, senders, "telegram.unauthorized.senders");
+        this.repliedCounter = Counter.builder("telegram.unauthorized.updates")
+                .tag("result", "replied")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("telegram.unauthorized.updates")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Зарегистрировать update от неавторизованного отправителя.
+     *
+     * @param telegramUserId Telegram ID отправителя
+     * @return true если отправителю нужно ответить, false если update отбрасывается молча
+     */
+    public boolean tryAcquireReply(long telegramUserId) {
+        Bucket bucket = senders.get(telegramUserId, id -> Bucket.builder().addLimit(replyLimit).build());
+        if (bucket.tryConsume(1)) {
+            repliedCounter.increment();
+            return true;
+        }
+        droppedCounter.increment();
+        log.debug("Dropping update from unauthorized sender {}", telegramUserId);
+        return false;
+    }
+
+    /**
+     * Забыть отправителя, например после активации его приглашения
+     */
+    public void invalidate(long telegramUserId) {
+        senders.invalidate(telegramUserId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAdminChanged(AdminChangedEvent event) {
+        invalidate(event.telegramUserId());
+    }
+}
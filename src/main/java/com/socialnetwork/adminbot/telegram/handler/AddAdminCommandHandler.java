@@ -55,6 +55,11 @@ public class AddAdminCommandHandler extends StatefulCommandHandler {
         return "addadmin";
     }
 
+    @Override
+    public AdminRole getRequiredRole() {
+        return AdminRole.SUPER_ADMIN;
+    }
+
     @Override
     protected BotState[] getRelatedStates() {
         return new BotState[]{
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -192,42 +193,79 @@ public class BanCommandHandler extends StatefulCommandHandler {
             return createMessage(chatId, BotMessage.ERROR_STATE_FOR_BAN.raw());
         }
 
+        // Извлекаем данные из состояния до перехода: после него они будут очищены
+        String targetUserEmail = state.getData(StateDataKey.BAN_TARGET_EMAIL, String.class);
+        String reason = state.getData(StateDataKey.BAN_REASON, String.class);
+        Map<String, Object> confirmationData = new HashMap<>(state.getData());
+        long confirmationVersion = state.getVersion() != null ? state.getVersion() : 0L;
+        UUID targetUserId;
         try {
-            // Извлекаем данные из состояния
-            String targetUserIdStr = state.getData(StateDataKey.BAN_TARGET_USER_ID, String.class);
-            String targetUserEmail = state.getData(StateDataKey.BAN_TARGET_EMAIL, String.class);
-            String reason = state.getData(StateDataKey.BAN_REASON, String.class);
+            targetUserId = UUID.fromString(state.getData(StateDataKey.BAN_TARGET_USER_ID, String.class));
+        } catch (Exception e) {
+            log.error("Invalid ban confirmation data for user {}: {}", adminId, e.getMessage());
+            conversationStateService.resetToIdle(adminId);
+            return createMessage(chatId, BotMessage.ERROR_GENERIC.format(e.getMessage()));
+        }
 
-            UUID targetUserId = UUID.fromString(targetUserIdStr);
+        // Атомарно забираем подтверждение: повторное нажатие "Подтвердить"
+        // получит отказ и не выполнит бан второй раз
+        try {
+            stateTransitionService.transitionToWithClear(adminId, BotState.IDLE);
+        } catch (IllegalStateException e) {
+            log.warn("Ban confirmation for user {} already processed: {}", adminId, e.getMessage());
+            return createMessage(chatId, BotMessage.ERROR_STATE_FOR_BAN.raw());
+        }
 
+        try {
             // Выполняем бан
             userService.blockUser(targetUserId, adminId, reason);
+        } catch (Exception e) {
+            log.error("Error executing ban: {}", e.getMessage(), e);
+            restoreConfirmation(adminId, confirmationData, confirmationVersion);
+            SendMessage response = createMessage(chatId, String.join("\n\n",
+                    BotMessage.ERROR_GENERIC.format(e.getMessage()),
+                    BotMessage.BAN_CONFIRMATION_KEPT.raw()));
+            response.setReplyMarkup(KeyboardBuilder.buildConfirmationKeyboard("ban"));
+            return response;
+        }
 
-            // Логируем действие
+        // Логируем действие; бан уже выполнен, ошибка аудита его не отменяет
+        try {
             auditLogService.logAction(
                     "BLOCK_USER",
                     adminId,
                     targetUserId,
                     Map.of("reason", reason, "source", "stateful_ban").toString()
             );
+        } catch (Exception e) {
+            log.error("Failed to write audit log for ban of {}: {}", targetUserId, e.getMessage(), e);
+        }
 
-            log.info("User {} successfully banned user {} with reason: {}",
-                    adminId, targetUserId, reason);
-
-            // Сбрасываем состояние
-            conversationStateService.resetToIdle(adminId);
+        log.info("User {} successfully banned user {} with reason: {}",
+                adminId, targetUserId, reason);
 
-            return createMessage(chatId,
-                    String.join("\n\n",
-                            BotMessage.BAN_SUCCESS_2.raw(),
-                            BotMessage.USER_INFO_EMAIL.format(targetUserEmail),
-                            BotMessage.USER_INFO_ID.format(targetUserId),
-                            BotMessage.BAN_REASON.format(BotMessage.escapeHtml(reason))));
+        return createMessage(chatId,
+                String.join("\n\n",
+                        BotMessage.BAN_SUCCESS_2.raw(),
+                        BotMessage.USER_INFO_EMAIL.format(targetUserEmail),
+                        BotMessage.USER_INFO_ID.format(targetUserId),
+                        BotMessage.BAN_REASON.format(BotMessage.escapeHtml(reason))));
+    }
 
+    /**
+     * Вернуть подтверждение бана, если mc-account не выполнил блокировку:
+     * администратор может повторить без нового /ban
+     */
+    private void restoreConfirmation(Long adminId, Map<String, Object> data, long version) {
+        try {
+            conversationStateService.setState(adminId, ConversationState.builder()
+                    .state(BotState.CONFIRMING_BAN)
+                    .data(data)
+                    // Выше версии, записанной при захвате подтверждения
+                    .version(version + 2)
+                    .build());
         } catch (Exception e) {
-            log.error("Error executing ban: {}", e.getMessage(), e);
-            conversationStateService.resetToIdle(adminId);
-            return createMessage(chatId, BotMessage.ERROR_GENERIC.format(e.getMessage()));
+            log.error("Failed to restore ban confirmation for user {}: {}", adminId, e.getMessage());
         }
     }
 
@@ -3,14 +3,18 @@ package com.socialnetwork.adminbot.telegram.handler;
 import com.socialnetwork.adminbot.telegram.handler.callback.CallbackHandler;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
 import com.socialnetwork.adminbot.telegram.messages.TelegramMessageFactory;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Маршрутизатор callback-запросов.
@@ -22,13 +26,105 @@ import java.util.List;
  * - SearchCallbackHandler: функции поиска
  * - AdminManagementCallbackHandler: управление администраторами
  * - NavigationCallbackHandler: навигация и статистика
+ *
+ * Индекс строится один раз при старте из {@link CallbackHandler#getCallbackPrefixes()}:
+ * точные значения ищутся в одной таблице, префиксы (оканчиваются на ':') — в другой
+ * по началу callback data до очередного ':', от самого длинного к короткому.
+ * Пересечение префиксов разных обработчиков считается ошибкой конфигурации.
+ * Для каждого префикса публикуется таймер {@code telegram.callback.dispatch}
+ * (количество вызовов и время обработки).
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class CallbackQueryHandler {
 
-    private final List<CallbackHandler> handlers;
+    private final Map<String, Route> exactRoutes;
+    private final Map<String, Route> prefixRoutes;
+    private final Counter unmatchedCounter;
+
+    public CallbackQueryHandler(List<CallbackHandler> handlers, MeterRegistry meterRegistry) {
+        Map<String, Route> exact = new HashMap<>();
+        Map<String, Route> prefixes = new HashMap<>();
+        for (CallbackHandler handler : handlers) {
+            for (String key : handler.getCallbackPrefixes()) {
+                Route route = new Route(key, handler, Timer.builder("telegram.callback.dispatch")
+                        .description("Обработка callback-запросов по префиксу callback data")
+                        .tag("prefix", key)
+                        .register(meterRegistry));
+                Route existing = (key.endsWith(":") ? prefixes : exact).putIfAbsent(key, route);
+                if (existing != null) {
+                    throw conflict(key, existing, route);
+                }
+            }
+        }
+        this.exactRoutes = Map.copyOf(exact);
+        this.prefixRoutes = Map.copyOf(prefixes);
+        verifyNoOverlaps();
+
+        this.unmatchedCounter = Counter.builder("telegram.callback.unmatched")
+                .description("Callback-запросы без подходящего обработчика")
+                .register(meterRegistry);
+
+        log.info("CallbackQueryHandler initialized: {} exact route(s), {} prefix route(s)",
+                exactRoutes.size(), prefixRoutes.size());
+    }
+
+    /**
+     * Значение или префикс, который начинается с префикса другого обработчика,
+     * сделал бы маршрутизацию зависимой от порядка регистрации.
+     */
+    private void verifyNoOverlaps() {
+        for (Route route : exactRoutes.values()) {
+            Route prefix = findPrefixRoute(route.key(), route.key().length());
+            if (prefix != null && prefix.handler() != route.handler()) {
+                throw conflict(route.key(), prefix, route);
+            }
+        }
+        for (Route route : prefixRoutes.values()) {
+            // Ищем более короткие префиксы, исключая сам ключ
+            Route prefix = findPrefixRoute(route.key(), route.key().length() - 1);
+            if (prefix != null && prefix.handler() != route.handler()) {
+                throw conflict(route.key(), prefix, route);
+            }
+        }
+    }
+
+    private static IllegalStateException conflict(String key, Route existing, Route route) {
+        return new IllegalStateException(String.format(
+                "Callback data '%s' is claimed by both %s ('%s') and %s",
+                key,
+                existing.handler().getClass().getSimpleName(),
+                existing.key(),
+                route.handler().getClass().getSimpleName()));
+    }
+
+    /**
+     * Найти маршрут для callback data.
+     *
+     * @return маршрут или null, если обработчик не зарегистрирован
+     */
+    Route findRoute(String data) {
+        if (data == null) {
+            return null;
+        }
+        Route route = exactRoutes.get(data);
+        return route != null ? route : findPrefixRoute(data, data.length());
+    }
+
+    /**
+     * Самый длинный зарегистрированный префикс среди первых {@code limit} символов data
+     */
+    private Route findPrefixRoute(String data, int limit) {
+        int colon = data.lastIndexOf(':', limit - 1);
+        while (colon >= 0) {
+            Route route = prefixRoutes.get(data.substring(0, colon + 1));
+            if (route != null) {
+                return route;
+            }
+            colon = data.lastIndexOf(':', colon - 1);
+        }
+        return null;
+    }
 
     /**
      * Обрабатывает callback query, делегируя соответствующему обработчику.
@@ -43,14 +139,14 @@ public class CallbackQueryHandler {
         Integer messageId = callbackQuery.getMessage().getMessageId();
 
         try {
-            // Находим подходящий обработчик
-            for (CallbackHandler handler : handlers) {
-                if (handler.canHandle(data)) {
-                    return handler.handle(callbackQuery, chatId, messageId, adminId);
-                }
+            Route route = findRoute(data);
+            if (route != null) {
+                return route.timer().record(() ->
+                        route.handler().handle(callbackQuery, chatId, messageId, adminId));
             }
 
             // Если обработчик не найден
+            unmatchedCounter.increment();
             return TelegramMessageFactory.createErrorEditMessage(chatId, messageId, BotMessage.ERROR_UNKNOWN_ACTION.raw());
 
         } catch (Exception e) {
@@ -72,4 +168,10 @@ public class CallbackQueryHandler {
         answer.setText(text);
         return answer;
     }
+
+    /**
+     * Запись индекса: ключ callback data, обработчик и его таймер
+     */
+    record Route(String key, CallbackHandler handler, Timer timer) {
+    }
 }
@@ -0,0 +1,118 @@
+package com.socialnetwork.adminbot.telegram.handler;
+
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.telegram.handler.base.BaseCommandHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Таблица маршрутизации команд бота.
+ * <p>
+ * Строится один раз при старте из всех {@link BaseCommandHandler} по
+ * {@link BaseCommandHandler#getCommandName()} и псевдонимам. Команда ищется
+ * по точному совпадению первого токена сообщения за O(1), поэтому
+ * {@code /banlist} не попадёт в обработчик {@code /ban}.
+ */
+@Slf4j
+@Component
+public class CommandRegistry {
+
+    private final Map<String, CommandEntry> commands;
+
+    public CommandRegistry(List<BaseCommandHandler> handlers) {
+        Map<String, CommandEntry> table = new HashMap<>();
+        for (BaseCommandHandler handler : handlers) {
+            CommandEntry entry = new CommandEntry(
+                    normalize(handler.getCommandName()),
+                    handler,
+                    handler.getRequiredRole(),
+                    handler.isStateful()
+            );
+            register(table, entry.name(), entry);
+            for (String alias : handler.getAliases()) {
+                register(table, normalize(alias), entry);
+            }
+        }
+        this.commands = Map.copyOf(table);
+
+        log.info("CommandRegistry initialized with {} command name(s): {}", commands.size(), commands.keySet());
+    }
+
+    private static void register(Map<String, CommandEntry> table, String name, CommandEntry entry) {
+        CommandEntry existing = table.putIfAbsent(name, entry);
+        if (existing != null) {
+            throw new IllegalStateException(String.format(
+                    "Command /%s is declared by both %s and %s",
+                    name,
+                    existing.handler().getClass().getSimpleName(),
+                    entry.handler().getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Найти команду по тексту сообщения.
+     *
+     * @param text текст сообщения, например "/ban uuid" или "/stats@AdminBot"
+     * @return описание команды или empty, если команда не зарегистрирована
+     */
+    public Optional<CommandEntry> resolve(String text) {
+        String token = extractCommandToken(text);
+        return token == null ? Optional.empty() : Optional.ofNullable(commands.get(token));
+    }
+
+    /**
+     * Все зарегистрированные команды (без псевдонимов)
+     */
+    public Collection<CommandEntry> getCommands() {
+        return commands.values().stream()
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Извлечь имя команды из текста: "/Ban@AdminBot uuid" -&gt; "ban".
+     *
+     * @return имя команды без слеша или null, если текст не является командой
+     */
+    static String extractCommandToken(String text) {
+        if (text == null || text.length() < 2 || text.charAt(0) != '/') {
+            return null;
+        }
+
+        int end = 1;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (c == ' ' || c == '@' || c == '\n' || c == '\t') {
+                break;
+            }
+            end++;
+        }
+        return end > 1 ? text.substring(1, end).toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String normalize(String name) {
+        String trimmed = name.trim();
+        if (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Описание зарегистрированной команды
+     *
+     * @param name         основное имя команды
+     * @param handler      обработчик
+     * @param requiredRole минимальная роль администратора
+     * @param stateful     ведёт ли команда диалог через State Machine
+     */
+    public record CommandEntry(String name, BaseCommandHandler handler, AdminRole requiredRole, boolean stateful) {
+    }
+}
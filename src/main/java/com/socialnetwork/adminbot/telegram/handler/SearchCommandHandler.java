@@ -4,12 +4,14 @@ import com.socialnetwork.adminbot.constant.BotConstants;
 import com.socialnetwork.adminbot.constant.PaginationConstants;
 import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
 import com.socialnetwork.adminbot.domain.StateDataKey;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.dto.PageAccountDto;
 import com.socialnetwork.adminbot.service.ConversationStateService;
 import com.socialnetwork.adminbot.service.StateTransitionService;
 import com.socialnetwork.adminbot.service.UserService;
+import com.socialnetwork.adminbot.telegram.guard.CommandRateLimiter;
 import com.socialnetwork.adminbot.telegram.handler.base.StatefulCommandHandler;
 import com.socialnetwork.adminbot.telegram.keyboard.KeyboardBuilder;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
@@ -33,17 +35,25 @@ public class SearchCommandHandler extends StatefulCommandHandler {
 
     private static final int PAGE_SIZE = PaginationConstants.SEARCH_PAGE_SIZE;
 
+    /**
+     * Действие лимита для поисковых запросов (из команды и текстом)
+     */
+    public static final String SEARCH_QUERY_ACTION = "search_query";
+
     private final UserService userService;
     private final StateTransitionService stateTransitionService;
+    private final CommandRateLimiter commandRateLimiter;
 
     public SearchCommandHandler(
             ConversationStateService conversationStateService,
             StateTransitionService stateTransitionService,
-            UserService userService
+            UserService userService,
+            CommandRateLimiter commandRateLimiter
     ) {
         super(conversationStateService);
         this.stateTransitionService = stateTransitionService;
         this.userService = userService;
+        this.commandRateLimiter = commandRateLimiter;
     }
 
     @Override
@@ -110,6 +120,12 @@ public class SearchCommandHandler extends StatefulCommandHandler {
             return createMessage(chatId, BotMessage.SEARCH_INVALID_QUERY.raw());
         }
 
+        // Состояние не меняется: после паузы администратор может повторить запрос
+        RateLimitResult rateLimit = commandRateLimiter.tryAcquire(SEARCH_QUERY_ACTION, adminId);
+        if (!rateLimit.consumed()) {
+            return createMessage(chatId, BotMessage.ERROR_RATE_LIMITED.format(rateLimit.retryAfterSeconds()));
+        }
+
         try {
             // Выполняем поиск
             PageAccountDto searchResults = userService.searchUsersByEmail(query, 0, PAGE_SIZE);
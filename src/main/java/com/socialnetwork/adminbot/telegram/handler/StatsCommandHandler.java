@@ -3,6 +3,7 @@ package com.socialnetwork.adminbot.telegram.handler;
 import com.socialnetwork.adminbot.dto.StatisticsDto;
 import com.socialnetwork.adminbot.service.AuditLogService;
 import com.socialnetwork.adminbot.service.StatisticsService;
+import com.socialnetwork.adminbot.telegram.handler.base.StatelessCommandHandler;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -13,11 +14,17 @@ import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
-public class StatsCommandHandler {
+public class StatsCommandHandler extends StatelessCommandHandler {
 
     private final StatisticsService statisticsService;
     private final AuditLogService auditLogService;
 
+    @Override
+    public String getCommandName() {
+        return "stats";
+    }
+
+    @Override
     public SendMessage handle(Message message, Long adminId) {
         try {
             // Получаем статистику
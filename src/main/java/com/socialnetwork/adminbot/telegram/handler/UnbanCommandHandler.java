@@ -0,0 +1,28 @@
+package com.socialnetwork.adminbot.telegram.handler;
+
+import com.socialnetwork.adminbot.telegram.handler.base.StatelessCommandHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+/**
+ * Handler для команды /unban.
+ * Разблокировка выполняется без диалога, логика находится в {@link BanCommandHandler#handleUnban}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UnbanCommandHandler extends StatelessCommandHandler {
+
+    private final BanCommandHandler banCommandHandler;
+
+    @Override
+    public String getCommandName() {
+        return "unban";
+    }
+
+    @Override
+    public SendMessage handle(Message message, Long adminId) {
+        return banCommandHandler.handleUnban(message, adminId);
+    }
+}
@@ -3,6 +3,7 @@ package com.socialnetwork.adminbot.telegram.handler;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.service.AuditLogService;
 import com.socialnetwork.adminbot.service.UserService;
+import com.socialnetwork.adminbot.telegram.handler.base.StatelessCommandHandler;
 import com.socialnetwork.adminbot.telegram.keyboard.KeyboardBuilder;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
 import com.socialnetwork.adminbot.telegram.messages.MessageUtils;
@@ -20,11 +21,17 @@ import java.util.UUID;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class UserCommandHandler {
+public class UserCommandHandler extends StatelessCommandHandler {
 
     private final UserService userService;
     private final AuditLogService auditLogService;
 
+    @Override
+    public String getCommandName() {
+        return "user";
+    }
+
+    @Override
     public SendMessage handle(Message message, Long adminId) {
         String[] parts = message.getText().split(" ");
 
@@ -1,9 +1,12 @@
 package com.socialnetwork.adminbot.telegram.handler.base;
 
+import com.socialnetwork.adminbot.entity.AdminRole;
 import com.socialnetwork.adminbot.telegram.messages.TelegramMessageFactory;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
+import java.util.Set;
+
 /**
  * Базовый абстрактный класс для всех command handlers.
  * Предоставляет общие методы для создания сообщений и извлечения аргументов.
@@ -26,6 +29,33 @@ public abstract class BaseCommandHandler {
      */
     public abstract String getCommandName();
 
+    /**
+     * Дополнительные имена команды (без слеша), по которым она также доступна.
+     *
+     * @return набор псевдонимов, по умолчанию пустой
+     */
+    public Set<String> getAliases() {
+        return Set.of();
+    }
+
+    /**
+     * Минимальная роль администратора, необходимая для выполнения команды.
+     *
+     * @return требуемая роль, по умолчанию MODERATOR (доступно любому администратору)
+     */
+    public AdminRole getRequiredRole() {
+        return AdminRole.MODERATOR;
+    }
+
+    /**
+     * Ведёт ли команда многошаговый диалог через State Machine.
+     *
+     * @return true для stateful команд
+     */
+    public boolean isStateful() {
+        return false;
+    }
+
     /**
      * Создать простое текстовое сообщение с HTML форматированием.
      * Делегирует вызов к TelegramMessageFactory для устранения дублирования.
@@ -32,6 +32,11 @@ public abstract class StatefulCommandHandler extends BaseCommandHandler {
         return startConversation(message, adminId);
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     /**
      * Начать новый диалог
      */
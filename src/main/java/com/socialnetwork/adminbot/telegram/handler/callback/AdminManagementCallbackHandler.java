@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.telegram.handler.callback;
 
+import com.socialnetwork.adminbot.constant.BotConstants;
 import com.socialnetwork.adminbot.entity.AdminRole;
 import com.socialnetwork.adminbot.telegram.handler.AddAdminCommandHandler;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
@@ -9,6 +10,8 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.util.Set;
+
 /**
  * Обработчик callback-запросов для управления администраторами.
  * Обрабатывает: add_admin:*
@@ -21,8 +24,8 @@ public class AdminManagementCallbackHandler extends BaseCallbackHandler {
     private final AddAdminCommandHandler addAdminCommandHandler;
 
     @Override
-    public boolean canHandle(String callbackData) {
-        return callbackData.startsWith("add_admin:");
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(BotConstants.CallbackPrefix.ADD_ADMIN);
     }
 
     @Override
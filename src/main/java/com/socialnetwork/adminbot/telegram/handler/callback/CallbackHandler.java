@@ -3,19 +3,40 @@ package com.socialnetwork.adminbot.telegram.handler.callback;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.util.Set;
+
 /**
  * Интерфейс для обработчиков callback-запросов.
  * Каждый обработчик отвечает за определённую группу callback actions.
  */
 public interface CallbackHandler {
 
+    /**
+     * Callback data, которые обслуживает обработчик (см. {@code BotConstants.CallbackPrefix}).
+     * Значение, оканчивающееся на ':', — префикс, остальные сравниваются целиком.
+     * По этому набору маршрутизатор строит индекс при старте приложения.
+     *
+     * @return набор префиксов и точных значений callback data
+     */
+    Set<String> getCallbackPrefixes();
+
     /**
      * Проверяет, может ли этот обработчик обработать данный callback.
      *
      * @param callbackData данные из callback query
      * @return true, если обработчик поддерживает этот callback
      */
-    boolean canHandle(String callbackData);
+    default boolean canHandle(String callbackData) {
+        for (String prefix : getCallbackPrefixes()) {
+            boolean matches = prefix.endsWith(":")
+                    ? callbackData.startsWith(prefix)
+                    : callbackData.equals(prefix);
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     /**
      * Обрабатывает callback запрос.
@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.telegram.handler.callback;
 
+import com.socialnetwork.adminbot.constant.BotConstants;
 import com.socialnetwork.adminbot.dto.StatisticsDto;
 import com.socialnetwork.adminbot.service.AuditLogService;
 import com.socialnetwork.adminbot.service.StatisticsService;
@@ -12,6 +13,7 @@ import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageTe
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -27,11 +29,13 @@ public class NavigationCallbackHandler extends BaseCallbackHandler {
     private final AuditLogService auditLogService;
 
     @Override
-    public boolean canHandle(String callbackData) {
-        return callbackData.equals("show_stats") ||
-               callbackData.equals("main_menu") ||
-               callbackData.startsWith("stats:") ||
-               callbackData.equals("noop");
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(
+                BotConstants.CallbackPrefix.SHOW_STATS,
+                BotConstants.CallbackPrefix.MAIN_MENU,
+                BotConstants.CallbackPrefix.USER_STATS,
+                BotConstants.CallbackPrefix.NOOP
+        );
     }
 
     @Override
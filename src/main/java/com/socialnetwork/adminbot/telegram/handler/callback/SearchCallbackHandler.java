@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.telegram.handler.callback;
 
+import com.socialnetwork.adminbot.constant.BotConstants;
 import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
 import com.socialnetwork.adminbot.domain.StateDataKey;
@@ -18,6 +19,7 @@ import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageTe
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -35,13 +37,15 @@ public class SearchCallbackHandler extends BaseCallbackHandler {
     private final SearchCommandHandler searchCommandHandler;
 
     @Override
-    public boolean canHandle(String callbackData) {
-        return callbackData.startsWith("search_page:") ||
-               callbackData.startsWith("search_view:") ||
-               callbackData.startsWith("search_ban:") ||
-               callbackData.startsWith("search_unban:") ||
-               callbackData.equals("search_new") ||
-               callbackData.equals("search_cancel");
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(
+                BotConstants.CallbackPrefix.SEARCH_PAGE,
+                BotConstants.CallbackPrefix.SEARCH_VIEW,
+                BotConstants.CallbackPrefix.SEARCH_BAN,
+                BotConstants.CallbackPrefix.SEARCH_UNBAN,
+                BotConstants.CallbackPrefix.SEARCH_NEW,
+                BotConstants.CallbackPrefix.SEARCH_CANCEL
+        );
     }
 
     @Override
@@ -17,8 +17,10 @@ import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -37,12 +39,14 @@ public class UserBlockCallbackHandler extends BaseCallbackHandler {
     private final BanCommandHandler banCommandHandler;
 
     @Override
-    public boolean canHandle(String callbackData) {
-        return callbackData.startsWith("block:") ||
-               callbackData.startsWith("unblock:") ||
-               callbackData.startsWith("ban_reason:") ||
-               callbackData.equals("ban_confirm") ||
-               callbackData.equals("ban_cancel");
+    public Set<String> getCallbackPrefixes() {
+        return Set.of(
+                BotConstants.CallbackPrefix.BLOCK,
+                BotConstants.CallbackPrefix.UNBLOCK,
+                BotConstants.CallbackPrefix.BAN_REASON,
+                BotConstants.CallbackPrefix.BAN_CONFIRM,
+                BotConstants.CallbackPrefix.BAN_CANCEL
+        );
     }
 
     @Override
@@ -167,6 +171,10 @@ public class UserBlockCallbackHandler extends BaseCallbackHandler {
     private EditMessageText handleBanConfirm(Long chatId, Integer messageId, Long adminId) {
         SendMessage result = banCommandHandler.executeBan(chatId, adminId);
 
+        // При ошибке подтверждение сохранено - оставляем кнопки для повтора
+        if (result.getReplyMarkup() instanceof InlineKeyboardMarkup keyboard) {
+            return createMessage(chatId, messageId, result.getText(), keyboard);
+        }
         return createMessage(chatId, messageId, result.getText());
     }
 
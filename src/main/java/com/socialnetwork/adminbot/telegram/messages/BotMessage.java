@@ -159,6 +159,7 @@ public enum BotMessage {
 
     BAN_CANCELED("❌ Блокировка пользователя отменена."),
     REMAINING_FOR_CANCELED_BAN("Используйте /ban для новой попытки или /start для главного меню."),
+    BAN_CONFIRMATION_KEPT("Подтверждение сохранено: нажмите «Подтвердить», чтобы повторить, или «Отмена»."),
 
     BAN_USAGE("❌ Использование: /ban &lt;user_id&gt;"),
     UNBAN_USAGE("❌ Использование: /unban &lt;user_id&gt;"),
@@ -254,6 +255,8 @@ public enum BotMessage {
 
     ERROR_USER_COMMAND_USAGE("❌ Использование: /user &lt;user_id&gt;"),
     ERROR_STATS_FETCH("❌ Ошибка получения статистики: %s"),
+    ERROR_RATE_LIMITED("⏳ Слишком много запросов. Повторите через %s сек."),
+    ERROR_BUSY("⏳ Бот перегружен, команда не выполнена. Повторите через несколько секунд."),
 
     // ==================== Callback Query ответы ====================
 
@@ -261,6 +264,8 @@ public enum BotMessage {
     CALLBACK_ERROR("❌ Ошибка"),
     CALLBACK_UNAUTHORIZED("❌ Доступ запрещён"),
     CALLBACK_PROCESSING("⏳ Обработка..."),
+    CALLBACK_RATE_LIMITED("⏳ Слишком часто. Повторите через %s сек."),
+    CALLBACK_BUSY("⏳ Бот перегружен, повторите позже"),
 
     // ==================== Системные сообщения ====================
 
@@ -0,0 +1,390 @@
+package com.socialnetwork.adminbot.telegram.outbound;
+
+import com.socialnetwork.adminbot.config.TelegramOutboundConfig;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Очередь исходящих вызовов Telegram Bot API.
+ * <p>
+ * Обработчики только ставят ответ в очередь и сразу возвращаются; отправку
+ * выполняют рабочие потоки с учётом лимитов Telegram:
+ * <ul>
+ *   <li>глобальный лимит сообщений бота (token bucket Bucket4j);</li>
+ *   <li>минимальный интервал между сообщениями в один чат;</li>
+ *   <li>retry_after из ответа 429 — пауза для этого чата; для всей очереди — только если
+ *   429 за короткое окно получили несколько разных чатов (лимит бота, а не одного чата).</li>
+ * </ul>
+ * Рабочие потоки не ждут: чат, которому пока нельзя отправлять (глобальная пауза или
+ * пустой глобальный bucket), возвращается в {@link DelayQueue} до нужного момента.
+ * Вызовы одного чата отправляются строго по порядку. {@link AnswerCallbackQuery}
+ * не расходует лимиты сообщений и отправляется без паузы после предыдущего вызова.
+ * <p>
+ * Каждый чат, присутствующий в реестре, находится либо в {@link DelayQueue}
+ * (ожидает своего времени), либо обрабатывается ровно одним рабочим потоком.
+ * Пустой чат остаётся в реестре до истечения интервала, чтобы новое сообщение
+ * не обошло паузу, и затем удаляется.
+ */
+@Slf4j
+@Component
+public class OutboundMessageQueue {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final Map<Long, ChatLane> lanes = new ConcurrentHashMap<>();
+    private final DelayQueue<ChatLane> readyLanes = new DelayQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong globalPauseUntilNanos = new AtomicLong(System.nanoTime());
+
+    private final int capacity;
+    private final int workerThreads;
+    private final int maxRetries;
+    private final long perChatIntervalNanos;
+    private final int globalPauseChats;
+    private final long globalPauseWindowNanos;
+    /** Время последнего 429 по чатам за окно; доступ под блокировкой самой карты */
+    private final Map<Long, Long> recentThrottles = new HashMap<>();
+    private final Bucket globalBucket;
+    private final ExecutorService workers;
+
+    private final Timer queueLatencyTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+    private final Counter throttledCounter;
+
+    private volatile OutboundSender sender;
+    private volatile boolean running;
+
+    public OutboundMessageQueue(TelegramOutboundConfig config, MeterRegistry meterRegistry) {
+        this.capacity = config.getCapacity();
+        this.workerThreads = config.getWorkerThreads();
+        this.maxRetries = config.getMaxRetries();
+        this.perChatIntervalNanos = config.getPerChatInterval().toNanos();
+        this.globalPauseChats = config.getGlobalPauseChats();
+        this.globalPauseWindowNanos = config.getGlobalPauseWindow().toNanos();
+        this.globalBucket = Bucket.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(config.getGlobalMessagesPerSecond())
+                        .refillGreedy(config.getGlobalMessagesPerSecond(), Duration.ofSeconds(1))
+                        .build())
+                .build();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tg-outbound-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("telegram.outbound.queue.size", pending, AtomicInteger::get)
+                .description("Количество вызовов Telegram API, ожидающих отправки")
+                .register(meterRegistry);
+        this.queueLatencyTimer = Timer.builder("telegram.outbound.queue.latency")
+                .description("Время от постановки вызова в очередь до начала отправки")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("telegram.outbound.calls")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("telegram.outbound.calls")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("telegram.outbound.calls")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("telegram.outbound.calls")
+                .tag("result", "throttled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запустить рабочие потоки. Вызывается ботом после создания,
+     * так как отправитель — сам бот.
+     */
+    public synchronized void start(OutboundSender sender) {
+        if (running) {
+            return;
+        }
+        this.sender = sender;
+        this.running = true;
+        for (int i = 0; i < workerThreads; i++) {
+            workers.execute(this::workerLoop);
+        }
+        log.info("OutboundMessageQueue started: workers={}, capacity={}", workerThreads, capacity);
+    }
+
+    /**
+     * Поставить вызов в очередь чата.
+     *
+     * @param chatId    чат, определяющий порядок и паузу между сообщениями
+     * @param method    вызов Bot API
+     * @param onFailure вызывается, если отправка окончательно не удалась (может быть null)
+     * @return false если очередь переполнена
+     */
+    public boolean enqueue(long chatId, BotApiMethod<?> method, Consumer<TelegramApiException> onFailure) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            rejectedCounter.increment();
+            log.warn("Outbound queue is full ({}), dropping {} for chat {}", capacity, method.getMethod(), chatId);
+            return false;
+        }
+
+        OutboundCall call = new OutboundCall(method, onFailure, !(method instanceof AnswerCallbackQuery), System.nanoTime());
+        lanes.compute(chatId, (id, lane) -> {
+            if (lane == null) {
+                lane = new ChatLane(id);
+                lane.readyAtNanos = System.nanoTime();
+                lane.lastPacedAtNanos = lane.readyAtNanos - perChatIntervalNanos;
+                readyLanes.put(lane);
+            } else if (lane.calls.isEmpty() && !call.paced() && readyLanes.remove(lane)) {
+                // Пустой чат ждёт окончания интервала, а ответ на callback ждать не должен
+                lane.readyAtNanos = System.nanoTime();
+                readyLanes.put(lane);
+            }
+            lane.calls.addLast(call);
+            return lane;
+        });
+        return true;
+    }
+
+    public boolean enqueue(long chatId, BotApiMethod<?> method) {
+        return enqueue(chatId, method, null);
+    }
+
+    /**
+     * Количество вызовов, ожидающих отправки
+     */
+    public int size() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Outbound workers did not stop in {}s", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.get() > 0) {
+            log.warn("OutboundMessageQueue stopped with {} unsent call(s)", pending.get());
+        }
+    }
+
+    private void workerLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                processLane(readyLanes.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Unexpected error in outbound worker: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void processLane(ChatLane lane) {
+        OutboundCall[] head = new OutboundCall[1];
+        lanes.compute(lane.chatId, (id, current) -> {
+            head[0] = lane.calls.peekFirst();
+            return head[0] != null ? current : null;
+        });
+        if (head[0] == null) {
+            // Интервал чата истёк, новых вызовов нет
+            return;
+        }
+
+        OutboundCall call = head[0];
+        if (call.paced()) {
+            long now = System.nanoTime();
+            long pauseUntil = globalPauseUntilNanos.get();
+            if (pauseUntil > now) {
+                reschedule(lane, pauseUntil);
+                return;
+            }
+            ConsumptionProbe probe = globalBucket.tryConsumeAndReturnRemaining(1);
+            if (!probe.isConsumed()) {
+                reschedule(lane, now + probe.getNanosToWaitForRefill());
+                return;
+            }
+        }
+        if (call.attempts() == 0) {
+            queueLatencyTimer.record(System.nanoTime() - call.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        long notBeforeNanos = 0;
+        try {
+            sender.send(call.method());
+            sentCounter.increment();
+            completeHead(lane);
+        } catch (TelegramApiRequestException e) {
+            Integer retryAfter = e.getParameters() != null ? e.getParameters().getRetryAfter() : null;
+            if (e.getErrorCode() != null && e.getErrorCode() == TOO_MANY_REQUESTS && retryAfter != null
+                    && call.attempts() < maxRetries) {
+                throttledCounter.increment();
+                notBeforeNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfter);
+                recordThrottle(lane.chatId, notBeforeNanos);
+                replaceHead(lane, call.retried());
+                log.warn("Telegram flood control for chat {}: retry {} of {} after {}s",
+                        lane.chatId, call.attempts() + 1, maxRetries, retryAfter);
+            } else {
+                fail(lane, call, e);
+            }
+        } catch (TelegramApiException e) {
+            fail(lane, call, e);
+        } catch (RuntimeException e) {
+            fail(lane, call, new TelegramApiException(e));
+        }
+
+        if (call.paced()) {
+            lane.lastPacedAtNanos = System.nanoTime();
+        }
+        reschedule(lane, notBeforeNanos);
+    }
+
+    /**
+     * Вернуть чат в {@link DelayQueue}. Следующее сообщение ждёт интервал
+     * от предыдущего сообщения, ответ на callback отправляется сразу.
+     */
+    private void reschedule(ChatLane lane, long notBeforeNanos) {
+        lanes.compute(lane.chatId, (id, current) -> {
+            OutboundCall next = lane.calls.peekFirst();
+            long readyAt = next == null || next.paced()
+                    ? lane.lastPacedAtNanos + perChatIntervalNanos
+                    : System.nanoTime();
+            lane.readyAtNanos = Math.max(readyAt, notBeforeNanos);
+            readyLanes.put(lane);
+            return current;
+        });
+    }
+
+    /**
+     * Учесть 429 чата. Если за окно 429 получили {@code globalPauseChats} разных чатов,
+     * ограничение касается бота целиком - приостанавливаем все сообщения до retry_after.
+     */
+    private void recordThrottle(long chatId, long notBeforeNanos) {
+        long now = System.nanoTime();
+        int throttledChats;
+        synchronized (recentThrottles) {
+            recentThrottles.values().removeIf(at -> now - at > globalPauseWindowNanos);
+            recentThrottles.put(chatId, now);
+            throttledChats = recentThrottles.size();
+        }
+        if (throttledChats >= globalPauseChats) {
+            globalPauseUntilNanos.accumulateAndGet(notBeforeNanos, Math::max);
+            log.warn("Telegram flood control for {} chats within {}ms, pausing all outbound messages",
+                    throttledChats, TimeUnit.NANOSECONDS.toMillis(globalPauseWindowNanos));
+        }
+    }
+
+    private void completeHead(ChatLane lane) {
+        lanes.compute(lane.chatId, (id, current) -> {
+            lane.calls.pollFirst();
+            return current;
+        });
+        pending.decrementAndGet();
+    }
+
+    private void replaceHead(ChatLane lane, OutboundCall call) {
+        lanes.compute(lane.chatId, (id, current) -> {
+            lane.calls.pollFirst();
+            lane.calls.addFirst(call);
+            return current;
+        });
+    }
+
+    private void fail(ChatLane lane, OutboundCall call, TelegramApiException e) {
+        failedCounter.increment();
+        completeHead(lane);
+
+        log.error("❌ Telegram API call {} failed for chat {}: {}", call.method().getMethod(), lane.chatId, e.getMessage());
+        if (e instanceof TelegramApiRequestException apiEx) {
+            log.error("  API Error Code: {}", apiEx.getErrorCode());
+            log.error("  API Response: {}", apiEx.getApiResponse());
+            log.error("  Parameters: {}", apiEx.getParameters());
+        }
+
+        if (call.onFailure() != null) {
+            try {
+                call.onFailure().accept(e);
+            } catch (Exception callbackError) {
+                log.error("Outbound failure callback threw: {}", callbackError.getMessage(), callbackError);
+            }
+        }
+    }
+
+    private record OutboundCall(BotApiMethod<?> method,
+                                Consumer<TelegramApiException> onFailure,
+                                boolean paced,
+                                long enqueuedAtNanos,
+                                int attempts) {
+
+        OutboundCall(BotApiMethod<?> method, Consumer<TelegramApiException> onFailure,
+                     boolean paced, long enqueuedAtNanos) {
+            this(method, onFailure, paced, enqueuedAtNanos, 0);
+        }
+
+        OutboundCall retried() {
+            return new OutboundCall(method, onFailure, paced, enqueuedAtNanos, attempts + 1);
+        }
+    }
+
+    /**
+     * Очередь вызовов одного чата. Изменяется только внутри {@code lanes.compute}
+     * либо потоком, который в данный момент обрабатывает чат.
+     */
+    private static final class ChatLane implements Delayed {
+
+        private final long chatId;
+        private final ArrayDeque<OutboundCall> calls = new ArrayDeque<>();
+        private volatile long readyAtNanos;
+        private volatile long lastPacedAtNanos;
+
+        private ChatLane(long chatId) {
+            this.chatId = chatId;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof ChatLane lane) {
+                return Long.compare(readyAtNanos, lane.readyAtNanos);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.socialnetwork.adminbot.telegram.outbound;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+/**
+ * Синхронный вызов Telegram Bot API, которым очередь отправляет накопленные методы.
+ * В приложении реализуется через {@code TelegramBot#execute}.
+ */
+@FunctionalInterface
+public interface OutboundSender {
+
+    void send(BotApiMethod<?> method) throws TelegramApiException;
+}
@@ -0,0 +1,88 @@
+-- Атомарная проверка лимита по скользящему окну (sliding window counter).
+--
+-- KEYS[1] - ключ лимита (HASH)
+-- ARGV[2i-1] - длина i-го окна в миллисекундах
+-- ARGV[2i]   - лимит i-го окна
+--
+-- Для каждого окна в HASH хранятся три поля: номер текущего окна (w), счётчик
+-- текущего (c) и предыдущего (p) окна - память на ключ не зависит от лимита.
+-- Число запросов за последние window мс оценивается как p * (доля предыдущего окна,
+-- ещё попадающая в интервал) + c. Запрос засчитывается во все окна, только если
+-- ни одно не превышено.
+--
+-- Время берётся из Redis (TIME), поэтому часы экземпляров не влияют на окно.
+--
+-- Результат: {1 | 0 - разрешён ли запрос, сколько запросов ещё доступно,
+--             через сколько миллисекунд повторить (0 если разрешён)}
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local windows = #ARGV / 2
+local allowed = true
+local remaining = nil
+local retry_after = 0
+local max_window = 0
+local state = {}
+
+for i = 1, windows do
+    local window = tonumber(ARGV[2 * i - 1])
+    local limit = tonumber(ARGV[2 * i])
+    local fields = redis.call('HMGET', KEYS[1], 'w' .. i, 'c' .. i, 'p' .. i)
+
+    local index = math.floor(now / window)
+    local stored = tonumber(fields[1]) or index
+    local current = tonumber(fields[2]) or 0
+    local previous = tonumber(fields[3]) or 0
+
+    -- Сдвиг окна: текущий счётчик становится предыдущим, после паузы дольше окна оба обнуляются
+    if index == stored + 1 then
+        previous = current
+        current = 0
+    elseif index > stored + 1 then
+        previous = 0
+        current = 0
+    end
+
+    local elapsed = now - index * window
+    local weight = (window - elapsed) / window
+    local estimate = previous * weight + current
+    local left = limit - estimate - 1
+
+    if left < 0 then
+        allowed = false
+        local excess = estimate + 1 - limit
+        local wait
+        if previous > 0 and excess <= previous * weight then
+            -- Хватит того, что из интервала выйдет часть предыдущего окна
+            wait = math.ceil(excess * window / previous)
+        else
+            -- Ждать следующего окна, в котором текущий счётчик станет предыдущим
+            wait = window - elapsed
+            if current > 0 then
+                wait = wait + math.ceil(window * math.max(0, current + 1 - limit) / current)
+            end
+        end
+        retry_after = math.max(retry_after, wait)
+    end
+
+    if remaining == nil or left < remaining then
+        remaining = left
+    end
+    max_window = math.max(max_window, window)
+    state[i] = { index, current, previous }
+end
+
+for i = 1, windows do
+    local current = state[i][2]
+    if allowed then
+        current = current + 1
+    end
+    redis.call('HSET', KEYS[1], 'w' .. i, state[i][1], 'c' .. i, current, 'p' .. i, state[i][3])
+end
+redis.call('PEXPIRE', KEYS[1], 2 * max_window)
+
+if allowed then
+    return { 1, math.floor(math.max(remaining, 0)), 0 }
+end
+return { 0, 0, retry_after }
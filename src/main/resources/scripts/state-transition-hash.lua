@@ -0,0 +1,52 @@
+-- Атомарный переход состояния диалога с проверкой версии (хранение в Redis hash).
+--
+-- KEYS[1] - ключ состояния (telegram:state:h:{userId})
+-- ARGV[1] - новое состояние
+-- ARGV[2] - состояния, из которых разрешён переход (через запятую)
+-- ARGV[3] - ожидаемая версия (-1 - без проверки)
+-- ARGV[4] - "1" если данные диалога (поля d:*) нужно очистить
+-- ARGV[5] - время обновления в epoch millis
+-- ARGV[6] - TTL в миллисекундах
+-- ARGV[7] - "1" если переход в IDLE с очисткой удаляет ключ (IDLE не хранится)
+--
+-- Результат: "STATUS|текущее состояние|версия", STATUS = OK | REJECTED | CONFLICT.
+-- Отсутствующий ключ или поле state считается состоянием IDLE, версия по умолчанию 0.
+
+local current = redis.call('HMGET', KEYS[1], 'state', 'version')
+local fromState = current[1] or 'IDLE'
+local version = tonumber(current[2]) or 0
+
+local allowed = false
+for name in string.gmatch(ARGV[2], '[^,]+') do
+    if name == fromState then
+        allowed = true
+        break
+    end
+end
+if not allowed then
+    return 'REJECTED|' .. fromState .. '|' .. version
+end
+
+local expected = tonumber(ARGV[3])
+if expected >= 0 and expected ~= version then
+    return 'CONFLICT|' .. fromState .. '|' .. version
+end
+
+if ARGV[7] == '1' then
+    redis.call('DEL', KEYS[1])
+    return 'OK|' .. fromState .. '|0'
+end
+
+if ARGV[4] == '1' then
+    for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do
+        if string.sub(field, 1, 2) == 'd:' then
+            redis.call('HDEL', KEYS[1], field)
+        end
+    end
+end
+
+version = version + 1
+redis.call('HSET', KEYS[1], 'state', ARGV[1], 'version', tostring(version), 'updatedAt', ARGV[5])
+redis.call('HSETNX', KEYS[1], 'createdAt', ARGV[5])
+redis.call('PEXPIRE', KEYS[1], ARGV[6])
+return 'OK|' .. fromState .. '|' .. version
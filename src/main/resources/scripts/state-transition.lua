@@ -0,0 +1,118 @@
+-- Атомарный переход состояния диалога с проверкой версии.
+--
+-- KEYS[1] - ключ состояния (telegram:state:{userId})
+-- ARGV[1] - новое состояние
+-- ARGV[2] - состояния, из которых разрешён переход (через запятую)
+-- ARGV[3] - ожидаемая версия (-1 - без проверки)
+-- ARGV[4] - "1" если данные диалога нужно очистить
+-- ARGV[5] - время обновления (yyyy-MM-dd'T'HH:mm:ss)
+-- ARGV[6] - TTL в миллисекундах
+-- ARGV[7] - формат нового ключа: "binary" | "json"
+-- ARGV[8] - время обновления в epoch millis (для бинарного формата)
+-- ARGV[9] - имена BotState в порядке ordinal (через запятую)
+-- ARGV[10] - "1" если переход в IDLE с очисткой удаляет ключ (IDLE не хранится)
+--
+-- Существующее значение переписывается в том же формате, в котором хранится
+-- (см. ConversationStateCodec): у бинарного меняется только заголовок.
+--
+-- Результат: "STATUS|текущее состояние|версия", STATUS = OK | REJECTED | CONFLICT.
+-- Отсутствующий ключ считается состоянием IDLE с версией 0.
+
+local MAGIC = 197
+local HEADER_SIZE = 27
+local EMPTY_DATA = '\0\0'
+local TWO_32 = 4294967296
+
+local function pack64(n)
+    return struct.pack('>I4I4', math.floor(n / TWO_32), n % TWO_32)
+end
+
+local function unpack64(s, pos)
+    local hi, lo = struct.unpack('>I4I4', s, pos)
+    return hi * TWO_32 + lo
+end
+
+local names = {}
+for name in string.gmatch(ARGV[9], '[^,]+') do
+    names[#names + 1] = name
+end
+
+local raw = redis.call('GET', KEYS[1])
+local binary
+if raw then
+    binary = string.byte(raw, 1) == MAGIC
+else
+    binary = ARGV[7] == 'binary'
+end
+
+local current
+local fromState = 'IDLE'
+local version = 0
+if raw and binary then
+    fromState = names[string.byte(raw, 3) + 1] or 'IDLE'
+    version = unpack64(raw, 4)
+elseif raw then
+    current = cjson.decode(raw)
+    fromState = current.state or 'IDLE'
+    version = tonumber(current.version) or 0
+end
+
+local allowed = false
+for name in string.gmatch(ARGV[2], '[^,]+') do
+    if name == fromState then
+        allowed = true
+        break
+    end
+end
+if not allowed then
+    return 'REJECTED|' .. fromState .. '|' .. version
+end
+
+local expected = tonumber(ARGV[3])
+if expected >= 0 and expected ~= version then
+    return 'CONFLICT|' .. fromState .. '|' .. version
+end
+
+if ARGV[10] == '1' then
+    redis.call('DEL', KEYS[1])
+    return 'OK|' .. fromState .. '|0'
+end
+
+version = version + 1
+local clear = ARGV[4] == '1'
+local payload
+
+if binary then
+    local ordinal
+    for i, name in ipairs(names) do
+        if name == ARGV[1] then
+            ordinal = i - 1
+            break
+        end
+    end
+    local now = pack64(tonumber(ARGV[8]))
+    local createdAt = now
+    local data = EMPTY_DATA
+    if raw then
+        createdAt = string.sub(raw, 12, 19)
+        if not clear then
+            data = string.sub(raw, HEADER_SIZE + 1)
+        end
+    end
+    payload = string.char(MAGIC, 1, ordinal) .. pack64(version) .. createdAt .. now .. data
+else
+    current = current or {}
+    current.state = ARGV[1]
+    current.version = version
+    current.updatedAt = ARGV[5]
+    if not current.createdAt then
+        current.createdAt = ARGV[5]
+    end
+    if clear or type(current.data) ~= 'table' then
+        current.data = {}
+    end
+    payload = cjson.encode(current)
+end
+
+redis.call('SET', KEYS[1], payload, 'PX', ARGV[6])
+return 'OK|' .. fromState .. '|' .. version
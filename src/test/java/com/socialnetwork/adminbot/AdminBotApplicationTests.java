@@ -1,5 +1,7 @@
 package com.socialnetwork.adminbot;
 
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.lettuce.core.api.StatefulConnection;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -29,6 +31,13 @@ class AdminBotApplicationTests {
     @MockitoBean
     private RedisConnectionFactory redisConnectionFactory;
 
+    // Bucket4j opens its connection through the Lettuce client of the factory above
+    @MockitoBean
+    private StatefulConnection<String, byte[]> rateLimitRedisConnection;
+
+    @MockitoBean
+    private ProxyManager<String> proxyManager;
+
     // Mock TelegramBotsApi to avoid actual bot registration
     @MockitoBean
     private TelegramBotsApi telegramBotsApi;
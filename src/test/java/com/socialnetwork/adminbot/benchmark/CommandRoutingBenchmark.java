@@ -0,0 +1,116 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.telegram.handler.CommandRegistry;
+import com.socialnetwork.adminbot.telegram.handler.base.BaseCommandHandler;
+import com.socialnetwork.adminbot.telegram.handler.base.StatelessCommandHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение маршрутизации команд: цепочка startsWith (как было в TelegramBot)
+ * против {@link CommandRegistry} с поиском по точному токену.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.socialnetwork.adminbot.benchmark.CommandRoutingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandRoutingBenchmark {
+
+    /**
+     * Первая команда цепочки, последняя и неизвестная (худший случай для startsWith)
+     */
+    @Param({"/user 3fa85f64-5717-4562-b3fc-2c963f66afa6", "/addadmin", "/unknown arg"})
+    public String text;
+
+    private CommandRegistry registry;
+    private List<BaseCommandHandler> handlers;
+
+    @Setup
+    public void setUp() {
+        handlers = List.of(
+                new NoopHandler("user"),
+                new NoopHandler("stats"),
+                new NoopHandler("ban"),
+                new NoopHandler("unban"),
+                new NoopHandler("search"),
+                new NoopHandler("addadmin")
+        );
+        registry = new CommandRegistry(handlers);
+    }
+
+    @Benchmark
+    public Object startsWithChain() {
+        if (text.startsWith("/user")) {
+            return handlers.get(0);
+        } else if (text.startsWith("/stats")) {
+            return handlers.get(1);
+        } else if (text.startsWith("/ban")) {
+            return handlers.get(2);
+        } else if (text.startsWith("/unban")) {
+            return handlers.get(3);
+        } else if (text.startsWith("/search")) {
+            return handlers.get(4);
+        } else if (text.startsWith("/addadmin")) {
+            return handlers.get(5);
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Object registryLookup() {
+        return registry.resolve(text).orElse(null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommandRoutingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static final class NoopHandler extends StatelessCommandHandler {
+
+        private final String name;
+
+        private NoopHandler(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getCommandName() {
+            return name;
+        }
+
+        @Override
+        public AdminRole getRequiredRole() {
+            return AdminRole.MODERATOR;
+        }
+
+        @Override
+        public SendMessage handle(Message message, Long adminId) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import com.socialnetwork.adminbot.domain.StateDataKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение форматов состояния диалога в Redis: JSON (Jackson) против
+ * {@link ConversationStateCodec}. Размер значения в обоих форматах
+ * печатается при подготовке каждого сценария.
+ * <p>
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.socialnetwork.adminbot.benchmark.ConversationStateCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversationStateCodecBenchmark {
+
+    /**
+     * Типичные состояния: подтверждение бана и страница результатов поиска
+     */
+    @Param({"ban", "search"})
+    public String scenario;
+
+    private Jackson2JsonRedisSerializer<ConversationState> json;
+    private ConversationStateCodec binary;
+    private ConversationState state;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        json = new Jackson2JsonRedisSerializer<>(mapper, ConversationState.class);
+        binary = new ConversationStateCodec(mapper, true);
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        state = ConversationState.builder()
+                .state("ban".equals(scenario) ? BotState.CONFIRMING_BAN : BotState.SHOWING_SEARCH_RESULTS)
+                .version(3L)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        if ("ban".equals(scenario)) {
+            state.getData().put(StateDataKey.BAN_TARGET_USER_ID, "3fa85f64-5717-4562-b3fc-2c963f66afa6");
+            state.getData().put(StateDataKey.BAN_TARGET_EMAIL, "john.doe@example.com");
+            state.getData().put(StateDataKey.BAN_REASON, "Спам в личных сообщениях");
+        } else {
+            state.getData().put(StateDataKey.SEARCH_QUERY, "john");
+            state.getData().put(StateDataKey.SEARCH_CURRENT_PAGE, 4);
+            state.getData().put(StateDataKey.SEARCH_TOTAL_PAGES, 12);
+            state.getData().put(StateDataKey.SEARCH_TOTAL_RESULTS, 117);
+        }
+        jsonBytes = json.serialize(state);
+        binaryBytes = binary.serialize(state);
+        System.out.printf("%n[%s] payload size: json=%d bytes, binary=%d bytes%n",
+                scenario, jsonBytes.length, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return json.serialize(state);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binary.serialize(state);
+    }
+
+    @Benchmark
+    public ConversationState decodeJson() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public ConversationState decodeBinary() {
+        return binary.deserialize(binaryBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversationStateCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,165 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
+import com.socialnetwork.adminbot.service.ConversationStateNearCache;
+import com.socialnetwork.adminbot.service.ConversationStateService;
+import com.socialnetwork.adminbot.service.RedisConversationStateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пространство ключей состояний диалогов: хранение IDLE против отсутствия ключа.
+ * <p>
+ * Сценарий - типичный поток администратора: начать диалог и сбросить его
+ * (/start, /cancel, завершённое действие). Перед замером {@code admins} администраторов
+ * проходят сценарий один раз, после замера печатаются количество ключей
+ * {@code telegram:state:*} и {@code used_memory} Redis.
+ * <p>
+ * Нужен живой Redis (по умолчанию localhost:6379, {@code -Dredis.host}, {@code -Dredis.port}),
+ * база очищается от ключей состояний перед каждым сценарием.
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.socialnetwork.adminbot.benchmark.ConversationStateKeySpaceBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ConversationStateKeySpaceBenchmark {
+
+    private static final String KEY_PATTERN = "telegram:state:*";
+
+    @Param({"false", "true"})
+    public boolean idleAsAbsent;
+
+    @Param({"10000"})
+    public int admins;
+
+    private LettuceConnectionFactory connectionFactory;
+    private ConversationStateService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ConversationStateCodec codec = new ConversationStateCodec(mapper, true);
+
+        RedisTemplate<String, ConversationState> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(codec);
+        template.afterPropertiesSet();
+
+        ConversationStateConfig config = new ConversationStateConfig();
+        config.setIdleAsAbsent(idleAsAbsent);
+        service = new ConversationStateService(new RedisConversationStateStore(template,
+                new ConversationStateHashLayout(mapper), ConversationStateNearCache.disabled(), config),
+                config, new SimpleMeterRegistry());
+
+        deleteStateKeys();
+        long before = usedMemory();
+        for (long adminId = 1; adminId <= admins; adminId++) {
+            startAndReset(adminId);
+        }
+        System.out.printf("%n[idleAsAbsent=%s] after %d flows: keys=%d, used_memory delta=%d bytes%n",
+                idleAsAbsent, admins, countStateKeys(), usedMemory() - before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[idleAsAbsent=%s] after measurement: keys=%d, used_memory=%d bytes%n",
+                idleAsAbsent, countStateKeys(), usedMemory());
+        deleteStateKeys();
+        connectionFactory.destroy();
+    }
+
+    /**
+     * Начать диалог и сбросить его: SET + SET (IDLE) либо SET + DEL
+     */
+    @Benchmark
+    public void startAndReset() {
+        startAndReset(ThreadLocalRandom.current().nextLong(1, admins + 1L));
+    }
+
+    private void startAndReset(long adminId) {
+        service.setState(adminId, ConversationState.builder().state(BotState.AWAITING_SEARCH_QUERY).build());
+        service.resetToIdle(adminId);
+    }
+
+    private long countStateKeys() {
+        try (RedisConnection connection = connectionFactory.getConnection();
+             Cursor<byte[]> keys = connection.keyCommands()
+                     .scan(ScanOptions.scanOptions().match(KEY_PATTERN).count(1000).build())) {
+            long count = 0;
+            while (keys.hasNext()) {
+                keys.next();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private void deleteStateKeys() {
+        try (RedisConnection connection = connectionFactory.getConnection();
+             Cursor<byte[]> keys = connection.keyCommands()
+                     .scan(ScanOptions.scanOptions().match(KEY_PATTERN).count(1000).build())) {
+            while (keys.hasNext()) {
+                connection.keyCommands().del(keys.next());
+            }
+        }
+    }
+
+    private long usedMemory() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return Long.parseLong(connection.serverCommands().info("memory").getProperty("used_memory"));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversationStateKeySpaceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
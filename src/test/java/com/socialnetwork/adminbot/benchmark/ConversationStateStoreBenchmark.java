@@ -0,0 +1,186 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
+import com.socialnetwork.adminbot.domain.StateDataKey;
+import com.socialnetwork.adminbot.service.ConversationStateNearCache;
+import com.socialnetwork.adminbot.service.ConversationStateStore;
+import com.socialnetwork.adminbot.service.InMemoryConversationStateStore;
+import com.socialnetwork.adminbot.service.PostgresConversationStateStore;
+import com.socialnetwork.adminbot.service.RedisConversationStateStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одинаковая нагрузка на все реализации {@link ConversationStateStore}:
+ * чтение, полная запись, изменение поля и атомарный переход для случайного
+ * администратора из {@code admins}.
+ * <p>
+ * {@code memory} работает без внешних зависимостей. Для {@code redis} нужен живой Redis
+ * ({@code -Dredis.host}, {@code -Dredis.port}), для {@code postgres} - база с таблицей
+ * из changelog 005 ({@code -Dpostgres.url}, {@code -Dpostgres.user}, {@code -Dpostgres.password});
+ * выбрать хранилища можно параметром JMH {@code -p store=memory,redis}.
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.socialnetwork.adminbot.benchmark.ConversationStateStoreBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ConversationStateStoreBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final Set<BotState> ANY_STATE = EnumSet.allOf(BotState.class);
+
+    @Param({"memory", "redis", "postgres"})
+    public String store;
+
+    @Param({"1000"})
+    public int admins;
+
+    private ConversationStateStore stateStore;
+    private LettuceConnectionFactory redisConnectionFactory;
+    private HikariDataSource postgresDataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ConversationStateConfig config = new ConversationStateConfig();
+
+        stateStore = switch (store) {
+            case "memory" -> new InMemoryConversationStateStore(config, mapper);
+            case "redis" -> redisStore(mapper, config);
+            case "postgres" -> postgresStore(mapper);
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        };
+
+        for (long adminId = 1; adminId <= admins; adminId++) {
+            stateStore.save(adminId, searchState(), TTL);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (long adminId = 1; adminId <= admins; adminId++) {
+            stateStore.delete(adminId);
+        }
+        if (redisConnectionFactory != null) {
+            redisConnectionFactory.destroy();
+        }
+        if (postgresDataSource != null) {
+            postgresDataSource.close();
+        }
+    }
+
+    @Benchmark
+    public ConversationState load() {
+        return stateStore.load(randomAdmin());
+    }
+
+    @Benchmark
+    public void save() {
+        stateStore.save(randomAdmin(), searchState(), TTL);
+    }
+
+    @Benchmark
+    public void updateField() {
+        stateStore.updateFields(randomAdmin(), Map.of(StateDataKey.SEARCH_CURRENT_PAGE, 3), 1,
+                LocalDateTime.now(), TTL);
+    }
+
+    @Benchmark
+    public ConversationStateStore.TransitionResult transition() {
+        return stateStore.compareAndTransition(randomAdmin(), BotState.SHOWING_SEARCH_RESULTS, ANY_STATE,
+                -1L, false, false, LocalDateTime.now(), TTL);
+    }
+
+    private long randomAdmin() {
+        return ThreadLocalRandom.current().nextLong(1, admins + 1L);
+    }
+
+    private static ConversationState searchState() {
+        LocalDateTime now = LocalDateTime.now();
+        ConversationState state = ConversationState.builder()
+                .state(BotState.SHOWING_SEARCH_RESULTS)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        state.getData().put(StateDataKey.SEARCH_QUERY, "john");
+        state.getData().put(StateDataKey.SEARCH_CURRENT_PAGE, 2);
+        state.getData().put(StateDataKey.SEARCH_TOTAL_PAGES, 12);
+        return state;
+    }
+
+    private ConversationStateStore redisStore(ObjectMapper mapper, ConversationStateConfig config) {
+        redisConnectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379)));
+        redisConnectionFactory.afterPropertiesSet();
+        redisConnectionFactory.start();
+
+        RedisTemplate<String, ConversationState> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new ConversationStateCodec(mapper, true));
+        template.afterPropertiesSet();
+        return new RedisConversationStateStore(template, new ConversationStateHashLayout(mapper),
+                ConversationStateNearCache.disabled(), config);
+    }
+
+    private ConversationStateStore postgresStore(ObjectMapper mapper) {
+        postgresDataSource = new HikariDataSource();
+        postgresDataSource.setJdbcUrl(System.getProperty("postgres.url", "jdbc:postgresql://localhost:5432/admin_bot_db"));
+        postgresDataSource.setUsername(System.getProperty("postgres.user", "postgres"));
+        postgresDataSource.setPassword(System.getProperty("postgres.password", "postgres"));
+        postgresDataSource.setMaximumPoolSize(8);
+        return new PostgresConversationStateStore(new JdbcTemplate(postgresDataSource),
+                new DataSourceTransactionManager(postgresDataSource), mapper);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversationStateStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
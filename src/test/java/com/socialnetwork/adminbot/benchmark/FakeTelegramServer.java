@@ -0,0 +1,156 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Локальный фейковый Telegram Bot API для нагрузочного тестирования бота.
+ * <p>
+ * Отдаёт заранее подготовленные обновления через getUpdates (режим long polling)
+ * и подтверждает все исходящие вызовы бота (sendMessage, editMessageText,
+ * answerCallbackQuery, setWebhook ...), подсчитывая количество ответов.
+ * Бот направляется на сервер свойством telegram.bot.api-url=http://localhost:{port}/bot
+ */
+public class FakeTelegramServer implements AutoCloseable {
+
+    private static final Pattern OFFSET_PATTERN = Pattern.compile("\"offset\"\\s*:\\s*(-?\\d+)");
+    private static final int GET_UPDATES_LIMIT = 100;
+    private static final long LONG_POLL_WAIT_MILLIS = 1000;
+
+    private final HttpServer server;
+    private final ConcurrentSkipListMap<Integer, String> pendingUpdates = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextUpdateId = new AtomicInteger(1);
+    private final AtomicLong replies = new AtomicLong();
+    private final AtomicLong firstReplyNanos = new AtomicLong();
+    private final AtomicLong lastReplyNanos = new AtomicLong();
+
+    public FakeTelegramServer(int port, String botToken) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/bot" + botToken + "/", this::handle);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**
+     * Поставить текстовое сообщение в очередь getUpdates
+     *
+     * @return update_id созданного обновления
+     */
+    public int enqueueTextMessage(long chatId, long userId, String text) {
+        int updateId = nextUpdateId.getAndIncrement();
+        pendingUpdates.put(updateId, textMessageUpdate(updateId, chatId, userId, text));
+        return updateId;
+    }
+
+    /**
+     * Количество исходящих сообщений бота (sendMessage / editMessageText)
+     */
+    public long getReplies() {
+        return replies.get();
+    }
+
+    public void resetReplies() {
+        replies.set(0);
+        firstReplyNanos.set(0);
+        lastReplyNanos.set(0);
+    }
+
+    /**
+     * Интервал между первым и последним ответом бота, мс
+     */
+    public long getReplyWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastReplyNanos.get() - firstReplyNanos.get());
+    }
+
+    /**
+     * JSON обновления с текстовым сообщением в формате Bot API
+     */
+    public static String textMessageUpdate(int updateId, long chatId, long userId, String text) {
+        return "{\"update_id\":" + updateId + ","
+                + "\"message\":{\"message_id\":" + updateId + ","
+                + "\"date\":" + (System.currentTimeMillis() / 1000) + ","
+                + "\"chat\":{\"id\":" + chatId + ",\"type\":\"private\"},"
+                + "\"from\":{\"id\":" + userId + ",\"is_bot\":false,\"first_name\":\"Bench\"},"
+                + "\"text\":\"" + text + "\"}}";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = path.substring(path.lastIndexOf('/') + 1);
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        String result = switch (method) {
+            case "getUpdates" -> getUpdates(body);
+            case "sendMessage", "editMessageText" -> {
+                recordReply();
+                yield "{\"message_id\":1,\"date\":0,\"chat\":{\"id\":1,\"type\":\"private\"},\"text\":\"ok\"}";
+            }
+            case "getMe" -> "{\"id\":1,\"is_bot\":true,\"first_name\":\"Fake\",\"username\":\"FakeBot\"}";
+            default -> "true";
+        };
+
+        byte[] response = ("{\"ok\":true,\"result\":" + result + "}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private String getUpdates(String body) {
+        Matcher matcher = OFFSET_PATTERN.matcher(body);
+        if (matcher.find()) {
+            int offset = Integer.parseInt(matcher.group(1));
+            pendingUpdates.headMap(offset).clear();
+        }
+
+        long deadline = System.currentTimeMillis() + LONG_POLL_WAIT_MILLIS;
+        while (pendingUpdates.isEmpty() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        StringJoiner updates = new StringJoiner(",", "[", "]");
+        int count = 0;
+        for (Map.Entry<Integer, String> entry : pendingUpdates.entrySet()) {
+            if (count++ >= GET_UPDATES_LIMIT) {
+                break;
+            }
+            updates.add(entry.getValue());
+        }
+        return updates.toString();
+    }
+
+    private void recordReply() {
+        long now = System.nanoTime();
+        firstReplyNanos.compareAndSet(0, now);
+        lastReplyNanos.set(now);
+        replies.incrementAndGet();
+    }
+}
@@ -0,0 +1,136 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.service.SlidingWindowRateLimiter;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конкуренция за один ключ лимита: Bucket4j (compare-and-swap через Lettuce) против
+ * скользящего окна ({@link SlidingWindowRateLimiter}, один Lua-скрипт на запрос).
+ * <p>
+ * Все потоки обращаются к одному ключу, как при переборе паролей с одного IP. Лимит
+ * заведомо не достигается, поэтому каждый вызов изменяет состояние ключа и при
+ * Bucket4j конкурирует за compare-and-swap. Нужен живой Redis ({@code -Dredis.host},
+ * {@code -Dredis.port}); {@link #main} прогоняет оба варианта на 1, 8 и 64 потоках.
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.socialnetwork.adminbot.benchmark.RateLimitContentionBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitContentionBenchmark {
+
+    private static final String KEY = "benchmark:rate_limit:register:203.0.113.7";
+
+    private static final BucketConfiguration LIMIT = BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder()
+                    .capacity(1_000_000_000L)
+                    .refillGreedy(1_000_000_000L, Duration.ofHours(1))
+                    .build())
+            .build();
+
+    @Param({"bucket4j", "sliding-window"})
+    public String engine;
+
+    private RedisClient redisClient;
+    private StatefulRedisConnection<String, byte[]> bucketConnection;
+    private BucketProxy bucket;
+    private LettuceConnectionFactory connectionFactory;
+    private SlidingWindowRateLimiter slidingWindow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String host = System.getProperty("redis.host", "localhost");
+        int port = Integer.getInteger("redis.port", 6379);
+
+        switch (engine) {
+            case "bucket4j" -> {
+                redisClient = RedisClient.create(RedisURI.create(host, port));
+                bucketConnection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+                bucket = LettuceBasedProxyManager.builderFor(bucketConnection)
+                        .withExpirationStrategy(ExpirationAfterWriteStrategy
+                                .basedOnTimeForRefillingBucketUpToMax(Duration.ofHours(1)))
+                        .build()
+                        .builder()
+                        .build(KEY, () -> LIMIT);
+            }
+            case "sliding-window" -> {
+                connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+                connectionFactory.afterPropertiesSet();
+                connectionFactory.start();
+                RedisTemplate<String, String> template = new RedisTemplate<>();
+                template.setConnectionFactory(connectionFactory);
+                template.setKeySerializer(new StringRedisSerializer());
+                template.setValueSerializer(new StringRedisSerializer());
+                template.afterPropertiesSet();
+                slidingWindow = new SlidingWindowRateLimiter(template);
+            }
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (bucketConnection != null) {
+            bucketConnection.sync().del(KEY);
+            bucketConnection.close();
+            redisClient.shutdown();
+        }
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Benchmark
+    public RateLimitResult consume() {
+        if (bucket != null) {
+            return RateLimitResult.from(bucket.tryConsumeAndReturnRemaining(1));
+        }
+        return slidingWindow.tryConsume(KEY, LIMIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 64}) {
+            new Runner(new OptionsBuilder()
+                    .include(RateLimitContentionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
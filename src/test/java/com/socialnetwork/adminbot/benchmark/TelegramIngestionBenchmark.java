@@ -0,0 +1,115 @@
+package com.socialnetwork.adminbot.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сравнение пропускной способности приёма обновлений в режимах polling и webhook.
+ * <p>
+ * Запускает {@link FakeTelegramServer} и прогоняет через бота N команд /cancel
+ * (дешёвая команда: один сброс состояния в Redis и один ответ). Пропускная
+ * способность считается по ответам бота, полученным фейковым сервером.
+ * <p>
+ * Порядок запуска:
+ * <pre>
+ * 1. Запустить бота (Redis и PostgreSQL должны быть доступны):
+ *    TELEGRAM_BOT_TOKEN=bench-token
+ *    --telegram.bot.api-url=http://localhost:8095/bot
+ *    --telegram.bot.mode=polling|webhook
+ *    --telegram.bot.webhook.url=http://localhost:8091/api/v1/admin-bot/telegram/webhook
+ *    --telegram.bot.webhook.secret-token=bench-secret
+ *    --admin.whitelist=100000
+ * 2. Запустить бенчмарк:
+ *    java ... TelegramIngestionBenchmark &lt;polling|webhook&gt; [updates] [chats]
+ * </pre>
+ * Системные свойства: bench.port (8095), bench.token (bench-token),
+ * bench.webhookUrl, bench.secret (bench-secret), bench.adminId (100000).
+ */
+public final class TelegramIngestionBenchmark {
+
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private TelegramIngestionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "polling";
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int chats = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        int port = Integer.getInteger("bench.port", 8095);
+        String token = System.getProperty("bench.token", "bench-token");
+        long adminId = Long.getLong("bench.adminId", 100000L);
+
+        try (FakeTelegramServer server = new FakeTelegramServer(port, token)) {
+            server.start();
+            System.out.printf("Fake Telegram API listening on http://localhost:%d/bot%s/%n", port, token);
+
+            long started = System.nanoTime();
+            if ("webhook".equalsIgnoreCase(mode)) {
+                postWebhookUpdates(updates, chats, adminId);
+            } else {
+                for (int i = 0; i < updates; i++) {
+                    server.enqueueTextMessage(chatId(i, chats, adminId), adminId, "/cancel");
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (server.getReplies() < updates && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            long replies = server.getReplies();
+            System.out.printf("mode=%s updates=%d chats=%d replies=%d elapsed=%dms throughput=%.1f updates/s%n",
+                    mode, updates, chats, replies, elapsedMillis,
+                    elapsedMillis > 0 ? replies * 1000.0 / elapsedMillis : 0.0);
+        }
+    }
+
+    /**
+     * Все обновления приходят от одного администратора из whitelist,
+     * но распределяются по нескольким чатам, чтобы задействовать параллельные lanes
+     */
+    private static long chatId(int index, int chats, long adminId) {
+        return adminId + (index % chats);
+    }
+
+    private static void postWebhookUpdates(int updates, int chats, long adminId) {
+        String webhookUrl = System.getProperty("bench.webhookUrl",
+                "http://localhost:8091/api/v1/admin-bot/telegram/webhook");
+        String secret = System.getProperty("bench.secret", "bench-secret");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicInteger failed = new AtomicInteger();
+
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[updates];
+        for (int i = 0; i < updates; i++) {
+            String body = FakeTelegramServer.textMessageUpdate(i + 1, chatId(i, chats, adminId), adminId, "/cancel");
+            HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                    .header("Content-Type", "application/json")
+                    .header("X-Telegram-Bot-Api-Secret-Token", secret)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            requests[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    });
+        }
+        CompletableFuture.allOf(requests).join();
+
+        if (failed.get() > 0) {
+            System.out.printf("%d webhook request(s) were not accepted%n", failed.get());
+        }
+    }
+}
@@ -1,27 +1,31 @@
 package com.socialnetwork.adminbot.client;
 
+import com.socialnetwork.adminbot.config.AccountClientConfig;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.dto.PageAccountDto;
 import com.socialnetwork.adminbot.exception.ServiceException;
 import com.socialnetwork.adminbot.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -35,7 +39,7 @@ class AccountClientTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private AccountClient accountClient;
 
     private AccountDto testAccount;
@@ -44,8 +48,9 @@ class AccountClientTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(accountClient, "accountServiceUrl", ACCOUNT_SERVICE_URL);
-        
+        meterRegistry = new SimpleMeterRegistry();
+        accountClient = new AccountClient(restTemplate, config(), meterRegistry, Runnable::run);
+
         testAccount = AccountDto.builder()
                 .id(USER_ID)
                 .email("test@example.com")
@@ -209,4 +214,122 @@ class AccountClientTest {
                 .isInstanceOf(ServiceException.class)
                 .hasMessageContaining("Account service error");
     }
+
+    private static AccountClientConfig config() {
+        AccountClientConfig config = new AccountClientConfig();
+        config.setUrl(ACCOUNT_SERVICE_URL);
+        return config;
+    }
+
+    @Test
+    @DisplayName("getAccountByIdAsync - should let several lookups run together")
+    void getAccountByIdAsync_SeveralLookups_ShouldCompleteIndependently() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        AccountDto otherAccount = AccountDto.builder().id(otherId).email("other@example.com").build();
+        when(restTemplate.getForEntity(eq(ACCOUNT_SERVICE_URL + "/" + USER_ID), eq(AccountDto.class)))
+                .thenReturn(new ResponseEntity<>(testAccount, HttpStatus.OK));
+        when(restTemplate.getForEntity(eq(ACCOUNT_SERVICE_URL + "/" + otherId), eq(AccountDto.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // When
+        CompletableFuture<AccountDto> first = accountClient.getAccountByIdAsync(USER_ID);
+        CompletableFuture<AccountDto> second = accountClient.getAccountByIdAsync(otherId);
+
+        // Then
+        assertThat(first.join().getEmail()).isEqualTo("test@example.com");
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(second::join).hasCauseInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("getAccountById - should fail with ServiceException after the deadline")
+    void getAccountByIdAsync_DeadlineExceeded_ShouldFailWithServiceException() {
+        // Given: пул не успевает выполнить запрос
+        AccountClient stalledClient = new AccountClient(restTemplate, config(), meterRegistry, runnable -> { });
+
+        // When / Then
+        assertThatThrownBy(() -> stalledClient.getAccountByIdAsync(USER_ID, Duration.ofMillis(20)).join())
+                .hasCauseInstanceOf(ServiceException.class)
+                .hasMessageContaining("timeout");
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    @DisplayName("blockAccount - should fail fast when the client queue is full")
+    void blockAccount_QueueFull_ShouldThrowServiceException() {
+        // Given
+        AccountClient saturatedClient = new AccountClient(restTemplate, config(), meterRegistry, runnable -> {
+            throw new RejectedExecutionException("queue is full");
+        });
+
+        // When / Then
+        assertThatThrownBy(() -> saturatedClient.blockAccount(USER_ID))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining("overloaded");
+    }
+
+    private double coalesced(String operation) {
+        return meterRegistry.get("account.client.coalesced").tag("operation", operation).counter().count();
+    }
+
+    @Test
+    @DisplayName("getAccountByIdAsync - should share one request between identical concurrent lookups")
+    void getAccountByIdAsync_IdenticalLookups_ShouldShareRequest() {
+        // Given: запросы ждут в очереди пула
+        List<Runnable> queued = new ArrayList<>();
+        AccountClient queuedClient = new AccountClient(restTemplate, config(), meterRegistry, queued::add);
+        when(restTemplate.getForEntity(eq(ACCOUNT_SERVICE_URL + "/" + USER_ID), eq(AccountDto.class)))
+                .thenReturn(new ResponseEntity<>(testAccount, HttpStatus.OK));
+
+        // When
+        CompletableFuture<AccountDto> first = queuedClient.getAccountByIdAsync(USER_ID);
+        CompletableFuture<AccountDto> second = queuedClient.getAccountByIdAsync(USER_ID);
+        queued.forEach(Runnable::run);
+
+        // Then
+        assertThat(queued).hasSize(1);
+        assertThat(first.join()).isSameAs(second.join());
+        assertThat(coalesced("get_account")).isEqualTo(1.0);
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(AccountDto.class));
+    }
+
+    @Test
+    @DisplayName("searchAccountsByEmailAsync - should share the failure of an in-flight search")
+    void searchAccountsByEmailAsync_IdenticalSearches_ShouldShareException() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        AccountClient queuedClient = new AccountClient(restTemplate, config(), meterRegistry, queued::add);
+        when(restTemplate.getForEntity(anyString(), eq(PageAccountDto.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When
+        CompletableFuture<PageAccountDto> first = queuedClient.searchAccountsByEmailAsync("test", 0, 10);
+        CompletableFuture<PageAccountDto> second = queuedClient.searchAccountsByEmailAsync("test", 0, 10);
+        CompletableFuture<PageAccountDto> otherPage = queuedClient.searchAccountsByEmailAsync("test", 1, 10);
+        queued.forEach(Runnable::run);
+
+        // Then: другая страница - отдельный запрос
+        assertThatThrownBy(first::join).hasCauseInstanceOf(ServiceException.class);
+        assertThatThrownBy(second::join).hasCauseInstanceOf(ServiceException.class);
+        assertThat(otherPage).isCompletedExceptionally();
+        assertThat(coalesced("search_by_email")).isEqualTo(1.0);
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(PageAccountDto.class));
+    }
+
+    @Test
+    @DisplayName("getAccountById - should send a new request once the previous one completed")
+    void getAccountById_SequentialLookups_ShouldNotCoalesce() {
+        // Given
+        when(restTemplate.getForEntity(eq(ACCOUNT_SERVICE_URL + "/" + USER_ID), eq(AccountDto.class)))
+                .thenReturn(new ResponseEntity<>(testAccount, HttpStatus.OK));
+
+        // When
+        accountClient.getAccountById(USER_ID);
+        accountClient.getAccountById(USER_ID);
+
+        // Then
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(AccountDto.class));
+        assertThat(coalesced("get_account")).isZero();
+    }
 }
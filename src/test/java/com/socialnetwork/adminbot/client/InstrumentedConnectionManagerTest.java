@@ -0,0 +1,87 @@
+package com.socialnetwork.adminbot.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InstrumentedConnectionManager Unit Tests")
+class InstrumentedConnectionManagerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("mc-account", 34135));
+    private static final Timeout TIMEOUT = Timeout.ofSeconds(5);
+
+    @Mock
+    private HttpClientConnectionManager pool;
+
+    @Mock
+    private LeaseRequest leaseRequest;
+
+    @Mock
+    private ConnectionEndpoint endpoint;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstrumentedConnectionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new InstrumentedConnectionManager(pool, meterRegistry, "mc-account");
+        when(pool.lease(any(), eq(ROUTE), any(), any())).thenReturn(leaseRequest);
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag("client", "mc-account").counter().count();
+    }
+
+    @Test
+    @DisplayName("should time leases and count reused versus newly opened connections")
+    void lease_ShouldRecordWaitAndReuse() throws Exception {
+        // Given
+        when(leaseRequest.get(TIMEOUT)).thenReturn(endpoint);
+
+        // When: два запроса, соединение открывается только для первого
+        manager.lease("1", ROUTE, TIMEOUT, null).get(TIMEOUT);
+        manager.connect(endpoint, TimeValue.ofSeconds(2), null);
+        manager.lease("2", ROUTE, TIMEOUT, null).get(TIMEOUT);
+
+        // Then
+        assertThat(meterRegistry.get("http.client.pool.lease").tag("outcome", "acquired").timer().count())
+                .isEqualTo(2);
+        assertThat(count("http.client.pool.leases")).isEqualTo(2.0);
+        assertThat(count("http.client.pool.connects")).isEqualTo(1.0);
+        verify(pool).connect(endpoint, TimeValue.ofSeconds(2), null);
+    }
+
+    @Test
+    @DisplayName("should record lease timeouts separately")
+    void lease_PoolExhausted_ShouldRecordTimeout() throws Exception {
+        // Given
+        when(leaseRequest.get(TIMEOUT)).thenThrow(new TimeoutException("Timeout deadline: 5000 MILLISECONDS"));
+
+        // When / Then
+        assertThatThrownBy(() -> manager.lease("1", ROUTE, TIMEOUT, null).get(TIMEOUT))
+                .isInstanceOf(TimeoutException.class);
+        assertThat(meterRegistry.get("http.client.pool.lease").tag("outcome", "timeout").timer().count())
+                .isEqualTo(1);
+        assertThat(count("http.client.pool.leases")).isZero();
+    }
+}
@@ -0,0 +1,113 @@
+package com.socialnetwork.adminbot.controller;
+
+import com.socialnetwork.adminbot.config.TelegramBotConfig;
+import com.socialnetwork.adminbot.telegram.TelegramBot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TelegramWebhookController Unit Tests")
+class TelegramWebhookControllerTest {
+
+    private static final String SECRET = "webhook-secret";
+    private static final String UPDATE_JSON = """
+            {
+              "update_id": 42,
+              "message": {
+                "message_id": 7,
+                "date": 1700000000,
+                "chat": {"id": 12345, "type": "private"},
+                "from": {"id": 123456789, "is_bot": false, "first_name": "Admin"},
+                "text": "/stats"
+              }
+            }
+            """;
+
+    @Mock
+    private TelegramBot telegramBot;
+
+    private TelegramWebhookController controller;
+
+    @BeforeEach
+    void setUp() {
+        TelegramBotConfig botConfig = new TelegramBotConfig();
+        botConfig.getWebhook().setSecretToken(SECRET);
+        controller = new TelegramWebhookController(telegramBot, botConfig);
+    }
+
+    @Test
+    @DisplayName("Should parse update and hand it to the bot")
+    void receiveUpdate_ValidRequest_ShouldSubmitUpdate() {
+        // Given
+        when(telegramBot.submitUpdate(any(Update.class))).thenReturn(true);
+
+        // When
+        ResponseEntity<Void> response = controller.receiveUpdate(UPDATE_JSON, SECRET);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(telegramBot).submitUpdate(captor.capture());
+        assertThat(captor.getValue().getUpdateId()).isEqualTo(42);
+        assertThat(captor.getValue().getMessage().getText()).isEqualTo("/stats");
+        assertThat(captor.getValue().getMessage().getChatId()).isEqualTo(12345L);
+    }
+
+    @Test
+    @DisplayName("Should reject request with wrong secret token")
+    void receiveUpdate_WrongSecret_ShouldReturnUnauthorized() {
+        // When
+        ResponseEntity<Void> response = controller.receiveUpdate(UPDATE_JSON, "wrong");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verifyNoInteractions(telegramBot);
+    }
+
+    @Test
+    @DisplayName("Should reject request without secret token header")
+    void receiveUpdate_MissingSecret_ShouldReturnUnauthorized() {
+        // When
+        ResponseEntity<Void> response = controller.receiveUpdate(UPDATE_JSON, null);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        verifyNoInteractions(telegramBot);
+    }
+
+    @Test
+    @DisplayName("Should ask Telegram to retry when dispatcher is saturated")
+    void receiveUpdate_DispatcherSaturated_ShouldReturnServiceUnavailable() {
+        // Given
+        when(telegramBot.submitUpdate(any(Update.class))).thenReturn(false);
+
+        // When
+        ResponseEntity<Void> response = controller.receiveUpdate(UPDATE_JSON, SECRET);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge malformed payload without processing")
+    void receiveUpdate_MalformedPayload_ShouldAcknowledge() {
+        // When
+        ResponseEntity<Void> response = controller.receiveUpdate("{not json", SECRET);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(telegramBot, never()).submitUpdate(any());
+    }
+}
@@ -0,0 +1,157 @@
+package com.socialnetwork.adminbot.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConversationStateCodec Unit Tests")
+class ConversationStateCodecTest {
+
+    private ObjectMapper objectMapper;
+    private ConversationStateCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        codec = new ConversationStateCodec(objectMapper, true);
+    }
+
+    private static ConversationState searchState() {
+        ConversationState state = ConversationState.builder()
+                .state(BotState.SHOWING_SEARCH_RESULTS)
+                .version(7L)
+                .createdAt(LocalDateTime.of(2026, 1, 15, 10, 30, 0))
+                .updatedAt(LocalDateTime.of(2026, 1, 15, 10, 31, 12))
+                .build();
+        state.getData().put(StateDataKey.SEARCH_QUERY, "john@example.com");
+        state.getData().put(StateDataKey.SEARCH_CURRENT_PAGE, 2);
+        state.getData().put(StateDataKey.SEARCH_TOTAL_RESULTS, 1234L);
+        state.getData().put(StateDataKey.BAN_IS_TEMPORARY, true);
+        state.getData().put("customKey", 1.5);
+        return state;
+    }
+
+    @Test
+    @DisplayName("should round-trip state with typed data in binary format")
+    void serialize_Binary_ShouldRoundTrip() {
+        // Given
+        ConversationState state = searchState();
+
+        // When
+        byte[] bytes = codec.serialize(state);
+        ConversationState decoded = codec.deserialize(bytes);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo(ConversationStateCodec.MAGIC);
+        assertThat(decoded).isEqualTo(state);
+        assertThat(decoded.getData().get(StateDataKey.SEARCH_CURRENT_PAGE)).isInstanceOf(Integer.class);
+        assertThat(decoded.getData().get(StateDataKey.SEARCH_TOTAL_RESULTS)).isInstanceOf(Long.class);
+    }
+
+    @Test
+    @DisplayName("should be smaller than JSON")
+    void serialize_Binary_ShouldBeSmallerThanJson() {
+        // Given
+        ConversationState state = searchState();
+        byte[] json = new Jackson2JsonRedisSerializer<>(objectMapper, ConversationState.class).serialize(state);
+
+        // When
+        byte[] binary = codec.serialize(state);
+
+        // Then
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    @DisplayName("should place state ordinal and version at fixed header offsets")
+    void serialize_Binary_ShouldUseFixedHeader() {
+        // When
+        byte[] bytes = codec.serialize(searchState());
+
+        // Then
+        assertThat(bytes[1]).isEqualTo(ConversationStateCodec.FORMAT_VERSION);
+        assertThat(bytes[2]).isEqualTo((byte) BotState.SHOWING_SEARCH_RESULTS.ordinal());
+        assertThat(bytes[10]).isEqualTo((byte) 7);
+        assertThat(bytes.length).isGreaterThan(ConversationStateCodec.HEADER_SIZE);
+    }
+
+    @Test
+    @DisplayName("should read legacy JSON values")
+    void deserialize_LegacyJson_ShouldRead() {
+        // Given
+        String json = "{\"state\":\"CONFIRMING_BAN\",\"data\":{\"targetUserId\":\"abc\",\"currentPage\":3},"
+                + "\"version\":4,\"createdAt\":\"2026-01-15T10:30:00\",\"updatedAt\":\"2026-01-15T10:31:00\"}";
+
+        // When
+        ConversationState state = codec.deserialize(json.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertThat(state.getState()).isEqualTo(BotState.CONFIRMING_BAN);
+        assertThat(state.getVersion()).isEqualTo(4L);
+        assertThat(state.getData(StateDataKey.BAN_TARGET_USER_ID, String.class)).isEqualTo("abc");
+        assertThat(state.getData(StateDataKey.SEARCH_CURRENT_PAGE, Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should write JSON when binary format is disabled")
+    void serialize_JsonMode_ShouldWriteJson() {
+        // Given
+        ConversationStateCodec jsonCodec = new ConversationStateCodec(objectMapper, false);
+
+        // When
+        byte[] bytes = jsonCodec.serialize(searchState());
+
+        // Then
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(codec.deserialize(bytes).getState()).isEqualTo(BotState.SHOWING_SEARCH_RESULTS);
+    }
+
+    @Test
+    @DisplayName("should fall back to JSON for values without binary representation")
+    void serialize_UnsupportedValue_ShouldFallBackToJson() {
+        // Given
+        ConversationState state = searchState();
+        state.getData().put("ids", List.of("a", "b"));
+
+        // When
+        byte[] bytes = codec.serialize(state);
+
+        // Then
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(codec.deserialize(bytes).getData()).containsKey("ids");
+    }
+
+    @Test
+    @DisplayName("should reject unknown format version")
+    void deserialize_UnknownFormatVersion_ShouldThrow() {
+        // Given
+        byte[] bytes = codec.serialize(searchState());
+        bytes[1] = 99;
+
+        // When & Then
+        assertThatThrownBy(() -> codec.deserialize(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("format");
+    }
+
+    @Test
+    @DisplayName("should treat empty value as absent")
+    void deserialize_Empty_ShouldReturnNull() {
+        assertThat(codec.deserialize(null)).isNull();
+        assertThat(codec.deserialize(new byte[0])).isNull();
+    }
+}
@@ -0,0 +1,69 @@
+package com.socialnetwork.adminbot.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConversationStateHashLayout Unit Tests")
+class ConversationStateHashLayoutTest {
+
+    private final ConversationStateHashLayout layout = new ConversationStateHashLayout(new ObjectMapper());
+
+    @Test
+    @DisplayName("should round-trip state with typed data fields")
+    void toHash_FromHash_ShouldRoundTrip() {
+        // Given
+        ConversationState state = ConversationState.builder()
+                .state(BotState.AWAITING_BAN_REASON)
+                .version(3L)
+                .createdAt(LocalDateTime.of(2026, 1, 15, 10, 30, 0))
+                .updatedAt(LocalDateTime.of(2026, 1, 15, 10, 31, 0))
+                .build();
+        state.getData().put(StateDataKey.BAN_TARGET_USER_ID, "abc");
+        state.getData().put(StateDataKey.BAN_DURATION_DAYS, 7);
+        state.getData().put(StateDataKey.BAN_IS_TEMPORARY, true);
+        state.getData().put("ids", List.of("a", "b"));
+
+        // When
+        ConversationState decoded = layout.fromHash(layout.toHash(state));
+
+        // Then
+        assertThat(decoded).isEqualTo(state);
+        assertThat(decoded.getData().get(StateDataKey.BAN_DURATION_DAYS)).isInstanceOf(Integer.class);
+    }
+
+    @Test
+    @DisplayName("should keep each data entry in its own field")
+    void toHash_ShouldUseFieldPerDataEntry() {
+        // Given
+        ConversationState state = ConversationState.idle();
+        state.getData().put(StateDataKey.SEARCH_CURRENT_PAGE, 2);
+
+        // When
+        Map<byte[], byte[]> hash = layout.toHash(state);
+
+        // Then
+        assertThat(hash.keySet())
+                .extracting(field -> new String(field, StandardCharsets.UTF_8))
+                .contains("state", "version", "d:" + StateDataKey.SEARCH_CURRENT_PAGE);
+    }
+
+    @Test
+    @DisplayName("should treat data-only hash as IDLE and empty hash as absent")
+    void fromHash_MissingState_ShouldDefaultToIdle() {
+        // Given
+        Map<byte[], byte[]> dataOnly = Map.of(
+                layout.dataField(StateDataKey.SEARCH_CURRENT_PAGE), layout.dataValue(1));
+
+        // When & Then
+        assertThat(layout.fromHash(dataOnly).getState()).isEqualTo(BotState.IDLE);
+        assertThat(layout.fromHash(Map.of())).isNull();
+    }
+}
@@ -0,0 +1,124 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import com.socialnetwork.adminbot.entity.Admin;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.repository.AdminRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdminDirectoryService Unit Tests")
+class AdminDirectoryServiceTest {
+
+    @Mock
+    private AdminRepository adminRepository;
+
+    private AdminDirectoryService directory;
+
+    private static final long WHITELISTED_ID = 111L;
+    private static final long ADMIN_ID = 300L;
+    private static final long MODERATOR_ID = 200L;
+    private static final long UNKNOWN_ID = 999L;
+
+    @BeforeEach
+    void setUp() {
+        when(adminRepository.findByIsActiveTrue()).thenReturn(List.of(
+                admin(ADMIN_ID, AdminRole.ADMIN),
+                admin(MODERATOR_ID, AdminRole.MODERATOR)
+        ));
+        directory = new AdminDirectoryService(adminRepository, " 111, invalid ,222,");
+        directory.refresh();
+    }
+
+    private static Admin admin(long telegramUserId, AdminRole role) {
+        return Admin.builder()
+                .telegramUserId(telegramUserId)
+                .role(role)
+                .isActive(true)
+                .build();
+    }
+
+    // ========== LOOKUP TESTS ==========
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("should authorize whitelisted users and active admins only")
+        void isAuthorized_ShouldCheckWhitelistAndAdmins() {
+            assertThat(directory.isAuthorized(WHITELISTED_ID)).isTrue();
+            assertThat(directory.isAuthorized(222L)).isTrue();
+            assertThat(directory.isAuthorized(ADMIN_ID)).isTrue();
+            assertThat(directory.isAuthorized(UNKNOWN_ID)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should resolve roles and permissions from snapshot")
+        void getRole_ShouldUseSnapshot() {
+            assertThat(directory.getRole(ADMIN_ID)).isEqualTo(AdminRole.ADMIN);
+            assertThat(directory.getRole(UNKNOWN_ID)).isNull();
+            assertThat(directory.hasRole(MODERATOR_ID, AdminRole.MODERATOR)).isTrue();
+            assertThat(directory.hasPermission(ADMIN_ID, AdminRole.SENIOR_MODERATOR)).isTrue();
+            assertThat(directory.hasPermission(MODERATOR_ID, AdminRole.ADMIN)).isFalse();
+            assertThat(directory.hasPermission(UNKNOWN_ID, AdminRole.MODERATOR)).isFalse();
+
+            verify(adminRepository, times(1)).findByIsActiveTrue();
+            verifyNoMoreInteractions(adminRepository);
+        }
+    }
+
+    // ========== UPDATE TESTS ==========
+
+    @Nested
+    @DisplayName("Update Tests")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("should add new admin on change event")
+        void onAdminChanged_NewAdmin_ShouldAdd() {
+            // When
+            directory.onAdminChanged(new AdminChangedEvent(250L, AdminRole.SENIOR_MODERATOR, true));
+
+            // Then
+            assertThat(directory.size()).isEqualTo(3);
+            assertThat(directory.getRole(250L)).isEqualTo(AdminRole.SENIOR_MODERATOR);
+            assertThat(directory.getRole(MODERATOR_ID)).isEqualTo(AdminRole.MODERATOR);
+            assertThat(directory.getRole(ADMIN_ID)).isEqualTo(AdminRole.ADMIN);
+        }
+
+        @Test
+        @DisplayName("should update role of existing admin")
+        void onAdminChanged_ExistingAdmin_ShouldUpdateRole() {
+            // When
+            directory.onAdminChanged(new AdminChangedEvent(MODERATOR_ID, AdminRole.ADMIN, true));
+
+            // Then
+            assertThat(directory.size()).isEqualTo(2);
+            assertThat(directory.getRole(MODERATOR_ID)).isEqualTo(AdminRole.ADMIN);
+        }
+
+        @Test
+        @DisplayName("should remove deactivated admin")
+        void onAdminChanged_Deactivated_ShouldRemove() {
+            // When
+            directory.onAdminChanged(new AdminChangedEvent(ADMIN_ID, AdminRole.ADMIN, false));
+
+            // Then
+            assertThat(directory.size()).isEqualTo(1);
+            assertThat(directory.isAdmin(ADMIN_ID)).isFalse();
+            assertThat(directory.isAdmin(MODERATOR_ID)).isTrue();
+        }
+    }
+}
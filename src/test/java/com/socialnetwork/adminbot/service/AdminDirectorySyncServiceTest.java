@@ -0,0 +1,111 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.AdminDirectoryConfig;
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AdminDirectorySyncService Unit Tests")
+class AdminDirectorySyncServiceTest {
+
+    private static final String CHANNEL = "admin-bot:admin-changes";
+    private static final long TELEGRAM_USER_ID = 555L;
+
+    @Mock
+    private AdminDirectoryService adminDirectoryService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private AdminDirectorySyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new AdminDirectorySyncService(adminDirectoryService, redisTemplate, new AdminDirectoryConfig());
+    }
+
+    private static DefaultMessage message(String payload) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("publish - should send encoded event to channel")
+    void publish_ShouldSendToChannel() {
+        // When
+        syncService.publish(new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.ADMIN, true));
+
+        // Then
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+        assertThat(payload.getValue()).endsWith("|555|ADMIN|true");
+    }
+
+    @Test
+    @DisplayName("publish - should not fail when Redis is unavailable")
+    void publish_WhenRedisFails_ShouldNotThrow() {
+        // Given
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new RuntimeException("Connection refused"));
+
+        // When
+        syncService.publish(new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.ADMIN, true));
+
+        // Then
+        verifyNoInteractions(adminDirectoryService);
+    }
+
+    @Test
+    @DisplayName("onMessage - should apply events from other nodes")
+    void onMessage_FromOtherNode_ShouldApply() {
+        // Given
+        AdminChangedEvent event = new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.SENIOR_MODERATOR, true);
+
+        // When
+        syncService.onMessage(message(AdminDirectorySyncService.encode("other-node", event)), null);
+
+        // Then
+        verify(adminDirectoryService).apply(event);
+    }
+
+    @Test
+    @DisplayName("onMessage - should skip own events")
+    void onMessage_FromSameNode_ShouldSkip() {
+        // Given
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        syncService.publish(new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.ADMIN, true));
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+
+        // When
+        syncService.onMessage(message(payload.getValue()), null);
+
+        // Then
+        verifyNoInteractions(adminDirectoryService);
+    }
+
+    @Test
+    @DisplayName("onMessage - should ignore malformed messages")
+    void onMessage_Malformed_ShouldIgnore() {
+        // When
+        syncService.onMessage(message("garbage"), null);
+        syncService.onMessage(message("node|not-a-number|ADMIN|true"), null);
+        syncService.onMessage(message("node|1|UNKNOWN_ROLE|true"), null);
+
+        // Then
+        verifyNoInteractions(adminDirectoryService);
+    }
+}
@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.service;
 
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
 import com.socialnetwork.adminbot.dto.AdminDto;
 import com.socialnetwork.adminbot.entity.Admin;
 import com.socialnetwork.adminbot.entity.AdminRole;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +24,7 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +34,12 @@ class AdminServiceTest {
     @Mock
     private AdminRepository adminRepository;
 
+    @Mock
+    private AdminDirectoryService adminDirectoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -95,28 +104,28 @@ class AdminServiceTest {
     @DisplayName("isAdmin - should return true when admin exists")
     void isAdmin_WhenAdminExists_ShouldReturnTrue() {
         // Given
-        when(adminRepository.existsByTelegramUserId(TELEGRAM_USER_ID)).thenReturn(true);
+        when(adminDirectoryService.isAdmin(TELEGRAM_USER_ID)).thenReturn(true);
 
         // When
         boolean result = adminService.isAdmin(TELEGRAM_USER_ID);
 
         // Then
         assertThat(result).isTrue();
-        verify(adminRepository).existsByTelegramUserId(TELEGRAM_USER_ID);
+        verifyNoInteractions(adminRepository);
     }
 
     @Test
     @DisplayName("isAdmin - should return false when admin does not exist")
     void isAdmin_WhenAdminNotExists_ShouldReturnFalse() {
         // Given
-        when(adminRepository.existsByTelegramUserId(TELEGRAM_USER_ID)).thenReturn(false);
+        when(adminDirectoryService.isAdmin(TELEGRAM_USER_ID)).thenReturn(false);
 
         // When
         boolean result = adminService.isAdmin(TELEGRAM_USER_ID);
 
         // Then
         assertThat(result).isFalse();
-        verify(adminRepository).existsByTelegramUserId(TELEGRAM_USER_ID);
+        verifyNoInteractions(adminRepository);
     }
 
     @Test
@@ -134,6 +143,7 @@ class AdminServiceTest {
         assertThat(result.getTelegramUserId()).isEqualTo(TELEGRAM_USER_ID);
         verify(adminRepository).existsByTelegramUserId(TELEGRAM_USER_ID);
         verify(adminRepository).save(any(Admin.class));
+        verify(eventPublisher).publishEvent(new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.ADMIN, true));
     }
 
     @Test
@@ -149,6 +159,7 @@ class AdminServiceTest {
 
         verify(adminRepository).existsByTelegramUserId(TELEGRAM_USER_ID);
         verify(adminRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -173,8 +184,8 @@ class AdminServiceTest {
     @DisplayName("hasRole - should return true when admin has exact role")
     void hasRole_WhenAdminHasExactRole_ShouldReturnTrue() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.of(testAdmin));
+        when(adminDirectoryService.hasRole(eq(TELEGRAM_USER_ID), any(AdminRole.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1) == testAdmin.getRole());
 
         // When
         boolean result = adminService.hasRole(TELEGRAM_USER_ID, AdminRole.ADMIN);
@@ -187,8 +198,8 @@ class AdminServiceTest {
     @DisplayName("hasRole - should return false when admin has different role")
     void hasRole_WhenAdminHasDifferentRole_ShouldReturnFalse() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.of(testAdmin));
+        when(adminDirectoryService.hasRole(eq(TELEGRAM_USER_ID), any(AdminRole.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1) == testAdmin.getRole());
 
         // When
         boolean result = adminService.hasRole(TELEGRAM_USER_ID, AdminRole.SUPER_ADMIN);
@@ -201,8 +212,7 @@ class AdminServiceTest {
     @DisplayName("hasRole - should return false when admin not found")
     void hasRole_WhenAdminNotFound_ShouldReturnFalse() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.empty());
+        when(adminDirectoryService.hasRole(TELEGRAM_USER_ID, AdminRole.ADMIN)).thenReturn(false);
 
         // When
         boolean result = adminService.hasRole(TELEGRAM_USER_ID, AdminRole.ADMIN);
@@ -215,8 +225,8 @@ class AdminServiceTest {
     @DisplayName("hasPermission - should return true when admin has sufficient permission")
     void hasPermission_WhenSufficientPermission_ShouldReturnTrue() {
         // Given - testAdmin has ADMIN role (level 3)
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.of(testAdmin));
+        when(adminDirectoryService.hasPermission(eq(TELEGRAM_USER_ID), any(AdminRole.class)))
+                .thenAnswer(invocation -> testAdmin.getRole().hasPermission(invocation.getArgument(1)));
 
         // When - checking permission for MODERATOR (level 1)
         boolean result = adminService.hasPermission(TELEGRAM_USER_ID, AdminRole.MODERATOR);
@@ -229,8 +239,8 @@ class AdminServiceTest {
     @DisplayName("hasPermission - should return false when admin lacks permission")
     void hasPermission_WhenInsufficientPermission_ShouldReturnFalse() {
         // Given - testAdmin has ADMIN role (level 3)
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.of(testAdmin));
+        when(adminDirectoryService.hasPermission(eq(TELEGRAM_USER_ID), any(AdminRole.class)))
+                .thenAnswer(invocation -> testAdmin.getRole().hasPermission(invocation.getArgument(1)));
 
         // When - checking permission for SUPER_ADMIN (level 4)
         boolean result = adminService.hasPermission(TELEGRAM_USER_ID, AdminRole.SUPER_ADMIN);
@@ -243,8 +253,7 @@ class AdminServiceTest {
     @DisplayName("hasPermission - should return false when admin not found")
     void hasPermission_WhenAdminNotFound_ShouldReturnFalse() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.empty());
+        when(adminDirectoryService.hasPermission(TELEGRAM_USER_ID, AdminRole.MODERATOR)).thenReturn(false);
 
         // When
         boolean result = adminService.hasPermission(TELEGRAM_USER_ID, AdminRole.MODERATOR);
@@ -257,8 +266,7 @@ class AdminServiceTest {
     @DisplayName("getRole - should return admin role")
     void getRole_WhenAdminExists_ShouldReturnRole() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.of(testAdmin));
+        when(adminDirectoryService.getRole(TELEGRAM_USER_ID)).thenReturn(AdminRole.ADMIN);
 
         // When
         AdminRole result = adminService.getRole(TELEGRAM_USER_ID);
@@ -271,8 +279,7 @@ class AdminServiceTest {
     @DisplayName("getRole - should throw exception when admin not found")
     void getRole_WhenAdminNotFound_ShouldThrowException() {
         // Given
-        when(adminRepository.findByTelegramUserId(TELEGRAM_USER_ID))
-                .thenReturn(Optional.empty());
+        when(adminDirectoryService.getRole(TELEGRAM_USER_ID)).thenReturn(null);
 
         // When & Then
         assertThatThrownBy(() -> adminService.getRole(TELEGRAM_USER_ID))
@@ -305,6 +312,7 @@ class AdminServiceTest {
         assertThat(result.getIsActive()).isTrue();
 
         verify(adminRepository).save(any(Admin.class));
+        verify(eventPublisher).publishEvent(new AdminChangedEvent(TELEGRAM_USER_ID, AdminRole.MODERATOR, true));
     }
 
     @Test
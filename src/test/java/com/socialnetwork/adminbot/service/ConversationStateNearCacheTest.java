@@ -0,0 +1,178 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.StateDataKey;
+import io.lettuce.core.api.push.PushMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ConversationStateNearCache Unit Tests")
+class ConversationStateNearCacheTest {
+
+    private static final String KEY = "telegram:state:123456789";
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConversationStateNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConversationStateConfig config = new ConversationStateConfig();
+        config.getNearCache().setEnabled(true);
+        config.getNearCache().setMaxSize(100);
+        nearCache = new ConversationStateNearCache(config, mock(RedisConnectionFactory.class),
+                new ObjectMapper(), meterRegistry);
+        nearCache.trackingStarted();
+    }
+
+    private static ConversationState searchState() {
+        ConversationState state = ConversationState.builder()
+                .state(BotState.SHOWING_SEARCH_RESULTS)
+                .version(2L)
+                .createdAt(LocalDateTime.of(2026, 1, 15, 10, 30, 0))
+                .updatedAt(LocalDateTime.of(2026, 1, 15, 10, 31, 0))
+                .build();
+        state.addData(StateDataKey.SEARCH_QUERY, "john");
+        return state;
+    }
+
+    @Test
+    @DisplayName("should return a copy of the cached state")
+    void get_AfterPut_ShouldReturnIndependentCopy() {
+        // Given
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+
+        // When
+        ConversationState first = nearCache.get(KEY).state();
+        first.addData(StateDataKey.SEARCH_QUERY, "changed");
+        ConversationState second = nearCache.get(KEY).state();
+
+        // Then
+        assertThat(second).isEqualTo(searchState());
+    }
+
+    @Test
+    @DisplayName("should cache absent key")
+    void get_AfterPutAbsent_ShouldReturnEmptyEntry() {
+        // Given
+        nearCache.put(KEY, null, nearCache.beginRead());
+
+        // When
+        ConversationStateNearCache.Cached cached = nearCache.get(KEY);
+
+        // Then
+        assertThat(cached).isNotNull();
+        assertThat(cached.state()).isNull();
+    }
+
+    @Test
+    @DisplayName("should not cache read raced by invalidation")
+    void put_AfterInvalidationDuringRead_ShouldSkip() {
+        // Given
+        long readStarted = nearCache.beginRead();
+        nearCache.onInvalidate(List.of(KEY));
+
+        // When
+        nearCache.put(KEY, searchState(), readStarted);
+
+        // Then
+        assertThat(nearCache.get(KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("should evict keys from Redis invalidation push")
+    void onPushMessage_Invalidate_ShouldEvictKeys() {
+        // Given
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+        PushMessage message = mock(PushMessage.class);
+        when(message.getType()).thenReturn("invalidate");
+        when(message.getContent(any())).thenReturn(List.of("invalidate", List.of(KEY)));
+
+        // When
+        nearCache.onPushMessage(message);
+
+        // Then
+        assertThat(nearCache.get(KEY)).isNull();
+        assertThat(meterRegistry.get("telegram.conversation.nearcache.invalidations").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should clear cache on flush invalidation without keys")
+    void onPushMessage_Flush_ShouldClearCache() {
+        // Given
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+        PushMessage message = mock(PushMessage.class);
+        when(message.getType()).thenReturn("invalidate");
+        when(message.getContent(any())).thenReturn(Arrays.asList("invalidate", null));
+
+        // When
+        nearCache.onPushMessage(message);
+
+        // Then
+        assertThat(nearCache.get(KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("should drop entries and stop serving when tracking is lost")
+    void trackingStopped_ShouldClearAndSuspend() {
+        // Given
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+
+        // When
+        nearCache.trackingStopped();
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+
+        // Then
+        assertThat(nearCache.get(KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("should stay disabled without Lettuce client tracking")
+    void start_WithoutLettuce_ShouldFallBackToRedis() {
+        // Given
+        ConversationStateConfig config = new ConversationStateConfig();
+        config.getNearCache().setEnabled(true);
+        ConversationStateNearCache fallback = new ConversationStateNearCache(config,
+                mock(RedisConnectionFactory.class), new ObjectMapper(), new SimpleMeterRegistry());
+
+        // When
+        fallback.start();
+        fallback.put(KEY, searchState(), fallback.beginRead());
+
+        // Then
+        assertThat(fallback.get(KEY)).isNull();
+    }
+
+    @Test
+    @DisplayName("should record hit and miss metrics")
+    void get_ShouldRecordHitsAndMisses() {
+        // Given
+        nearCache.get(KEY);
+        nearCache.put(KEY, searchState(), nearCache.beginRead());
+
+        // When
+        nearCache.get(KEY);
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "telegram.conversation.nearcache")
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "telegram.conversation.nearcache")
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+}
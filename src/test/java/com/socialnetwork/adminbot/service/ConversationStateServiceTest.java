@@ -1,23 +1,44 @@
 package com.socialnetwork.adminbot.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
 import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
+import com.socialnetwork.adminbot.domain.StateDataKey;
+import com.socialnetwork.adminbot.exception.StateConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -32,6 +53,8 @@ class ConversationStateServiceTest {
     private ValueOperations<String, ConversationState> valueOperations;
 
     private ConversationStateService conversationStateService;
+    private SimpleMeterRegistry meterRegistry;
+    private final ConversationStateHashLayout hashLayout = new ConversationStateHashLayout(new ObjectMapper());
 
     private static final Long TELEGRAM_USER_ID = 123456789L;
     private static final String STATE_KEY_PREFIX = "telegram:state:";
@@ -39,10 +62,17 @@ class ConversationStateServiceTest {
 
     @BeforeEach
     void setUp() {
-        conversationStateService = new ConversationStateService(conversationStateRedisTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        conversationStateService = redisService(new ConversationStateConfig(), ConversationStateNearCache.disabled());
         lenient().when(conversationStateRedisTemplate.opsForValue()).thenReturn(valueOperations);
     }
 
+    private ConversationStateService redisService(ConversationStateConfig config, ConversationStateNearCache nearCache) {
+        return new ConversationStateService(
+                new RedisConversationStateStore(conversationStateRedisTemplate, hashLayout, nearCache, config),
+                config, meterRegistry);
+    }
+
     // ========== GET STATE TESTS ==========
 
     @Nested
@@ -248,8 +278,39 @@ class ConversationStateServiceTest {
     class ResetToIdleTests {
 
         @Test
-        @DisplayName("resetToIdle - should set state to IDLE with cleared data")
-        void resetToIdle_ShouldSetStateToIdleWithClearedData() {
+        @DisplayName("resetToIdle - should delete the key instead of storing IDLE")
+        void resetToIdle_ShouldDeleteKey() {
+            // When
+            conversationStateService.resetToIdle(TELEGRAM_USER_ID);
+
+            // Then
+            verify(conversationStateRedisTemplate).delete(EXPECTED_KEY);
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        }
+
+        @Test
+        @DisplayName("resetToIdle - should issue a single DEL per update context")
+        void resetToIdle_InContext_ShouldDeleteOnce() {
+            // When
+            try (ConversationContext context = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.resetToIdle(TELEGRAM_USER_ID);
+                assertThat(conversationStateService.isIdle(TELEGRAM_USER_ID)).isTrue();
+                assertThat(context.getRedisRoundTrips()).isZero();
+            }
+
+            // Then
+            verify(conversationStateRedisTemplate, times(1)).delete(EXPECTED_KEY);
+            verifyNoInteractions(valueOperations);
+        }
+
+        @Test
+        @DisplayName("resetToIdle - should store IDLE with cleared data when idle-as-absent is disabled")
+        void resetToIdle_WhenIdleStored_ShouldSetStateToIdleWithClearedData() {
+            // Given
+            ConversationStateConfig config = new ConversationStateConfig();
+            config.setIdleAsAbsent(false);
+            conversationStateService = redisService(config, ConversationStateNearCache.disabled());
+
             // When
             conversationStateService.resetToIdle(TELEGRAM_USER_ID);
 
@@ -391,4 +452,442 @@ class ConversationStateServiceTest {
             assertThat(result).isEqualTo(BotState.IDLE);
         }
     }
+
+    // ========== CONVERSATION CONTEXT TESTS ==========
+
+    @Nested
+    @DisplayName("ConversationContext Tests")
+    class ConversationContextTests {
+
+        @Test
+        @DisplayName("should read state once and write once per context")
+        void context_ShouldLoadOnceAndFlushOnce() {
+            // Given
+            ConversationState stored = ConversationState.builder()
+                    .state(BotState.IDLE)
+                    .build();
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(stored);
+
+            // When
+            try (ConversationContext context = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.getCurrentState(TELEGRAM_USER_ID);
+                conversationStateService.transitionTo(TELEGRAM_USER_ID, BotState.AWAITING_BAN_REASON);
+                conversationStateService.updateStateData(TELEGRAM_USER_ID, "targetUserId", "abc");
+                assertThat(conversationStateService.getState(TELEGRAM_USER_ID).getState())
+                        .isEqualTo(BotState.AWAITING_BAN_REASON);
+
+                verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+                assertThat(context.getRedisRoundTrips()).isEqualTo(1);
+            }
+
+            // Then
+            ArgumentCaptor<ConversationState> captor = ArgumentCaptor.forClass(ConversationState.class);
+            verify(valueOperations, times(1)).get(EXPECTED_KEY);
+            verify(valueOperations, times(1)).set(eq(EXPECTED_KEY), captor.capture(), any(Duration.class));
+            assertThat(captor.getValue().getState()).isEqualTo(BotState.AWAITING_BAN_REASON);
+            assertThat(captor.getValue().getData()).containsEntry("targetUserId", "abc");
+            assertThat(meterRegistry.get("telegram.conversation.redis.roundtrips").summary().totalAmount())
+                    .isEqualTo(2.0);
+        }
+
+        @Test
+        @DisplayName("should not write when state was only read")
+        void context_ReadOnly_ShouldNotWrite() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(null);
+
+            // When
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.isIdle(TELEGRAM_USER_ID);
+                conversationStateService.getStateOptional(TELEGRAM_USER_ID);
+            }
+
+            // Then
+            verify(valueOperations, times(1)).get(EXPECTED_KEY);
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+            verify(conversationStateRedisTemplate, never()).delete(anyString());
+        }
+
+        @Test
+        @DisplayName("should delete once when state is cleared in context")
+        void context_ClearState_ShouldDeleteOnClose() {
+            // When
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.clearState(TELEGRAM_USER_ID);
+                assertThat(conversationStateService.getStateOptional(TELEGRAM_USER_ID)).isEmpty();
+            }
+
+            // Then
+            verify(conversationStateRedisTemplate, times(1)).delete(EXPECTED_KEY);
+            verify(valueOperations, never()).get(anyString());
+        }
+
+        @Test
+        @DisplayName("should go to Redis directly for other users")
+        void context_OtherUser_ShouldBypassContext() {
+            // Given
+            Long otherUserId = 42L;
+            when(valueOperations.get(STATE_KEY_PREFIX + otherUserId)).thenReturn(null);
+
+            // When
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.getState(otherUserId);
+                conversationStateService.getState(otherUserId);
+            }
+
+            // Then
+            verify(valueOperations, times(2)).get(STATE_KEY_PREFIX + otherUserId);
+        }
+    }
+
+    // ========== COMPARE AND TRANSITION TESTS ==========
+
+    @Nested
+    @DisplayName("compareAndTransition Tests")
+    class CompareAndTransitionTests {
+
+        private final Set<BotState> fromConfirmingBan = EnumSet.of(BotState.CONFIRMING_BAN);
+
+        @SuppressWarnings("unchecked")
+        private void givenScriptResult(String result) {
+            when(conversationStateRedisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class),
+                    any(RedisSerializer.class), anyList(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                    .thenReturn(result);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void verifyScriptCalled(String expectedVersion, String clearFlag, String deleteFlag) {
+            verify(conversationStateRedisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class),
+                    any(RedisSerializer.class), eq(List.of(EXPECTED_KEY)), eq(BotState.IDLE.name()),
+                    eq(BotState.CONFIRMING_BAN.name()), eq(expectedVersion), eq(clearFlag), anyString(), anyString(),
+                    eq("binary"), anyString(), anyString(), eq(deleteFlag));
+        }
+
+        private ConversationState confirmingBan(long version) {
+            ConversationState state = ConversationState.builder()
+                    .state(BotState.CONFIRMING_BAN)
+                    .version(version)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            state.addData("targetUserId", "abc");
+            return state;
+        }
+
+        @Test
+        @DisplayName("should run script without version check outside of context")
+        void compareAndTransition_WithoutContext_ShouldSkipVersionCheck() {
+            // Given
+            givenScriptResult("OK|CONFIRMING_BAN|4");
+
+            // When
+            BotState previous = conversationStateService.compareAndTransition(
+                    TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, true);
+
+            // Then
+            assertThat(previous).isEqualTo(BotState.CONFIRMING_BAN);
+            verifyScriptCalled("-1", "1", "1");
+            verify(valueOperations, never()).get(anyString());
+        }
+
+        @Test
+        @DisplayName("should check version read in context and update it in memory")
+        void compareAndTransition_InContext_ShouldCheckVersion() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(confirmingBan(2L));
+            givenScriptResult("OK|CONFIRMING_BAN|3");
+
+            // When
+            ConversationState after;
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.getState(TELEGRAM_USER_ID);
+                conversationStateService.compareAndTransition(TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, false);
+                after = conversationStateService.getState(TELEGRAM_USER_ID);
+            }
+
+            // Then
+            verifyScriptCalled("2", "0", "0");
+            assertThat(after.getState()).isEqualTo(BotState.IDLE);
+            assertThat(after.getVersion()).isEqualTo(3L);
+            assertThat(after.getData()).containsEntry("targetUserId", "abc");
+            verify(valueOperations, times(1)).get(EXPECTED_KEY);
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        }
+
+        @Test
+        @DisplayName("should let script delete the key on transition to empty IDLE")
+        void compareAndTransition_ToIdleWithClear_ShouldDeleteKey() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(confirmingBan(2L));
+            givenScriptResult("OK|CONFIRMING_BAN|0");
+
+            // When
+            Optional<ConversationState> after;
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.getState(TELEGRAM_USER_ID);
+                conversationStateService.compareAndTransition(TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, true);
+                after = conversationStateService.getStateOptional(TELEGRAM_USER_ID);
+            }
+
+            // Then
+            verifyScriptCalled("2", "1", "1");
+            assertThat(after).isEmpty();
+            verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+            verify(conversationStateRedisTemplate, never()).delete(anyString());
+        }
+
+        @Test
+        @DisplayName("should flush pending changes before running script")
+        void compareAndTransition_WithPendingChanges_ShouldFlushFirst() {
+            // Given
+            givenScriptResult("OK|CONFIRMING_BAN|6");
+
+            // When
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.setState(TELEGRAM_USER_ID, confirmingBan(5L));
+                conversationStateService.compareAndTransition(TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, false);
+            }
+
+            // Then
+            InOrder inOrder = inOrder(valueOperations, conversationStateRedisTemplate);
+            inOrder.verify(valueOperations).set(eq(EXPECTED_KEY), any(ConversationState.class), any(Duration.class));
+            inOrder.verify(conversationStateRedisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class),
+                    any(RedisSerializer.class), anyList(), any(), any(), eq("5"), eq("0"), any(), any(), any(), any(), any(), any());
+            verify(valueOperations, times(1)).set(anyString(), any(), any(Duration.class));
+        }
+
+        @Test
+        @DisplayName("should throw StateConflictException and drop stale context state on version mismatch")
+        void compareAndTransition_OnConflict_ShouldThrowAndReload() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(confirmingBan(2L));
+            givenScriptResult("CONFLICT|CONFIRMING_BAN|3");
+
+            // When & Then
+            try (ConversationContext ignored = conversationStateService.openContext(TELEGRAM_USER_ID)) {
+                conversationStateService.getState(TELEGRAM_USER_ID);
+                assertThatThrownBy(() -> conversationStateService.compareAndTransition(
+                        TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, true))
+                        .isInstanceOf(StateConflictException.class);
+                conversationStateService.getState(TELEGRAM_USER_ID);
+            }
+            verify(valueOperations, times(2)).get(EXPECTED_KEY);
+        }
+
+        @Test
+        @DisplayName("should throw IllegalStateException when current state is not an allowed source")
+        void compareAndTransition_OnRejected_ShouldThrow() {
+            // Given
+            givenScriptResult("REJECTED|IDLE|7");
+
+            // When & Then
+            assertThatThrownBy(() -> conversationStateService.compareAndTransition(
+                    TELEGRAM_USER_ID, BotState.IDLE, fromConfirmingBan, true))
+                    .isInstanceOf(IllegalStateException.class)
+                    .isNotInstanceOf(StateConflictException.class)
+                    .hasMessageContaining("Transition not allowed: IDLE -> IDLE");
+        }
+    }
+
+    // ========== HASH LAYOUT TESTS ==========
+
+    @Nested
+    @DisplayName("Hash Layout Tests")
+    class HashLayoutTests {
+
+        private static final String HASH_KEY = "telegram:state:h:" + TELEGRAM_USER_ID;
+
+        private RedisConnection connection;
+        private RedisHashCommands hashCommands;
+        private RedisKeyCommands keyCommands;
+        private ConversationStateService hashService;
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUpHashLayout() {
+            connection = mock(RedisConnection.class);
+            hashCommands = mock(RedisHashCommands.class);
+            keyCommands = mock(RedisKeyCommands.class);
+            lenient().when(connection.hashCommands()).thenReturn(hashCommands);
+            lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+            lenient().when(conversationStateRedisTemplate.execute(any(RedisCallback.class)))
+                    .thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+            lenient().when(conversationStateRedisTemplate.executePipelined(any(RedisCallback.class)))
+                    .thenAnswer(invocation -> {
+                        invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+                        return List.of();
+                    });
+
+            ConversationStateConfig config = new ConversationStateConfig();
+            config.setLayout(ConversationStateConfig.Layout.HASH);
+            hashService = redisService(config, ConversationStateNearCache.disabled());
+        }
+
+        private byte[] key() {
+            return HASH_KEY.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private Map<String, String> asStrings(Map<byte[], byte[]> hash) {
+            Map<String, String> result = new HashMap<>();
+            hash.forEach((field, value) -> result.put(
+                    new String(field, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8)));
+            return result;
+        }
+
+        private ConversationState searchState() {
+            ConversationState state = ConversationState.builder()
+                    .state(BotState.SHOWING_SEARCH_RESULTS)
+                    .version(4L)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            state.addData(StateDataKey.SEARCH_QUERY, "john");
+            state.addData(StateDataKey.SEARCH_CURRENT_PAGE, 0);
+            return state;
+        }
+
+        @Test
+        @DisplayName("updateStateData - should write one field without reading state")
+        @SuppressWarnings("unchecked")
+        void updateStateData_WithoutContext_ShouldWriteSingleField() {
+            // When
+            hashService.updateStateData(TELEGRAM_USER_ID, StateDataKey.SEARCH_CURRENT_PAGE, 3);
+
+            // Then
+            ArgumentCaptor<Map<byte[], byte[]>> fields = ArgumentCaptor.forClass(Map.class);
+            verify(hashCommands).hMSet(eq(key()), fields.capture());
+            assertThat(asStrings(fields.getValue()))
+                    .containsEntry("d:" + StateDataKey.SEARCH_CURRENT_PAGE, "i3")
+                    .containsKey("updatedAt")
+                    .hasSize(2);
+            verify(hashCommands).hIncrBy(eq(key()), eq("version".getBytes(StandardCharsets.UTF_8)), eq(1L));
+            verify(keyCommands).pExpire(eq(key()), eq(Duration.ofMinutes(30).toMillis()));
+            verify(hashCommands, never()).hGetAll(any());
+            verify(keyCommands, never()).del(any(byte[][].class));
+        }
+
+        @Test
+        @DisplayName("updateStateData in context - should flush changed field instead of full state")
+        @SuppressWarnings("unchecked")
+        void updateStateData_InContext_ShouldFlushFieldOnly() {
+            // Given
+            when(hashCommands.hGetAll(key())).thenReturn(hashLayout.toHash(searchState()));
+
+            // When
+            ConversationState after;
+            try (ConversationContext ignored = hashService.openContext(TELEGRAM_USER_ID)) {
+                hashService.getState(TELEGRAM_USER_ID);
+                hashService.updateStateData(TELEGRAM_USER_ID, StateDataKey.SEARCH_CURRENT_PAGE, 1);
+                after = hashService.getState(TELEGRAM_USER_ID);
+            }
+
+            // Then
+            assertThat(after.getData(StateDataKey.SEARCH_CURRENT_PAGE, Integer.class)).isEqualTo(1);
+            assertThat(after.getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("john");
+            assertThat(after.getVersion()).isEqualTo(5L);
+
+            ArgumentCaptor<Map<byte[], byte[]>> fields = ArgumentCaptor.forClass(Map.class);
+            verify(hashCommands, times(1)).hMSet(eq(key()), fields.capture());
+            assertThat(asStrings(fields.getValue())).doesNotContainKey("d:" + StateDataKey.SEARCH_QUERY);
+            verify(hashCommands, times(1)).hGetAll(key());
+            verify(connection, never()).multi();
+        }
+
+        @Test
+        @DisplayName("setState - should replace hash atomically")
+        void setState_ShouldReplaceHashInTransaction() {
+            // When
+            hashService.setState(TELEGRAM_USER_ID, searchState());
+
+            // Then
+            InOrder inOrder = inOrder(connection, keyCommands, hashCommands);
+            inOrder.verify(connection).multi();
+            inOrder.verify(keyCommands).del(key());
+            inOrder.verify(hashCommands).hMSet(eq(key()), anyMap());
+            inOrder.verify(keyCommands).pExpire(eq(key()), anyLong());
+            inOrder.verify(connection).exec();
+        }
+
+        @Test
+        @DisplayName("getState - should return IDLE when hash is empty")
+        void getState_EmptyHash_ShouldReturnIdle() {
+            // Given
+            when(hashCommands.hGetAll(key())).thenReturn(Map.of());
+
+            // When
+            ConversationState state = hashService.getState(TELEGRAM_USER_ID);
+
+            // Then
+            assertThat(state.getState()).isEqualTo(BotState.IDLE);
+        }
+    }
+
+    // ========== NEAR-CACHE TESTS ==========
+
+    @Nested
+    @DisplayName("Near-Cache Tests")
+    class NearCacheTests {
+
+        private ConversationStateService cachedService;
+
+        @BeforeEach
+        void setUpNearCache() {
+            ConversationStateConfig config = new ConversationStateConfig();
+            config.getNearCache().setEnabled(true);
+            ConversationStateNearCache nearCache = new ConversationStateNearCache(config,
+                    mock(RedisConnectionFactory.class), new ObjectMapper(), meterRegistry);
+            nearCache.trackingStarted();
+            cachedService = redisService(config, nearCache);
+        }
+
+        @Test
+        @DisplayName("getState - should serve repeated reads from near-cache")
+        void getState_Repeated_ShouldReadRedisOnce() {
+            // Given
+            ConversationState storedState = ConversationState.builder()
+                    .state(BotState.AWAITING_BAN_REASON)
+                    .version(1L)
+                    .build();
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(storedState);
+
+            // When
+            cachedService.getState(TELEGRAM_USER_ID);
+            ConversationState result = cachedService.getState(TELEGRAM_USER_ID);
+
+            // Then
+            assertThat(result.getState()).isEqualTo(BotState.AWAITING_BAN_REASON);
+            verify(valueOperations, times(1)).get(EXPECTED_KEY);
+        }
+
+        @Test
+        @DisplayName("getState - should cache absent state as IDLE")
+        void getState_Absent_ShouldCacheIdle() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(null);
+
+            // When
+            cachedService.getState(TELEGRAM_USER_ID);
+            ConversationState result = cachedService.getState(TELEGRAM_USER_ID);
+
+            // Then
+            assertThat(result.getState()).isEqualTo(BotState.IDLE);
+            verify(valueOperations, times(1)).get(EXPECTED_KEY);
+        }
+
+        @Test
+        @DisplayName("setState - should evict own write from near-cache")
+        void setState_ShouldInvalidateCachedState() {
+            // Given
+            when(valueOperations.get(EXPECTED_KEY)).thenReturn(null);
+            cachedService.getState(TELEGRAM_USER_ID);
+
+            // When
+            cachedService.setState(TELEGRAM_USER_ID,
+                    ConversationState.builder().state(BotState.AWAITING_SEARCH_QUERY).build());
+            cachedService.getState(TELEGRAM_USER_ID);
+
+            // Then
+            verify(valueOperations, times(2)).get(EXPECTED_KEY);
+        }
+    }
 }
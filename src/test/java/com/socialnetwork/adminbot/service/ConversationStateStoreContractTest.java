@@ -0,0 +1,290 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.StateDataKey;
+import com.socialnetwork.adminbot.service.ConversationStateStore.TransitionResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Общий контракт {@link ConversationStateStore}: каждая реализация наследует этот класс
+ * и должна проходить все проверки одинаково.
+ */
+abstract class ConversationStateStoreContractTest {
+
+    protected static final Long TELEGRAM_USER_ID = 123456789L;
+    protected static final Duration TTL = Duration.ofMinutes(30);
+    private static final Set<BotState> ANY_STATE = EnumSet.allOf(BotState.class);
+
+    protected ConversationStateStore store;
+
+    /**
+     * Пустое хранилище для очередного теста
+     */
+    protected abstract ConversationStateStore createStore();
+
+    /**
+     * Дождаться истечения TTL {@code ttl}
+     */
+    protected void awaitExpiry(Duration ttl) throws InterruptedException {
+        Thread.sleep(ttl.toMillis() + 100);
+    }
+
+    @BeforeEach
+    void setUpStore() {
+        store = createStore();
+    }
+
+    private static ConversationState searchState() {
+        ConversationState state = ConversationState.builder()
+                .state(BotState.SHOWING_SEARCH_RESULTS)
+                .version(3L)
+                .createdAt(LocalDateTime.now().withNano(0))
+                .updatedAt(LocalDateTime.now().withNano(0))
+                .build();
+        state.getData().put(StateDataKey.SEARCH_QUERY, "john");
+        state.getData().put(StateDataKey.SEARCH_CURRENT_PAGE, 2);
+        state.getData().put(StateDataKey.SEARCH_TOTAL_RESULTS, 117L);
+        return state;
+    }
+
+    private TransitionResult transition(BotState newState, Set<BotState> allowedFrom, long expectedVersion,
+                                        boolean clearData, boolean deleteOnIdle) {
+        return store.compareAndTransition(TELEGRAM_USER_ID, newState, allowedFrom, expectedVersion,
+                clearData, deleteOnIdle, LocalDateTime.now(), TTL);
+    }
+
+    @Test
+    @DisplayName("load - should return null for unknown user")
+    void load_Unknown_ShouldReturnNull() {
+        assertThat(store.load(TELEGRAM_USER_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("save - should round-trip state with typed data")
+    void save_ShouldRoundTrip() {
+        // When
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+
+        // Then
+        assertThat(loaded.getState()).isEqualTo(BotState.SHOWING_SEARCH_RESULTS);
+        assertThat(loaded.getVersion()).isEqualTo(3L);
+        assertThat(loaded.getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("john");
+        assertThat(loaded.getData(StateDataKey.SEARCH_CURRENT_PAGE, Integer.class)).isEqualTo(2);
+        assertThat(loaded.getData(StateDataKey.SEARCH_TOTAL_RESULTS, Long.class)).isEqualTo(117L);
+    }
+
+    @Test
+    @DisplayName("load - should return a copy not linked to the store")
+    void load_ShouldReturnCopy() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        store.load(TELEGRAM_USER_ID).getData().put(StateDataKey.SEARCH_QUERY, "changed");
+
+        // Then
+        assertThat(store.load(TELEGRAM_USER_ID).getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("john");
+    }
+
+    @Test
+    @DisplayName("save - should replace data of previous state")
+    void save_ShouldReplaceWholeState() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        store.save(TELEGRAM_USER_ID, ConversationState.builder().state(BotState.AWAITING_BAN_REASON).build(), TTL);
+
+        // Then
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+        assertThat(loaded.getState()).isEqualTo(BotState.AWAITING_BAN_REASON);
+        assertThat(loaded.getData()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("delete - should remove state")
+    void delete_ShouldRemoveState() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        store.delete(TELEGRAM_USER_ID);
+
+        // Then
+        assertThat(store.load(TELEGRAM_USER_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("load - should not return state after TTL")
+    void load_AfterTtl_ShouldReturnNull() throws InterruptedException {
+        // Given
+        Duration ttl = Duration.ofMillis(200);
+        store.save(TELEGRAM_USER_ID, searchState(), ttl);
+
+        // When
+        awaitExpiry(ttl);
+
+        // Then
+        assertThat(store.load(TELEGRAM_USER_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("updateFields - should merge fields and bump version")
+    void updateFields_Existing_ShouldMergeAndBumpVersion() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        store.updateFields(TELEGRAM_USER_ID, Map.of(StateDataKey.SEARCH_CURRENT_PAGE, 3), 2,
+                LocalDateTime.now(), TTL);
+
+        // Then
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+        assertThat(loaded.getState()).isEqualTo(BotState.SHOWING_SEARCH_RESULTS);
+        assertThat(loaded.getVersion()).isEqualTo(5L);
+        assertThat(loaded.getData(StateDataKey.SEARCH_CURRENT_PAGE, Integer.class)).isEqualTo(3);
+        assertThat(loaded.getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("john");
+    }
+
+    @Test
+    @DisplayName("updateFields - should create IDLE state when absent")
+    void updateFields_Absent_ShouldCreateIdleState() {
+        // When
+        store.updateFields(TELEGRAM_USER_ID, Map.of(StateDataKey.SEARCH_QUERY, "jane"), 1,
+                LocalDateTime.now(), TTL);
+
+        // Then
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+        assertThat(loaded.getState()).isEqualTo(BotState.IDLE);
+        assertThat(loaded.getVersion()).isEqualTo(1L);
+        assertThat(loaded.getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("jane");
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should treat absent state as IDLE version 0")
+    void compareAndTransition_Absent_ShouldTransitionFromIdle() {
+        // When
+        TransitionResult result = transition(BotState.AWAITING_SEARCH_QUERY, Set.of(BotState.IDLE), 0L,
+                false, false);
+
+        // Then
+        assertThat(result).isEqualTo(new TransitionResult(TransitionResult.Status.OK, BotState.IDLE, 1L));
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+        assertThat(loaded.getState()).isEqualTo(BotState.AWAITING_SEARCH_QUERY);
+        assertThat(loaded.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should keep data unless cleared")
+    void compareAndTransition_ShouldKeepOrClearData() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        transition(BotState.AWAITING_BAN_REASON, ANY_STATE, -1L, false, false);
+        ConversationState kept = store.load(TELEGRAM_USER_ID);
+        transition(BotState.AWAITING_SEARCH_QUERY, ANY_STATE, -1L, true, false);
+        ConversationState cleared = store.load(TELEGRAM_USER_ID);
+
+        // Then
+        assertThat(kept.getData(StateDataKey.SEARCH_QUERY, String.class)).isEqualTo("john");
+        assertThat(kept.getVersion()).isEqualTo(4L);
+        assertThat(cleared.getData()).isEmpty();
+        assertThat(cleared.getVersion()).isEqualTo(5L);
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should reject transition from disallowed state")
+    void compareAndTransition_Disallowed_ShouldReject() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        TransitionResult result = transition(BotState.CONFIRMING_BAN, Set.of(BotState.AWAITING_BAN_REASON), -1L,
+                false, false);
+
+        // Then
+        assertThat(result).isEqualTo(new TransitionResult(
+                TransitionResult.Status.REJECTED, BotState.SHOWING_SEARCH_RESULTS, 3L));
+        assertThat(store.load(TELEGRAM_USER_ID).getState()).isEqualTo(BotState.SHOWING_SEARCH_RESULTS);
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should report conflict on version mismatch")
+    void compareAndTransition_VersionMismatch_ShouldConflict() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        TransitionResult result = transition(BotState.IDLE, ANY_STATE, 2L, true, false);
+
+        // Then
+        assertThat(result.status()).isEqualTo(TransitionResult.Status.CONFLICT);
+        assertThat(result.version()).isEqualTo(3L);
+        assertThat(store.load(TELEGRAM_USER_ID).getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should delete state when resetting to empty IDLE")
+    void compareAndTransition_DeleteOnIdle_ShouldRemoveState() {
+        // Given
+        store.save(TELEGRAM_USER_ID, searchState(), TTL);
+
+        // When
+        TransitionResult result = transition(BotState.IDLE, ANY_STATE, 3L, true, true);
+
+        // Then
+        assertThat(result).isEqualTo(new TransitionResult(
+                TransitionResult.Status.OK, BotState.SHOWING_SEARCH_RESULTS, 0L));
+        assertThat(store.load(TELEGRAM_USER_ID)).isNull();
+    }
+
+    @Test
+    @DisplayName("compareAndTransition - should let exactly one concurrent claim win")
+    void compareAndTransition_Concurrent_ShouldAllowSingleWinner() throws Exception {
+        // Given
+        store.save(TELEGRAM_USER_ID, ConversationState.builder().state(BotState.CONFIRMING_BAN).build(), TTL);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<TransitionResult>> claims = IntStream.range(0, threads)
+                .<Callable<TransitionResult>>mapToObj(i -> () -> {
+                    start.await();
+                    return transition(BotState.IDLE, Set.of(BotState.CONFIRMING_BAN), -1L, true, false);
+                })
+                .toList();
+
+        // When
+        List<Future<TransitionResult>> futures = claims.stream().map(executor::submit).toList();
+        start.countDown();
+        long winners = 0;
+        for (Future<TransitionResult> future : futures) {
+            if (future.get().status() == TransitionResult.Status.OK) {
+                winners++;
+            }
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(winners).isEqualTo(1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FailoverConversationStateStore Unit Tests")
+class FailoverConversationStateStoreTest {
+
+    private static final Long TELEGRAM_USER_ID = 123456789L;
+    private static final Long OTHER_USER_ID = 987654321L;
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    @Mock
+    private RedisConversationStateStore redisStore;
+
+    @Mock
+    private RedisAvailabilityMonitor redisAvailability;
+
+    private InMemoryConversationStateStore localStore;
+    private FailoverConversationStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        ConversationStateConfig.Memory settings = new ConversationStateConfig.Memory();
+        settings.setStripes(4);
+        settings.setWheelSize(8);
+        settings.setMaxEntries(100);
+        localStore = new InMemoryConversationStateStore(settings, new ObjectMapper(), Clock.systemUTC());
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        store = new FailoverConversationStateStore(redisStore, localStore, redisAvailability);
+    }
+
+    private static ConversationState state(BotState botState) {
+        return ConversationState.builder().state(botState).version(1L).build();
+    }
+
+    private void redisGoesDown() {
+        RedisConnectionFailureException failure = new RedisConnectionFailureException("Connection refused");
+        when(redisStore.load(any())).thenThrow(failure);
+        when(redisAvailability.reportFailure(failure)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("should use Redis while it is available")
+    void load_RedisAvailable_ShouldDelegateToRedis() {
+        // Given
+        when(redisStore.load(TELEGRAM_USER_ID)).thenReturn(state(BotState.AWAITING_SEARCH_QUERY));
+
+        // When
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+
+        // Then
+        assertThat(loaded.getState()).isEqualTo(BotState.AWAITING_SEARCH_QUERY);
+        assertThat(store.isDegraded()).isFalse();
+        assertThat(localStore.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should fall back to local store on outage and stop calling Redis")
+    void outage_ShouldSwitchToLocalStore() {
+        // Given
+        redisGoesDown();
+
+        // When
+        ConversationState loaded = store.load(TELEGRAM_USER_ID);
+        store.save(TELEGRAM_USER_ID, state(BotState.AWAITING_BAN_REASON), TTL);
+
+        // Then
+        assertThat(loaded).isNull();
+        assertThat(store.isDegraded()).isTrue();
+        assertThat(store.load(TELEGRAM_USER_ID).getState()).isEqualTo(BotState.AWAITING_BAN_REASON);
+        verify(redisStore, times(1)).load(TELEGRAM_USER_ID);
+        verify(redisStore, never()).save(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should rethrow errors that are not Redis outages")
+    void nonOutageError_ShouldPropagate() {
+        // Given
+        IllegalStateException failure = new IllegalStateException("Unexpected state transition result: null");
+        when(redisStore.compareAndTransition(any(), any(), any(), anyLong(), anyBoolean(), anyBoolean(), any(), any()))
+                .thenThrow(failure);
+
+        // When / Then
+        assertThatThrownBy(() -> store.compareAndTransition(TELEGRAM_USER_ID, BotState.IDLE,
+                EnumSet.allOf(BotState.class), -1L, true, true, LocalDateTime.now(), TTL))
+                .isSameAs(failure);
+        assertThat(store.isDegraded()).isFalse();
+    }
+
+    @Test
+    @DisplayName("recovery - should move changed states to Redis and return to it")
+    void recovery_ShouldReconcileLocalChanges() {
+        // Given: во время сбоя один диалог начат, другой сброшен
+        store.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(false));
+        store.save(TELEGRAM_USER_ID, state(BotState.AWAITING_SEARCH_QUERY), TTL);
+        store.save(OTHER_USER_ID, state(BotState.AWAITING_BAN_REASON), TTL);
+        store.delete(OTHER_USER_ID);
+
+        // When
+        store.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(true));
+
+        // Then
+        ArgumentCaptor<Duration> ttl = ArgumentCaptor.forClass(Duration.class);
+        ArgumentCaptor<ConversationState> moved = ArgumentCaptor.forClass(ConversationState.class);
+        verify(redisStore).save(eq(TELEGRAM_USER_ID), moved.capture(), ttl.capture());
+        verify(redisStore).delete(OTHER_USER_ID);
+        assertThat(moved.getValue().getState()).isEqualTo(BotState.AWAITING_SEARCH_QUERY);
+        assertThat(ttl.getValue()).isPositive().isLessThanOrEqualTo(TTL);
+        assertThat(store.isDegraded()).isFalse();
+        assertThat(localStore.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("recovery - should stay degraded and keep local states when Redis fails again")
+    void recovery_RedisFailsAgain_ShouldStayDegraded() {
+        // Given
+        store.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(false));
+        store.save(TELEGRAM_USER_ID, state(BotState.AWAITING_SEARCH_QUERY), TTL);
+        doThrow(new RedisConnectionFailureException("Connection refused"))
+                .when(redisStore).save(eq(TELEGRAM_USER_ID), any(), any());
+
+        // When
+        store.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(true));
+
+        // Then
+        assertThat(store.isDegraded()).isTrue();
+        assertThat(store.load(TELEGRAM_USER_ID).getState()).isEqualTo(BotState.AWAITING_SEARCH_QUERY);
+        verify(redisAvailability).markDown(anyString());
+
+        // When: Redis снова доступен
+        doNothing().when(redisStore).save(eq(TELEGRAM_USER_ID), any(), any());
+        store.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(true));
+
+        // Then: несохранённое состояние перенесено со второй попытки
+        verify(redisStore, times(2)).save(eq(TELEGRAM_USER_ID), any(), any());
+        assertThat(store.isDegraded()).isFalse();
+    }
+}
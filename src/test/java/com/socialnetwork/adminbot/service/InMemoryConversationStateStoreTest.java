@@ -0,0 +1,147 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.BotState;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("InMemoryConversationStateStore Unit Tests")
+class InMemoryConversationStateStoreTest extends ConversationStateStoreContractTest {
+
+    private MutableClock clock;
+    private InMemoryConversationStateStore memoryStore;
+
+    @Override
+    protected ConversationStateStore createStore() {
+        ConversationStateConfig.Memory settings = new ConversationStateConfig.Memory();
+        settings.setStripes(4);
+        settings.setWheelSize(8);
+        settings.setTick(Duration.ofMillis(100));
+        clock = new MutableClock(Instant.parse("2026-01-15T10:30:00Z"));
+        memoryStore = new InMemoryConversationStateStore(settings, new ObjectMapper(), clock);
+        return memoryStore;
+    }
+
+    @Override
+    protected void awaitExpiry(Duration ttl) {
+        clock.advance(ttl.plusMillis(1));
+    }
+
+    private void saveWithTtl(long telegramUserId, Duration ttl) {
+        memoryStore.save(telegramUserId, ConversationState.builder().state(BotState.AWAITING_SEARCH_QUERY).build(), ttl);
+    }
+
+    @Test
+    @DisplayName("sweepExpired - should free memory of expired entries")
+    void sweepExpired_ShouldRemoveExpiredEntries() {
+        // Given
+        saveWithTtl(1L, Duration.ofMillis(250));
+        saveWithTtl(2L, Duration.ofMinutes(30));
+
+        // When
+        clock.advance(Duration.ofMillis(400));
+        memoryStore.sweepExpired();
+
+        // Then
+        assertThat(memoryStore.size()).isEqualTo(1);
+        assertThat(memoryStore.load(2L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("sweepExpired - should keep entries whose TTL spans several wheel turns")
+    void sweepExpired_LongTtl_ShouldWaitForLaterTurn() {
+        // Given: оборот колеса 8 x 100 мс, TTL - больше двух оборотов
+        saveWithTtl(1L, Duration.ofMillis(2_050));
+
+        // When
+        clock.advance(Duration.ofMillis(900));
+        memoryStore.sweepExpired();
+        int afterFirstTurn = memoryStore.size();
+        clock.advance(Duration.ofMillis(1_300));
+        memoryStore.sweepExpired();
+
+        // Then
+        assertThat(afterFirstTurn).isEqualTo(1);
+        assertThat(memoryStore.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("sweepExpired - should keep entry re-saved with longer TTL")
+    void sweepExpired_Resaved_ShouldKeepEntry() {
+        // Given
+        saveWithTtl(1L, Duration.ofMillis(250));
+        saveWithTtl(1L, Duration.ofMinutes(30));
+
+        // When
+        clock.advance(Duration.ofMillis(400));
+        memoryStore.sweepExpired();
+
+        // Then
+        assertThat(memoryStore.load(1L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("save - should evict entry expiring first when stripe is full")
+    void save_StripeFull_ShouldEvictEarliestExpiring() {
+        // Given: 4 сегмента по 2 записи; пользователи 1, 5 и 9 попадают в один сегмент
+        ConversationStateConfig.Memory settings = new ConversationStateConfig.Memory();
+        settings.setStripes(4);
+        settings.setWheelSize(8);
+        settings.setTick(Duration.ofMillis(100));
+        settings.setMaxEntries(8);
+        memoryStore = new InMemoryConversationStateStore(settings, new ObjectMapper(), clock);
+        saveWithTtl(1L, Duration.ofMinutes(30));
+        saveWithTtl(5L, Duration.ofMinutes(10));
+
+        // When
+        saveWithTtl(1L, Duration.ofMinutes(40));
+        saveWithTtl(9L, Duration.ofMinutes(20));
+
+        // Then
+        assertThat(memoryStore.size()).isEqualTo(2);
+        assertThat(memoryStore.load(5L)).isNull();
+        assertThat(memoryStore.load(1L)).isNotNull();
+        assertThat(memoryStore.load(9L)).isNotNull();
+    }
+
+    /**
+     * Часы, которые тест двигает вручную
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
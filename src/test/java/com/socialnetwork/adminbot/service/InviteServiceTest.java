@@ -1,5 +1,6 @@
 package com.socialnetwork.adminbot.service;
 
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
 import com.socialnetwork.adminbot.entity.Admin;
 import com.socialnetwork.adminbot.entity.AdminInvitation;
 import com.socialnetwork.adminbot.entity.AdminRole;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,6 +41,9 @@ class InviteServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private InviteService inviteService;
 
     private Admin superAdmin;
@@ -52,7 +57,7 @@ class InviteServiceTest {
 
     @BeforeEach
     void setUp() {
-        inviteService = new InviteService(invitationRepository, adminRepository, auditLogService);
+        inviteService = new InviteService(invitationRepository, adminRepository, auditLogService, eventPublisher);
 
         superAdmin = Admin.builder()
                 .telegramUserId(SUPER_ADMIN_ID)
@@ -179,6 +184,7 @@ class InviteServiceTest {
             verify(adminRepository).save(any(Admin.class));
             verify(invitationRepository).save(argThat(inv -> inv.getIsUsed() && inv.getActivatedAdminId().equals(NEW_ADMIN_ID)));
             verify(auditLogService).logAction(eq("ACTIVATE_INVITATION"), eq(NEW_ADMIN_ID), anyMap());
+            verify(eventPublisher).publishEvent(new AdminChangedEvent(NEW_ADMIN_ID, AdminRole.ADMIN, true));
         }
 
         @Test
@@ -0,0 +1,218 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.LocalFirstRateLimitConfig;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.EstimationProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LocalFirstRateLimiter Unit Tests")
+class LocalFirstRateLimiterTest {
+
+    private static final String KEY = "invite-validate:192.168.0.1";
+
+    @Mock
+    private RateLimitBucketCache buckets;
+
+    @Mock
+    private BucketProxy bucket;
+
+    @Mock
+    private RedisAvailabilityMonitor redisAvailability;
+
+    @Mock
+    private Clock clock;
+
+    private final List<Runnable> pendingSyncs = new ArrayList<>();
+    private LocalFirstRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        LocalFirstRateLimitConfig config = new LocalFirstRateLimitConfig();
+        config.setMaxOvershoot(2);
+        config.setIdleTimeout(Duration.ofSeconds(5));
+        limiter = new LocalFirstRateLimiter(buckets, config, redisAvailability, new SimpleMeterRegistry(),
+                pendingSyncs::add, clock);
+        when(buckets.get(eq(KEY), ArgumentMatchers.<Supplier<BucketConfiguration>>any())).thenReturn(bucket);
+        lenient().when(clock.millis()).thenReturn(1_000L);
+    }
+
+    /**
+     * 1000 запросов в минуту: slice - 100 токенов
+     */
+    private static BucketConfiguration highVolumeConfig() {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(1000)
+                        .refillGreedy(1000, Duration.ofMinutes(1))
+                        .build())
+                .build();
+    }
+
+    private int consume(int attempts, Supplier<BucketConfiguration> configSupplier) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryConsume(KEY, configSupplier).consumed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    @DisplayName("should serve many requests from a single Redis reservation")
+    void tryConsume_ShouldServeFromReservedSlice() {
+        // Given
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(100L);
+
+        // When
+        int allowed = consume(40, LocalFirstRateLimiterTest::highVolumeConfig);
+
+        // Then
+        assertThat(allowed).isEqualTo(40);
+        verify(bucket, times(1)).tryConsumeAsMuchAsPossible(100);
+        assertThat(pendingSyncs).isEmpty();
+        assertThat(limiter.reservedTokens(KEY)).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("should reserve next slice asynchronously when half is used")
+    void tryConsume_HalfUsed_ShouldPrefetchAsynchronously() {
+        // Given
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(100L);
+
+        // When
+        consume(51, LocalFirstRateLimiterTest::highVolumeConfig);
+        int queued = pendingSyncs.size();
+        pendingSyncs.forEach(Runnable::run);
+
+        // Then
+        assertThat(queued).isEqualTo(1);
+        verify(bucket, times(2)).tryConsumeAsMuchAsPossible(100);
+        assertThat(limiter.reservedTokens(KEY)).isEqualTo(149);
+    }
+
+    @Test
+    @DisplayName("should cap tokens granted on credit while reservation is in flight")
+    void tryConsume_SliceExhausted_ShouldBoundOvershoot() {
+        // Given: асинхронное резервирование не успевает выполниться
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(100L, 0L);
+        when(bucket.estimateAbilityToConsume(1))
+                .thenReturn(EstimationProbe.canNotBeConsumed(0, Duration.ofMillis(42).toNanos()));
+
+        // When
+        int fromSlice = consume(100, LocalFirstRateLimiterTest::highVolumeConfig);
+        int onCredit = consume(2, LocalFirstRateLimiterTest::highVolumeConfig);
+        RateLimitResult afterCredit = limiter.tryConsume(KEY, LocalFirstRateLimiterTest::highVolumeConfig);
+
+        // Then: долг списан из Redis синхронным резервированием, bucket пуст;
+        // время до повтора - из состояния bucket'а в Redis
+        assertThat(fromSlice).isEqualTo(100);
+        assertThat(onCredit).isEqualTo(2);
+        assertThat(afterCredit.consumed()).isFalse();
+        assertThat(afterCredit.retryAfterNanos()).isEqualTo(Duration.ofMillis(42).toNanos());
+        verify(bucket).consumeIgnoringRateLimits(2);
+    }
+
+    @Test
+    @DisplayName("should reject locally until the retry time reported by Redis")
+    void tryConsume_AfterRejection_ShouldNotCallRedisUntilRetryTime() {
+        // Given
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(0L);
+        when(bucket.estimateAbilityToConsume(1))
+                .thenReturn(EstimationProbe.canNotBeConsumed(0, Duration.ofMillis(500).toNanos()));
+
+        // When
+        RateLimitResult first = limiter.tryConsume(KEY, LocalFirstRateLimiterTest::highVolumeConfig);
+        when(clock.millis()).thenReturn(1_200L);
+        RateLimitResult second = limiter.tryConsume(KEY, LocalFirstRateLimiterTest::highVolumeConfig);
+
+        // Then
+        assertThat(first.retryAfterNanos()).isEqualTo(Duration.ofMillis(500).toNanos());
+        assertThat(second.consumed()).isFalse();
+        assertThat(second.retryAfterNanos()).isEqualTo(Duration.ofMillis(300).toNanos());
+        verify(bucket, times(1)).tryConsumeAsMuchAsPossible(100);
+        verify(bucket, times(1)).estimateAbilityToConsume(1);
+    }
+
+    @Test
+    @DisplayName("should check single-token slices in Redis without overshoot")
+    void tryConsume_SingleTokenSlice_ShouldNeverOvershoot() {
+        // Given: 3 запроса в час - slice из одного токена
+        long nanosToWait = Duration.ofMinutes(17).toNanos();
+        when(bucket.tryConsumeAndReturnRemaining(1)).thenReturn(
+                ConsumptionProbe.consumed(2, 0),
+                ConsumptionProbe.consumed(1, 0),
+                ConsumptionProbe.consumed(0, nanosToWait),
+                ConsumptionProbe.rejected(0, nanosToWait, nanosToWait));
+
+        // When
+        int allowed = consume(3, RateLimitService::registrationLimitConfig);
+        RateLimitResult rejected = limiter.tryConsume(KEY, RateLimitService::registrationLimitConfig);
+
+        // Then: время до повтора - из того же ответа Redis
+        assertThat(allowed).isEqualTo(3);
+        assertThat(rejected.consumed()).isFalse();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(nanosToWait);
+        verify(bucket, never()).tryConsumeAsMuchAsPossible(anyLong());
+        verify(bucket, never()).consumeIgnoringRateLimits(anyLong());
+        assertThat(pendingSyncs).isEmpty();
+    }
+
+    @Test
+    @DisplayName("returnIdleSlices - should give unused tokens back to Redis")
+    void returnIdleSlices_ShouldReturnUnusedTokens() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(100L);
+        consume(1, LocalFirstRateLimiterTest::highVolumeConfig);
+
+        // When
+        when(clock.millis()).thenReturn(7_000L);
+        limiter.returnIdleSlices();
+
+        // Then
+        verify(bucket).addTokens(99);
+        assertThat(limiter.reservedTokens(KEY)).isZero();
+    }
+
+    @Test
+    @DisplayName("returnIdleSlices - should drop idle slices without Redis calls while Redis is down")
+    void returnIdleSlices_RedisUnavailable_ShouldDropSlicesLocally() {
+        // Given
+        when(bucket.tryConsumeAsMuchAsPossible(100)).thenReturn(100L);
+        consume(1, LocalFirstRateLimiterTest::highVolumeConfig);
+        when(redisAvailability.isAvailable()).thenReturn(false);
+
+        // When
+        when(clock.millis()).thenReturn(7_000L);
+        limiter.returnIdleSlices();
+
+        // Then
+        assertThat(limiter.reservedTokens(KEY)).isZero();
+        verify(bucket, never()).addTokens(anyLong());
+        verify(bucket, never()).consumeIgnoringRateLimits(anyLong());
+    }
+}
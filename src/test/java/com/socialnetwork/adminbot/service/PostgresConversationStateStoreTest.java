@@ -0,0 +1,42 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Контракт хранилища на живом Postgres:
+ * {@code mvn test -Dpostgres.url=jdbc:postgresql://localhost:5432/admin_bot_db
+ * [-Dpostgres.user=postgres -Dpostgres.password=postgres]}.
+ * Создаёт таблицу как changelog 005, если её нет, и очищает её.
+ */
+@DisplayName("PostgresConversationStateStore Contract Tests")
+@EnabledIfSystemProperty(named = "postgres.url", matches = ".+")
+class PostgresConversationStateStoreTest extends ConversationStateStoreContractTest {
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE UNLOGGED TABLE IF NOT EXISTS conversation_states (
+                telegram_user_id BIGINT PRIMARY KEY,
+                state VARCHAR(64) NOT NULL,
+                version BIGINT NOT NULL,
+                payload BYTEA NOT NULL,
+                expires_at TIMESTAMP NOT NULL
+            )
+            """;
+
+    @Override
+    protected ConversationStateStore createStore() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("postgres.url"),
+                System.getProperty("postgres.user", "postgres"),
+                System.getProperty("postgres.password", "postgres"));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.update("DELETE FROM conversation_states");
+        return new PostgresConversationStateStore(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), new ObjectMapper());
+    }
+}
@@ -0,0 +1,58 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.RateLimitProxyCacheConfig;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitBucketCache Unit Tests")
+class RateLimitBucketCacheTest {
+
+    @Mock
+    private ProxyManager<String> proxyManager;
+
+    @Mock
+    private RemoteBucketBuilder<String> bucketBuilder;
+
+    @Mock
+    private BucketProxy registerProxy;
+
+    @Mock
+    private BucketProxy validateProxy;
+
+    @Test
+    @DisplayName("get - should build one proxy per key and reuse it")
+    void get_SameKey_ShouldReuseProxy() {
+        // Given
+        RateLimitBucketCache cache = new RateLimitBucketCache(proxyManager, new RateLimitProxyCacheConfig(),
+                new SimpleMeterRegistry());
+        when(proxyManager.builder()).thenReturn(bucketBuilder);
+        when(bucketBuilder.build(anyString(), ArgumentMatchers.<Supplier<BucketConfiguration>>any()))
+                .thenReturn(registerProxy, validateProxy);
+
+        // When
+        BucketProxy first = cache.get("rate_limit:register:10.0.0.1", RateLimitService::registrationLimitConfig);
+        BucketProxy second = cache.get("rate_limit:register:10.0.0.1", RateLimitService::registrationLimitConfig);
+        BucketProxy other = cache.get("rate_limit:validate:10.0.0.1", RateLimitService::validationLimitConfig);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(other).isSameAs(validateProxy);
+        verify(proxyManager, times(2)).builder();
+    }
+}
@@ -0,0 +1,210 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.RateLimitEngineConfig;
+import com.socialnetwork.adminbot.config.RedisFailoverConfig;
+import com.socialnetwork.adminbot.domain.RateLimitEngine;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.lettuce.core.RedisConnectionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RateLimitService Unit Tests")
+class RateLimitServiceTest {
+
+    private static final String KEY = "register:192.168.0.1";
+
+    @Mock
+    private RateLimitBucketCache buckets;
+
+    @Mock
+    private BucketProxy bucketProxy;
+
+    @Mock
+    private LocalFirstRateLimiter localFirstRateLimiter;
+
+    @Mock
+    private SlidingWindowRateLimiter slidingWindowRateLimiter;
+
+    @Mock
+    private RedisAvailabilityMonitor redisAvailability;
+
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitEngineConfig engineConfig = new RateLimitEngineConfig();
+        engineConfig.getLimits().put("register", RateLimitEngine.SLIDING_WINDOW);
+        rateLimitService = new RateLimitService(buckets, localFirstRateLimiter, slidingWindowRateLimiter,
+                engineConfig, redisAvailability, new RedisFailoverConfig());
+    }
+
+    private void stubRedisBucket() {
+        when(buckets.get(eq(KEY), ArgumentMatchers.<Supplier<BucketConfiguration>>any())).thenReturn(bucketProxy);
+    }
+
+    private int consumeRegistrations(int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (rateLimitService.tryConsume(KEY, RateLimitService::registrationLimitConfig)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    @DisplayName("tryConsume - should use Redis bucket while Redis is available")
+    void tryConsume_RedisAvailable_ShouldUseDistributedBucket() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        stubRedisBucket();
+        when(bucketProxy.tryConsumeAndReturnRemaining(1)).thenReturn(ConsumptionProbe.consumed(2, 0));
+
+        // When
+        boolean allowed = rateLimitService.tryConsume(KEY, RateLimitService::registrationLimitConfig);
+
+        // Then
+        assertThat(allowed).isTrue();
+        verify(bucketProxy).tryConsumeAndReturnRemaining(1);
+    }
+
+    @Test
+    @DisplayName("consume - should return remaining tokens and retry time from one probe")
+    void consume_Rejected_ShouldCarryRetryAfter() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        stubRedisBucket();
+        when(bucketProxy.tryConsumeAndReturnRemaining(1))
+                .thenReturn(ConsumptionProbe.rejected(0, TimeUnit.MINUTES.toNanos(20) + 1, 0));
+
+        // When
+        RateLimitResult result = rateLimitService.consume(KEY, RateLimitService::registrationLimitConfig);
+
+        // Then
+        assertThat(result.consumed()).isFalse();
+        assertThat(result.remainingTokens()).isZero();
+        assertThat(result.retryAfterSeconds()).isEqualTo(1201);
+        verify(bucketProxy, times(1)).tryConsumeAndReturnRemaining(1);
+        verifyNoMoreInteractions(bucketProxy);
+    }
+
+    @Test
+    @DisplayName("consume - should use sliding window engine selected for the limit")
+    void consume_SlidingWindowLimit_ShouldBypassBuckets() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        when(slidingWindowRateLimiter.tryConsume(KEY, RateLimitService.registrationLimitConfig()))
+                .thenReturn(RateLimitResult.allowed(2));
+
+        // When
+        RateLimitResult result = rateLimitService.consume("register", KEY, RateLimitService::registrationLimitConfig);
+
+        // Then
+        assertThat(result.consumed()).isTrue();
+        assertThat(result.remainingTokens()).isEqualTo(2);
+        verifyNoInteractions(buckets, localFirstRateLimiter);
+    }
+
+    @Test
+    @DisplayName("consume - should keep Bucket4j for limits without engine setting")
+    void consume_LimitWithoutEngine_ShouldUseBucket4j() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        stubRedisBucket();
+        when(bucketProxy.tryConsumeAndReturnRemaining(1)).thenReturn(ConsumptionProbe.consumed(9, 0));
+
+        // When
+        RateLimitResult result = rateLimitService.consume("validate", KEY, RateLimitService::validationLimitConfig);
+
+        // Then
+        assertThat(result.consumed()).isTrue();
+        verifyNoInteractions(slidingWindowRateLimiter);
+    }
+
+    @Test
+    @DisplayName("limit configurations should be built once")
+    void limitConfigs_ShouldBeShared() {
+        assertThat(RateLimitService.registrationLimitConfig()).isSameAs(RateLimitService.registrationLimitConfig());
+        assertThat(RateLimitService.validationLimitConfig()).isSameAs(RateLimitService.validationLimitConfig());
+    }
+
+    @Test
+    @DisplayName("tryConsume - should take tokens from local-first limiter when enabled")
+    void tryConsume_LocalFirstEnabled_ShouldUseReservedSlice() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        when(localFirstRateLimiter.isEnabled()).thenReturn(true);
+        when(localFirstRateLimiter.tryConsume(eq(KEY), ArgumentMatchers.<Supplier<BucketConfiguration>>any()))
+                .thenReturn(RateLimitResult.allowed(2));
+
+        // When
+        boolean allowed = rateLimitService.tryConsume(KEY, RateLimitService::registrationLimitConfig);
+
+        // Then
+        assertThat(allowed).isTrue();
+        verifyNoInteractions(buckets);
+    }
+
+    @Test
+    @DisplayName("tryConsume - should enforce limit locally while Redis is down")
+    void tryConsume_RedisDown_ShouldUseLocalBucket() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(false);
+
+        // When
+        int allowed = consumeRegistrations(5);
+
+        // Then: лимит регистрации - 3 запроса в час
+        assertThat(allowed).isEqualTo(3);
+        verifyNoInteractions(buckets);
+    }
+
+    @Test
+    @DisplayName("tryConsume - should report outage and fall back to local bucket")
+    void tryConsume_RedisFails_ShouldFallBack() {
+        // Given
+        RedisConnectionException failure = new RedisConnectionException("Connection refused");
+        when(redisAvailability.isAvailable()).thenReturn(true);
+        stubRedisBucket();
+        when(bucketProxy.tryConsumeAndReturnRemaining(1)).thenThrow(failure);
+        when(redisAvailability.reportFailure(failure)).thenReturn(true);
+
+        // When
+        boolean allowed = rateLimitService.tryConsume(KEY, RateLimitService::registrationLimitConfig);
+
+        // Then
+        assertThat(allowed).isTrue();
+        verify(redisAvailability).reportFailure(failure);
+    }
+
+    @Test
+    @DisplayName("onRedisAvailabilityChanged - should drop local buckets after recovery")
+    void recovery_ShouldResetLocalBuckets() {
+        // Given
+        when(redisAvailability.isAvailable()).thenReturn(false);
+        consumeRegistrations(3);
+
+        // When
+        rateLimitService.onRedisAvailabilityChanged(new RedisAvailabilityChangedEvent(true));
+
+        // Then
+        assertThat(consumeRegistrations(1)).isEqualTo(1);
+    }
+}
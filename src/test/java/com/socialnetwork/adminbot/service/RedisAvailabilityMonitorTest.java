@@ -0,0 +1,179 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.RedisFailoverConfig;
+import com.socialnetwork.adminbot.domain.RedisAvailabilityChangedEvent;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.net.ConnectException;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisAvailabilityMonitor Unit Tests")
+class RedisAvailabilityMonitorTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private RedisFailoverConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private RedisAvailabilityMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        config = new RedisFailoverConfig();
+        config.setRecoveryProbes(2);
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new RedisAvailabilityMonitor(connectionFactory, eventPublisher, config, meterRegistry);
+    }
+
+    private void redisAnswers(boolean reachable) {
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        if (reachable) {
+            when(connection.ping()).thenReturn("PONG");
+        } else {
+            when(connection.ping()).thenThrow(new RedisConnectionFailureException("Connection refused"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Outage classification")
+    class OutageTests {
+
+        @Test
+        @DisplayName("should treat connection failures and timeouts as outage")
+        void isOutage_ConnectionErrors_ShouldBeTrue() {
+            assertThat(RedisAvailabilityMonitor.isOutage(new RedisConnectionFailureException("refused"))).isTrue();
+            assertThat(RedisAvailabilityMonitor.isOutage(
+                    new CompletionException(new RedisCommandTimeoutException("timeout")))).isTrue();
+            assertThat(RedisAvailabilityMonitor.isOutage(
+                    new IllegalStateException(new ConnectException("refused")))).isTrue();
+        }
+
+        @Test
+        @DisplayName("should not treat Redis error replies and other errors as outage")
+        void isOutage_CommandErrors_ShouldBeFalse() {
+            assertThat(RedisAvailabilityMonitor.isOutage(new RedisSystemException("script failed",
+                    new RedisCommandExecutionException("ERR user_script:1")))).isFalse();
+            assertThat(RedisAvailabilityMonitor.isOutage(new IllegalArgumentException("bad state"))).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Mode switching")
+    class ModeTests {
+
+        @Test
+        @DisplayName("reportFailure - should switch to degraded mode once")
+        void reportFailure_Outage_ShouldDegradeOnce() {
+            // When
+            boolean first = monitor.reportFailure(new RedisConnectionFailureException("refused"));
+            boolean second = monitor.reportFailure(new RedisConnectionFailureException("refused"));
+
+            // Then
+            assertThat(first).isTrue();
+            assertThat(second).isTrue();
+            assertThat(monitor.getMode()).isEqualTo(RedisAvailabilityMonitor.Mode.DEGRADED);
+            assertThat(monitor.getDegradedSince()).isNotNull();
+            verify(eventPublisher, times(1)).publishEvent(new RedisAvailabilityChangedEvent(false));
+            assertThat(meterRegistry.get("redis.failover.outages").counter().count()).isEqualTo(1.0);
+            assertThat(meterRegistry.get("redis.failover.degraded").gauge().value()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("reportFailure - should ignore errors that are not outages")
+        void reportFailure_NotOutage_ShouldStayNormal() {
+            // When
+            boolean handled = monitor.reportFailure(new IllegalArgumentException("bad state"));
+
+            // Then
+            assertThat(handled).isFalse();
+            assertThat(monitor.isAvailable()).isTrue();
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("reportFailure - should be ignored when failover is disabled")
+        void reportFailure_Disabled_ShouldStayNormal() {
+            // Given
+            config.setEnabled(false);
+
+            // When
+            boolean handled = monitor.reportFailure(new RedisConnectionFailureException("refused"));
+
+            // Then
+            assertThat(handled).isFalse();
+            assertThat(monitor.isAvailable()).isTrue();
+        }
+
+        @Test
+        @DisplayName("probe - should switch to degraded mode when PING fails")
+        void probe_PingFails_ShouldDegrade() {
+            // Given
+            redisAnswers(false);
+
+            // When
+            monitor.probe();
+
+            // Then
+            assertThat(monitor.isAvailable()).isFalse();
+            assertThat(monitor.getLastFailure()).contains("Connection refused");
+            verify(eventPublisher).publishEvent(new RedisAvailabilityChangedEvent(false));
+        }
+
+        @Test
+        @DisplayName("probe - should recover only after required successful probes")
+        void probe_AfterOutage_ShouldRecoverAfterSeveralPings() {
+            // Given
+            monitor.reportFailure(new RedisConnectionFailureException("refused"));
+            redisAnswers(true);
+
+            // When
+            monitor.probe();
+            boolean afterFirstProbe = monitor.isAvailable();
+            monitor.probe();
+
+            // Then
+            assertThat(afterFirstProbe).isFalse();
+            assertThat(monitor.isAvailable()).isTrue();
+            assertThat(monitor.getDegradedSince()).isNull();
+            verify(eventPublisher).publishEvent(new RedisAvailabilityChangedEvent(true));
+        }
+
+        @Test
+        @DisplayName("probe - should not publish anything while Redis is healthy")
+        void probe_Healthy_ShouldStayNormal() {
+            // Given
+            redisAnswers(true);
+
+            // When
+            monitor.probe();
+
+            // Then
+            assertThat(monitor.getMode()).isEqualTo(RedisAvailabilityMonitor.Mode.NORMAL);
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.socialnetwork.adminbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.ConversationStateCodec;
+import com.socialnetwork.adminbot.domain.ConversationStateHashLayout;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Контракт хранилища на живом Redis: {@code mvn test -Dredis.host=localhost [-Dredis.port=6379]}.
+ * Удаляет ключ состояния тестового пользователя.
+ */
+@DisplayName("RedisConversationStateStore Contract Tests")
+@EnabledIfSystemProperty(named = "redis.host", matches = ".+")
+class RedisConversationStateStoreTest extends ConversationStateStoreContractTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    protected ConversationStateConfig.Layout layout() {
+        return ConversationStateConfig.Layout.VALUE;
+    }
+
+    @Override
+    protected ConversationStateStore createStore() {
+        if (connectionFactory == null) {
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                    System.getProperty("redis.host"), Integer.getInteger("redis.port", 6379)));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        RedisTemplate<String, ConversationState> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new ConversationStateCodec(mapper, true));
+        template.afterPropertiesSet();
+
+        ConversationStateConfig config = new ConversationStateConfig();
+        config.setLayout(layout());
+        RedisConversationStateStore redisStore = new RedisConversationStateStore(template,
+                new ConversationStateHashLayout(mapper), ConversationStateNearCache.disabled(), config);
+        redisStore.delete(TELEGRAM_USER_ID);
+        return redisStore;
+    }
+
+    @AfterAll
+    static void closeConnection() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+            connectionFactory = null;
+        }
+    }
+}
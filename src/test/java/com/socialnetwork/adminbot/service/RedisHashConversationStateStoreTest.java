@@ -0,0 +1,15 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.config.ConversationStateConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+@DisplayName("RedisConversationStateStore (hash layout) Contract Tests")
+@EnabledIfSystemProperty(named = "redis.host", matches = ".+")
+class RedisHashConversationStateStoreTest extends RedisConversationStateStoreTest {
+
+    @Override
+    protected ConversationStateConfig.Layout layout() {
+        return ConversationStateConfig.Layout.HASH;
+    }
+}
@@ -0,0 +1,122 @@
+package com.socialnetwork.adminbot.service;
+
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Скрипт скользящего окна на живом Redis: {@code mvn test -Dredis.host=localhost [-Dredis.port=6379]}.
+ * Каждый тест использует свой ключ, ключи живут не дольше двух окон.
+ */
+@DisplayName("SlidingWindowRateLimiter Redis Tests")
+@EnabledIfSystemProperty(named = "redis.host", matches = ".+")
+class SlidingWindowRateLimiterTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static SlidingWindowRateLimiter limiter;
+
+    private String key;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host"), Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisTemplate<String, String> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new StringRedisSerializer());
+        template.afterPropertiesSet();
+        limiter = new SlidingWindowRateLimiter(template);
+    }
+
+    @AfterAll
+    static void closeConnection() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        key = "test:" + UUID.randomUUID();
+    }
+
+    private static BucketConfiguration perHour(long limit) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(limit)
+                        .refillGreedy(limit, Duration.ofHours(1))
+                        .build())
+                .build();
+    }
+
+    @Test
+    @DisplayName("should allow requests up to the limit and report remaining")
+    void tryConsume_WithinLimit_ShouldCountDown() {
+        assertThat(limiter.tryConsume(key, perHour(3)).remainingTokens()).isEqualTo(2);
+        assertThat(limiter.tryConsume(key, perHour(3)).remainingTokens()).isEqualTo(1);
+        assertThat(limiter.tryConsume(key, perHour(3)).remainingTokens()).isZero();
+    }
+
+    @Test
+    @DisplayName("should reject over the limit with retry time within the window")
+    void tryConsume_OverLimit_ShouldRejectWithRetryAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryConsume(key, perHour(3));
+        }
+
+        // When
+        RateLimitResult result = limiter.tryConsume(key, perHour(3));
+
+        // Then: предыдущего окна нет - ждать до следующего окна плюс доля текущего
+        assertThat(result.consumed()).isFalse();
+        assertThat(result.retryAfterNanos()).isPositive()
+                .isLessThanOrEqualTo(Duration.ofHours(2).toNanos());
+    }
+
+    @Test
+    @DisplayName("should not count rejected requests")
+    void tryConsume_Rejected_ShouldNotConsume() {
+        // Given
+        limiter.tryConsume(key, perHour(1));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.tryConsume(key, perHour(1));
+        }
+
+        // Then: с лимитом 2 остаётся место ровно для одного запроса
+        assertThat(limiter.tryConsume(key, perHour(2)).consumed()).isTrue();
+        assertThat(limiter.tryConsume(key, perHour(2)).consumed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should enforce every window of the configuration")
+    void tryConsume_SeveralWindows_ShouldApplyStrictest() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(100).refillGreedy(100, Duration.ofHours(1)).build())
+                .addLimit(Bandwidth.builder().capacity(2).refillGreedy(2, Duration.ofMinutes(1)).build())
+                .build();
+
+        assertThat(limiter.tryConsume(key, configuration).consumed()).isTrue();
+        assertThat(limiter.tryConsume(key, configuration).consumed()).isTrue();
+        assertThat(limiter.tryConsume(key, configuration).consumed()).isFalse();
+    }
+}
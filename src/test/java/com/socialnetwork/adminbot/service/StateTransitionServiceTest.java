@@ -1,7 +1,7 @@
 package com.socialnetwork.adminbot.service;
 
 import com.socialnetwork.adminbot.domain.BotState;
-import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.exception.StateConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,10 +10,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalDateTime;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -130,6 +129,32 @@ class StateTransitionServiceTest {
         }
     }
 
+    // ========== ALLOWED SOURCES TESTS ==========
+
+    @Nested
+    @DisplayName("getAllowedSources Tests")
+    class GetAllowedSourcesTests {
+
+        @Test
+        @DisplayName("getAllowedSources - CONFIRMING_BAN should be reachable only from AWAITING_BAN_REASON")
+        void getAllowedSources_ConfirmingBan_ShouldContainOnlyAwaitingBanReason() {
+            assertThat(stateTransitionService.getAllowedSources(BotState.CONFIRMING_BAN))
+                    .containsExactly(BotState.AWAITING_BAN_REASON);
+        }
+
+        @Test
+        @DisplayName("getAllowedSources - should match isTransitionAllowed for every pair")
+        void getAllowedSources_ShouldMatchTransitionTable() {
+            for (BotState from : BotState.values()) {
+                for (BotState to : BotState.values()) {
+                    assertThat(stateTransitionService.getAllowedSources(to).contains(from))
+                            .as("%s -> %s", from, to)
+                            .isEqualTo(stateTransitionService.isTransitionAllowed(from, to));
+                }
+            }
+        }
+    }
+
     // ========== TRANSITION TO TESTS ==========
 
     @Nested
@@ -137,25 +162,32 @@ class StateTransitionServiceTest {
     class TransitionToTests {
 
         @Test
-        @DisplayName("transitionTo - should transition when allowed")
-        void transitionTo_WhenAllowed_ShouldTransition() {
+        @DisplayName("transitionTo - should delegate to atomic transition with allowed sources")
+        void transitionTo_ShouldDelegateToAtomicTransition() {
             // Given
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
+            when(conversationStateService.compareAndTransition(
+                    eq(TELEGRAM_USER_ID), eq(BotState.AWAITING_BAN_REASON), anySet(), eq(false)))
                     .thenReturn(BotState.IDLE);
 
             // When
             stateTransitionService.transitionTo(TELEGRAM_USER_ID, BotState.AWAITING_BAN_REASON);
 
             // Then
-            verify(conversationStateService).transitionTo(TELEGRAM_USER_ID, BotState.AWAITING_BAN_REASON);
+            verify(conversationStateService).compareAndTransition(
+                    TELEGRAM_USER_ID,
+                    BotState.AWAITING_BAN_REASON,
+                    stateTransitionService.getAllowedSources(BotState.AWAITING_BAN_REASON),
+                    false);
+            verify(conversationStateService, never()).getCurrentState(any());
         }
 
         @Test
-        @DisplayName("transitionTo - should throw exception when not allowed")
+        @DisplayName("transitionTo - should propagate rejection when not allowed")
         void transitionTo_WhenNotAllowed_ShouldThrowException() {
             // Given
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
-                    .thenReturn(BotState.IDLE);
+            when(conversationStateService.compareAndTransition(
+                    eq(TELEGRAM_USER_ID), eq(BotState.CONFIRMING_BAN), anySet(), eq(false)))
+                    .thenThrow(new IllegalStateException("Transition not allowed: IDLE -> CONFIRMING_BAN"));
 
             // When & Then
             assertThatThrownBy(() ->
@@ -165,25 +197,17 @@ class StateTransitionServiceTest {
         }
 
         @Test
-        @DisplayName("transitionTo - should allow ban flow transitions")
-        void transitionTo_BanFlow_ShouldAllowCorrectTransitions() {
-            // IDLE -> AWAITING_BAN_REASON
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
-                    .thenReturn(BotState.IDLE);
-            stateTransitionService.transitionTo(TELEGRAM_USER_ID, BotState.AWAITING_BAN_REASON);
-            verify(conversationStateService).transitionTo(TELEGRAM_USER_ID, BotState.AWAITING_BAN_REASON);
-
-            // AWAITING_BAN_REASON -> CONFIRMING_BAN
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
-                    .thenReturn(BotState.AWAITING_BAN_REASON);
-            stateTransitionService.transitionTo(TELEGRAM_USER_ID, BotState.CONFIRMING_BAN);
-            verify(conversationStateService).transitionTo(TELEGRAM_USER_ID, BotState.CONFIRMING_BAN);
+        @DisplayName("transitionTo - should propagate version conflict")
+        void transitionTo_WhenConcurrentlyChanged_ShouldThrowConflict() {
+            // Given
+            when(conversationStateService.compareAndTransition(
+                    eq(TELEGRAM_USER_ID), eq(BotState.IDLE), anySet(), eq(false)))
+                    .thenThrow(new StateConflictException("State changed concurrently"));
 
-            // CONFIRMING_BAN -> IDLE
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
-                    .thenReturn(BotState.CONFIRMING_BAN);
-            stateTransitionService.transitionTo(TELEGRAM_USER_ID, BotState.IDLE);
-            verify(conversationStateService).transitionTo(TELEGRAM_USER_ID, BotState.IDLE);
+            // When & Then
+            assertThatThrownBy(() ->
+                    stateTransitionService.transitionTo(TELEGRAM_USER_ID, BotState.IDLE))
+                    .isInstanceOf(StateConflictException.class);
         }
     }
 
@@ -194,25 +218,31 @@ class StateTransitionServiceTest {
     class TransitionToWithClearTests {
 
         @Test
-        @DisplayName("transitionToWithClear - should transition and clear when allowed")
-        void transitionToWithClear_WhenAllowed_ShouldTransitionAndClear() {
+        @DisplayName("transitionToWithClear - should request data clearing")
+        void transitionToWithClear_ShouldClearData() {
             // Given
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
+            when(conversationStateService.compareAndTransition(
+                    eq(TELEGRAM_USER_ID), eq(BotState.IDLE), anySet(), eq(true)))
                     .thenReturn(BotState.AWAITING_BAN_REASON);
 
             // When
             stateTransitionService.transitionToWithClear(TELEGRAM_USER_ID, BotState.IDLE);
 
             // Then
-            verify(conversationStateService).transitionToWithClear(TELEGRAM_USER_ID, BotState.IDLE);
+            verify(conversationStateService).compareAndTransition(
+                    TELEGRAM_USER_ID,
+                    BotState.IDLE,
+                    stateTransitionService.getAllowedSources(BotState.IDLE),
+                    true);
         }
 
         @Test
-        @DisplayName("transitionToWithClear - should throw exception when not allowed")
+        @DisplayName("transitionToWithClear - should propagate rejection when not allowed")
         void transitionToWithClear_WhenNotAllowed_ShouldThrowException() {
             // Given
-            when(conversationStateService.getCurrentState(TELEGRAM_USER_ID))
-                    .thenReturn(BotState.IDLE);
+            when(conversationStateService.compareAndTransition(
+                    eq(TELEGRAM_USER_ID), eq(BotState.CONFIRMING_BAN), anySet(), eq(true)))
+                    .thenThrow(new IllegalStateException("Transition not allowed: IDLE -> CONFIRMING_BAN"));
 
             // When & Then
             assertThatThrownBy(() ->
@@ -1,13 +1,16 @@
 package com.socialnetwork.adminbot.service;
 
 import com.socialnetwork.adminbot.client.AccountClient;
+import com.socialnetwork.adminbot.config.AccountClientConfig;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.dto.PageAccountDto;
+import com.socialnetwork.adminbot.exception.ServiceException;
+import com.socialnetwork.adminbot.exception.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -16,6 +19,7 @@ import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +32,7 @@ class UserServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private UserService userService;
 
     private AccountDto testAccount;
@@ -37,6 +41,10 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AccountCache accountCache = new AccountCache(accountClient, new AccountClientConfig(), meterRegistry);
+        userService = new UserService(accountClient, auditLogService, accountCache);
+
         testAccount = AccountDto.builder()
                 .id(USER_ID)
                 .email("test@example.com")
@@ -120,4 +128,67 @@ class UserServiceTest {
         assertThat(result.getContent()).hasSize(1);
         verify(accountClient).getAccountsPage(0, 10, "regDate,desc");
     }
+
+    @Test
+    @DisplayName("getUserById - should serve repeated lookups from cache")
+    void getUserById_RepeatedLookups_ShouldCallAccountServiceOnce() {
+        // Given
+        when(accountClient.getAccountById(USER_ID)).thenReturn(testAccount);
+
+        // When
+        userService.getUserById(USER_ID);
+        userService.getUserById(USER_ID);
+        AccountDto result = userService.getUserById(USER_ID);
+
+        // Then
+        assertThat(result.getEmail()).isEqualTo("test@example.com");
+        verify(accountClient, times(1)).getAccountById(USER_ID);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "account.cache").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("getUserById - should remember missing accounts for a short time")
+    void getUserById_WhenNotFound_ShouldCacheNegativeResult() {
+        // Given
+        when(accountClient.getAccountById(USER_ID)).thenThrow(new UserNotFoundException("User not found: " + USER_ID));
+
+        // When / Then
+        assertThatThrownBy(() -> userService.getUserById(USER_ID)).isInstanceOf(UserNotFoundException.class);
+        assertThatThrownBy(() -> userService.getUserById(USER_ID)).isInstanceOf(UserNotFoundException.class);
+        verify(accountClient, times(1)).getAccountById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("blockUser - should update cached account without another lookup")
+    void blockUser_ShouldUpdateCachedAccount() {
+        // Given
+        when(accountClient.getAccountById(USER_ID)).thenReturn(testAccount);
+        userService.getUserById(USER_ID);
+
+        // When
+        userService.blockUser(USER_ID, ADMIN_TELEGRAM_ID, "spam");
+
+        // Then
+        assertThat(userService.getUserById(USER_ID).getIsBlocked()).isTrue();
+        verify(accountClient, times(1)).getAccountById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("unblockUser - should drop cached account when mc-account fails")
+    void unblockUser_WhenServiceFails_ShouldInvalidateCache() {
+        // Given
+        when(accountClient.getAccountById(USER_ID)).thenReturn(testAccount);
+        userService.getUserById(USER_ID);
+        doThrow(new ServiceException("Account service unavailable")).when(accountClient).unblockAccount(USER_ID);
+
+        // When
+        assertThatThrownBy(() -> userService.unblockUser(USER_ID, ADMIN_TELEGRAM_ID))
+                .isInstanceOf(ServiceException.class);
+        userService.getUserById(USER_ID);
+
+        // Then
+        verify(accountClient, times(2)).getAccountById(USER_ID);
+        verifyNoInteractions(auditLogService);
+    }
 }
@@ -0,0 +1,250 @@
+package com.socialnetwork.adminbot.telegram.dispatch;
+
+import com.socialnetwork.adminbot.config.TelegramDispatcherConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UpdateDispatcher Unit Tests")
+class UpdateDispatcherTest {
+
+    private static final long CHAT_A = 100L;
+    private static final long CHAT_B = 200L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UpdateDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = createDispatcher(4, 10, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private UpdateDispatcher createDispatcher(int workers, int maxLanes, int maxDepth) {
+        return createDispatcher(workers, maxLanes, maxDepth, 8);
+    }
+
+    private UpdateDispatcher createDispatcher(int workers, int maxLanes, int maxDepth, int maxTasksPerTurn) {
+        TelegramDispatcherConfig config = new TelegramDispatcherConfig();
+        config.setWorkerThreads(workers);
+        config.setMaxActiveLanes(maxLanes);
+        config.setMaxLaneQueueDepth(maxDepth);
+        config.setMaxTasksPerTurn(maxTasksPerTurn);
+        return new UpdateDispatcher(config, meterRegistry);
+    }
+
+    // ========== ORDERING TESTS ==========
+
+    @Nested
+    @DisplayName("Ordering Tests")
+    class OrderingTests {
+
+        @Test
+        @DisplayName("Should process updates of one chat in arrival order")
+        void dispatch_SameChat_ShouldPreserveOrder() throws InterruptedException {
+            // Given
+            List<Integer> processed = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(5);
+
+            // When
+            for (int i = 0; i < 5; i++) {
+                int seq = i;
+                dispatcher.dispatch(CHAT_A, () -> {
+                    processed.add(seq);
+                    done.countDown();
+                });
+            }
+
+            // Then
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(processed).containsExactly(0, 1, 2, 3, 4);
+        }
+
+        @Test
+        @DisplayName("Slow chat should not block other chats")
+        void dispatch_SlowChat_ShouldNotBlockOtherChat() throws InterruptedException {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch otherChatDone = new CountDownLatch(1);
+            dispatcher.dispatch(CHAT_A, () -> awaitQuietly(release));
+
+            // When
+            dispatcher.dispatch(CHAT_B, otherChatDone::countDown);
+
+            // Then
+            assertThat(otherChatDone.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Busy chat should yield the worker to an idle chat")
+        void dispatch_BusyChat_ShouldNotStarveOtherChat() throws InterruptedException {
+            // Given: один поток, чат A обрабатывается по 2 обновления за заход
+            dispatcher.shutdown();
+            dispatcher = createDispatcher(1, 10, 20, 2);
+            List<String> processed = new CopyOnWriteArrayList<>();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(7);
+            dispatcher.dispatch(CHAT_A, () -> {
+                awaitQuietly(release);
+                processed.add("a0");
+                done.countDown();
+            });
+            for (int i = 1; i < 6; i++) {
+                String name = "a" + i;
+                dispatcher.dispatch(CHAT_A, () -> {
+                    processed.add(name);
+                    done.countDown();
+                });
+            }
+
+            // When: обновление другого чата приходит, пока поток занят чатом A
+            dispatcher.dispatch(CHAT_B, () -> {
+                processed.add("b0");
+                done.countDown();
+            });
+            release.countDown();
+
+            // Then: B обработан после первого захода A, а не после всей его очереди
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(processed).containsExactly("a0", "a1", "b0", "a2", "a3", "a4", "a5");
+        }
+
+        @Test
+        @DisplayName("Exception in one update should not stop the lane")
+        void dispatch_TaskThrows_ShouldContinueWithNextUpdate() throws InterruptedException {
+            // Given
+            CountDownLatch done = new CountDownLatch(1);
+
+            // When
+            dispatcher.dispatch(CHAT_A, () -> {
+                throw new IllegalStateException("boom");
+            });
+            dispatcher.dispatch(CHAT_A, done::countDown);
+
+            // Then
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    // ========== LIMITS TESTS ==========
+
+    @Nested
+    @DisplayName("Limits Tests")
+    class LimitsTests {
+
+        @Test
+        @DisplayName("Should reject update when lane queue is full")
+        void dispatch_QueueFull_ShouldReject() {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            dispatcher.dispatch(CHAT_A, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            awaitQuietly(started);
+            for (int i = 0; i < 5; i++) {
+                assertThat(dispatcher.dispatch(CHAT_A, () -> { })).isTrue();
+            }
+
+            // When
+            boolean accepted = dispatcher.dispatch(CHAT_A, () -> { });
+
+            // Then
+            assertThat(accepted).isFalse();
+            assertThat(meterRegistry.get("telegram.dispatcher.updates")
+                    .tag("result", "rejected_queue_limit").counter().count()).isEqualTo(1.0);
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Should reject new chat when active lanes limit is reached")
+        void dispatch_LanesLimitReached_ShouldRejectNewChat() {
+            // Given
+            dispatcher.shutdown();
+            dispatcher = createDispatcher(1, 1, 5);
+            CountDownLatch release = new CountDownLatch(1);
+            dispatcher.dispatch(CHAT_A, () -> awaitQuietly(release));
+
+            // When
+            boolean accepted = dispatcher.dispatch(CHAT_B, () -> { });
+
+            // Then
+            assertThat(accepted).isFalse();
+            assertThat(dispatcher.getActiveLanes()).isEqualTo(1);
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Lane should be removed after its queue is drained")
+        void dispatch_AfterProcessing_ShouldReleaseLane() throws InterruptedException {
+            // Given
+            CountDownLatch done = new CountDownLatch(1);
+
+            // When
+            dispatcher.dispatch(CHAT_A, done::countDown);
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Then
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (dispatcher.getActiveLanes() > 0 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(dispatcher.getActiveLanes()).isZero();
+            assertThat(dispatcher.getQueuedUpdates()).isZero();
+        }
+    }
+
+    // ========== METRICS TESTS ==========
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should expose queue depth gauge")
+        void dispatch_ShouldReportQueueDepth() {
+            // Given
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            dispatcher.dispatch(CHAT_A, () -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            awaitQuietly(started);
+
+            // When
+            dispatcher.dispatch(CHAT_A, () -> { });
+            dispatcher.dispatch(CHAT_A, () -> { });
+
+            // Then
+            assertThat(meterRegistry.get("telegram.dispatcher.queue.depth").gauge().value()).isEqualTo(2.0);
+            assertThat(meterRegistry.get("telegram.dispatcher.lanes.active").gauge().value()).isEqualTo(1.0);
+            release.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.socialnetwork.adminbot.telegram.guard;
+
+import com.socialnetwork.adminbot.config.CommandRateLimitConfig;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.service.AdminDirectoryService;
+import com.socialnetwork.adminbot.service.RateLimitService;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CommandRateLimiter Unit Tests")
+class CommandRateLimiterTest {
+
+    private static final long ADMIN_ID = 123456789L;
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private AdminDirectoryService adminDirectoryService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CommandRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        CommandRateLimitConfig.Rule searchPage = new CommandRateLimitConfig.Rule();
+        searchPage.setCapacity(30);
+        searchPage.setPeriod(Duration.ofMinutes(1));
+        searchPage.getRoles().put(AdminRole.SUPER_ADMIN, 120L);
+
+        CommandRateLimitConfig config = new CommandRateLimitConfig();
+        config.getRules().put("cb:search_page", searchPage);
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new CommandRateLimiter(rateLimitService, adminDirectoryService, config, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long capacityOfConsumedBucket(String key) {
+        ArgumentCaptor<Supplier<BucketConfiguration>> configuration = ArgumentCaptor.forClass(Supplier.class);
+        verify(rateLimitService).consume(eq("command"), eq(key), configuration.capture());
+        return configuration.getValue().get().getBandwidths()[0].getCapacity();
+    }
+
+    @Test
+    @DisplayName("should key bucket by action, role and Telegram ID with role capacity")
+    void tryAcquire_ShouldUseRoleCapacity() {
+        // Given
+        when(adminDirectoryService.getRole(ADMIN_ID)).thenReturn(AdminRole.SUPER_ADMIN);
+        when(rateLimitService.consume(any(), any(), any())).thenReturn(RateLimitResult.allowed(119));
+
+        // When
+        RateLimitResult result = limiter.tryAcquire("cb:search_page", ADMIN_ID);
+
+        // Then
+        assertThat(result.consumed()).isTrue();
+        assertThat(capacityOfConsumedBucket("command:cb:search_page:SUPER_ADMIN:" + ADMIN_ID)).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("should use default capacity for roles without override")
+    void tryAcquire_RoleWithoutOverride_ShouldUseDefaultCapacity() {
+        // Given
+        when(adminDirectoryService.getRole(ADMIN_ID)).thenReturn(AdminRole.MODERATOR);
+        when(rateLimitService.consume(any(), any(), any())).thenReturn(RateLimitResult.allowed(29));
+
+        // When
+        limiter.tryAcquire("cb:search_page", ADMIN_ID);
+
+        // Then
+        assertThat(capacityOfConsumedBucket("command:cb:search_page:MODERATOR:" + ADMIN_ID)).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("should count rejected actions")
+    void tryAcquire_Rejected_ShouldIncrementCounter() {
+        // Given
+        when(adminDirectoryService.getRole(ADMIN_ID)).thenReturn(AdminRole.ADMIN);
+        when(rateLimitService.consume(any(), any(), any())).thenReturn(RateLimitResult.rejected(TimeUnit.SECONDS.toNanos(2)));
+
+        // When
+        RateLimitResult result = limiter.tryAcquire("cb:search_page", ADMIN_ID);
+
+        // Then
+        assertThat(result.consumed()).isFalse();
+        assertThat(result.retryAfterSeconds()).isEqualTo(2);
+        assertThat(meterRegistry.get("telegram.command.rate.limited")
+                .tag("action", "cb:search_page").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("should allow actions without a rule without touching buckets")
+    void tryAcquire_NoRule_ShouldAllow() {
+        assertThat(limiter.tryAcquire("main_menu", ADMIN_ID).consumed()).isTrue();
+        verifyNoInteractions(rateLimitService, adminDirectoryService);
+    }
+
+    @Test
+    @DisplayName("callbackAction - should strip callback arguments")
+    void callbackAction_ShouldReturnPrefixWithoutSeparator() {
+        assertThat(CommandRateLimiter.callbackAction("search_page:2")).isEqualTo("cb:search_page");
+        assertThat(CommandRateLimiter.callbackAction("add_admin:role:ADMIN")).isEqualTo("cb:add_admin");
+        assertThat(CommandRateLimiter.callbackAction("main_menu")).isEqualTo("cb:main_menu");
+    }
+
+    @Test
+    @DisplayName("callbackAction - should map callbacks without data to a fixed action")
+    void callbackAction_NullData_ShouldReturnPrefixOnly() {
+        assertThat(CommandRateLimiter.callbackAction(null)).isEqualTo("cb:");
+        assertThat(limiter.tryAcquire(CommandRateLimiter.callbackAction(null), ADMIN_ID).consumed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("callbackAction - should not share a limit with the command of the same name")
+    void callbackAction_UserStats_ShouldNotCollideWithCommand() {
+        // Given
+        CommandRateLimitConfig.Rule statsCommand = new CommandRateLimitConfig.Rule();
+        statsCommand.setCapacity(10);
+        statsCommand.setPeriod(Duration.ofMinutes(1));
+        CommandRateLimitConfig config = new CommandRateLimitConfig();
+        config.getRules().put("stats", statsCommand);
+        CommandRateLimiter statsLimiter = new CommandRateLimiter(rateLimitService, adminDirectoryService, config,
+                meterRegistry);
+
+        // When
+        String action = CommandRateLimiter.callbackAction("stats:" + UUID.randomUUID());
+
+        // Then
+        assertThat(statsLimiter.tryAcquire(action, ADMIN_ID).consumed()).isTrue();
+        verifyNoInteractions(rateLimitService);
+    }
+}
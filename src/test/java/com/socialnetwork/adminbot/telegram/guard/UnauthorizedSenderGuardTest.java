@@ -0,0 +1,67 @@
+package com.socialnetwork.adminbot.telegram.guard;
+
+import com.socialnetwork.adminbot.config.TelegramUnauthorizedConfig;
+import com.socialnetwork.adminbot.domain.AdminChangedEvent;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UnauthorizedSenderGuard Unit Tests")
+class UnauthorizedSenderGuardTest {
+
+    private static final long SENDER_ID = 42L;
+    private static final long OTHER_SENDER_ID = 43L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UnauthorizedSenderGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        TelegramUnauthorizedConfig config = new TelegramUnauthorizedConfig();
+        config.setRepliesPerInterval(1);
+        config.setReplyInterval(Duration.ofMinutes(10));
+        config.setMaxTrackedSenders(100);
+        config.setSenderTtl(Duration.ofMinutes(30));
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new UnauthorizedSenderGuard(config, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("should reply once and drop repeated updates silently")
+    void tryAcquireReply_RepeatedUpdates_ShouldReplyOnce() {
+        assertThat(guard.tryAcquireReply(SENDER_ID)).isTrue();
+        assertThat(guard.tryAcquireReply(SENDER_ID)).isFalse();
+        assertThat(guard.tryAcquireReply(SENDER_ID)).isFalse();
+
+        assertThat(meterRegistry.get("telegram.unauthorized.updates")
+                .tag("result", "replied").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("telegram.unauthorized.updates")
+                .tag("result", "dropped").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("should limit each sender independently")
+    void tryAcquireReply_DifferentSenders_ShouldNotShareLimit() {
+        assertThat(guard.tryAcquireReply(SENDER_ID)).isTrue();
+        assertThat(guard.tryAcquireReply(OTHER_SENDER_ID)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should forget sender after admin change event")
+    void onAdminChanged_ShouldResetSender() {
+        // Given
+        guard.tryAcquireReply(SENDER_ID);
+
+        // When
+        guard.onAdminChanged(new AdminChangedEvent(SENDER_ID, AdminRole.MODERATOR, true));
+
+        // Then
+        assertThat(guard.tryAcquireReply(SENDER_ID)).isTrue();
+    }
+}
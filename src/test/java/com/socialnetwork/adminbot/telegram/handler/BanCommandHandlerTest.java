@@ -4,6 +4,8 @@ import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
 import com.socialnetwork.adminbot.domain.StateDataKey;
 import com.socialnetwork.adminbot.dto.AccountDto;
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.exception.StateConflictException;
 import com.socialnetwork.adminbot.service.AuditLogService;
 import com.socialnetwork.adminbot.service.ConversationStateService;
 import com.socialnetwork.adminbot.service.StateTransitionService;
@@ -262,7 +264,33 @@ class BanCommandHandlerTest {
 
             verify(userService).blockUser(USER_ID, ADMIN_TELEGRAM_ID, reason);
             verify(auditLogService).logAction(eq("BLOCK_USER"), eq(ADMIN_TELEGRAM_ID), eq(USER_ID), anyString());
-            verify(conversationStateService).resetToIdle(ADMIN_TELEGRAM_ID);
+            verify(stateTransitionService).transitionToWithClear(ADMIN_TELEGRAM_ID, BotState.IDLE);
+        }
+
+        @Test
+        @DisplayName("executeBan - should not ban twice when confirmation was already claimed")
+        void executeBan_WhenConfirmationAlreadyClaimed_ShouldNotBan() {
+            // Given
+            ConversationState confirmingState = ConversationState.builder()
+                    .state(BotState.CONFIRMING_BAN)
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+            confirmingState.addData(StateDataKey.BAN_TARGET_USER_ID, USER_ID.toString());
+            confirmingState.addData(StateDataKey.BAN_TARGET_EMAIL, USER_EMAIL);
+            confirmingState.addData(StateDataKey.BAN_REASON, "Spam");
+
+            when(conversationStateService.getState(ADMIN_TELEGRAM_ID)).thenReturn(confirmingState);
+            doThrow(new StateConflictException("State changed concurrently"))
+                    .when(stateTransitionService).transitionToWithClear(ADMIN_TELEGRAM_ID, BotState.IDLE);
+
+            // When
+            SendMessage result = banCommandHandler.executeBan(CHAT_ID, ADMIN_TELEGRAM_ID);
+
+            // Then
+            assertThat(result.getText()).contains(BotMessage.ERROR_STATE_FOR_BAN.raw());
+            verify(userService, never()).blockUser(any(), anyLong(), anyString());
+            verifyNoInteractions(auditLogService);
         }
 
         @Test
@@ -282,8 +310,8 @@ class BanCommandHandlerTest {
         }
 
         @Test
-        @DisplayName("executeBan - should reset state on service error")
-        void executeBan_WhenServiceError_ShouldResetState() {
+        @DisplayName("executeBan - should restore confirmation when blockUser fails")
+        void executeBan_WhenServiceError_ShouldRestoreConfirmation() {
             // Given
             ConversationState confirmingState = ConversationState.builder()
                     .state(BotState.CONFIRMING_BAN)
@@ -300,10 +328,21 @@ class BanCommandHandlerTest {
             // When
             SendMessage result = banCommandHandler.executeBan(CHAT_ID, ADMIN_TELEGRAM_ID);
 
-            // Then
+            // Then: подтверждение с причиной возвращено, кнопки для повтора на месте
             assertThat(result).isNotNull();
             assertThat(result.getText()).contains("Ошибка");
-            verify(conversationStateService).resetToIdle(ADMIN_TELEGRAM_ID);
+            assertThat(result.getText()).contains(BotMessage.BAN_CONFIRMATION_KEPT.raw());
+            assertThat(result.getReplyMarkup()).isNotNull();
+
+            ArgumentCaptor<ConversationState> restored = ArgumentCaptor.forClass(ConversationState.class);
+            verify(stateTransitionService).transitionToWithClear(ADMIN_TELEGRAM_ID, BotState.IDLE);
+            verify(conversationStateService).setState(eq(ADMIN_TELEGRAM_ID), restored.capture());
+            assertThat(restored.getValue().getState()).isEqualTo(BotState.CONFIRMING_BAN);
+            assertThat(restored.getValue().getData(StateDataKey.BAN_REASON, String.class)).isEqualTo("Spam");
+            assertThat(restored.getValue().getData(StateDataKey.BAN_TARGET_USER_ID, String.class))
+                    .isEqualTo(USER_ID.toString());
+            verify(conversationStateService, never()).resetToIdle(any());
+            verifyNoInteractions(auditLogService);
         }
     }
 
@@ -404,4 +443,13 @@ class BanCommandHandlerTest {
     void getCommandName_ShouldReturnBan() {
         assertThat(banCommandHandler.getCommandName()).isEqualTo("ban");
     }
+
+    @Test
+    @DisplayName("getRequiredRole - /ban and /unban should stay available to any admin, like the block buttons")
+    void getRequiredRole_ShouldBeModerator() {
+        UnbanCommandHandler unbanCommandHandler = new UnbanCommandHandler(banCommandHandler);
+
+        assertThat(banCommandHandler.getRequiredRole()).isEqualTo(AdminRole.MODERATOR);
+        assertThat(unbanCommandHandler.getRequiredRole()).isEqualTo(AdminRole.MODERATOR);
+    }
 }
@@ -7,6 +7,7 @@ import com.socialnetwork.adminbot.dto.StatisticsDto;
 import com.socialnetwork.adminbot.service.*;
 import com.socialnetwork.adminbot.telegram.handler.callback.*;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -22,9 +23,11 @@ import org.telegram.telegrambots.meta.api.objects.Message;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -63,6 +66,9 @@ class CallbackQueryHandlerTest {
     private CallbackQueryHandler callbackQueryHandler;
     private UserBlockCallbackHandler userBlockCallbackHandler;
     private NavigationCallbackHandler navigationCallbackHandler;
+    private SearchCallbackHandler searchCallbackHandler;
+    private AdminManagementCallbackHandler adminManagementCallbackHandler;
+    private SimpleMeterRegistry meterRegistry;
 
     private CallbackQuery mockCallbackQuery;
     private Message mockMessage;
@@ -88,25 +94,27 @@ class CallbackQueryHandlerTest {
                 auditLogService
         );
 
-        SearchCallbackHandler searchCallbackHandler = new SearchCallbackHandler(
+        searchCallbackHandler = new SearchCallbackHandler(
                 userService,
                 auditLogService,
                 conversationStateService,
                 searchCommandHandler
         );
 
-        AdminManagementCallbackHandler adminManagementCallbackHandler = new AdminManagementCallbackHandler(
+        adminManagementCallbackHandler = new AdminManagementCallbackHandler(
                 addAdminCommandHandler
         );
 
         // Создаём маршрутизатор со списком обработчиков
+        meterRegistry = new SimpleMeterRegistry();
         callbackQueryHandler = new CallbackQueryHandler(
                 List.of(
                         userBlockCallbackHandler,
                         searchCallbackHandler,
                         adminManagementCallbackHandler,
                         navigationCallbackHandler
-                )
+                ),
+                meterRegistry
         );
 
         mockCallbackQuery = mock(CallbackQuery.class);
@@ -362,4 +370,98 @@ class CallbackQueryHandlerTest {
             assertThat(result.getText()).contains(BotMessage.ERROR_UNKNOWN_ACTION.raw());
         }
     }
+
+    // ========== ROUTING INDEX TESTS ==========
+
+    @Nested
+    @DisplayName("Routing Index Tests")
+    class RoutingIndexTests {
+
+        @Test
+        @DisplayName("findRoute - should resolve exact values and prefixes")
+        void findRoute_ShouldResolveExactAndPrefix() {
+            assertThat(callbackQueryHandler.findRoute("ban_confirm").handler()).isSameAs(userBlockCallbackHandler);
+            assertThat(callbackQueryHandler.findRoute("unblock:" + USER_ID).handler()).isSameAs(userBlockCallbackHandler);
+            assertThat(callbackQueryHandler.findRoute("search_page:2").handler()).isSameAs(searchCallbackHandler);
+            assertThat(callbackQueryHandler.findRoute("add_admin:role:ADMIN").handler()).isSameAs(adminManagementCallbackHandler);
+            assertThat(callbackQueryHandler.findRoute("stats:" + USER_ID).handler()).isSameAs(navigationCallbackHandler);
+        }
+
+        @Test
+        @DisplayName("findRoute - should not match exact values by prefix")
+        void findRoute_ExactValueWithSuffix_ShouldReturnNull() {
+            assertThat(callbackQueryHandler.findRoute("ban_confirm_extra")).isNull();
+            assertThat(callbackQueryHandler.findRoute("show_stats:1")).isNull();
+            assertThat(callbackQueryHandler.findRoute("blocked")).isNull();
+            assertThat(callbackQueryHandler.findRoute(null)).isNull();
+        }
+
+        @Test
+        @DisplayName("constructor - should reject overlapping prefixes of different handlers")
+        void constructor_OverlappingPrefixes_ShouldThrow() {
+            // Given
+            CallbackHandler conflicting = new StubCallbackHandler(Set.of("add_admin:role:"));
+
+            // When & Then
+            assertThatThrownBy(() -> new CallbackQueryHandler(
+                    List.of(adminManagementCallbackHandler, conflicting), new SimpleMeterRegistry()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("add_admin:role:");
+        }
+
+        @Test
+        @DisplayName("constructor - should reject duplicate exact values")
+        void constructor_DuplicateExactValue_ShouldThrow() {
+            // Given
+            CallbackHandler conflicting = new StubCallbackHandler(Set.of("noop"));
+
+            // When & Then
+            assertThatThrownBy(() -> new CallbackQueryHandler(
+                    List.of(navigationCallbackHandler, conflicting), new SimpleMeterRegistry()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("noop");
+        }
+
+        @Test
+        @DisplayName("handle - should record dispatch timer per prefix")
+        void handle_ShouldRecordTimerPerPrefix() {
+            // Given
+            when(mockCallbackQuery.getData()).thenReturn("noop");
+
+            // When
+            callbackQueryHandler.handle(mockCallbackQuery, ADMIN_TELEGRAM_ID);
+            callbackQueryHandler.handle(mockCallbackQuery, ADMIN_TELEGRAM_ID);
+
+            // Then
+            assertThat(meterRegistry.get("telegram.callback.dispatch")
+                    .tag("prefix", "noop").timer().count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("canHandle - default implementation should follow declared prefixes")
+        void canHandle_ShouldFollowDeclaredPrefixes() {
+            assertThat(searchCallbackHandler.canHandle("search_view:" + USER_ID)).isTrue();
+            assertThat(searchCallbackHandler.canHandle("search_new")).isTrue();
+            assertThat(searchCallbackHandler.canHandle("search_newer")).isFalse();
+        }
+    }
+
+    private static final class StubCallbackHandler implements CallbackHandler {
+
+        private final Set<String> prefixes;
+
+        private StubCallbackHandler(Set<String> prefixes) {
+            this.prefixes = prefixes;
+        }
+
+        @Override
+        public Set<String> getCallbackPrefixes() {
+            return prefixes;
+        }
+
+        @Override
+        public EditMessageText handle(CallbackQuery callbackQuery, Long chatId, Integer messageId, Long adminId) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,180 @@
+package com.socialnetwork.adminbot.telegram.handler;
+
+import com.socialnetwork.adminbot.entity.AdminRole;
+import com.socialnetwork.adminbot.telegram.handler.base.BaseCommandHandler;
+import com.socialnetwork.adminbot.telegram.handler.base.StatelessCommandHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CommandRegistry Unit Tests")
+class CommandRegistryTest {
+
+    private StubHandler banHandler;
+    private StubHandler banListHandler;
+    private StubHandler statsHandler;
+    private CommandRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        banHandler = new StubHandler("ban", Set.of(), AdminRole.SENIOR_MODERATOR);
+        banListHandler = new StubHandler("banlist", Set.of(), AdminRole.MODERATOR);
+        statsHandler = new StubHandler("stats", Set.of("statistics"), AdminRole.MODERATOR);
+        registry = new CommandRegistry(List.of(banHandler, banListHandler, statsHandler));
+    }
+
+    // ========== RESOLVE TESTS ==========
+
+    @Nested
+    @DisplayName("Resolve Tests")
+    class ResolveTests {
+
+        @Test
+        @DisplayName("Should resolve command by exact token with arguments")
+        void resolve_CommandWithArguments_ShouldReturnHandler() {
+            // When
+            var entry = registry.resolve("/ban 3fa85f64-5717-4562-b3fc-2c963f66afa6");
+
+            // Then
+            assertThat(entry).isPresent();
+            assertThat(entry.get().handler()).isSameAs(banHandler);
+        }
+
+        @Test
+        @DisplayName("Should not route /banlist to /ban handler")
+        void resolve_CommandWithSharedPrefix_ShouldNotMatchShorterCommand() {
+            // When
+            var entry = registry.resolve("/banlist");
+
+            // Then
+            assertThat(entry).isPresent();
+            assertThat(entry.get().handler()).isSameAs(banListHandler);
+        }
+
+        @Test
+        @DisplayName("Should strip @botname suffix and ignore case")
+        void resolve_CommandWithBotName_ShouldReturnHandler() {
+            // When
+            var entry = registry.resolve("/Stats@AdminBot");
+
+            // Then
+            assertThat(entry).isPresent();
+            assertThat(entry.get().handler()).isSameAs(statsHandler);
+        }
+
+        @Test
+        @DisplayName("Should resolve alias to the same entry")
+        void resolve_Alias_ShouldReturnSameEntry() {
+            // When
+            var byAlias = registry.resolve("/statistics");
+            var byName = registry.resolve("/stats");
+
+            // Then
+            assertThat(byAlias).isPresent();
+            assertThat(byAlias).isEqualTo(byName);
+            assertThat(byAlias.get().name()).isEqualTo("stats");
+        }
+
+        @Test
+        @DisplayName("Should return empty for unknown command or plain text")
+        void resolve_UnknownOrPlainText_ShouldReturnEmpty() {
+            assertThat(registry.resolve("/unknown")).isEmpty();
+            assertThat(registry.resolve("/bans")).isEmpty();
+            assertThat(registry.resolve("ban")).isEmpty();
+            assertThat(registry.resolve("/")).isEmpty();
+            assertThat(registry.resolve(null)).isEmpty();
+        }
+    }
+
+    // ========== METADATA TESTS ==========
+
+    @Nested
+    @DisplayName("Metadata Tests")
+    class MetadataTests {
+
+        @Test
+        @DisplayName("Should expose required role and stateful flag")
+        void resolve_ShouldExposeMetadata() {
+            // When
+            var entry = registry.resolve("/ban").orElseThrow();
+
+            // Then
+            assertThat(entry.requiredRole()).isEqualTo(AdminRole.SENIOR_MODERATOR);
+            assertThat(entry.stateful()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should list each command once regardless of aliases")
+        void getCommands_ShouldNotDuplicateAliases() {
+            assertThat(registry.getCommands())
+                    .extracting(CommandRegistry.CommandEntry::name)
+                    .containsExactlyInAnyOrder("ban", "banlist", "stats");
+        }
+
+        @Test
+        @DisplayName("Should fail on duplicate command name")
+        void constructor_DuplicateName_ShouldThrow() {
+            // Given
+            List<BaseCommandHandler> handlers = List.of(
+                    statsHandler,
+                    new StubHandler("statistics", Set.of(), AdminRole.MODERATOR));
+
+            // When & Then
+            assertThatThrownBy(() -> new CommandRegistry(handlers))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("/statistics");
+        }
+    }
+
+    @Test
+    @DisplayName("extractCommandToken - should parse command token")
+    void extractCommandToken_ShouldParseToken() {
+        assertThat(CommandRegistry.extractCommandToken("/Ban@AdminBot uuid")).isEqualTo("ban");
+        assertThat(CommandRegistry.extractCommandToken("/start")).isEqualTo("start");
+        assertThat(CommandRegistry.extractCommandToken("/search\nquery")).isEqualTo("search");
+        assertThat(CommandRegistry.extractCommandToken("/@AdminBot")).isNull();
+        assertThat(CommandRegistry.extractCommandToken("hello")).isNull();
+    }
+
+    private static final class StubHandler extends StatelessCommandHandler {
+
+        private final String name;
+        private final Set<String> aliases;
+        private final AdminRole requiredRole;
+
+        private StubHandler(String name, Set<String> aliases, AdminRole requiredRole) {
+            this.name = name;
+            this.aliases = aliases;
+            this.requiredRole = requiredRole;
+        }
+
+        @Override
+        public String getCommandName() {
+            return name;
+        }
+
+        @Override
+        public Set<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public AdminRole getRequiredRole() {
+            return requiredRole;
+        }
+
+        @Override
+        public SendMessage handle(Message message, Long adminId) {
+            return null;
+        }
+    }
+}
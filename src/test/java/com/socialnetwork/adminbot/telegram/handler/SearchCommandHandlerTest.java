@@ -2,12 +2,14 @@ package com.socialnetwork.adminbot.telegram.handler;
 
 import com.socialnetwork.adminbot.domain.BotState;
 import com.socialnetwork.adminbot.domain.ConversationState;
+import com.socialnetwork.adminbot.domain.RateLimitResult;
 import com.socialnetwork.adminbot.domain.StateDataKey;
 import com.socialnetwork.adminbot.dto.AccountDto;
 import com.socialnetwork.adminbot.dto.PageAccountDto;
 import com.socialnetwork.adminbot.service.ConversationStateService;
 import com.socialnetwork.adminbot.service.StateTransitionService;
 import com.socialnetwork.adminbot.service.UserService;
+import com.socialnetwork.adminbot.telegram.guard.CommandRateLimiter;
 import com.socialnetwork.adminbot.telegram.messages.BotMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -25,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -43,6 +46,9 @@ class SearchCommandHandlerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private CommandRateLimiter commandRateLimiter;
+
     private SearchCommandHandler searchCommandHandler;
 
     private Message mockMessage;
@@ -56,11 +62,14 @@ class SearchCommandHandlerTest {
         searchCommandHandler = new SearchCommandHandler(
                 conversationStateService,
                 stateTransitionService,
-                userService
+                userService,
+                commandRateLimiter
         );
 
         mockMessage = mock(Message.class);
         lenient().when(mockMessage.getChatId()).thenReturn(CHAT_ID);
+        lenient().when(commandRateLimiter.tryAcquire(SearchCommandHandler.SEARCH_QUERY_ACTION, ADMIN_TELEGRAM_ID))
+                .thenReturn(RateLimitResult.allowed(10));
     }
 
     // ========== START CONVERSATION TESTS ==========
@@ -203,6 +212,22 @@ class SearchCommandHandlerTest {
             assertThat(result.getText()).contains("Ошибка");
             verify(conversationStateService).resetToIdle(ADMIN_TELEGRAM_ID);
         }
+
+        @Test
+        @DisplayName("processSearchQuery - should not call mc-account when admin exceeds search limit")
+        void processSearchQuery_WhenRateLimited_ShouldSkipSearch() {
+            // Given
+            when(commandRateLimiter.tryAcquire(SearchCommandHandler.SEARCH_QUERY_ACTION, ADMIN_TELEGRAM_ID))
+                    .thenReturn(RateLimitResult.rejected(TimeUnit.SECONDS.toNanos(12)));
+
+            // When
+            SendMessage result = searchCommandHandler.processSearchQuery(CHAT_ID, ADMIN_TELEGRAM_ID, "test@example.com");
+
+            // Then
+            assertThat(result.getText()).isEqualTo(BotMessage.ERROR_RATE_LIMITED.format(12L));
+            verifyNoInteractions(userService);
+            verify(conversationStateService, never()).resetToIdle(anyLong());
+        }
     }
 
     // ========== PAGE NAVIGATION TESTS ==========
@@ -0,0 +1,298 @@
+package com.socialnetwork.adminbot.telegram.outbound;
+
+import com.socialnetwork.adminbot.config.TelegramOutboundConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("OutboundMessageQueue Unit Tests")
+class OutboundMessageQueueTest {
+
+    private static final long CHAT_A = 100L;
+    private static final long CHAT_B = 200L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboundMessageQueue queue;
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Long> sentAtNanos = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private OutboundMessageQueue createQueue(Duration perChatInterval, int capacity) {
+        return new OutboundMessageQueue(config(perChatInterval, capacity), meterRegistry);
+    }
+
+    private static TelegramOutboundConfig config(Duration perChatInterval, int capacity) {
+        TelegramOutboundConfig config = new TelegramOutboundConfig();
+        config.setWorkerThreads(2);
+        config.setCapacity(capacity);
+        config.setGlobalMessagesPerSecond(1000);
+        config.setPerChatInterval(perChatInterval);
+        config.setMaxRetries(2);
+        return config;
+    }
+
+    private OutboundSender recordingSender(CountDownLatch latch) {
+        return method -> {
+            sent.add(describe(method));
+            sentAtNanos.add(System.nanoTime());
+            latch.countDown();
+        };
+    }
+
+    private static String describe(BotApiMethod<?> method) {
+        if (method instanceof SendMessage sendMessage) {
+            return sendMessage.getText();
+        }
+        if (method instanceof AnswerCallbackQuery answer) {
+            return "answer:" + answer.getCallbackQueryId();
+        }
+        return method.getMethod();
+    }
+
+    private static SendMessage message(long chatId, String text) {
+        return new SendMessage(String.valueOf(chatId), text);
+    }
+
+    // ========== ORDERING AND PACING TESTS ==========
+
+    @Nested
+    @DisplayName("Ordering and Pacing Tests")
+    class OrderingTests {
+
+        @Test
+        @DisplayName("Should send calls of one chat in order with per-chat interval")
+        void enqueue_SameChat_ShouldKeepOrderAndInterval() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ofMillis(100), 100);
+            CountDownLatch latch = new CountDownLatch(3);
+            queue.start(recordingSender(latch));
+
+            // When
+            queue.enqueue(CHAT_A, message(CHAT_A, "first"));
+            queue.enqueue(CHAT_A, message(CHAT_A, "second"));
+            queue.enqueue(CHAT_A, message(CHAT_A, "third"));
+
+            // Then
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(sent).containsExactly("first", "second", "third");
+            assertThat(sentAtNanos.get(1) - sentAtNanos.get(0))
+                    .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(90));
+        }
+
+        @Test
+        @DisplayName("Callback answer should not wait for per-chat interval")
+        void enqueue_AnswerCallbackQuery_ShouldNotBePaced() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ofSeconds(10), 100);
+            CountDownLatch latch = new CountDownLatch(2);
+            queue.start(recordingSender(latch));
+
+            // When
+            queue.enqueue(CHAT_A, message(CHAT_A, "edit"));
+            queue.enqueue(CHAT_A, new AnswerCallbackQuery("cb-1"));
+
+            // Then
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(sent).containsExactly("edit", "answer:cb-1");
+        }
+
+        @Test
+        @DisplayName("Paced chat should not delay other chats")
+        void enqueue_DifferentChats_ShouldNotBlockEachOther() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ofSeconds(10), 100);
+            CountDownLatch latch = new CountDownLatch(2);
+            queue.start(recordingSender(latch));
+
+            // When
+            queue.enqueue(CHAT_A, message(CHAT_A, "a1"));
+            queue.enqueue(CHAT_A, message(CHAT_A, "a2"));
+            queue.enqueue(CHAT_B, message(CHAT_B, "b1"));
+
+            // Then
+            assertThat(latch.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(sent).containsExactlyInAnyOrder("a1", "b1");
+        }
+    }
+
+    // ========== ERROR HANDLING TESTS ==========
+
+    @Nested
+    @DisplayName("Error Handling Tests")
+    class ErrorHandlingTests {
+
+        @Test
+        @DisplayName("Should retry after retry_after on 429")
+        void send_TooManyRequests_ShouldRetryAfterDelay() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ZERO, 100);
+            AtomicInteger attempts = new AtomicInteger();
+            CountDownLatch delivered = new CountDownLatch(1);
+            TelegramApiRequestException floodError = tooManyRequests(1);
+            queue.start(method -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw floodError;
+                }
+                delivered.countDown();
+            });
+
+            // When
+            long started = System.nanoTime();
+            queue.enqueue(CHAT_A, message(CHAT_A, "hello"));
+
+            // Then
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+            assertThat(attempts.get()).isEqualTo(2);
+            assertThat(meterRegistry.get("telegram.outbound.calls")
+                    .tag("result", "throttled").counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("429 in one chat should not delay other chats")
+        void send_TooManyRequestsInOneChat_ShouldPauseOnlyThatChat() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ZERO, 100);
+            AtomicInteger attempts = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(2);
+            TelegramApiRequestException floodError = tooManyRequests(2);
+            queue.start(method -> {
+                if ("a1".equals(describe(method)) && attempts.incrementAndGet() == 1) {
+                    throw floodError;
+                }
+                sent.add(describe(method));
+                sentAtNanos.add(System.nanoTime());
+                latch.countDown();
+            });
+
+            // When
+            long started = System.nanoTime();
+            queue.enqueue(CHAT_A, message(CHAT_A, "a1"));
+            Thread.sleep(100);
+            queue.enqueue(CHAT_B, message(CHAT_B, "b1"));
+
+            // Then: b1 ушло сразу, a1 - после retry_after
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(sent).containsExactly("b1", "a1");
+            assertThat(sentAtNanos.get(0) - started).isLessThan(TimeUnit.MILLISECONDS.toNanos(1000));
+            assertThat(sentAtNanos.get(1) - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1900));
+        }
+
+        @Test
+        @DisplayName("429 in several chats should pause the whole queue")
+        void send_TooManyRequestsInSeveralChats_ShouldPauseAllChats() throws InterruptedException {
+            // Given
+            TelegramOutboundConfig config = config(Duration.ZERO, 100);
+            config.setGlobalPauseChats(2);
+            queue = new OutboundMessageQueue(config, meterRegistry);
+            CountDownLatch latch = new CountDownLatch(3);
+            queue.start(method -> {
+                String text = describe(method);
+                if (text.endsWith("-flood") && sent.stream().noneMatch(("retry:" + text)::equals)) {
+                    sent.add("retry:" + text);
+                    throw tooManyRequests(1);
+                }
+                sent.add(text);
+                sentAtNanos.add(System.nanoTime());
+                latch.countDown();
+            });
+
+            // When
+            long started = System.nanoTime();
+            queue.enqueue(CHAT_A, message(CHAT_A, "a-flood"));
+            queue.enqueue(CHAT_B, message(CHAT_B, "b-flood"));
+            Thread.sleep(200);
+            queue.enqueue(300L, message(300L, "c1"));
+
+            // Then: третий чат ждёт общую паузу
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(sentAtNanos).allSatisfy(at ->
+                    assertThat(at - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900)));
+        }
+
+        @Test
+        @DisplayName("Should invoke failure callback when call fails")
+        void send_ApiError_ShouldInvokeFailureCallback() throws InterruptedException {
+            // Given
+            queue = createQueue(Duration.ZERO, 100);
+            CountDownLatch failed = new CountDownLatch(1);
+            AtomicReference<TelegramApiException> error = new AtomicReference<>();
+            queue.start(method -> {
+                throw new TelegramApiException("Bad Request: chat not found");
+            });
+
+            // When
+            queue.enqueue(CHAT_A, message(CHAT_A, "hello"), e -> {
+                error.set(e);
+                failed.countDown();
+            });
+
+            // Then
+            assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(error.get()).hasMessageContaining("chat not found");
+            assertThat(queue.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reject calls when queue is full")
+        void enqueue_QueueFull_ShouldReject() {
+            // Given
+            queue = createQueue(Duration.ZERO, 2);
+
+            // When
+            boolean first = queue.enqueue(CHAT_A, message(CHAT_A, "1"));
+            boolean second = queue.enqueue(CHAT_A, message(CHAT_A, "2"));
+            boolean third = queue.enqueue(CHAT_A, message(CHAT_A, "3"));
+
+            // Then
+            assertThat(first).isTrue();
+            assertThat(second).isTrue();
+            assertThat(third).isFalse();
+            assertThat(meterRegistry.get("telegram.outbound.queue.size").gauge().value()).isEqualTo(2.0);
+        }
+    }
+
+    private static TelegramApiRequestException tooManyRequests(int retryAfterSeconds) {
+        ResponseParameters parameters = new ResponseParameters();
+        parameters.setRetryAfter(retryAfterSeconds);
+        @SuppressWarnings("unchecked")
+        ApiResponse<Object> response = mock(ApiResponse.class);
+        when(response.getErrorCode()).thenReturn(429);
+        when(response.getErrorDescription()).thenReturn("Too Many Requests: retry after " + retryAfterSeconds);
+        when(response.getParameters()).thenReturn(parameters);
+        return new TelegramApiRequestException("Error sending message", response);
+    }
+}